@@ -0,0 +1,63 @@
+/*
+  Copyright 2013 the original author or authors.
+
+  Licensed under the Apache License, Version 2.0 the "License";
+  you may not use this file except in compliance with the License.
+  You may obtain a copy of the License at
+
+  http://www.apache.org/licenses/LICENSE-2.0
+
+  Unless required by applicable law or agreed to in writing, software
+  distributed under the License is distributed on an "AS IS" BASIS,
+  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+  See the License for the specific language governing permissions and
+  limitations under the License.
+*/
+
+package io.neba.api.annotations;
+
+import java.lang.annotation.Documented;
+import java.lang.annotation.Retention;
+import java.lang.annotation.Target;
+
+import static java.lang.annotation.ElementType.ANNOTATION_TYPE;
+import static java.lang.annotation.ElementType.TYPE;
+import static java.lang.annotation.RetentionPolicy.RUNTIME;
+
+/**
+ * Declares that a &#64;{@link ResourceModel} is not altered after it was mapped and does not depend on
+ * request state, such as the current request, the resource resolver or the resource it was adapted from.
+ * Such a model may be shared across requests: NEBA's shared resource model cache retains it for all subsequent
+ * adaptations of the same resource, by any resource resolver of the same user, until the resource or any
+ * resource below it is changed or removed.
+ * <br />
+ * Example:
+ * <p>
+ * <pre>
+ * &#64;{@link ResourceModel}(types = "/my/site/navigation")
+ * &#64;{@link Immutable}
+ * public class Navigation {
+ *    private String title;
+ *    ...
+ * }
+ * </pre>
+ * </p>
+ * The following applies to immutable models:
+ * <ul>
+ *     <li>The model must only represent content at or below the resource it is adapted from. Changes to other
+ *     resources, e.g. the targets of a &#64;{@link Reference}, do not invalidate the cached model.</li>
+ *     <li>Models {@link ResourceModel#mapFieldsOnDemand() mapped on demand} and models with lazy-loading fields,
+ *     i.e. fields of type {@link io.neba.api.resourcemodels.Lazy}, &#64;{@link Children} or collections
+ *     of &#64;{@link Reference references}, are never shared, as they depend on the resource resolver
+ *     they were adapted with.</li>
+ *     <li>Likewise, models retaining a resource, e.g. using &#64;{@link This}, a resource resolver, value map or node,
+ *     or containing models that are not shared themselves, are never shared.</li>
+ * </ul>
+ *
+ * @author Olaf Otto
+ */
+@Documented
+@Retention(RUNTIME)
+@Target({TYPE, ANNOTATION_TYPE})
+public @interface Immutable {
+}
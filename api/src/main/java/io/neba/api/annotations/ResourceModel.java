@@ -106,4 +106,27 @@ public @interface ResourceModel {
      * "nt:base", "mix:versionable".
      */
     String[] types();
+
+    /**
+     * Whether to map the fields of the model on demand rather than upon adaptation. The model is then provided as
+     * an enhanced subclass mapping a field the first time the getter of the field (<code>getX()</code> or
+     * <code>isX()</code> for a field <code>x</code>) is invoked. Invoking any other public method of the model maps
+     * all fields not yet mapped before the method is invoked. Thus, a model used by a view that only invokes
+     * a few of many getters only maps the fields required by the view.
+     * <br />
+     * The following applies to models mapped on demand:
+     * <ul>
+     *     <li>A getter of a field must only access this field, as the other fields may not have been mapped yet.
+     *     Likewise, final methods are not intercepted and must thus not access mapped fields.</li>
+     *     <li>&#64;{@link PreMapping} methods are invoked before any field is mapped.</li>
+     *     <li>Models with &#64;{@link PostMapping} methods are always mapped upon adaptation,
+     *     since these methods may access any field. This is equivalent to mapping
+     *     all fields on demand before the &#64;{@link PostMapping} methods are invoked.</li>
+     *     <li>Final classes and models already proxied upon instantiation, e.g. by spring AOP, are always mapped
+     *     upon adaptation.</li>
+     *     <li>Fields are mapped using the resource resolver of the adapted resource. Thus, a model must only be
+     *     accessed while the resource resolver is open, e.g. during the request the model was adapted in.</li>
+     * </ul>
+     */
+    boolean mapFieldsOnDemand() default false;
 }
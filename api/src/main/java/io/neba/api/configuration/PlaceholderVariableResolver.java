@@ -16,13 +16,41 @@
 
 package io.neba.api.configuration;
 
+import static io.neba.api.configuration.PlaceholderVariableResolver.CachingScope.UNCACHED;
+
 /**
  * A source for values of variables of the form
  * <pre>${key}</pre>.
+ * <br />
+ * Resolvers may declare a {@link #getCachingScope() caching scope} for the values they resolve. Expressions
+ * such as {@link io.neba.api.annotations.Path} values are then only resolved once per scope, rather than
+ * each time a resource model is mapped.
  * 
  * @author Olaf Otto
  */
 public interface PlaceholderVariableResolver {
+    /**
+     * Defines how long the values resolved by a {@link PlaceholderVariableResolver} remain valid.
+     * The scopes are declared in ascending order of volatility.
+     *
+     * @author Olaf Otto
+     */
+    enum CachingScope {
+        /**
+         * The resolved value of a variable never changes during the lifetime of the resolver.
+         */
+        STATIC,
+        /**
+         * The resolved value of a variable does not change during a request, e.g.
+         * as it is derived from the requested resource.
+         */
+        REQUEST,
+        /**
+         * The value of a variable must be resolved each time it is used.
+         */
+        UNCACHED
+    }
+
     /**
      * Invoked to resolve variables of the form ${name}.
      * Example: For ${name}, invoked with "name".
@@ -31,4 +59,12 @@ public interface PlaceholderVariableResolver {
      * variable name.
      */
 	String resolve(String variableName);
+
+    /**
+     * @return the scope in which the values resolved by this resolver may be cached. Defaults to
+     * {@link CachingScope#UNCACHED}.
+     */
+    default CachingScope getCachingScope() {
+        return UNCACHED;
+    }
 }
@@ -0,0 +1,74 @@
+/*
+  Copyright 2013 the original author or authors.
+
+  Licensed under the Apache License, Version 2.0 the "License";
+  you may not use this file except in compliance with the License.
+  You may obtain a copy of the License at
+
+  http://www.apache.org/licenses/LICENSE-2.0
+
+  Unless required by applicable law or agreed to in writing, software
+  distributed under the License is distributed on an "AS IS" BASIS,
+  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+  See the License for the specific language governing permissions and
+  limitations under the License.
+*/
+
+package io.neba.api.resourcemodels;
+
+import java.util.concurrent.Callable;
+import java.util.concurrent.Executor;
+
+/**
+ * The NEBA state of a request, {@link RequestContextProvider#getRequestContext() captured} in the thread processing
+ * the request. By default, this state is bound to the request thread. Thus, models mapped in other threads, e.g.
+ * worker threads rendering independent regions of a page, neither share the request-scoped resource model cache
+ * nor the request scope. Tasks {@link #wrap(Runnable) wrapped} by this context run with the captured state:
+ *
+ * <ul>
+ *   <li>They share the request-scoped resource model cache with the request and all other tasks of the request.</li>
+ *   <li>They share the request and locale of the request, e.g. to access request-scoped beans.</li>
+ *   <li>Each task tracks its own nested mappings, i.e. resolves cyclic mappings independently of other tasks.</li>
+ * </ul>
+ *
+ * The state of the executing thread is restored once a task completes. Tasks must complete before the processing
+ * of the request completes, e.g. the request thread must await the results of the tasks.
+ *
+ * <p>
+ * Note that tasks share the {@link org.apache.sling.api.resource.ResourceResolver resource resolver} of the request,
+ * and thus its JCR session, whenever they access resources of the request, e.g. models cached for the request or
+ * mapped from resources resolved by the request. Neither the resource resolver nor the JCR session are thread-safe.
+ * Tasks must thus either use their own resource resolver, e.g. one obtained from the
+ * {@link org.apache.sling.api.resource.ResourceResolverFactory}, or must not run concurrently on the resource
+ * resolver of the request.
+ * </p>
+ *
+ * <p>
+ * Example:
+ * <pre>
+ *   RequestContext context = requestContextProvider.getRequestContext();
+ *   Future&lt;Teaser&gt; teaser = executor.submit(context.wrap(() -&gt; teaserResource.adaptTo(Teaser.class)));
+ * </pre>
+ * </p>
+ *
+ * @author Olaf Otto
+ */
+public interface RequestContext {
+    /**
+     * @param task must not be <code>null</code>.
+     * @return a task running the given task within this context. Can be executed in any thread. Never <code>null</code>.
+     */
+    Runnable wrap(Runnable task);
+
+    /**
+     * @param task must not be <code>null</code>.
+     * @return a task calling the given task within this context. Can be executed in any thread. Never <code>null</code>.
+     */
+    <T> Callable<T> wrap(Callable<T> task);
+
+    /**
+     * @param executor must not be <code>null</code>.
+     * @return an executor running all tasks of the given executor within this context. Never <code>null</code>.
+     */
+    Executor wrap(Executor executor);
+}
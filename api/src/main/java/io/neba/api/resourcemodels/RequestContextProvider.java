@@ -0,0 +1,32 @@
+/*
+  Copyright 2013 the original author or authors.
+
+  Licensed under the Apache License, Version 2.0 the "License";
+  you may not use this file except in compliance with the License.
+  You may obtain a copy of the License at
+
+  http://www.apache.org/licenses/LICENSE-2.0
+
+  Unless required by applicable law or agreed to in writing, software
+  distributed under the License is distributed on an "AS IS" BASIS,
+  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+  See the License for the specific language governing permissions and
+  limitations under the License.
+*/
+
+package io.neba.api.resourcemodels;
+
+/**
+ * Captures the {@link RequestContext} of the current thread in order to map models in other threads,
+ * such as worker threads or executors. Published as an OSGi service by NEBA.
+ *
+ * @author Olaf Otto
+ */
+public interface RequestContextProvider {
+    /**
+     * @return the context of the request processed by the current thread. If the current thread
+     *         does not process a request, tasks running within the returned context only track their own
+     *         nested mappings. Never <code>null</code>.
+     */
+    RequestContext getRequestContext();
+}
@@ -0,0 +1,102 @@
+/*
+  Copyright 2013 the original author or authors.
+
+  Licensed under the Apache License, Version 2.0 the "License";
+  you may not use this file except in compliance with the License.
+  You may obtain a copy of the License at
+
+  http://www.apache.org/licenses/LICENSE-2.0
+
+  Unless required by applicable law or agreed to in writing, software
+  distributed under the License is distributed on an "AS IS" BASIS,
+  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+  See the License for the specific language governing permissions and
+  limitations under the License.
+*/
+
+package io.neba.api.resourcemodels;
+
+import org.apache.sling.api.resource.Resource;
+
+/**
+ * The outcome of resolving the model of a single resource in a batch, see
+ * {@link ResourceModelProvider#resolveMostSpecificModels(Iterable)} and
+ * {@link ResourceModelProvider#resolveModels(Iterable, Class)}. Either provides the model, which
+ * is <code>null</code> if the resource has no suitable model, or the {@link #getFailure() failure} that
+ * occurred while resolving the model.
+ *
+ * @param <T> the model type.
+ * @author Olaf Otto
+ */
+public final class ResolvedModel<T> {
+    private final Resource resource;
+    private final T model;
+    private final RuntimeException failure;
+
+    /**
+     * @param resource the resource the model was resolved for. Can be <code>null</code>.
+     * @param model the resolved model. Can be <code>null</code>.
+     */
+    public static <T> ResolvedModel<T> resolved(Resource resource, T model) {
+        return new ResolvedModel<>(resource, model, null);
+    }
+
+    /**
+     * @param resource the resource the model could not be resolved for. Can be <code>null</code>.
+     * @param failure the cause. Must not be <code>null</code>.
+     */
+    public static <T> ResolvedModel<T> failed(Resource resource, RuntimeException failure) {
+        if (failure == null) {
+            throw new IllegalArgumentException("Method argument failure must not be null.");
+        }
+        return new ResolvedModel<>(resource, null, failure);
+    }
+
+    private ResolvedModel(Resource resource, T model, RuntimeException failure) {
+        this.resource = resource;
+        this.model = model;
+        this.failure = failure;
+    }
+
+    /**
+     * @return the resource the model was resolved for. Can only be <code>null</code> if
+     *         the batch contained <code>null</code>, which is reported as a {@link #getFailure() failure}.
+     */
+    public Resource getResource() {
+        return resource;
+    }
+
+    /**
+     * @return the model, or <code>null</code> if there is no suitable model or the resolution {@link #isFailed() failed}.
+     */
+    public T getModel() {
+        return model;
+    }
+
+    /**
+     * @return whether a model was resolved.
+     */
+    public boolean isPresent() {
+        return model != null;
+    }
+
+    /**
+     * @return whether resolving the model failed.
+     */
+    public boolean isFailed() {
+        return failure != null;
+    }
+
+    /**
+     * @return the exception that occurred while resolving the model, or <code>null</code>.
+     */
+    public RuntimeException getFailure() {
+        return failure;
+    }
+
+    @Override
+    public String toString() {
+        return getClass().getSimpleName() + " [" + (resource == null ? null : resource.getPath()) + " -> " +
+               (failure == null ? model : failure) + ']';
+    }
+}
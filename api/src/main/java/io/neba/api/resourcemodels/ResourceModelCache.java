@@ -31,12 +31,16 @@ import org.apache.sling.api.resource.Resource;
  * It will automatically be detected by NEBA. You may provide any number of caches. NEBA
  * will always attempt to retrieve a cached model from all of them. The first cache 
  * {@link #get(Object) providing} a non-<code>null</code> model wins.
- * There is no guarantee concerning the order in which caches are invoked.<br />
- * Likewise, a model will be {@link #put(Resource, Object, Object) stored} in all available caches.
+ * Caches are invoked in the order of their {@link #TIER tier} service property. Caches without a tier
+ * are invoked last, in no guaranteed order. A model found in a cache is promoted, i.e.
+ * {@link #put(Resource, Object, Object) stored} in all caches of the preceding tiers.<br />
+ * Likewise, a model will be {@link #put(Resource, Object, Object) stored} in all available caches
+ * admitting it, see {@link #ADMITTED_TYPES} and {@link #MAXIMUM_MODEL_WEIGHT}.
  * 
  * <h2>Default implementations shipped with NEBA</h2>
  * NEBA comes with a sensible default implementation of this cache, the <em>request-scoped resource model cache</em>,
- * which is configurable via the Apache Felix console.<br />
+ * which is configurable via the Apache Felix console. In addition, the <em>shared resource model cache</em> retains
+ * {@link io.neba.api.annotations.Immutable immutable} models across requests.<br />
  * 
  * <h2>Architecture considerations when providing a custom cache implementation</h2>
  * Caching is hard. You must be aware that correctly scoping, i.e. expiring objects
@@ -53,6 +57,25 @@ import org.apache.sling.api.resource.Resource;
  * @author Olaf Otto
  */
 public interface ResourceModelCache {
+	/**
+	 * Optional service property (integer) defining the tier of the cache. Caches in lower tiers are invoked first.
+	 * The request-scoped resource model cache shipped with NEBA is in tier 100, the shared resource model cache in tier 200.
+	 */
+	String TIER = "neba.resourcemodelcache.tier";
+
+	/**
+	 * Optional service property (string or string array) listing the fully qualified names of the model types
+	 * a cache admits. A model is admitted if its type, any of its super types or any of its interfaces is listed.
+	 * If absent, the cache admits all models.
+	 */
+	String ADMITTED_TYPES = "neba.resourcemodelcache.admittedTypes";
+
+	/**
+	 * Optional service property (integer) defining the maximum weight, i.e. the maximum number of mapped fields,
+	 * of the models a cache admits. If absent or not positive, the weight of the models is not restricted.
+	 */
+	String MAXIMUM_MODEL_WEIGHT = "neba.resourcemodelcache.maximumModelWeight";
+
 	/**
 	 * Retrieve a cached model.
 	 * 
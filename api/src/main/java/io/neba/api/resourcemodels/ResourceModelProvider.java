@@ -2,6 +2,8 @@ package io.neba.api.resourcemodels;
 
 import org.apache.sling.api.resource.Resource;
 
+import java.util.stream.Stream;
+
 /**
  * @author Olaf Otto
  */
@@ -30,4 +32,30 @@ public interface ResourceModelProvider {
      *         or nt:base are considered.
      */
     Object resolveMostSpecificModelIncludingModelsForBaseTypes(Resource resource);
+
+    /**
+     * Resolves the {@link #resolveMostSpecificModel(Resource) most specific model} of each of the given resources,
+     * e.g. the items of a list. The models are resolved lazily, i.e. when the returned stream is consumed, in the
+     * order of the resources. The models of resources with the same types are looked up once per batch.
+     * A failure to resolve the model of a resource is reported by the respective {@link ResolvedModel} and does
+     * not affect the other resources.
+     *
+     * @param resources must not be <code>null</code>.
+     * @return a sequential stream with a {@link ResolvedModel} for each resource. Never <code>null</code>.
+     */
+    Stream<ResolvedModel<Object>> resolveMostSpecificModels(Iterable<Resource> resources);
+
+    /**
+     * Resolves the model of each of the given resources {@link Resource#adaptTo(Class) adapted} to the target type,
+     * e.g. the items of a list. The models are resolved lazily, i.e. when the returned stream is consumed, in the
+     * order of the resources. The models of resources with the same types are looked up once per batch.
+     * A failure to resolve the model of a resource, for instance if there is more than one most specific
+     * model with the target type, is reported by the respective {@link ResolvedModel} and does not affect the
+     * other resources.
+     *
+     * @param resources must not be <code>null</code>.
+     * @param targetType must not be <code>null</code>.
+     * @return a sequential stream with a {@link ResolvedModel} for each resource. Never <code>null</code>.
+     */
+    <T> Stream<ResolvedModel<T>> resolveModels(Iterable<Resource> resources, Class<T> targetType);
 }
@@ -15,6 +15,7 @@
  */
 package io.neba.core.mvc;
 
+import io.neba.core.resourcemodels.registration.ResourceTypeHierarchyGraph;
 import io.neba.core.web.WebApplicationContextAdapter;
 import org.apache.sling.api.servlets.ServletResolver;
 import org.springframework.beans.factory.config.ConfigurableListableBeanFactory;
@@ -57,11 +58,13 @@ public class BundleSpecificDispatcherServlet extends DispatcherServlet implement
     private final ServletConfig servletConfig;
     private final ConfigurableListableBeanFactory factory;
     private final ServletResolver servletResolver;
+    private final ResourceTypeHierarchyGraph typeHierarchyGraph;
 
     private boolean initialized = false;
 
     public BundleSpecificDispatcherServlet(ServletConfig servletConfig,
                                            ServletResolver servletResolver,
+                                           ResourceTypeHierarchyGraph typeHierarchyGraph,
                                            ConfigurableListableBeanFactory factory) {
 
         super();
@@ -74,10 +77,14 @@ public class BundleSpecificDispatcherServlet extends DispatcherServlet implement
         if (servletResolver == null) {
             throw new IllegalArgumentException("method parameter servletResolver must not be null");
         }
+        if (typeHierarchyGraph == null) {
+            throw new IllegalArgumentException("method parameter typeHierarchyGraph must not be null");
+        }
 
         this.servletConfig = servletConfig;
         this.factory = factory;
         this.servletResolver = servletResolver;
+        this.typeHierarchyGraph = typeHierarchyGraph;
 
         setPublishEvents(true);
         setDispatchOptionsRequest(true);
@@ -191,7 +198,7 @@ public class BundleSpecificDispatcherServlet extends DispatcherServlet implement
     private void addNebaViewResolver() {
         this.factory.registerSingleton(
                 generateBeanNameFor(NebaViewResolver.class),
-                new NebaViewResolver(this.servletResolver));
+                new NebaViewResolver(this.servletResolver, this.typeHierarchyGraph));
     }
 
     /**
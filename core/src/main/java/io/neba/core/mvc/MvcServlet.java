@@ -16,6 +16,7 @@
 
 package io.neba.core.mvc;
 
+import io.neba.core.resourcemodels.registration.ResourceTypeHierarchyGraph;
 import org.apache.sling.api.SlingHttpServletRequest;
 import org.apache.sling.api.SlingHttpServletResponse;
 import org.apache.sling.api.servlets.ServletResolver;
@@ -65,6 +66,8 @@ public class MvcServlet extends SlingAllMethodsServlet {
     private ServletContext servletContext;
     @Autowired
     private ServletResolver servletResolver;
+    @Autowired
+    private ResourceTypeHierarchyGraph typeHierarchyGraph;
 
     /**
      * Enables MVC capabilities in the given factory by injecting a {@link BundleSpecificDispatcherServlet}.
@@ -100,7 +103,7 @@ public class MvcServlet extends SlingAllMethodsServlet {
 
     protected BundleSpecificDispatcherServlet createBundleSpecificDispatcherServlet(ConfigurableListableBeanFactory factory, BundleContext context) {
         BundleAwareServletConfig bundleAwareServletConfig = new BundleAwareServletConfig(context);
-        return new BundleSpecificDispatcherServlet(bundleAwareServletConfig, this.servletResolver, factory);
+        return new BundleSpecificDispatcherServlet(bundleAwareServletConfig, this.servletResolver, this.typeHierarchyGraph, factory);
     }
 
     @Override
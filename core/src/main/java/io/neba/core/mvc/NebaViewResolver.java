@@ -15,6 +15,7 @@
  */
 package io.neba.core.mvc;
 
+import io.neba.core.resourcemodels.registration.ResourceTypeHierarchyGraph;
 import org.apache.sling.api.SlingException;
 import org.apache.sling.api.SlingHttpServletRequest;
 import org.apache.sling.api.resource.ResourceResolver;
@@ -40,15 +41,21 @@ import static org.springframework.web.servlet.view.UrlBasedViewResolver.REDIRECT
  */
 public class NebaViewResolver implements ViewResolver, Ordered {
     private final ServletResolver servletResolver;
+    private final ResourceTypeHierarchyGraph typeHierarchyGraph;
 
     /**
      * @param servletResolver must not be <code>null</code>.
+     * @param typeHierarchyGraph must not be <code>null</code>.
      */
-    public NebaViewResolver(ServletResolver servletResolver) {
+    public NebaViewResolver(ServletResolver servletResolver, ResourceTypeHierarchyGraph typeHierarchyGraph) {
         if (servletResolver == null) {
             throw new IllegalArgumentException("Method argument servletResolver must not be null.");
         }
+        if (typeHierarchyGraph == null) {
+            throw new IllegalArgumentException("Method argument typeHierarchyGraph must not be null.");
+        }
         this.servletResolver = servletResolver;
+        this.typeHierarchyGraph = typeHierarchyGraph;
     }
 
     /**
@@ -84,10 +91,9 @@ public class NebaViewResolver implements ViewResolver, Ordered {
         // However, invocation with a request relies on an undocumented and unstable API contract,
         // depending, amongst others, on the HTTP method, request path, suffix, selector and extension
         // of the request path, which cannot be leveraged for controller responses.
-        // Thus, the script is resolved explicitly.
-        String currentResourceType = resourceType;
-
-        do {
+        // Thus, the script is resolved explicitly. The type hierarchy is obtained from the shared
+        // type hierarchy graph rather than resolved for each view.
+        for (String currentResourceType : this.typeHierarchyGraph.hierarchyOf(resourceType, resourceResolver)) {
             int separatorPos = currentResourceType.lastIndexOf('/');
             if (separatorPos != -1) {
                 // Since the view resolution is not sensitive to request state, resolve the default view name
@@ -98,8 +104,7 @@ public class NebaViewResolver implements ViewResolver, Ordered {
                     return new SlingServletView(resourceType, servlet);
                 }
             }
-            currentResourceType = resourceResolver.getParentResourceType(currentResourceType);
-        } while (currentResourceType != null);
+        }
 
         return null;
     }
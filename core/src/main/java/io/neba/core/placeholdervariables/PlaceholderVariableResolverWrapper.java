@@ -17,25 +17,56 @@
 package io.neba.core.placeholdervariables;
 
 import io.neba.api.configuration.PlaceholderVariableResolver;
+import io.neba.api.configuration.PlaceholderVariableResolver.CachingScope;
+import io.neba.core.util.FrequencyAwareCache;
 import org.springframework.beans.factory.config.ConfigurableListableBeanFactory;
 import org.springframework.util.PropertyPlaceholderHelper;
 import org.springframework.util.PropertyPlaceholderHelper.PlaceholderResolver;
 import org.springframework.util.StringValueResolver;
+import org.springframework.web.context.request.RequestAttributes;
+
+import java.util.IdentityHashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+import static io.neba.api.configuration.PlaceholderVariableResolver.CachingScope.STATIC;
+import static io.neba.api.configuration.PlaceholderVariableResolver.CachingScope.UNCACHED;
+import static java.util.Collections.synchronizedMap;
+import static org.springframework.web.context.request.RequestAttributes.SCOPE_REQUEST;
+import static org.springframework.web.context.request.RequestContextHolder.getRequestAttributes;
 
 /**
  * Uses a {@link PlaceholderVariableResolver} as a {@link PlaceholderResolver} to enable
  * {@link PropertyPlaceholderHelper property-placeholder-style} substitution of ${variable}s.  
+ * <br />
+ * The resolved values of expressions are cached according to the {@link PlaceholderVariableResolver#getCachingScope() caching scope}
+ * of the resolver: Expressions resolved with a {@link CachingScope#STATIC static} resolver are resolved once, expressions resolved
+ * with a {@link CachingScope#REQUEST request-scoped} resolver are resolved once per request. Expressions without variables
+ * are cached statically.
  * 
  * @author Olaf Otto
  * @see PropertyPlaceholderHelper
  */
 public class PlaceholderVariableResolverWrapper implements StringValueResolver {
+    private static final String REQUEST_ATTRIBUTE = PlaceholderVariableResolverWrapper.class.getName() + ".resolvedValues";
+    /**
+     * Values resolved by preceding request-scoped resolvers may be part of the expressions resolved by a static resolver.
+     * Thus, the number of statically cached expressions is limited. Once the limit is reached, frequently used
+     * expressions displace rarely used ones, see {@link FrequencyAwareCache}.
+     */
+    private static final int MAX_STATICALLY_CACHED_EXPRESSIONS = 1024;
+
     /**
+     * Resolves variables using the resolver bean and retains the most volatile
+     * {@link PlaceholderVariableResolver#getCachingScope() caching scope} of the resolved values.
+     * Instances are used for the resolution of a single expression.
+     *
      * @author Olaf Otto
      */
     private static final class DispatchingPlaceholderResolver implements PlaceholderResolver {
         private final String resolverName;
         private final ConfigurableListableBeanFactory beanFactory;
+        private CachingScope scope = STATIC;
 
         private DispatchingPlaceholderResolver(String resolverName, ConfigurableListableBeanFactory beanFactory) {
             this.resolverName = resolverName;
@@ -45,20 +76,85 @@ public class PlaceholderVariableResolverWrapper implements StringValueResolver {
         @Override
         public String resolvePlaceholder(String variableName) {
             PlaceholderVariableResolver resolver = beanFactory.getBean(resolverName, PlaceholderVariableResolver.class);
+            CachingScope scope = resolver.getCachingScope();
+            if (scope == null) {
+                scope = UNCACHED;
+            }
+            if (scope.compareTo(this.scope) > 0) {
+                this.scope = scope;
+            }
             return resolver.resolve(variableName);
         }
     }
 
     private final PropertyPlaceholderHelper propertyPlaceholderHelper = new PropertyPlaceholderHelper("${", "}");
-    private final PlaceholderResolver resolver;
-    
+    private final FrequencyAwareCache<String, String> staticallyResolvedValues = new FrequencyAwareCache<>(MAX_STATICALLY_CACHED_EXPRESSIONS);
+    private final ConfigurableListableBeanFactory beanFactory;
+    private final String resolverName;
 
     public PlaceholderVariableResolverWrapper(final ConfigurableListableBeanFactory beanFactory,  final String resolverName) {
-        this.resolver = new DispatchingPlaceholderResolver(resolverName, beanFactory);
+        this.beanFactory = beanFactory;
+        this.resolverName = resolverName;
     }
 
     @Override
     public String resolveStringValue(String strVal) {
-        return this.propertyPlaceholderHelper.replacePlaceholders(strVal, this.resolver);
+        String value = this.staticallyResolvedValues.get(strVal);
+        if (value != null) {
+            return value;
+        }
+
+        final Map<String, String> valuesOfCurrentRequest = resolvedValuesOfCurrentRequest();
+        if (valuesOfCurrentRequest != null) {
+            value = valuesOfCurrentRequest.get(strVal);
+            if (value != null) {
+                return value;
+            }
+        }
+
+        DispatchingPlaceholderResolver resolver = new DispatchingPlaceholderResolver(this.resolverName, this.beanFactory);
+        value = this.propertyPlaceholderHelper.replacePlaceholders(strVal, resolver);
+
+        switch (resolver.scope) {
+            case STATIC:
+                if (value != null) {
+                    this.staticallyResolvedValues.put(strVal, value);
+                }
+                break;
+            case REQUEST:
+                if (valuesOfCurrentRequest != null && value != null) {
+                    valuesOfCurrentRequest.put(strVal, value);
+                }
+                break;
+            default:
+                break;
+        }
+
+        return value;
+    }
+
+    /**
+     * @return the values resolved by this wrapper during the current request, or <code>null</code> if there is no current request.
+     */
+    @SuppressWarnings("unchecked")
+    private Map<String, String> resolvedValuesOfCurrentRequest() {
+        final RequestAttributes attributes = getRequestAttributes();
+        if (attributes == null) {
+            return null;
+        }
+        // All wrappers share a request attribute. Wrappers are identified by identity as there is one wrapper per resolver bean.
+        Map<PlaceholderVariableResolverWrapper, Map<String, String>> valuesByWrapper =
+                (Map<PlaceholderVariableResolverWrapper, Map<String, String>>) attributes.getAttribute(REQUEST_ATTRIBUTE, SCOPE_REQUEST);
+        if (valuesByWrapper == null) {
+            // The request attributes may be shared with other threads, see io.neba.api.resourcemodels.RequestContext.
+            synchronized (attributes) {
+                valuesByWrapper = (Map<PlaceholderVariableResolverWrapper, Map<String, String>>) attributes.getAttribute(REQUEST_ATTRIBUTE, SCOPE_REQUEST);
+                if (valuesByWrapper == null) {
+                    valuesByWrapper = synchronizedMap(new IdentityHashMap<>());
+                    attributes.setAttribute(REQUEST_ATTRIBUTE, valuesByWrapper, SCOPE_REQUEST);
+                }
+            }
+        }
+        return valuesByWrapper.computeIfAbsent(this, wrapper -> new ConcurrentHashMap<>());
     }
-}
\ No newline at end of file
+}
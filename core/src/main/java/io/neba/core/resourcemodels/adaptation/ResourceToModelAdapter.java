@@ -74,15 +74,6 @@ public class ResourceToModelAdapter implements AdapterFactory {
 
         OsgiBeanSource<?> source = models.iterator().next().getSource();
 
-        T model = this.caches.lookup(resource, source);
-        if (model != null) {
-            return model;
-        }
-
-        model = (T) this.mapper.map(resource, source);
-
-        this.caches.store(resource, source, model);
-
-        return model;
+        return this.caches.lookupOrMap(resource, source, () -> (T) this.mapper.map(resource, source));
     }
 }
\ No newline at end of file
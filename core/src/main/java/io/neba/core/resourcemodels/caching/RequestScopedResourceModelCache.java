@@ -18,6 +18,7 @@ package io.neba.core.resourcemodels.caching;
 
 import io.neba.api.resourcemodels.ResourceModelCache;
 import io.neba.core.util.Key;
+import io.neba.core.util.ThreadContextSnapshot;
 import org.apache.commons.lang.StringUtils;
 import org.apache.sling.api.SlingHttpServletRequest;
 import org.apache.sling.api.request.RequestPathInfo;
@@ -39,18 +40,61 @@ import java.util.Map;
  * A request-scoped {@link ResourceModelCache}. Models added to this cache may either be cached for the entire
  * request regardless of state changes (selectors, suffixes, extension, query string...)
  * during the request processing, or in a request-state sensitive manner (see {@link #setSafeMode(boolean)}).
+ * <br />
+ * The cache of a request is only allocated once the first model is {@link #put(Resource, Object, Object) added}, such that
+ * requests not adapting any resource, e.g. requests to static assets, do not allocate it.
+ * <br />
+ * The request state only changes when the request is dispatched, i.e. included or forwarded. This filter is thus
+ * invoked for the initial request as well as for includes, forwards and error handling.
+ * In safe mode, it determines the state of the request once per dispatch, and caches the models separately per state.
+ * <br />
+ * The request state can be {@link #captureRequestState() captured} and bound to other threads mapping models
+ * on behalf of the request. These threads share the cache of the request.
  *
  * @author Olaf Otto
  */
 public class RequestScopedResourceModelCache implements ResourceModelCache, Filter {
-    private final ThreadLocal<Map<Object, Object>> cacheHolder = new ThreadLocal<>();
-    private final ThreadLocal<SlingHttpServletRequest> requestHolder = new ThreadLocal<>();
+    // The caches grow as required, most requests only cache a few dozen models.
+    private static final int INITIAL_CACHE_CAPACITY = 32;
+
+    /**
+     * The lazily allocated caches of a request.
+     *
+     * @author Olaf Otto
+     */
+    private static class RequestCaches {
+        private Map<Object, Object> cache;
+        // Safe mode: The caches per request state.
+        private Map<Key, Map<Object, Object>> cachesByRequestState;
+        // Set once the caches are shared with other threads. From then on, the caches are only accessed while holding this monitor.
+        private boolean shared;
+    }
+
+    /**
+     * The state of the current request as seen by the current thread: The request of the current dispatch and the caches of the request.
+     *
+     * @author Olaf Otto
+     */
+    private static class RequestState {
+        private final RequestCaches caches;
+        private SlingHttpServletRequest request;
+        // Safe mode: The state of the current dispatch and its cache.
+        private Key currentRequestState;
+        private Map<Object, Object> cacheOfCurrentRequestState;
+
+        private RequestState(RequestCaches caches, SlingHttpServletRequest request) {
+            this.caches = caches;
+            this.request = request;
+        }
+    }
+
+    private final ThreadLocal<RequestState> requestState = new ThreadLocal<>();
     private final Logger logger = LoggerFactory.getLogger(getClass());
     private boolean enabled = true;
     private boolean safeMode = false;
 
     /**
-     * Returns the key for a cacheHolder. If the key changes, the cacheHolder will be cleared.
+     * Returns a key representing the state of the request. In safe mode, cached models are scoped to this state.
      * The key consists of:
      * <ul><li>The current resources page</li>
      * <li>the selector string</li>
@@ -81,15 +125,24 @@ public class RequestScopedResourceModelCache implements ResourceModelCache, Filt
             return null;
         }
 
-        T model = null;
-        Map<Object, T> cache = (Map<Object, T>) this.cacheHolder.get();
-        if (cache == null) {
+        final RequestState state = this.requestState.get();
+        if (state == null) {
             this.logger.debug("No cache found, the cache will not be used.");
-        } else {
-            Object internalKey = createInternalKey(key);
-            model = cache.get(internalKey);
+            return null;
         }
-        return model;
+
+        if (state.caches.shared) {
+            synchronized (state.caches) {
+                return (T) get(state, key);
+            }
+        }
+        return (T) get(state, key);
+    }
+
+    private Object get(RequestState state, Object key) {
+        final Map<Object, Object> cache = cacheOf(state, false);
+        // The cache is null if nothing was cached during this request yet.
+        return cache == null ? null : cache.get(key);
     }
 
     /**
@@ -106,15 +159,23 @@ public class RequestScopedResourceModelCache implements ResourceModelCache, Filt
         if (key == null) {
             throw new IllegalStateException("Method argument key must not be null.");
         }
-        if (this.enabled) {
-            Map<Object, Object> cache = this.cacheHolder.get();
-            if (cache == null) {
-                this.logger.debug("No cache found, the cache will not be used.");
-            } else {
-                Object internalKey = createInternalKey(key);
-                cache.put(internalKey, model);
+        if (!this.enabled) {
+            return;
+        }
+
+        final RequestState state = this.requestState.get();
+        if (state == null) {
+            this.logger.debug("No cache found, the cache will not be used.");
+            return;
+        }
+
+        if (state.caches.shared) {
+            synchronized (state.caches) {
+                cacheOf(state, true).put(key, model);
             }
+            return;
         }
+        cacheOf(state, true).put(key, model);
     }
 
     /**
@@ -132,17 +193,73 @@ public class RequestScopedResourceModelCache implements ResourceModelCache, Filt
         }
         final SlingHttpServletRequest slingHttpServletRequest = (SlingHttpServletRequest) request;
 
-        this.requestHolder.set(slingHttpServletRequest);
-        this.cacheHolder.set(new HashMap<>(1024));
+        final RequestState state = this.requestState.get();
+        if (state != null) {
+            dispatch(state, slingHttpServletRequest, response, chain);
+            return;
+        }
+
+        this.requestState.set(new RequestState(new RequestCaches(), slingHttpServletRequest));
 
         try {
             chain.doFilter(slingHttpServletRequest, response);
         } finally {
-            this.cacheHolder.remove();
-            this.requestHolder.remove();
+            this.requestState.remove();
+        }
+    }
+
+    /**
+     * The request is included, forwarded or dispatched to an error handler. The models cached so far remain
+     * cached. In safe mode, the state of the dispatched request is determined upon the next cache access,
+     * and the state of the dispatching request is restored afterwards.
+     */
+    private void dispatch(RequestState state, SlingHttpServletRequest request, ServletResponse response, FilterChain chain) throws IOException, ServletException {
+        final SlingHttpServletRequest dispatchingRequest = state.request;
+        final Key dispatchingRequestState = state.currentRequestState;
+        final Map<Object, Object> cacheOfDispatchingRequestState = state.cacheOfCurrentRequestState;
+
+        state.request = request;
+        state.currentRequestState = null;
+        state.cacheOfCurrentRequestState = null;
+
+        try {
+            chain.doFilter(request, response);
+        } finally {
+            state.request = dispatchingRequest;
+            state.currentRequestState = dispatchingRequestState;
+            state.cacheOfCurrentRequestState = cacheOfDispatchingRequestState;
         }
     }
 
+    /**
+     * Captures the request state of the current thread. Threads the state is {@link ThreadContextSnapshot#bind() bound} to
+     * share the cache of the request. In safe mode, they cache models in the state of the request at the time of capture.
+     *
+     * @return the captured state, or <code>null</code> if the current thread does not process a request.
+     */
+    public ThreadContextSnapshot captureRequestState() {
+        final RequestState state = this.requestState.get();
+        if (state == null) {
+            return null;
+        }
+
+        final RequestCaches caches = state.caches;
+        final SlingHttpServletRequest request = state.request;
+        caches.shared = true;
+
+        return () -> {
+            final RequestState previousState = this.requestState.get();
+            this.requestState.set(new RequestState(caches, request));
+            return () -> {
+                if (previousState == null) {
+                    this.requestState.remove();
+                } else {
+                    this.requestState.set(previousState);
+                }
+            };
+        };
+    }
+
     @Override
     public void init(FilterConfig filterConfig) throws ServletException {
         // ignore
@@ -154,20 +271,36 @@ public class RequestScopedResourceModelCache implements ResourceModelCache, Filt
     }
 
     /**
-     * The externally provided key may be wrapped to add more key elements in order
-     * to restrict the cached object's scope to a specific component when safe mode is enabled.
+     * In {@link #safeMode}, cached models are scoped to the state of the request they were cached in, see {@link #toKey(SlingHttpServletRequest)}.
+     * The state is determined once per dispatch.
      *
-     * @return A request-state sensitive key in {@link #safeMode}, the original key otherwise.
+     * @param create whether to allocate the cache if it does not exist yet.
+     * @return the cache of the request, or of the current request state in safe mode. Only <code>null</code> if not created.
      */
-    private Object createInternalKey(Object key) {
-        if (this.safeMode) {
-            // Create a request-state sensitive key to scope the cached model to a request with specific parameters.
-            final SlingHttpServletRequest request = this.requestHolder.get();
-            if (request != null) {
-                return new Key(key, toKey(request));
+    private Map<Object, Object> cacheOf(RequestState state, boolean create) {
+        final RequestCaches caches = state.caches;
+        if (!this.safeMode) {
+            if (caches.cache == null && create) {
+                caches.cache = new HashMap<>(INITIAL_CACHE_CAPACITY);
+            }
+            return caches.cache;
+        }
+
+        if (state.currentRequestState == null) {
+            state.currentRequestState = toKey(state.request);
+        }
+        // The cache of the request state may have been created by another thread sharing the caches.
+        if (state.cacheOfCurrentRequestState == null && caches.cachesByRequestState != null) {
+            state.cacheOfCurrentRequestState = caches.cachesByRequestState.get(state.currentRequestState);
+        }
+        if (state.cacheOfCurrentRequestState == null && create) {
+            if (caches.cachesByRequestState == null) {
+                caches.cachesByRequestState = new HashMap<>();
             }
+            state.cacheOfCurrentRequestState = new HashMap<>(INITIAL_CACHE_CAPACITY);
+            caches.cachesByRequestState.put(state.currentRequestState, state.cacheOfCurrentRequestState);
         }
-        return key;
+        return state.cacheOfCurrentRequestState;
     }
 
     public void setEnabled(boolean enabled) {
@@ -56,9 +56,10 @@ public class RequestScopedResourceModelCacheConfiguration {
             description = "In safemode, caching is sensitive to the current page resource and request parameters " +
                           "such as selectors, suffix, extension and the query string. Should @ResourceModels erroneously cache such state, " +
                           "e.g. by initializing the corresponding value once in a @PostMapping method, safemode prevents errors caused " +
-                          "when performing subsequent internal changes to the request state (e.g. during forwards and includes). Note that " +
-                          "enabling this feature is likely to a significant negative performance impact. It is highly recommended to disable " +
-                          "safemode in favor of safe-to-cache @ResourceModels.",
+                          "when performing subsequent internal changes to the request state (e.g. during forwards and includes). " +
+                          "The request state is determined once per request, include and forward, thus safemode adds little overhead. " +
+                          "However, models are cached separately per request state and are thus reused less often. " +
+                          "It is recommended to disable safemode in favor of safe-to-cache @ResourceModels.",
             boolValue = false)
     public static final String SAFEMODE = "safeMode";
 }
\ No newline at end of file
@@ -0,0 +1,67 @@
+/*
+  Copyright 2013 the original author or authors.
+
+  Licensed under the Apache License, Version 2.0 the "License";
+  you may not use this file except in compliance with the License.
+  You may obtain a copy of the License at
+
+  http://www.apache.org/licenses/LICENSE-2.0
+
+  Unless required by applicable law or agreed to in writing, software
+  distributed under the License is distributed on an "AS IS" BASIS,
+  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+  See the License for the specific language governing permissions and
+  limitations under the License.
+*/
+
+package io.neba.core.resourcemodels.caching;
+
+import io.neba.core.util.Key;
+import org.apache.sling.api.resource.Resource;
+import org.apache.sling.api.resource.ResourceResolver;
+
+/**
+ * The key of a model in the {@link io.neba.api.resourcemodels.ResourceModelCache resource model caches}.
+ * Identifies the model by the path and type of the adapted resource, the model type and the identity
+ * of the resource resolver the model was adapted with. In addition, the key provides a
+ * {@link #getSharedKey() key} identifying the model regardless of the resource resolver
+ * to caches {@link SharedResourceModelCache sharing models across requests}.
+ *
+ * @author Olaf Otto
+ */
+class ResourceModelCacheKey extends Key {
+    private final String path;
+    private final Class<?> modelType;
+    private final String resourceType;
+    private final ResourceResolver resourceResolver;
+
+    ResourceModelCacheKey(Resource resource, Class<?> modelType) {
+        this(resource.getPath(), modelType, resource.getResourceType(), resource.getResourceResolver());
+    }
+
+    private ResourceModelCacheKey(String path, Class<?> modelType, String resourceType, ResourceResolver resourceResolver) {
+        super(path, modelType, resourceType, resourceResolver.hashCode());
+        this.path = path;
+        this.modelType = modelType;
+        this.resourceType = resourceType;
+        this.resourceResolver = resourceResolver;
+    }
+
+    String getPath() {
+        return this.path;
+    }
+
+    Class<?> getModelType() {
+        return this.modelType;
+    }
+
+    /**
+     * @return a key identifying the model by the path and type of the resource, the model type and the
+     *         user of the resource resolver, i.e. the access control context the model was adapted in,
+     *         or <code>null</code> if the resource resolver does not provide a user ID.
+     */
+    Key getSharedKey() {
+        String userId = this.resourceResolver.getUserID();
+        return userId == null ? null : new Key(this.path, this.modelType, this.resourceType, userId);
+    }
+}
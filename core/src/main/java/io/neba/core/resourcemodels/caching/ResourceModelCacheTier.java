@@ -0,0 +1,238 @@
+/*
+  Copyright 2013 the original author or authors.
+
+  Licensed under the Apache License, Version 2.0 the "License";
+  you may not use this file except in compliance with the License.
+  You may obtain a copy of the License at
+
+  http://www.apache.org/licenses/LICENSE-2.0
+
+  Unless required by applicable law or agreed to in writing, software
+  distributed under the License is distributed on an "AS IS" BASIS,
+  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+  See the License for the specific language governing permissions and
+  limitations under the License.
+*/
+
+package io.neba.core.resourcemodels.caching;
+
+import io.neba.api.resourcemodels.ResourceModelCache;
+import io.neba.core.util.Key;
+import org.apache.sling.api.resource.Resource;
+
+import java.util.Collection;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.ToIntFunction;
+
+import static io.neba.api.resourcemodels.ResourceModelCache.ADMITTED_TYPES;
+import static io.neba.api.resourcemodels.ResourceModelCache.MAXIMUM_MODEL_WEIGHT;
+import static io.neba.api.resourcemodels.ResourceModelCache.TIER;
+import static org.springframework.util.ClassUtils.getAllInterfacesForClassAsSet;
+
+/**
+ * A {@link ResourceModelCache} in the tiered cache chain of the {@link ResourceModelCaches}. The tier, admission rules
+ * and name of the cache are obtained from its service properties. Counts the hits, misses, lookup durations,
+ * admissions and rejections of the cache.
+ *
+ * @author Olaf Otto
+ */
+public class ResourceModelCacheTier {
+    private static final String SERVICE_DESCRIPTION = "service.description";
+
+    private static int intValueOf(Object value, int defaultValue) {
+        if (value instanceof Number) {
+            return ((Number) value).intValue();
+        }
+        if (value instanceof String) {
+            try {
+                return Integer.parseInt(((String) value).trim());
+            } catch (NumberFormatException e) {
+                return defaultValue;
+            }
+        }
+        return defaultValue;
+    }
+
+    private static String[] stringsOf(Object value) {
+        if (value instanceof String) {
+            return new String[]{(String) value};
+        }
+        if (value instanceof String[]) {
+            return (String[]) value;
+        }
+        if (value instanceof Collection) {
+            return ((Collection<?>) value).stream().map(String::valueOf).toArray(String[]::new);
+        }
+        return new String[0];
+    }
+
+    private final ResourceModelCache cache;
+    private final String name;
+    private final int tier;
+    private final String[] admittedTypes;
+    private final int maximumModelWeight;
+    private final ToIntFunction<Class<?>> weigher;
+    // Keyed by type name to retain no references to the classes of uninstalled bundles.
+    private final Map<String, Boolean> admissions = new ConcurrentHashMap<>();
+
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder lookupNanos = new LongAdder();
+    private final LongAdder stores = new LongAdder();
+    private final LongAdder promotions = new LongAdder();
+    private final LongAdder rejections = new LongAdder();
+
+    /**
+     * @param cache      must not be <code>null</code>.
+     * @param properties the service properties of the cache. Can be <code>null</code>.
+     * @param weigher    provides the weight of a model type, must not be <code>null</code>.
+     */
+    public ResourceModelCacheTier(ResourceModelCache cache, Map<String, ?> properties, ToIntFunction<Class<?>> weigher) {
+        if (cache == null) {
+            throw new IllegalArgumentException("Constructor parameter cache must not be null.");
+        }
+        if (weigher == null) {
+            throw new IllegalArgumentException("Constructor parameter weigher must not be null.");
+        }
+        Object description = properties == null ? null : properties.get(SERVICE_DESCRIPTION);
+        this.cache = cache;
+        this.name = description instanceof String ? (String) description : cache.getClass().getName();
+        this.tier = intValueOf(properties == null ? null : properties.get(TIER), Integer.MAX_VALUE);
+        this.admittedTypes = stringsOf(properties == null ? null : properties.get(ADMITTED_TYPES));
+        this.maximumModelWeight = intValueOf(properties == null ? null : properties.get(MAXIMUM_MODEL_WEIGHT), 0);
+        this.weigher = weigher;
+    }
+
+    /**
+     * @return whether this tier caches models of the given type, with regard to the {@link ResourceModelCache#ADMITTED_TYPES admitted types}
+     *         and {@link ResourceModelCache#MAXIMUM_MODEL_WEIGHT maximum model weight}.
+     */
+    public boolean admits(Class<?> modelType) {
+        if (this.admittedTypes.length == 0 && this.maximumModelWeight <= 0) {
+            return true;
+        }
+        return this.admissions.computeIfAbsent(modelType.getName(), name -> isAdmitted(modelType));
+    }
+
+    <T> T get(Key key) {
+        final long start = System.nanoTime();
+        T model = this.cache.get(key);
+        this.lookupNanos.add(System.nanoTime() - start);
+        if (model == null) {
+            this.misses.increment();
+        } else {
+            this.hits.increment();
+        }
+        return model;
+    }
+
+    <T> void put(Resource resource, T model, Key key) {
+        this.cache.put(resource, model, key);
+        this.stores.increment();
+    }
+
+    <T> void promote(Resource resource, T model, Key key) {
+        this.cache.put(resource, model, key);
+        this.promotions.increment();
+    }
+
+    /**
+     * Forgets which model types are admitted, e.g. since the metadata of the models was removed.
+     * Admission is determined anew upon the next lookup of a model type.
+     */
+    void clearAdmissions() {
+        this.admissions.clear();
+    }
+
+    void countRejection() {
+        this.rejections.increment();
+    }
+
+    ResourceModelCache getCache() {
+        return this.cache;
+    }
+
+    public String getName() {
+        return this.name;
+    }
+
+    /**
+     * @return the {@link ResourceModelCache#TIER tier} of the cache. Caches in lower tiers are consulted first.
+     */
+    public int getTier() {
+        return this.tier;
+    }
+
+    public long getHits() {
+        return this.hits.sum();
+    }
+
+    public long getMisses() {
+        return this.misses.sum();
+    }
+
+    /**
+     * @return the number of models stored in this tier after they were mapped.
+     */
+    public long getStores() {
+        return this.stores.sum();
+    }
+
+    /**
+     * @return the number of models stored in this tier since they were found in a subsequent tier.
+     */
+    public long getPromotions() {
+        return this.promotions.sum();
+    }
+
+    /**
+     * @return the number of models not stored in this tier as they are not admitted.
+     */
+    public long getRejections() {
+        return this.rejections.sum();
+    }
+
+    /**
+     * @return the average duration of a lookup in this tier in microseconds.
+     */
+    public double getAverageLookupMicros() {
+        long lookups = getHits() + getMisses();
+        return lookups == 0 ? 0 : this.lookupNanos.sum() / (lookups * 1000D);
+    }
+
+    private boolean isAdmitted(Class<?> modelType) {
+        if (this.maximumModelWeight > 0 && this.weigher.applyAsInt(modelType) > this.maximumModelWeight) {
+            return false;
+        }
+        if (this.admittedTypes.length == 0) {
+            return true;
+        }
+        for (Class<?> type = modelType; type != null; type = type.getSuperclass()) {
+            if (isAdmittedTypeName(type.getName())) {
+                return true;
+            }
+        }
+        for (Class<?> type : getAllInterfacesForClassAsSet(modelType)) {
+            if (isAdmittedTypeName(type.getName())) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private boolean isAdmittedTypeName(String typeName) {
+        for (String admittedType : this.admittedTypes) {
+            if (admittedType.equals(typeName)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    @Override
+    public String toString() {
+        return getClass().getSimpleName() + " [" + this.tier + ": " + this.name + ']';
+    }
+}
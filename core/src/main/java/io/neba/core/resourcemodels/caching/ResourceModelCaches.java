@@ -26,12 +26,22 @@ import org.springframework.stereotype.Service;
 
 import java.util.ArrayList;
 import java.util.List;
+import java.util.Map;
+import java.util.function.Supplier;
+
+import static java.util.Arrays.asList;
+import static java.util.Collections.unmodifiableList;
+import static java.util.Comparator.comparingInt;
 
 /**
- * Represents all currently registered {@link ResourceModelCache resource model cache services}.
+ * Represents all currently registered {@link ResourceModelCache resource model cache services} as a chain of
+ * {@link ResourceModelCacheTier tiers}, ordered by their {@link ResourceModelCache#TIER tier}. Lookups consult the tiers
+ * in order, models found in a tier are promoted to all preceding tiers. Each tier only caches the models it
+ * {@link ResourceModelCacheTier#admits(Class) admits}.
  * <br />
  *
- * Thread-safety must be provided by the underlying {@link ResourceModelCache caches}.
+ * Binding and unbinding caches is thread-safe, the tiers are replaced on write and never modified during a lookup.
+ * Thread-safety of the cache operations must be provided by the underlying {@link ResourceModelCache caches}.
  *
  * @author Olaf Otto
  */
@@ -40,7 +50,7 @@ public class ResourceModelCaches {
     @Autowired
     private ResourceModelMetaDataRegistrar metaDataRegistrar;
 
-    private final List<ResourceModelCache> caches = new ArrayList<>();
+    private volatile ResourceModelCacheTier[] tiers = new ResourceModelCacheTier[0];
 
     /**
      * Looks up the {@link #store(Resource, OsgiBeanSource, Object)} cached model}
@@ -59,21 +69,79 @@ public class ResourceModelCaches {
             throw new IllegalArgumentException("Method argument modelSource must not be null");
         }
 
-        if (this.caches.isEmpty()) {
+        final ResourceModelCacheTier[] tiers = this.tiers;
+        if (tiers.length == 0) {
             return null;
         }
 
-        final Key key = key(resource, modelSource.getBeanType());
-        for (ResourceModelCache cache : this.caches) {
-            T model = cache.get(key);
+        final Class<?> modelType = modelSource.getBeanType();
+        return lookup(tiers, resource, modelType, key(resource, modelType));
+    }
+
+    /**
+     * Looks up the {@link #lookup(Resource, OsgiBeanSource) cached model} of the given type for the given resource. If
+     * there is none, the model is obtained from the given mapping and {@link #store(Resource, OsgiBeanSource, Object) stored}.
+     * The cache key is only computed once.
+     *
+     * @param resource must not be <code>null</code>.
+     * @param modelSource must not be <code>null</code>.
+     * @param mapping provides the model if it is not cached, must not be <code>null</code>.
+     * @return the cached or mapped model.
+     */
+    public <T> T lookupOrMap(Resource resource, OsgiBeanSource<?> modelSource, Supplier<T> mapping) {
+        if (resource == null) {
+            throw new IllegalArgumentException("Method argument resource must not be null");
+        }
+        if (modelSource == null) {
+            throw new IllegalArgumentException("Method argument modelSource must not be null");
+        }
+        if (mapping == null) {
+            throw new IllegalArgumentException("Method argument mapping must not be null");
+        }
+
+        final ResourceModelCacheTier[] tiers = this.tiers;
+        if (tiers.length == 0) {
+            return mapping.get();
+        }
+
+        final Class<?> modelType = modelSource.getBeanType();
+        final Key key = key(resource, modelType);
+        T model = lookup(tiers, resource, modelType, key);
+        if (model == null) {
+            model = mapping.get();
+            if (model != null) {
+                store(tiers, resource, modelType, model, key);
+            }
+        }
+        return model;
+    }
+
+    private <T> T lookup(ResourceModelCacheTier[] tiers, Resource resource, Class<?> modelType, Key key) {
+        for (int i = 0; i < tiers.length; ++i) {
+            if (!tiers[i].admits(modelType)) {
+                continue;
+            }
+            T model = tiers[i].get(key);
             if (model != null) {
-                metaDataRegistrar.get(model.getClass()).getStatistics().countCacheHit();
+                metaDataRegistrar.get(modelType).getStatistics().countCacheHit();
+                promote(tiers, i, resource, modelType, model, key);
                 return model;
             }
         }
         return null;
     }
 
+    /**
+     * Stores a model found in the tier with the given index in all preceding tiers admitting it.
+     */
+    private <T> void promote(ResourceModelCacheTier[] tiers, int index, Resource resource, Class<?> modelType, T model, Key key) {
+        for (int i = 0; i < index; ++i) {
+            if (tiers[i].admits(modelType)) {
+                tiers[i].promote(resource, model, key);
+            }
+        }
+    }
+
     /**
      * Stores the model representing the result of the
      * {@link Resource#adaptTo(Class) adaptation} of the given resource
@@ -94,28 +162,81 @@ public class ResourceModelCaches {
             throw new IllegalArgumentException("Method argument model must not be null");
         }
 
-        if (this.caches.isEmpty()) {
+        final ResourceModelCacheTier[] tiers = this.tiers;
+        if (tiers.length == 0) {
             return;
         }
 
-        final Key key = key(resource, modelSource.getBeanType());
-        for (ResourceModelCache cache : this.caches) {
-            cache.put(resource, model, key);
+        final Class<?> modelType = modelSource.getBeanType();
+        store(tiers, resource, modelType, model, key(resource, modelType));
+    }
+
+    private <T> void store(ResourceModelCacheTier[] tiers, Resource resource, Class<?> modelType, T model, Key key) {
+        for (ResourceModelCacheTier tier : tiers) {
+            if (tier.admits(modelType)) {
+                tier.put(resource, model, key);
+            } else {
+                tier.countRejection();
+            }
         }
     }
 
-    public void bind(ResourceModelCache cache) {
-        this.caches.add(cache);
+    /**
+     * Adds the cache as a {@link ResourceModelCacheTier tier}. Caches within the same {@link ResourceModelCache#TIER tier}
+     * are consulted in the order they were bound.
+     *
+     * @param cache can be <code>null</code>.
+     * @param properties the service properties of the cache. Can be <code>null</code>.
+     */
+    public synchronized void bind(ResourceModelCache cache, Map<String, ?> properties) {
+        if (cache == null) {
+            return;
+        }
+        List<ResourceModelCacheTier> tiers = new ArrayList<>(asList(this.tiers));
+        tiers.add(new ResourceModelCacheTier(cache, properties, this::weightOf));
+        // The sort is stable, i.e. preserves the binding order within a tier.
+        tiers.sort(comparingInt(ResourceModelCacheTier::getTier));
+        this.tiers = tiers.toArray(new ResourceModelCacheTier[tiers.size()]);
     }
 
-    public void unbind(ResourceModelCache cache) {
+    /**
+     * @param cache can be <code>null</code>.
+     * @param properties the service properties of the cache. Can be <code>null</code>.
+     */
+    public synchronized void unbind(ResourceModelCache cache, Map<String, ?> properties) {
         if (cache == null) {
             return;
         }
-        this.caches.remove(cache);
+        List<ResourceModelCacheTier> tiers = new ArrayList<>(asList(this.tiers));
+        tiers.removeIf(tier -> tier.getCache() == cache);
+        this.tiers = tiers.toArray(new ResourceModelCacheTier[tiers.size()]);
+    }
+
+    /**
+     * Forgets which model types are admitted by the tiers, e.g. since the metadata of models was removed.
+     * Admission depends on the model metadata and is determined anew upon the next lookup.
+     */
+    public void clearAdmissions() {
+        for (ResourceModelCacheTier tier : this.tiers) {
+            tier.clearAdmissions();
+        }
+    }
+
+    /**
+     * @return a snapshot of the current tiers in the order they are consulted. Never <code>null</code>.
+     */
+    public List<ResourceModelCacheTier> getTiers() {
+        return unmodifiableList(asList(this.tiers.clone()));
+    }
+
+    /**
+     * The weight of a model type is its number of mappable fields.
+     */
+    private int weightOf(Class<?> modelType) {
+        return this.metaDataRegistrar.get(modelType).getMappableFields().length;
     }
 
     private <T> Key key(Resource resource, Class<T> modelType) {
-        return new Key(resource.getPath(), modelType, resource.getResourceType(), resource.getResourceResolver().hashCode());
+        return new ResourceModelCacheKey(resource, modelType);
     }
 }
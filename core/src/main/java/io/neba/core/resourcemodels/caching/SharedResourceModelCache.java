@@ -0,0 +1,412 @@
+/*
+  Copyright 2013 the original author or authors.
+
+  Licensed under the Apache License, Version 2.0 the "License";
+  you may not use this file except in compliance with the License.
+  You may obtain a copy of the License at
+
+  http://www.apache.org/licenses/LICENSE-2.0
+
+  Unless required by applicable law or agreed to in writing, software
+  distributed under the License is distributed on an "AS IS" BASIS,
+  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+  See the License for the specific language governing permissions and
+  limitations under the License.
+*/
+
+package io.neba.core.resourcemodels.caching;
+
+import io.neba.api.resourcemodels.ResourceModelCache;
+import io.neba.core.resourcemodels.metadata.ResourceModelMetaData;
+import io.neba.core.resourcemodels.metadata.ResourceModelMetaDataRegistrar;
+import io.neba.core.util.Key;
+import org.apache.sling.api.resource.Resource;
+import org.osgi.service.event.Event;
+import org.osgi.service.event.EventHandler;
+import org.springframework.beans.factory.annotation.Autowired;
+
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.LinkedHashSet;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static java.util.concurrent.TimeUnit.SECONDS;
+import static java.util.stream.Collectors.toList;
+import static org.apache.sling.api.SlingConstants.PROPERTY_PATH;
+import static org.apache.sling.api.resource.ResourceUtil.getParent;
+
+/**
+ * A {@link ResourceModelCache} sharing {@link io.neba.api.annotations.Immutable immutable} resource models
+ * across requests. Models are identified by the path and type of their resource, the model type and the
+ * user of the resource resolver they were adapted with, such that a model is only shared with resource resolvers
+ * having the same access rights.
+ * <br />
+ * The cache is bounded by the {@link #setMaximumSize(int) number} and {@link #setMaximumWeight(int) weight}
+ * of the cached models, evicting the oldest models first. As an {@link EventHandler} for resource events, it
+ * invalidates all models at, above or below the path of an added, changed or removed resource. A model is only
+ * admitted if its resource did not change since the model was {@link #get(Object) looked up}, such that a model
+ * mapped from outdated content cannot outlive the invalidation.
+ * <br />
+ * Reads are lock-free, modifications are synchronized.
+ *
+ * @author Olaf Otto
+ */
+public class SharedResourceModelCache implements ResourceModelCache, EventHandler {
+    private static final long PENDING_TIMEOUT_NANOS = SECONDS.toNanos(30);
+
+    /**
+     * @return an estimate of the memory retained by the model: One plus the number of its mapped fields. The field values
+     *         are not read, as doing so may for instance load lazy collections.
+     */
+    private static int weightOf(ResourceModelMetaData metaData) {
+        return 1 + metaData.getMappableFields().length;
+    }
+
+    /**
+     * @author Olaf Otto
+     */
+    private static class Entry {
+        private final Object model;
+        private final String path;
+        private final int weight;
+
+        private Entry(Object model, String path, int weight) {
+            this.model = model;
+            this.path = path;
+            this.weight = weight;
+        }
+    }
+
+    /**
+     * A model that was looked up but not found. If the model is not added, e.g. since its mapping failed,
+     * it expires after the {@link #PENDING_TIMEOUT_NANOS pending timeout}.
+     *
+     * @author Olaf Otto
+     */
+    private static class Pending {
+        private final String path;
+        private final long since;
+
+        private Pending(String path, long since) {
+            this.path = path;
+            this.since = since;
+        }
+    }
+
+    private final Map<Key, Entry> entries = new ConcurrentHashMap<>();
+    // The models that where looked up but not found. Only these models may be added. Modified while holding this.
+    private final Map<Key, Pending> pendingModels = new ConcurrentHashMap<>();
+    // The keys of the pending models by the path of their resource, guarded by this.
+    private final NavigableMap<String, Set<Key>> pendingKeysByPath = new TreeMap<>();
+    // The keys of the entries by the path of their resource, guarded by this.
+    private final NavigableMap<String, Set<Key>> keysByPath = new TreeMap<>();
+    // The insertion order of the cached keys, used to select the models to evict. Guarded by this.
+    private final Set<Key> insertionOrder = new LinkedHashSet<>();
+    private final AtomicLong evictions = new AtomicLong();
+    private final AtomicLong invalidations = new AtomicLong();
+    private long weight = 0;
+    private long pendingTimeoutNanos = PENDING_TIMEOUT_NANOS;
+
+    @Autowired
+    private ResourceModelMetaDataRegistrar metaDataRegistrar;
+
+    private boolean enabled = true;
+    private int maximumSize = 1000;
+    private int maximumWeight = 100000;
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    @SuppressWarnings("unchecked")
+    public <T> T get(Object key) {
+        if (key == null) {
+            throw new IllegalArgumentException("Method argument key must not be null.");
+        }
+        if (!this.enabled || !(key instanceof ResourceModelCacheKey)) {
+            return null;
+        }
+
+        ResourceModelCacheKey cacheKey = (ResourceModelCacheKey) key;
+        ResourceModelMetaData metaData = this.metaDataRegistrar.get(cacheKey.getModelType());
+        if (!metaData.isSharedAcrossRequests()) {
+            return null;
+        }
+
+        Key sharedKey = cacheKey.getSharedKey();
+        if (sharedKey == null) {
+            return null;
+        }
+
+        Entry entry = this.entries.get(sharedKey);
+        if (entry == null) {
+            metaData.getStatistics().countSharedCacheMiss();
+            addPending(sharedKey, cacheKey.getPath());
+            return null;
+        }
+
+        metaData.getStatistics().countSharedCacheHit();
+        return (T) entry.model;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public <T> void put(Resource resource, T model, Object key) {
+        if (resource == null) {
+            throw new IllegalArgumentException("Method argument resource must not be null.");
+        }
+        if (model == null) {
+            throw new IllegalArgumentException("Method argument model must not be null.");
+        }
+        if (key == null) {
+            throw new IllegalArgumentException("Method argument key must not be null.");
+        }
+        if (!this.enabled || !(key instanceof ResourceModelCacheKey)) {
+            return;
+        }
+
+        ResourceModelCacheKey cacheKey = (ResourceModelCacheKey) key;
+        ResourceModelMetaData metaData = this.metaDataRegistrar.get(cacheKey.getModelType());
+        if (!metaData.isSharedAcrossRequests()) {
+            return;
+        }
+
+        Key sharedKey = cacheKey.getSharedKey();
+        if (sharedKey == null) {
+            return;
+        }
+
+        Entry entry = new Entry(model, cacheKey.getPath(), weightOf(metaData));
+
+        synchronized (this) {
+            // The resource was changed after the model was looked up, or the model was already added.
+            if (!removePending(sharedKey) || entry.weight > this.maximumWeight) {
+                return;
+            }
+            remove(sharedKey);
+            this.entries.put(sharedKey, entry);
+            this.insertionOrder.add(sharedKey);
+            this.keysByPath.computeIfAbsent(entry.path, p -> new HashSet<>()).add(sharedKey);
+            this.weight += entry.weight;
+
+            Iterator<Key> oldest = this.insertionOrder.iterator();
+            while ((this.entries.size() > this.maximumSize || this.weight > this.maximumWeight) && oldest.hasNext()) {
+                Key victim = oldest.next();
+                oldest.remove();
+                removeEntry(victim);
+                this.evictions.incrementAndGet();
+            }
+        }
+    }
+
+    /**
+     * Invalidates all models at, above or below the path of the changed resource. Invalidates all models
+     * if the event does not specify a path.
+     */
+    @Override
+    public void handleEvent(Event event) {
+        if (this.entries.isEmpty() && this.pendingModels.isEmpty()) {
+            return;
+        }
+
+        Object path = event.getProperty(PROPERTY_PATH);
+        if (!(path instanceof String)) {
+            clear();
+            return;
+        }
+
+        invalidate((String) path);
+    }
+
+    /**
+     * Removes all cached models, e.g. when resource models are unregistered.
+     */
+    public synchronized void clear() {
+        this.entries.clear();
+        this.pendingModels.clear();
+        this.pendingKeysByPath.clear();
+        this.keysByPath.clear();
+        this.insertionOrder.clear();
+        this.weight = 0;
+        this.invalidations.incrementAndGet();
+    }
+
+    /**
+     * @return the number of cached models.
+     */
+    public int size() {
+        return this.entries.size();
+    }
+
+    /**
+     * @return the total weight of the cached models.
+     */
+    public synchronized long getWeight() {
+        return this.weight;
+    }
+
+    /**
+     * @return the number of models evicted to stay within the maximum size and weight.
+     */
+    public long getEvictions() {
+        return this.evictions.get();
+    }
+
+    /**
+     * @return the number of handled resource changes that invalidated cached models.
+     */
+    public long getInvalidations() {
+        return this.invalidations.get();
+    }
+
+    private synchronized void invalidate(String changedPath) {
+        int size = this.entries.size();
+        for (String path = changedPath; path != null; path = getParent(path)) {
+            removeAll(this.keysByPath.remove(path));
+            removeAllPending(this.pendingKeysByPath.remove(path));
+        }
+        String prefix = changedPath.endsWith("/") ? changedPath : changedPath + '/';
+        Map<String, Set<Key>> descendants = descendantsOf(this.keysByPath, prefix);
+        for (Set<Key> keys : descendants.values()) {
+            removeAll(keys);
+        }
+        descendants.clear();
+        Map<String, Set<Key>> pendingDescendants = descendantsOf(this.pendingKeysByPath, prefix);
+        for (Set<Key> keys : pendingDescendants.values()) {
+            removeAllPending(keys);
+        }
+        pendingDescendants.clear();
+
+        if (this.entries.size() != size) {
+            this.invalidations.incrementAndGet();
+        }
+    }
+
+    private static Map<String, Set<Key>> descendantsOf(NavigableMap<String, Set<Key>> keysByPath, String prefix) {
+        return keysByPath.subMap(prefix, true, prefix + Character.MAX_VALUE, false);
+    }
+
+    /**
+     * Admits the model to be {@link #put(Resource, Object, Object) added} unless the maximum number of pending models is reached.
+     */
+    private synchronized void addPending(Key key, String path) {
+        final long now = System.nanoTime();
+        if (this.pendingModels.size() >= this.maximumSize) {
+            removeExpiredPending(now);
+        }
+        if (this.pendingModels.size() >= this.maximumSize || this.pendingModels.putIfAbsent(key, new Pending(path, now)) != null) {
+            return;
+        }
+        this.pendingKeysByPath.computeIfAbsent(path, p -> new HashSet<>()).add(key);
+    }
+
+    /**
+     * @return whether the model was pending.
+     */
+    private boolean removePending(Key key) {
+        Pending pending = this.pendingModels.remove(key);
+        if (pending == null) {
+            return false;
+        }
+        Set<Key> keys = this.pendingKeysByPath.get(pending.path);
+        if (keys != null) {
+            keys.remove(key);
+            if (keys.isEmpty()) {
+                this.pendingKeysByPath.remove(pending.path);
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Removes the pending models that were never added, e.g. since their mapping failed or yielded no model.
+     */
+    private void removeExpiredPending(long now) {
+        this.pendingModels.entrySet().stream()
+                .filter(pending -> now - pending.getValue().since > this.pendingTimeoutNanos)
+                .map(Map.Entry::getKey)
+                .collect(toList())
+                .forEach(this::removePending);
+    }
+
+    private void removeAllPending(Set<Key> keys) {
+        if (keys == null) {
+            return;
+        }
+        for (Key key : keys) {
+            this.pendingModels.remove(key);
+        }
+    }
+
+    private void removeAll(Set<Key> keys) {
+        if (keys == null) {
+            return;
+        }
+        for (Key key : keys) {
+            this.insertionOrder.remove(key);
+            Entry entry = this.entries.remove(key);
+            if (entry != null) {
+                this.weight -= entry.weight;
+            }
+        }
+    }
+
+    private void remove(Key key) {
+        if (this.insertionOrder.remove(key)) {
+            removeEntry(key);
+        }
+    }
+
+    /**
+     * Removes the entry and its path index, but not its insertion order.
+     */
+    private void removeEntry(Key key) {
+        Entry entry = this.entries.remove(key);
+        if (entry == null) {
+            return;
+        }
+        this.weight -= entry.weight;
+        Set<Key> keys = this.keysByPath.get(entry.path);
+        if (keys != null) {
+            keys.remove(key);
+            if (keys.isEmpty()) {
+                this.keysByPath.remove(entry.path);
+            }
+        }
+    }
+
+    public void setEnabled(boolean enabled) {
+        this.enabled = enabled;
+        if (!enabled) {
+            clear();
+        }
+    }
+
+    public synchronized void setMaximumSize(int maximumSize) {
+        if (maximumSize <= 0) {
+            throw new IllegalArgumentException("Method argument maximumSize must be greater than zero, but is " + maximumSize + ".");
+        }
+        this.maximumSize = maximumSize;
+    }
+
+    /**
+     * For tests: The duration after which models that were looked up but never added expire.
+     */
+    synchronized void setPendingTimeoutNanos(long pendingTimeoutNanos) {
+        this.pendingTimeoutNanos = pendingTimeoutNanos;
+    }
+
+    public synchronized void setMaximumWeight(int maximumWeight) {
+        if (maximumWeight <= 0) {
+            throw new IllegalArgumentException("Method argument maximumWeight must be greater than zero, but is " + maximumWeight + ".");
+        }
+        this.maximumWeight = maximumWeight;
+    }
+}
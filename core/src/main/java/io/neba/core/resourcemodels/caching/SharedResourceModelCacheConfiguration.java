@@ -0,0 +1,67 @@
+/*
+  Copyright 2013 the original author or authors.
+
+  Licensed under the Apache License, Version 2.0 the "License";
+  you may not use this file except in compliance with the License.
+  You may obtain a copy of the License at
+
+  http://www.apache.org/licenses/LICENSE-2.0
+
+  Unless required by applicable law or agreed to in writing, software
+  distributed under the License is distributed on an "AS IS" BASIS,
+  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+  See the License for the specific language governing permissions and
+  limitations under the License.
+*/
+
+package io.neba.core.resourcemodels.caching;
+
+import org.apache.felix.scr.annotations.Component;
+import org.apache.felix.scr.annotations.Properties;
+import org.apache.felix.scr.annotations.Property;
+import org.apache.felix.scr.annotations.Service;
+
+/**
+ * The sole purpose of this class is to provide service component runtime (SCR) metadata
+ * enabling service configuration via the OSGi console. The metadata
+ * is generated from the SCR annotations of this class by the maven-scr-plugin
+ * during build time.
+ * <br />
+ * The generated metadata is used in the blueprint configuration
+ * of this module to configure the {@link SharedResourceModelCache}.
+ *
+ * @author Olaf Otto
+ */
+@Service(SharedResourceModelCacheConfiguration.class)
+@Component(label = "NEBA shared resource model cache",
+           immediate = false,
+           description = "Provides a cache sharing @Immutable resource models across requests.",
+           metatype = true,
+           name = SharedResourceModelCacheConfiguration.PID)
+@Properties({
+    @Property(name = "service.vendor", value = "neba.io")
+})
+public class SharedResourceModelCacheConfiguration {
+    public static final String PID = "io.neba.core.resourcemodels.caching.SharedResourceModelCacheConfiguration";
+
+    @Property(
+            label = "Enabled",
+            description = "Activates the cache sharing @Immutable resource models across requests. Cached models are " +
+                          "invalidated when their resource or a resource below it is added, changed or removed. " +
+                          "The hit rate of each model is shown in the model statistics console.",
+            boolValue = true)
+    public static final String ENABLED = "enabled";
+
+    @Property(
+            label = "Maximum size",
+            description = "The maximum number of cached models. Once reached, the oldest models are evicted.",
+            intValue = 1000)
+    public static final String MAXIMUM_SIZE = "maximumSize";
+
+    @Property(
+            label = "Maximum weight",
+            description = "The maximum total weight of the cached models. The weight of a model is one plus the number of its " +
+                          "mapped fields, approximating the memory it retains. Once reached, the oldest models are evicted.",
+            intValue = 100000)
+    public static final String MAXIMUM_WEIGHT = "maximumWeight";
+}
@@ -91,6 +91,14 @@ public class AnnotatedFieldMappers {
         this.cache.clear();
     }
 
+    /**
+     * @return a number that changes whenever a mapper is {@link #bind(AnnotatedFieldMapper) bound} or
+     *         {@link #unbind(AnnotatedFieldMapper) unbound}, i.e. whenever the result of {@link #get(MappedFieldMetaData)} may change.
+     */
+    public int getState() {
+        return this.state.get();
+    }
+
     /**
      * @param metaData must not be <code>null</code>.
      * @return never <code>null</code> but rather an empty collection.
@@ -20,21 +20,26 @@ import io.neba.api.resourcemodels.AnnotatedFieldMapper;
 import io.neba.api.resourcemodels.Lazy;
 import io.neba.api.resourcemodels.Optional;
 import io.neba.core.resourcemodels.metadata.MappedFieldMetaData;
+import io.neba.core.resourcemodels.metadata.PrimitivePropertyWriter;
+import io.neba.core.util.LazyList;
+import io.neba.core.util.LazySet;
 import io.neba.core.util.PrimitiveSupportingValueMap;
 import io.neba.core.util.ReflectionUtil;
 import org.apache.sling.api.resource.Resource;
 import org.apache.sling.api.resource.ValueMap;
 import org.springframework.beans.factory.BeanFactory;
 import org.springframework.beans.factory.config.ConfigurableBeanFactory;
-import org.springframework.cglib.proxy.LazyLoader;
 
 import java.lang.annotation.Annotation;
 import java.lang.reflect.Field;
 import java.util.*;
+import java.util.function.Function;
+import java.util.function.Supplier;
 
 import static io.neba.core.resourcemodels.mapping.AnnotatedFieldMappers.AnnotationMapping;
 import static io.neba.core.util.ReflectionUtil.instantiateCollectionType;
 import static io.neba.core.util.StringUtil.append;
+import static java.util.Arrays.asList;
 import static org.apache.commons.lang.StringUtils.isBlank;
 import static org.springframework.util.ReflectionUtils.getField;
 import static org.springframework.util.ReflectionUtils.setField;
@@ -54,14 +59,19 @@ public class FieldValueMappingCallback {
     private final Resource resource;
     private final ConfigurableBeanFactory beanFactory;
     private final AnnotatedFieldMappers annotatedFieldMappers;
+    private final boolean reflectiveFieldAccess;
+    // The properties of other resources referenced by field paths, by path. Created upon first use.
+    private Map<String, ValueMap> propertiesOfForeignResources;
 
     /**
      * @param model    the model to be mapped. Must not be null.
      * @param resource the source of property values for the model. Must not be null.
      * @param factory  must not be null.
      * @param annotatedFieldMappers  must not be null.
+     * @param reflectiveFieldAccess whether to access the fields of the model via reflection rather than the
+     *                              {@link MappedFieldMetaData#setValue(Object, Object) generated accessors}.
      */
-    public FieldValueMappingCallback(Object model, Resource resource, BeanFactory factory, AnnotatedFieldMappers annotatedFieldMappers) {
+    public FieldValueMappingCallback(Object model, Resource resource, BeanFactory factory, AnnotatedFieldMappers annotatedFieldMappers, boolean reflectiveFieldAccess) {
         if (model == null) {
             throw new IllegalArgumentException("Constructor parameter model must not be null.");
         }
@@ -80,12 +90,36 @@ public class FieldValueMappingCallback {
         this.resource = resource;
         this.beanFactory = factory instanceof ConfigurableBeanFactory ? (ConfigurableBeanFactory) factory : null;
         this.annotatedFieldMappers = annotatedFieldMappers;
+        this.reflectiveFieldAccess = reflectiveFieldAccess;
+    }
+
+    /**
+     * Compiles the mapping of a field: Determines once how the value of the field is resolved and which
+     * {@link AnnotatedFieldMapper annotated field mappers} apply to the field, and, unless the
+     * field path contains an expression, creates the contextual {@link FieldData} of the field. The resulting
+     * {@link FieldMapping} depends solely on the {@link MappedFieldMetaData} and the currently registered field mappers and can
+     * thus be re-used for all mappings of the field until field mappers are {@link AnnotatedFieldMappers#getState() bound or unbound}.
+     *
+     * @param metaData must not be <code>null</code>.
+     * @param annotatedFieldMappers must not be <code>null</code>.
+     * @return never <code>null</code>.
+     */
+    static FieldMapping compile(MappedFieldMetaData metaData, AnnotatedFieldMappers annotatedFieldMappers) {
+        if (metaData == null) {
+            throw new IllegalArgumentException("Method argument metaData must not be null.");
+        }
+        if (annotatedFieldMappers == null) {
+            throw new IllegalArgumentException("Method argument annotatedFieldMappers must not be null.");
+        }
+        return new FieldMapping(metaData, annotatedFieldMappers.get(metaData));
     }
 
     /**
      * Invoked for each {@link io.neba.core.resourcemodels.metadata.ResourceModelMetaData#getMappableFields() mappable field}
      * of a {@link io.neba.api.annotations.ResourceModel} to map the {@link MappedFieldMetaData#getField() corresponding field's}
-     * value from the resource provided to the {@link #FieldValueMappingCallback(Object, Resource, BeanFactory, AnnotatedFieldMappers) constructor}.
+     * value from the resource provided to the {@link #FieldValueMappingCallback(Object, Resource, BeanFactory, AnnotatedFieldMappers, boolean) constructor}.
+     * Prefer {@link #doWith(FieldMapping)} with a {@link #compile(MappedFieldMetaData, AnnotatedFieldMappers) compiled mapping} when mapping
+     * the same field repeatedly.
      *
      * @param metaData must not be <code>null</code>.
      */
@@ -93,23 +127,44 @@ public class FieldValueMappingCallback {
         if (metaData == null) {
             throw new IllegalArgumentException("Method argument metaData must not be null.");
         }
+        doWith(compile(metaData, this.annotatedFieldMappers));
+    }
 
-        // Prepare the dynamic contextual data of this mapping
-        final FieldData fieldData = new FieldData(metaData, evaluateFieldPath(metaData));
+    /**
+     * Maps the field represented by the {@link #compile(MappedFieldMetaData, AnnotatedFieldMappers) compiled mapping}.
+     *
+     * @param mapping must not be <code>null</code>.
+     */
+    final void doWith(final FieldMapping mapping) {
+        if (mapping == null) {
+            throw new IllegalArgumentException("Method argument mapping must not be null.");
+        }
+
+        final MappedFieldMetaData metaData = mapping.metaData;
+        // Prepare the dynamic contextual data of this mapping, unless it is static
+        final FieldData fieldData = mapping.fieldData == null ? new FieldData(mapping, evaluateFieldPath(metaData)) : mapping.fieldData;
         // Determine whether the mapping can result in a non-null value
-        final boolean isMappable = isMappable(fieldData);
+        final boolean isMappable = this.properties != null || fieldData.isMappableWithoutProperties;
 
         if (metaData.isLazy()) {
             // Lazy fields are never null, regardless of whether a value is mappable.
             Lazy<Object> lazy = isMappable ? new LazyFieldValue(fieldData, this) : LazyFieldValue.EMPTY;
-            setField(metaData.getField(), this.model, lazy);
+            setFieldValue(metaData, lazy);
             return;
         }
 
         if (metaData.isOptional()) {
             // Optional fields are never null, regardless of whether a value is mappable.
             Optional<Object> optional = isMappable ? new OptionalFieldValue(fieldData, this) : new EmptyOptional(fieldData);
-            setField(metaData.getField(), this.model, optional);
+            setFieldValue(metaData, optional);
+            return;
+        }
+
+        if (mapping.primitivePropertyWriter != null && !this.reflectiveFieldAccess) {
+            // Write the property directly to the primitive field, avoiding boxing of the converted value.
+            if (this.properties != null) {
+                mapping.primitivePropertyWriter.write(this.model, this.properties, fieldData.path);
+            }
             return;
         }
 
@@ -122,10 +177,22 @@ public class FieldValueMappingCallback {
         value = postProcessResolvedValue(fieldData, value);
 
         if (value != null) {
+            setFieldValue(metaData, value);
+        }
+    }
+
+    private void setFieldValue(MappedFieldMetaData metaData, Object value) {
+        if (this.reflectiveFieldAccess) {
             setField(metaData.getField(), this.model, value);
+        } else {
+            metaData.setValue(this.model, value);
         }
     }
 
+    private Object getFieldValue(MappedFieldMetaData metaData) {
+        return this.reflectiveFieldAccess ? getField(metaData.getField(), this.model) : metaData.getValue(this.model);
+    }
+
     /**
      * Resumes a mapping temporarily suspended by an {@link Optional} field, i.e.
      * effectively loads a lazy-loaded field value.
@@ -150,10 +217,8 @@ public class FieldValueMappingCallback {
         // an empty collection, in case no non-<code>null</code> default value was provided and field is not Optional.
         boolean preventNullCollection =
                 value == null &&
-                        !fieldData.metaData.isLazy() &&
-                        !fieldData.metaData.isOptional() &&
-                        fieldData.metaData.isInstantiableCollectionType() &&
-                        getField(fieldData.metaData.getField(), this.model) == null;
+                        fieldData.mapping.isNeverNullCollection &&
+                        getFieldValue(fieldData.metaData) == null;
 
         @SuppressWarnings("unchecked")
         Object defaultValue = preventNullCollection ? instantiateCollectionType((Class<Collection>) fieldData.metaData.getType()) : null;
@@ -171,35 +236,53 @@ public class FieldValueMappingCallback {
     @SuppressWarnings("unchecked")
     private Object applyCustomMappings(FieldData fieldData, final Object value) {
         Object result = value;
-        for (final AnnotationMapping mapping : this.annotatedFieldMappers.get(fieldData.metaData)) {
+        for (final AnnotationMapping mapping : fieldData.mapping.annotationMappings) {
             result = mapping.getMapper().map(new OngoingFieldMapping(this.model, result, mapping, fieldData, this.resource, this.properties));
         }
         return result;
     }
 
     /**
-     * Resolves the field's value with regard to the {@link io.neba.core.resourcemodels.metadata.MappedFieldMetaData}
-     * of the field.
+     * Resolves the field's value using the {@link FieldMapping#resolver resolution strategy} of the field.
      */
     private Object resolve(FieldData fieldData) {
-        Object value;
-        if (fieldData.metaData.isThisReference()) {
+        return fieldData.mapping.resolver.resolve(this, fieldData);
+    }
+
+    /**
+     * Selects the strategy resolving the value of the field represented by the given metadata.
+     *
+     * @param staticFieldData the field data if the field path does not contain an expression, otherwise <code>null</code>.
+     */
+    private static ValueResolver resolverFor(MappedFieldMetaData metaData, FieldData staticFieldData) {
+        if (metaData.isThisReference()) {
             // The field is a @This reference
-            value = convertThisResourceToFieldType(fieldData);
-        } else if (fieldData.metaData.isChildrenAnnotationPresent()) {
+            return FieldValueMappingCallback::convertThisResourceToFieldType;
+        }
+        if (metaData.isChildrenAnnotationPresent()) {
             // The field is a collection of @Children
-            value = resolveChildren(fieldData);
-        } else if (fieldData.metaData.isReference()) {
+            return FieldValueMappingCallback::resolveChildren;
+        }
+        if (metaData.isReference()) {
             // The field is a @Reference
-            value = resolveReferenceValueOfField(fieldData);
-        } else if (fieldData.metaData.isPropertyType()) {
+            return FieldValueMappingCallback::resolveReferenceValueOfField;
+        }
+        if (metaData.isPropertyType()) {
             // The field points to a property of the resource
-            value = resolvePropertyTypedValue(fieldData);
-        } else {
-            // The field points to another resource
-            value = resolveResource(fieldData.path, fieldData.metaData.getType());
+            if (metaData.isInstantiableCollectionType()) {
+                return FieldValueMappingCallback::getArrayPropertyAsCollection;
+            }
+            if (staticFieldData == null) {
+                // Whether the property belongs to another resource is only known once the path is evaluated.
+                return (callback, field) -> callback.resolvePropertyTypedValue(field, field.metaData.getType());
+            }
+            if (staticFieldData.isAbsolute() || staticFieldData.isRelative()) {
+                return (callback, field) -> callback.resolvePropertyTypedValueFromForeignResource(field, field.metaData.getType());
+            }
+            return (callback, field) -> callback.resolvePropertyTypedValueOfResource(field, field.metaData.getType());
         }
-        return value;
+        // The field points to another resource
+        return (callback, field) -> callback.resolveResource(field.path, field.metaData.getType());
     }
 
     private Object convertThisResourceToFieldType(FieldData field) {
@@ -243,7 +326,8 @@ public class FieldValueMappingCallback {
     /**
      * If the field is already {@link io.neba.core.resourcemodels.metadata.MappedFieldMetaData#isOptional() optional},
      * {@link #loadChildren(io.neba.core.resourcemodels.mapping.FieldValueMappingCallback.FieldData, org.apache.sling.api.resource.Resource)} directly loads}
-     * the children. Otherwise, provides a lazy loading collection.
+     * the children. Otherwise, provides a {@link #streamChildren(FieldData, Resource) lazy loading collection}
+     * listing the children upon first access.
      *
      * @return never <code>null</code> but rather an empty collection.
      */
@@ -253,8 +337,7 @@ public class FieldValueMappingCallback {
             return loadChildren(field, parent);
         }
 
-        // Create a lazy loading proxy for the collection
-        return (Collection<?>) field.metaData.getCollectionProxyFactory().newInstance(new LazyChildrenLoader(field, parent, this));
+        return streamChildren(field, parent);
     }
 
     /**
@@ -291,6 +374,31 @@ public class FieldValueMappingCallback {
         return values;
     }
 
+    /**
+     * Provides a collection compatible to the {@link io.neba.core.resourcemodels.metadata.MappedFieldMetaData#getType() field type}
+     * that {@link #convert(org.apache.sling.api.resource.Resource, Class) adapts} the children of the given resource
+     * incrementally, i.e. while it is iterated or accessed. Children whose adaptation result is <code>null</code> are
+     * not contained in the collection.
+     *
+     * @return never null but rather an empty collection.
+     */
+    private Collection<Object> streamChildren(FieldData field, Resource parent) {
+        final Class<?> targetType = field.metaData.getTypeParameter();
+        final String resolveBelowEveryChild = field.metaData.isResolveBelowEveryChildPathPresentOnChildren() ?
+                field.metaData.getResolveBelowEveryChildPathOnChildren() : null;
+
+        return incrementalCollection(field, parent::listChildren, child -> {
+            if (resolveBelowEveryChild != null) {
+                // @Children(resolveBelowEveryChild = "...")
+                child = child.getChild(resolveBelowEveryChild);
+                if (child == null) {
+                    return null;
+                }
+            }
+            return convert(child, targetType);
+        });
+    }
+
     /**
      * Resolves the String path(s) stored in the current field to the respective resources and adapts
      * them, if necessary. May provide a single adapted value or a collection of references,
@@ -320,7 +428,8 @@ public class FieldValueMappingCallback {
     /**
      * If the field is already {@link io.neba.core.resourcemodels.metadata.MappedFieldMetaData#isOptional() optional},
      * {@link #loadReferences(io.neba.core.resourcemodels.mapping.FieldValueMappingCallback.FieldData, String[]) directly loads}
-     * the references. Otherwise, provides a lazy loading collection.
+     * the references. Otherwise, provides a {@link #streamReferences(FieldData, String[]) lazy loading collection}
+     * resolving the references upon access.
      *
      * @param paths relative or absolute paths to resources.
      * @return never <code>null</code> but rather an empty collection.
@@ -330,10 +439,7 @@ public class FieldValueMappingCallback {
             // The field was already lazy-loaded - no not lazy-load again.
             return loadReferences(field, paths);
         }
-        // Create a lazy loading proxy for the collection
-        @SuppressWarnings("unchecked")
-        Collection<Object> result = (Collection<Object>) field.metaData.getCollectionProxyFactory().newInstance(new LazyReferencesLoader(field, paths, this));
-        return result;
+        return streamReferences(field, paths);
     }
 
     /**
@@ -365,25 +471,38 @@ public class FieldValueMappingCallback {
     }
 
     /**
-     * Resolves a field's value via the {@link FieldValueMappingCallback.FieldData#path field path}.
-     * Supports conversion from array properties (such as String[]) to the desired collection type of the field.
+     * Provides a collection compatible to the {@link io.neba.core.resourcemodels.metadata.MappedFieldMetaData#getType() field type}
+     * that resolves and converts the references incrementally, i.e. while it is iterated or accessed.
      *
-     * @return the resolved value, or <code>null</code>.
+     * @param paths relative or absolute paths to resources.
+     * @return never <code>null</code> but rather an empty collection.
      */
-    private Object resolvePropertyTypedValue(FieldData field) {
-        Object value;
-        if (field.metaData.isInstantiableCollectionType()) {
-            value = getArrayPropertyAsCollection(field);
-        } else {
-            value = resolvePropertyTypedValue(field, field.metaData.getType());
+    private Collection<Object> streamReferences(FieldData field, String[] paths) {
+        String[] resourcePaths = paths;
+        if (field.metaData.isAppendPathPresentOnReference()) {
+            // @Reference(append = "...")
+            resourcePaths = append(field.metaData.getAppendPathOnReference(), paths);
         }
-        return value;
+
+        final Class<?> componentClass = field.metaData.getTypeParameter();
+        final List<String> referencedPaths = asList(resourcePaths);
+        return incrementalCollection(field, referencedPaths::iterator, path -> resolveResource(path, componentClass));
+    }
+
+    /**
+     * @return a {@link LazyList} if the field type is compatible to a list, otherwise a {@link LazySet}.
+     */
+    private static <S> Collection<Object> incrementalCollection(FieldData field, Supplier<Iterator<S>> loader, Function<S, Object> adapter) {
+        if (field.metaData.getType().isAssignableFrom(List.class)) {
+            return new LazyList<>(loader, adapter);
+        }
+        return new LazySet<>(loader, adapter);
     }
 
     /**
      * Resolves a field's value using the field's {@link FieldValueMappingCallback.FieldData#path}. If the
      * resource does not have any properties, the field path is absolute
-     * (see {@link #isMappable(io.neba.core.resourcemodels.mapping.FieldValueMappingCallback.FieldData)}),
+     * (see {@link FieldData#isMappableWithoutProperties}),
      * in which case the property is resolved via the resource resolver, i.e. the path is an absolute reference
      * to the property of another resource.
      * <br />
@@ -396,6 +515,15 @@ public class FieldValueMappingCallback {
         if (field.isAbsolute() || field.isRelative()) {
             return resolvePropertyTypedValueFromForeignResource(field, propertyType);
         }
+        return resolvePropertyTypedValueOfResource(field, propertyType);
+    }
+
+    /**
+     * Resolves a field's value from the properties of the current resource.
+     *
+     * @return the resolved value, or <code>null</code>.
+     */
+    private <T> T resolvePropertyTypedValueOfResource(FieldData field, Class<T> propertyType) {
         if (this.properties == null) {
             throw new IllegalStateException("Tried to map the property " + field +
                     " even though the resource has no properties.");
@@ -418,35 +546,44 @@ public class FieldValueMappingCallback {
     }
 
     /**
-     * Resolves a property via a property {@link Resource}. This is used to retrieve relative or absolute references to
-     * the properties of resources other than the current resource. Such references cannot be reliably retrieved from the current
+     * Resolves a property of a resource other than the current resource. This is used to retrieve relative or absolute references to
+     * the properties of other resources. Such references cannot be reliably retrieved from the current
      * resource's {@link ValueMap} as the value map may be <code>null</code> and does not support access to properties from parent resources.
+     * <br />
+     * The path of the resource containing the property is {@link FieldData#parentPathOfProperty pre-computed} for each field, and the
+     * {@link #propertiesOfForeignResource(String) properties} of each such resource are obtained once per mapping, i.e.
+     * fields referencing properties of the same resource, such as <code>jcr:content/title</code> and <code>jcr:content/text</code>,
+     * share the resolution of the resource.
      *
      * @return the resolved value, or <code>null</code>.
      */
     private <T> T resolvePropertyTypedValueFromForeignResource(FieldData field, Class<T> propertyType) {
-        Resource property = this.resource.getResourceResolver().getResource(this.resource, field.path);
-        if (property == null) {
+        if (field.propertyName.isEmpty()) {
+            // The path does not designate a property, e.g. "some/path/".
             return null;
         }
+        return propertiesOfForeignResource(field.parentPathOfProperty).get(field.propertyName, propertyType);
+    }
 
-        // Only adaptation to String-types is supported by the property resource
-        if (propertyType == String.class || propertyType == String[].class) {
-            return property.adaptTo(propertyType);
-        }
-
-        // Obtain the ValueMap representation of the parent containing the property to use property conversion
-        Resource parent = property.getParent();
-        if (parent == null) {
-            return null;
+    /**
+     * @param path the absolute path or path relative to the current resource. Must not be <code>null</code>.
+     * @return the properties of the resource with the given path. Never <code>null</code> but rather an
+     * {@link ValueMap#EMPTY empty value map} if the resource does not exist or has no properties.
+     */
+    private synchronized ValueMap propertiesOfForeignResource(String path) {
+        if (this.propertiesOfForeignResources == null) {
+            this.propertiesOfForeignResources = new HashMap<>(4);
         }
 
-        ValueMap properties = parent.adaptTo(ValueMap.class);
+        ValueMap properties = this.propertiesOfForeignResources.get(path);
         if (properties == null) {
-            return null;
+            Resource foreignResource = this.resource.getResourceResolver().getResource(this.resource, path);
+            ValueMap valueMap = foreignResource == null ? null : foreignResource.adaptTo(ValueMap.class);
+            properties = valueMap == null ? ValueMap.EMPTY : new PrimitiveSupportingValueMap(valueMap);
+            this.propertiesOfForeignResources.put(path, properties);
         }
 
-        return new PrimitiveSupportingValueMap(properties).get(property.getName(), propertyType);
+        return properties;
     }
 
     /**
@@ -500,17 +637,6 @@ public class FieldValueMappingCallback {
         return path;
     }
 
-    /**
-     * Determines whether a given field's value
-     * can be mapped from either the current resource properties
-     * or another (e.g. referenced) resource.
-     */
-    private boolean isMappable(FieldData field) {
-        return this.properties != null ||
-                field.metaData.isThisReference() ||
-                field.isReferenceToOtherResource();
-    }
-
     /**
      * Provides the properties of the resource as a {@link PrimitiveSupportingValueMap}.
      *
@@ -543,21 +669,110 @@ public class FieldValueMappingCallback {
         return resource.adaptTo(targetType);
     }
 
+    /**
+     * Resolves the value of a field during a mapping. Strategies are {@link #resolverFor(MappedFieldMetaData, FieldData) selected}
+     * once per field when the field mapping is {@link #compile(MappedFieldMetaData, AnnotatedFieldMappers) compiled}.
+     *
+     * @author Olaf Otto
+     */
+    @FunctionalInterface
+    private interface ValueResolver {
+        Object resolve(FieldValueMappingCallback callback, FieldData field);
+    }
+
+    /**
+     * The {@link #compile(MappedFieldMetaData, AnnotatedFieldMappers) compiled} mapping of a resource model field: The
+     * {@link ValueResolver resolution strategy} of the field, the {@link AnnotatedFieldMapper annotated field mappers}
+     * applicable to the field as well as the contextual {@link FieldData} of the field in case its path does not contain an expression.
+     *
+     * @author Olaf Otto
+     */
+    static final class FieldMapping {
+        private final MappedFieldMetaData metaData;
+        private final ValueResolver resolver;
+        private final FieldData fieldData;
+        private final boolean isNeverNullCollection;
+        /**
+         * The {@link AnnotatedFieldMapper annotated field mappers} applicable to the field.
+         */
+        private final Collection<AnnotationMapping> annotationMappings;
+        /**
+         * Maps a property of the current resource onto a primitive field, see {@link MappedFieldMetaData#getPrimitivePropertyWriter()}.
+         * <code>null</code> if the field is not primitive, its value is not a property of the current resource or
+         * the value is subject to {@link #annotationMappings annotated field mappers}.
+         */
+        private final PrimitivePropertyWriter primitivePropertyWriter;
+
+        private FieldMapping(MappedFieldMetaData metaData, Collection<AnnotationMapping> annotationMappings) {
+            this.metaData = metaData;
+            this.annotationMappings = annotationMappings;
+            this.isNeverNullCollection = !metaData.isLazy() && !metaData.isOptional() && metaData.isInstantiableCollectionType();
+            this.fieldData = metaData.isPathExpressionPresent() ? null : new FieldData(this, metaData.getPath());
+            this.resolver = resolverFor(metaData, this.fieldData);
+            this.primitivePropertyWriter = annotationMappings.isEmpty() && isPropertyOfCurrentResource(metaData, this.fieldData) ?
+                    metaData.getPrimitivePropertyWriter() : null;
+        }
+
+        private static boolean isPropertyOfCurrentResource(MappedFieldMetaData metaData, FieldData staticFieldData) {
+            return staticFieldData != null &&
+                   metaData.isPropertyType() &&
+                   !metaData.isThisReference() &&
+                   !metaData.isChildrenAnnotationPresent() &&
+                   !metaData.isReference() &&
+                   !metaData.isLazy() &&
+                   !metaData.isOptional() &&
+                   !staticFieldData.isAbsolute() &&
+                   !staticFieldData.isRelative();
+        }
+
+        MappedFieldMetaData getMetaData() {
+            return this.metaData;
+        }
+    }
+
     /**
      * Represents the the contextual data of a resource model field during
-     * {@link FieldValueMappingCallback#doWith(io.neba.core.resourcemodels.metadata.MappedFieldMetaData) mapping}.
+     * {@link FieldValueMappingCallback#doWith(FieldMapping) mapping}.
      */
     private static final class FieldData {
+        private final FieldMapping mapping;
         private final MappedFieldMetaData metaData;
         private final String path;
         private final boolean isAbsolute;
         private final boolean isRelative;
+        /**
+         * The path of the resource containing the property designated by an {@link #isAbsolute() absolute}
+         * or {@link #isRelative() relative} path, e.g. <code>jcr:content</code> for <code>jcr:content/title</code>.
+         * <code>null</code> if the path is neither absolute nor relative.
+         */
+        private final String parentPathOfProperty;
+        /**
+         * The name of the property designated by an {@link #isAbsolute() absolute} or {@link #isRelative() relative} path,
+         * e.g. <code>title</code> for <code>jcr:content/title</code>. <code>null</code> if the path is neither absolute nor relative.
+         */
+        private final String propertyName;
+        /**
+         * Whether the field's value can be mapped even if the current resource has no properties, i.e.
+         * if the field is a {@link MappedFieldMetaData#isThisReference() reference to the current resource}
+         * or {@link #isReferenceToOtherResource() references another resource}.
+         */
+        private final boolean isMappableWithoutProperties;
 
-        private FieldData(MappedFieldMetaData metaData, String path) {
-            this.metaData = metaData;
+        private FieldData(FieldMapping mapping, String path) {
+            this.mapping = mapping;
+            this.metaData = mapping.metaData;
             this.path = path;
             this.isAbsolute = !path.isEmpty() && path.charAt(0) == '/';
             this.isRelative = !this.isAbsolute && path.indexOf('/') != -1;
+            if (this.isAbsolute || this.isRelative) {
+                final int separator = path.lastIndexOf('/');
+                this.parentPathOfProperty = separator == 0 ? "/" : path.substring(0, separator);
+                this.propertyName = path.substring(separator + 1);
+            } else {
+                this.parentPathOfProperty = null;
+                this.propertyName = null;
+            }
+            this.isMappableWithoutProperties = this.metaData.isThisReference() || isReferenceToOtherResource();
         }
 
         private boolean isAbsolute() {
@@ -719,52 +934,6 @@ public class FieldValueMappingCallback {
         }
     }
 
-    /**
-     * Lazy-loads collections of children.
-     *
-     * @see #createCollectionOfChildren(io.neba.core.resourcemodels.mapping.FieldValueMappingCallback.FieldData, org.apache.sling.api.resource.Resource)
-     * @author Olaf Otto
-     */
-    private static class LazyChildrenLoader implements LazyLoader {
-        private final FieldData field;
-        private final Resource resource;
-        private final FieldValueMappingCallback mapper;
-
-        LazyChildrenLoader(FieldData field, Resource resource, FieldValueMappingCallback callback) {
-            this.field = field;
-            this.resource = resource;
-            this.mapper = callback;
-        }
-
-        @Override
-        public Object loadObject() throws Exception {
-            return this.mapper.loadChildren(field, resource);
-        }
-    }
-
-    /**
-     * Lazy-loads collections of references.
-     *
-     * @see #createCollectionOfReferences(io.neba.core.resourcemodels.mapping.FieldValueMappingCallback.FieldData, String[])
-     * @author Olaf Otto
-     */
-    private static class LazyReferencesLoader implements LazyLoader {
-        private final FieldData field;
-        private final String[] paths;
-        private final FieldValueMappingCallback callback;
-
-        LazyReferencesLoader(FieldData field, String[] paths, FieldValueMappingCallback callback) {
-            this.field = field;
-            this.paths = paths;
-            this.callback = callback;
-        }
-
-        @Override
-        public Object loadObject() throws Exception {
-            return this.callback.loadReferences(field, paths);
-        }
-    }
-
     /**
      * @author Olaf Otto
      */
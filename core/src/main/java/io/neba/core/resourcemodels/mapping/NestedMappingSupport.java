@@ -17,6 +17,7 @@
 package io.neba.core.resourcemodels.mapping;
 
 import io.neba.core.resourcemodels.metadata.ResourceModelMetaData;
+import io.neba.core.util.ThreadContextSnapshot;
 import org.springframework.stereotype.Service;
 
 import java.util.HashMap;
@@ -143,6 +144,25 @@ public class NestedMappingSupport {
         }
     }
 
+    /**
+     * Mappings executed on behalf of the current thread in other threads, e.g. worker threads, are tracked independently.
+     *
+     * @return binds a new, empty stack of ongoing mappings to a thread. Never <code>null</code>.
+     */
+    public ThreadContextSnapshot newMappingStack() {
+        return () -> {
+            final OngoingMappings previousMappings = this.ongoingMappings.get();
+            this.ongoingMappings.remove();
+            return () -> {
+                if (previousMappings == null) {
+                    this.ongoingMappings.remove();
+                } else {
+                    this.ongoingMappings.set(previousMappings);
+                }
+            };
+        };
+    }
+
     /**
      * @return a thread-local, ordered map representing the stack of currently ongoing mappings.
      *         Never <code>null</code> but rather an empty map.
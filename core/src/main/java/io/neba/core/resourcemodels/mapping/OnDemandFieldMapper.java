@@ -0,0 +1,190 @@
+/*
+  Copyright 2013 the original author or authors.
+
+  Licensed under the Apache License, Version 2.0 the "License";
+  you may not use this file except in compliance with the License.
+  You may obtain a copy of the License at
+
+  http://www.apache.org/licenses/LICENSE-2.0
+
+  Unless required by applicable law or agreed to in writing, software
+  distributed under the License is distributed on an "AS IS" BASIS,
+  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+  See the License for the specific language governing permissions and
+  limitations under the License.
+*/
+
+package io.neba.core.resourcemodels.mapping;
+
+import io.neba.core.resourcemodels.metadata.ResourceModelStatistics;
+import org.aopalliance.intercept.MethodInterceptor;
+import org.aopalliance.intercept.MethodInvocation;
+
+import java.lang.reflect.Method;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+import static io.neba.core.resourcemodels.mapping.FieldValueMappingCallback.FieldMapping;
+import static java.lang.System.currentTimeMillis;
+import static java.lang.Thread.currentThread;
+import static org.apache.commons.lang.StringUtils.capitalize;
+import static org.springframework.util.ReflectionUtils.findMethod;
+
+/**
+ * Maps the fields of a model {@link io.neba.api.annotations.ResourceModel#mapFieldsOnDemand() on demand}:
+ * Intercepts the method invocations of the model proxy created by the {@link ResourceToModelMapper}. Invoking the
+ * {@link #gettersOf(Class, FieldMapping[]) getter} of a field maps this field, invoking any other method maps
+ * all fields not yet mapped. Each field is mapped at most once.
+ * <br />
+ * Fields are mapped within the {@link NestedMappingSupport#begin(Mapping) mapping} of the model, such that
+ * cycles back to the model resolve to the model proxy, and the mapping duration of each field is
+ * {@link ResourceModelStatistics#countMappingDuration(int) counted} like the mapping duration of eagerly mapped models.
+ * <br />
+ * No lock is held while a field is mapped, as mapping a field may access other models that are concurrently mapped by
+ * other threads, e.g. by the tasks of a request. Instead, the first thread accessing a field claims it. Threads
+ * accessing the field while it is mapped by another thread map it as well rather than waiting for the claiming thread.
+ *
+ * @author Olaf Otto
+ */
+class OnDemandFieldMapper implements MethodInterceptor {
+    private static final Object MAPPED = new Object();
+
+    private final FieldValueMappingCallback callback;
+    private final FieldMapping[] plan;
+    private final Map<Method, Integer> getters;
+    private final ResourceModelStatistics statistics;
+    private final Mapping<?> mapping;
+    private final NestedMappingSupport nestedMappingSupport;
+    // Per field: null if not yet mapped, the mapping thread while the field is mapped, MAPPED once the field is mapped.
+    private final AtomicReferenceArray<Object> claims;
+    private final AtomicInteger unmappedFields;
+
+    /**
+     * @param callback   maps the fields of the model. Must not be <code>null</code>.
+     * @param plan       the field mappings of the model. Must not be <code>null</code>.
+     * @param getters    the index of the field mapping in the plan by the getter of the field, see {@link #gettersOf(Class, FieldMapping[])}.
+     *                   Must not be <code>null</code>.
+     * @param mapping    the mapping of the model, containing the model proxy. Must not be <code>null</code>.
+     * @param nestedMappingSupport tracks the mapping of the model while a field is mapped. Must not be <code>null</code>.
+     */
+    OnDemandFieldMapper(FieldValueMappingCallback callback, FieldMapping[] plan, Map<Method, Integer> getters, Mapping<?> mapping, NestedMappingSupport nestedMappingSupport) {
+        if (callback == null) {
+            throw new IllegalArgumentException("Constructor parameter callback must not be null.");
+        }
+        if (plan == null) {
+            throw new IllegalArgumentException("Constructor parameter plan must not be null.");
+        }
+        if (getters == null) {
+            throw new IllegalArgumentException("Constructor parameter getters must not be null.");
+        }
+        if (mapping == null) {
+            throw new IllegalArgumentException("Constructor parameter mapping must not be null.");
+        }
+        if (nestedMappingSupport == null) {
+            throw new IllegalArgumentException("Constructor parameter nestedMappingSupport must not be null.");
+        }
+        this.callback = callback;
+        this.plan = plan;
+        this.getters = getters;
+        this.statistics = mapping.getMetadata().getStatistics();
+        this.mapping = mapping;
+        this.nestedMappingSupport = nestedMappingSupport;
+        this.claims = new AtomicReferenceArray<>(plan.length);
+        this.unmappedFields = new AtomicInteger(plan.length);
+    }
+
+    @Override
+    public Object invoke(MethodInvocation invocation) throws Throwable {
+        if (this.unmappedFields.get() != 0) {
+            mapFieldsRequiredBy(invocation.getMethod());
+        }
+        return invocation.proceed();
+    }
+
+    private void mapFieldsRequiredBy(Method method) {
+        Integer index = this.getters.get(method);
+        if (index != null) {
+            map(index);
+            return;
+        }
+        for (int i = 0; i < this.plan.length && this.unmappedFields.get() != 0; ++i) {
+            map(i);
+        }
+    }
+
+    private void map(int index) {
+        final Thread currentThread = currentThread();
+        Object claim = this.claims.get(index);
+        if (claim == MAPPED || claim == currentThread) {
+            // Either mapped or currently mapped by this thread, e.g. when a cycle leads back to the field.
+            return;
+        }
+
+        if (claim == null && this.claims.compareAndSet(index, null, currentThread)) {
+            this.statistics.countFieldMappedOnDemand();
+            try {
+                doMap(index);
+            } finally {
+                // Mark the field as mapped even if the mapping failed: A failed mapping is not repeated upon every subsequent invocation.
+                this.claims.set(index, MAPPED);
+                this.unmappedFields.decrementAndGet();
+            }
+            return;
+        }
+
+        // The field is claimed by another thread. Waiting for that thread could deadlock if it in turn
+        // waits for this thread, thus map the field as well unless it was mapped in the meantime.
+        if (this.claims.get(index) != MAPPED) {
+            doMap(index);
+        }
+    }
+
+    private void doMap(int index) {
+        // Do not track the mapping duration if the model is already being mapped, e.g. when a field
+        // of the model is accessed during the mapping of a nested model, as the durations would sum up multiple times.
+        final boolean trackMappingDuration = !this.nestedMappingSupport.hasOngoingMapping(this.mapping.getMetadata());
+        final boolean isOngoing = this.nestedMappingSupport.begin(this.mapping) != null;
+        final long startTimeInMs = trackMappingDuration ? currentTimeMillis() : 0;
+        try {
+            this.callback.doWith(this.plan[index]);
+        } finally {
+            if (!isOngoing) {
+                this.nestedMappingSupport.end(this.mapping);
+            }
+        }
+        if (trackMappingDuration) {
+            this.statistics.countMappingDuration((int) (currentTimeMillis() - startTimeInMs));
+        }
+    }
+
+    /**
+     * Resolves the getter of each mapped field, i.e. the method <code>getX()</code> or <code>isX()</code>
+     * for a field <code>x</code>.
+     *
+     * @param modelType must not be <code>null</code>.
+     * @param plan      must not be <code>null</code>.
+     * @return the index of the field mapping in the plan by the getter of the field. Never <code>null</code>.
+     */
+    static Map<Method, Integer> gettersOf(Class<?> modelType, FieldMapping[] plan) {
+        if (modelType == null) {
+            throw new IllegalArgumentException("Method argument modelType must not be null.");
+        }
+        if (plan == null) {
+            throw new IllegalArgumentException("Method argument plan must not be null.");
+        }
+        Map<Method, Integer> getters = new HashMap<>();
+        for (int i = 0; i < plan.length; ++i) {
+            final String name = capitalize(plan[i].getMetaData().getField().getName());
+            Method getter = findMethod(modelType, "get" + name);
+            if (getter == null) {
+                getter = findMethod(modelType, "is" + name);
+            }
+            if (getter != null) {
+                getters.put(getter, i);
+            }
+        }
+        return getters;
+    }
+}
@@ -24,15 +24,23 @@ import io.neba.core.util.OsgiBeanSource;
 import org.apache.sling.api.resource.Resource;
 import org.springframework.aop.TargetSource;
 import org.springframework.aop.framework.Advised;
+import org.springframework.aop.framework.ProxyFactory;
 import org.springframework.beans.factory.BeanFactory;
 import org.springframework.beans.factory.annotation.Autowired;
-import org.springframework.stereotype.Service;
+import org.springframework.beans.factory.config.ConfigurableBeanFactory;
 
+import java.lang.reflect.Method;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
 
+import static io.neba.core.resourcemodels.mapping.FieldValueMappingCallback.FieldMapping;
+import static io.neba.core.resourcemodels.mapping.FieldValueMappingCallback.compile;
+import static io.neba.core.resourcemodels.mapping.OnDemandFieldMapper.gettersOf;
 import static java.lang.System.currentTimeMillis;
 import static org.apache.commons.lang.StringUtils.join;
+import static org.springframework.util.ClassUtils.getUserClass;
 import static org.springframework.util.Assert.notNull;
 
 /**
@@ -40,12 +48,22 @@ import static org.springframework.util.Assert.notNull;
  * the {@link FieldValueMappingCallback}. Applies the registered
  * {@link ResourceModelPostProcessor post processors} to the model before and
  * after the fields are mapped.
+ * <br />
+ * Models {@link ResourceModelMetaData#isMapFieldsOnDemand() mapping their fields on demand} are provided as a
+ * proxy {@link OnDemandFieldMapper mapping the fields} upon method invocation.
+ * <br />
+ * Configured via the {@link ResourceToModelMapperConfiguration}.
  *
  * @author Olaf Otto
  */
-@Service
 public class ResourceToModelMapper {
     private final List<ResourceModelPostProcessor> postProcessors = new ArrayList<>();
+    // The compiled field mappings of each model, see FieldValueMappingCallback#compile(MappedFieldMetaData, AnnotatedFieldMappers).
+    private final Map<ResourceModelMetaData, FieldMapping[]> mappingPlans = new ConcurrentHashMap<>();
+    // The state of the annotated field mappers the mapping plans were compiled with, see AnnotatedFieldMappers#getState().
+    private volatile int mappingPlansState = 0;
+    // The getters of the fields in the mapping plans of models mapped on demand, see OnDemandFieldMapper#gettersOf.
+    private final Map<ResourceModelMetaData, Map<Method, Integer>> gettersOfMappingPlans = new ConcurrentHashMap<>();
     @Autowired
     private ModelProcessor modelProcessor;
     @Autowired
@@ -54,6 +72,7 @@ public class ResourceToModelMapper {
     private AnnotatedFieldMappers annotatedFieldMappers;
     @Autowired
     private ResourceModelMetaDataRegistrar resourceModelMetaDataRegistrar;
+    private boolean reflectiveFieldAccess = false;
 
     /**
      * @param resource must not be <code>null</code>.
@@ -149,16 +168,77 @@ public class ResourceToModelMapper {
             model = getTargetObjectOfAdvisedBean((Advised) bean);
         }
 
-        final FieldValueMappingCallback callback = new FieldValueMappingCallback(model, resource, factory, this.annotatedFieldMappers);
+        final FieldValueMappingCallback callback = new FieldValueMappingCallback(model, resource, factory, this.annotatedFieldMappers, this.reflectiveFieldAccess);
 
-        for (MappedFieldMetaData mappedFieldMetaData : metaData.getMappableFields()) {
-            callback.doWith(mappedFieldMetaData);
+        if (metaData.isMapFieldsOnDemand() && model == preprocessedModel) {
+            // The model is not proxied yet: provide a proxy mapping the fields upon access.
+            preprocessedModel = mapOnDemand(resource, model, metaData, callback, factory);
+        } else {
+            for (FieldMapping fieldMapping : mappingPlanOf(metaData)) {
+                callback.doWith(fieldMapping);
+            }
         }
 
         // Do not expose the unwrapped model to the post processors, use the proxy (if any) instead.
         return postProcess(resource, preprocessedModel, factory);
     }
 
+    /**
+     * @return a proxy of the model {@link OnDemandFieldMapper mapping the model's fields} upon method invocation.
+     */
+    @SuppressWarnings("unchecked")
+    private <T> T mapOnDemand(final Resource resource, final T model, final ResourceModelMetaData metaData, final FieldValueMappingCallback callback, final BeanFactory factory) {
+        final FieldMapping[] plan = mappingPlanOf(metaData);
+        final Map<Method, Integer> getters = this.gettersOfMappingPlans.computeIfAbsent(metaData, m -> gettersOf(getUserClass(model.getClass()), plan));
+        final Mapping<T> mapping = new Mapping<>(resource.getPath(), metaData);
+
+        ProxyFactory proxyFactory = new ProxyFactory(model);
+        proxyFactory.setProxyTargetClass(true);
+        proxyFactory.addAdvice(new OnDemandFieldMapper(callback, plan, getters, mapping, this.nestedMappingSupport));
+        metaData.getStatistics().countOnDemandMapping();
+
+        // The bean class loader of the model's factory can see both the model and the proxy infrastructure.
+        ClassLoader classLoader = factory instanceof ConfigurableBeanFactory ?
+                ((ConfigurableBeanFactory) factory).getBeanClassLoader() :
+                model.getClass().getClassLoader();
+
+        final T proxy = (T) proxyFactory.getProxy(classLoader);
+        mapping.setMappedModel(proxy);
+        return proxy;
+    }
+
+    /**
+     * @return the {@link FieldValueMappingCallback#compile(MappedFieldMetaData, AnnotatedFieldMappers) compiled mappings} of the
+     * model's mappable fields. Compiled once per model and re-compiled once annotated field mappers are bound or unbound.
+     */
+    private FieldMapping[] mappingPlanOf(ResourceModelMetaData metaData) {
+        final int state = this.annotatedFieldMappers.getState();
+        if (state != this.mappingPlansState) {
+            synchronized (this.mappingPlans) {
+                if (state != this.mappingPlansState) {
+                    clearMappingPlans();
+                    this.mappingPlansState = state;
+                }
+            }
+        }
+
+        FieldMapping[] plan = this.mappingPlans.get(metaData);
+        if (plan == null) {
+            MappedFieldMetaData[] fields = metaData.getMappableFields();
+            plan = new FieldMapping[fields.length];
+            for (int i = 0; i < fields.length; ++i) {
+                plan[i] = compile(fields[i], this.annotatedFieldMappers);
+            }
+            // Do not retain a plan compiled while field mappers changed.
+            synchronized (this.mappingPlans) {
+                if (state == this.mappingPlansState && state == this.annotatedFieldMappers.getState()) {
+                    this.mappingPlans.put(metaData, plan);
+                }
+            }
+        }
+        return plan;
+    }
+
     private <T> T preProcess(final Resource resource, final T model, final BeanFactory factory) {
         final ResourceModelMetaData metaData = this.resourceModelMetaDataRegistrar.get(model.getClass());
         this.modelProcessor.processBeforeMapping(metaData, model);
@@ -197,4 +277,21 @@ public class ResourceToModelMapper {
         }
         this.postProcessors.remove(postProcessor);
     }
+
+    /**
+     * Removes all compiled mapping plans, e.g. since the metadata of models was removed.
+     * Plans are re-compiled upon the next mapping of a model.
+     */
+    public void clearMappingPlans() {
+        this.mappingPlans.clear();
+        this.gettersOfMappingPlans.clear();
+    }
+
+    /**
+     * @param reflectiveFieldAccess whether mapped values are written to the model fields via reflection rather than
+     *                              the {@link MappedFieldMetaData#setValue(Object, Object) accessors} of the field metadata.
+     */
+    public void setReflectiveFieldAccess(boolean reflectiveFieldAccess) {
+        this.reflectiveFieldAccess = reflectiveFieldAccess;
+    }
 }
@@ -0,0 +1,53 @@
+/*
+  Copyright 2013 the original author or authors.
+
+  Licensed under the Apache License, Version 2.0 the "License";
+  you may not use this file except in compliance with the License.
+  You may obtain a copy of the License at
+
+  http://www.apache.org/licenses/LICENSE-2.0
+
+  Unless required by applicable law or agreed to in writing, software
+  distributed under the License is distributed on an "AS IS" BASIS,
+  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+  See the License for the specific language governing permissions and
+  limitations under the License.
+*/
+
+package io.neba.core.resourcemodels.mapping;
+
+import org.apache.felix.scr.annotations.Component;
+import org.apache.felix.scr.annotations.Properties;
+import org.apache.felix.scr.annotations.Property;
+import org.apache.felix.scr.annotations.Service;
+
+/**
+ * The sole purpose of this class is to provide service component runtime (SCR) metadata
+ * enabling service configuration via the OSGi console. The metadata
+ * is generated from the SCR annotations of this class by the maven-scr-plugin
+ * during build time.
+ * <br />
+ * The generated metadata is used in the blueprint configuration
+ * of this module to configure the {@link ResourceToModelMapper}.
+ *
+ * @author Olaf Otto
+ */
+@Service(ResourceToModelMapperConfiguration.class)
+@Component(label = "NEBA resource to model mapper",
+           immediate = false,
+           description = "Configures how resource models are mapped.",
+           metatype = true,
+           name = ResourceToModelMapperConfiguration.PID)
+@Properties({
+    @Property(name = "service.vendor", value = "neba.io")
+})
+public class ResourceToModelMapperConfiguration {
+    public static final String PID = "io.neba.core.resourcemodels.mapping.ResourceToModelMapperConfiguration";
+
+    @Property(
+            label = "Reflective field access",
+            description = "By default, mapped values are written to the fields of resource models using accessors " +
+                          "created once per model field. Enable this to use reflection instead, e.g. should a JVM not support these accessors.",
+            boolValue = false)
+    public static final String REFLECTIVE_FIELD_ACCESS = "reflectiveFieldAccess";
+}
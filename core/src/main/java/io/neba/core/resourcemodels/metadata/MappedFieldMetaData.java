@@ -25,10 +25,8 @@ import io.neba.api.resourcemodels.Optional;
 import io.neba.core.util.Annotations;
 import io.neba.core.util.ReflectionUtil;
 import org.apache.commons.lang.ClassUtils;
-import org.springframework.cglib.proxy.Enhancer;
-import org.springframework.cglib.proxy.Factory;
-import org.springframework.cglib.proxy.LazyLoader;
 
+import java.lang.invoke.MethodHandle;
 import java.lang.reflect.Array;
 import java.lang.reflect.Field;
 import java.lang.reflect.Type;
@@ -39,6 +37,8 @@ import java.util.Date;
 import static io.neba.core.util.Annotations.annotations;
 import static io.neba.core.util.ReflectionUtil.getInstantiableCollectionTypes;
 import static io.neba.core.util.ReflectionUtil.getLowerBoundOfSingleTypeParameter;
+import static java.lang.invoke.MethodHandles.lookup;
+import static java.lang.invoke.MethodType.methodType;
 import static org.apache.commons.lang.StringUtils.*;
 import static org.apache.commons.lang3.reflect.TypeUtils.getRawType;
 import static org.springframework.util.ReflectionUtils.makeAccessible;
@@ -86,8 +86,9 @@ public class MappedFieldMetaData {
     private final Type genericFieldType;
     private final Class<?> fieldType;
     private final Class<?> modelType;
-    private final Factory collectionProxyFactory;
-
+    private final MethodHandle setter;
+    private final MethodHandle getter;
+    private final PrimitivePropertyWriter primitivePropertyWriter;
 
     /**
      * Immediately extracts all metadata for the provided field.
@@ -132,38 +133,47 @@ public class MappedFieldMetaData {
         this.isInstantiableCollectionType = ReflectionUtil.isInstantiableCollectionType(this.fieldType);
 
         enforceInstantiableCollectionTypeForExplicitlyMappedFields();
-        this.collectionProxyFactory = prepareProxyFactoryForCollectionTypes();
 
         makeAccessible(field);
+        this.setter = createSetter();
+        this.getter = createGetter();
+        this.primitivePropertyWriter = PrimitivePropertyWriter.forField(field);
     }
 
     /**
-     * Wraps {@link io.neba.core.util.ReflectionUtil#getLowerBoundOfSingleTypeParameter(java.lang.reflect.Type)}
-     * in order to provide a field-related error message to signal users which field is affected.
+     * Creates a method handle writing the (accessible) field of a model instance. Unlike
+     * {@link Field#set(Object, Object)}, invoking the handle requires no access checks
+     * and can be inlined by the JIT compiler.
      */
-    private Type getParameterTypeOf(Type type) {
+    private MethodHandle createSetter() {
         try {
-            return getLowerBoundOfSingleTypeParameter(type);
-        } catch (Exception e) {
-            throw new IllegalArgumentException("Unable to resolve a generic parameter type of the mapped field " + this.field + ".", e);
+            return lookup().unreflectSetter(this.field).asType(methodType(void.class, Object.class, Object.class));
+        } catch (IllegalAccessException e) {
+            throw new IllegalStateException("Unable to create a setter for the mapped field " + this.field + ".", e);
         }
     }
 
     /**
-     * Prepares a proxy instance of a collection type for use as a {@link org.springframework.cglib.proxy.Factory}.
-     * Proxy instances are always {@link org.springframework.cglib.proxy.Factory factories}.
-     * Using {@link org.springframework.cglib.proxy.Factory#newInstance(org.springframework.cglib.proxy.Callback)}
-     * is significantly more efficient than using {@link org.springframework.cglib.proxy.Enhancer#create(Class, org.springframework.cglib.proxy.Callback)}.
+     * Creates a method handle reading the (accessible) field of a model instance, see {@link #createSetter()}.
      */
-    private Factory prepareProxyFactoryForCollectionTypes() {
-        if (this.isInstantiableCollectionType) {
-            return (Factory) Enhancer.create(this.fieldType, (LazyLoader) () -> null);
+    private MethodHandle createGetter() {
+        try {
+            return lookup().unreflectGetter(this.field).asType(methodType(Object.class, Object.class));
+        } catch (IllegalAccessException e) {
+            throw new IllegalStateException("Unable to create a getter for the mapped field " + this.field + ".", e);
         }
-        return null;
     }
 
-    public Factory getCollectionProxyFactory() {
-        return this.collectionProxyFactory;
+    /**
+     * Wraps {@link io.neba.core.util.ReflectionUtil#getLowerBoundOfSingleTypeParameter(java.lang.reflect.Type)}
+     * in order to provide a field-related error message to signal users which field is affected.
+     */
+    private Type getParameterTypeOf(Type type) {
+        try {
+            return getLowerBoundOfSingleTypeParameter(type);
+        } catch (Exception e) {
+            throw new IllegalArgumentException("Unable to resolve a generic parameter type of the mapped field " + this.field + ".", e);
+        }
     }
 
     private String getAppendPathFromReference() {
@@ -204,7 +214,7 @@ public class MappedFieldMetaData {
      * An expression has the form ${value}, e.g. &#64;Path("/content/${language}/homepage").
      */
     private boolean isPathExpressionPresentInternal() {
-        return this.isPathAnnotationPresent && this.path.contains("$");
+        return this.isPathAnnotationPresent && this.path.contains("${");
     }
 
     private Class<?> resolveTypeParameter() {
@@ -275,6 +285,46 @@ public class MappedFieldMetaData {
         return this.field;
     }
 
+    /**
+     * Writes the value to this field of the model without reflection.
+     *
+     * @param model must not be <code>null</code> and must be an instance of the type declaring the field.
+     * @param value can be <code>null</code>, unless the field is primitive.
+     */
+    public void setValue(Object model, Object value) {
+        try {
+            this.setter.invokeExact(model, value);
+        } catch (RuntimeException | Error e) {
+            throw e;
+        } catch (Throwable e) {
+            throw new IllegalStateException("Unable to set the value of " + this.field + ".", e);
+        }
+    }
+
+    /**
+     * Reads this field of the model without reflection.
+     *
+     * @param model must not be <code>null</code> and must be an instance of the type declaring the field.
+     * @return the field value, can be <code>null</code>.
+     */
+    public Object getValue(Object model) {
+        try {
+            return this.getter.invokeExact(model);
+        } catch (RuntimeException | Error e) {
+            throw e;
+        } catch (Throwable e) {
+            throw new IllegalStateException("Unable to get the value of " + this.field + ".", e);
+        }
+    }
+
+    /**
+     * @return the writer mapping properties onto this field without boxing, or <code>null</code> if the
+     * field type is not primitive.
+     */
+    public PrimitivePropertyWriter getPrimitivePropertyWriter() {
+        return this.primitivePropertyWriter;
+    }
+
     /**
      * @return Whether this field is annotated with {@link io.neba.api.annotations.Reference}.
      */
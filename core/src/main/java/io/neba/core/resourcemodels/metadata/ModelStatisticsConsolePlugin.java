@@ -180,6 +180,10 @@ public class ModelStatisticsConsolePlugin extends AbstractWebConsolePlugin {
         data.put("minimumMappingDuration", statistics.getMinimumMappingDuration());
         data.put("mappingDurationMedian", statistics.getMappingDurationMedian());
         data.put("cacheHits", statistics.getCacheHits());
+        data.put("onDemandMappings", statistics.getOnDemandMappings());
+        data.put("averageFieldsMappedOnDemand", statistics.getAverageNumberOfFieldsMappedOnDemand());
+        data.put("sharedCacheHits", statistics.getSharedCacheHits());
+        data.put("sharedCacheHitRate", statistics.getSharedCacheHitRate());
         return data;
     }
 
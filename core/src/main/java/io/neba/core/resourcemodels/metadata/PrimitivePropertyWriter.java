@@ -0,0 +1,287 @@
+/*
+  Copyright 2013 the original author or authors.
+
+  Licensed under the Apache License, Version 2.0 the "License";
+  you may not use this file except in compliance with the License.
+  You may obtain a copy of the License at
+
+  http://www.apache.org/licenses/LICENSE-2.0
+
+  Unless required by applicable law or agreed to in writing, software
+  distributed under the License is distributed on an "AS IS" BASIS,
+  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+  See the License for the specific language governing permissions and
+  limitations under the License.
+*/
+
+package io.neba.core.resourcemodels.metadata;
+
+import org.apache.sling.api.resource.ValueMap;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.reflect.Field;
+
+import static java.lang.invoke.MethodHandles.lookup;
+import static java.lang.invoke.MethodType.methodType;
+
+/**
+ * Maps a property onto a field of a primitive type without boxing the converted value. The writer for the
+ * field type is resolved once per {@link MappedFieldMetaData field}.
+ * <br />
+ * Property values are read as stored, e.g. as a {@link Long} for a JCR long property, and are converted
+ * to the primitive field type directly if they are a {@link Number}, or a {@link Boolean} for <code>boolean</code> fields.
+ * All other values, such as strings or multi-value properties, are converted by the {@link ValueMap}, yielding the
+ * same result as {@link ValueMap#get(String, Class)} with the wrapper type of the field.
+ *
+ * @author Olaf Otto
+ */
+public abstract class PrimitivePropertyWriter {
+    final MethodHandle setter;
+    private final Field field;
+
+    /**
+     * @param field must not be <code>null</code>.
+     * @return the writer for the primitive type of the field, or <code>null</code> if the field type is not primitive.
+     */
+    static PrimitivePropertyWriter forField(Field field) {
+        if (field == null) {
+            throw new IllegalArgumentException("Method argument field must not be null.");
+        }
+        final Class<?> type = field.getType();
+        if (!type.isPrimitive()) {
+            return null;
+        }
+        if (type == int.class) {
+            return new IntWriter(field);
+        }
+        if (type == long.class) {
+            return new LongWriter(field);
+        }
+        if (type == boolean.class) {
+            return new BooleanWriter(field);
+        }
+        if (type == double.class) {
+            return new DoubleWriter(field);
+        }
+        if (type == float.class) {
+            return new FloatWriter(field);
+        }
+        if (type == short.class) {
+            return new ShortWriter(field);
+        }
+        if (type == byte.class) {
+            return new ByteWriter(field);
+        }
+        return new CharWriter(field);
+    }
+
+    private PrimitivePropertyWriter(Field field) {
+        this.field = field;
+        try {
+            this.setter = lookup().unreflectSetter(field).asType(methodType(void.class, Object.class, field.getType()));
+        } catch (IllegalAccessException e) {
+            throw new IllegalStateException("Unable to create a setter for the mapped field " + field + ".", e);
+        }
+    }
+
+    /**
+     * Writes the property with the given name to the field of the model, unless the property does not exist
+     * or cannot be converted to the field type.
+     *
+     * @param model      must not be <code>null</code> and must be an instance of the type declaring the field.
+     * @param properties must not be <code>null</code>.
+     * @param name       must not be <code>null</code>.
+     * @return whether the field was written.
+     */
+    public boolean write(Object model, ValueMap properties, String name) {
+        final Object value = properties.get(name);
+        if (value == null) {
+            return false;
+        }
+        try {
+            return write(model, value, properties, name);
+        } catch (RuntimeException | Error e) {
+            throw e;
+        } catch (Throwable e) {
+            throw new IllegalStateException("Unable to set the value of " + this.field + ".", e);
+        }
+    }
+
+    abstract boolean write(Object model, Object value, ValueMap properties, String name) throws Throwable;
+
+    /**
+     * @author Olaf Otto
+     */
+    private static final class IntWriter extends PrimitivePropertyWriter {
+        private IntWriter(Field field) {
+            super(field);
+        }
+
+        @Override
+        boolean write(Object model, Object value, ValueMap properties, String name) throws Throwable {
+            if (value instanceof Number) {
+                this.setter.invokeExact(model, ((Number) value).intValue());
+                return true;
+            }
+            Integer converted = properties.get(name, Integer.class);
+            if (converted == null) {
+                return false;
+            }
+            this.setter.invokeExact(model, converted.intValue());
+            return true;
+        }
+    }
+
+    /**
+     * @author Olaf Otto
+     */
+    private static final class LongWriter extends PrimitivePropertyWriter {
+        private LongWriter(Field field) {
+            super(field);
+        }
+
+        @Override
+        boolean write(Object model, Object value, ValueMap properties, String name) throws Throwable {
+            if (value instanceof Number) {
+                this.setter.invokeExact(model, ((Number) value).longValue());
+                return true;
+            }
+            Long converted = properties.get(name, Long.class);
+            if (converted == null) {
+                return false;
+            }
+            this.setter.invokeExact(model, converted.longValue());
+            return true;
+        }
+    }
+
+    /**
+     * @author Olaf Otto
+     */
+    private static final class DoubleWriter extends PrimitivePropertyWriter {
+        private DoubleWriter(Field field) {
+            super(field);
+        }
+
+        @Override
+        boolean write(Object model, Object value, ValueMap properties, String name) throws Throwable {
+            if (value instanceof Number) {
+                this.setter.invokeExact(model, ((Number) value).doubleValue());
+                return true;
+            }
+            Double converted = properties.get(name, Double.class);
+            if (converted == null) {
+                return false;
+            }
+            this.setter.invokeExact(model, converted.doubleValue());
+            return true;
+        }
+    }
+
+    /**
+     * @author Olaf Otto
+     */
+    private static final class FloatWriter extends PrimitivePropertyWriter {
+        private FloatWriter(Field field) {
+            super(field);
+        }
+
+        @Override
+        boolean write(Object model, Object value, ValueMap properties, String name) throws Throwable {
+            if (value instanceof Number) {
+                this.setter.invokeExact(model, ((Number) value).floatValue());
+                return true;
+            }
+            Float converted = properties.get(name, Float.class);
+            if (converted == null) {
+                return false;
+            }
+            this.setter.invokeExact(model, converted.floatValue());
+            return true;
+        }
+    }
+
+    /**
+     * @author Olaf Otto
+     */
+    private static final class ShortWriter extends PrimitivePropertyWriter {
+        private ShortWriter(Field field) {
+            super(field);
+        }
+
+        @Override
+        boolean write(Object model, Object value, ValueMap properties, String name) throws Throwable {
+            if (value instanceof Number) {
+                this.setter.invokeExact(model, ((Number) value).shortValue());
+                return true;
+            }
+            Short converted = properties.get(name, Short.class);
+            if (converted == null) {
+                return false;
+            }
+            this.setter.invokeExact(model, converted.shortValue());
+            return true;
+        }
+    }
+
+    /**
+     * @author Olaf Otto
+     */
+    private static final class ByteWriter extends PrimitivePropertyWriter {
+        private ByteWriter(Field field) {
+            super(field);
+        }
+
+        @Override
+        boolean write(Object model, Object value, ValueMap properties, String name) throws Throwable {
+            if (value instanceof Number) {
+                this.setter.invokeExact(model, ((Number) value).byteValue());
+                return true;
+            }
+            Byte converted = properties.get(name, Byte.class);
+            if (converted == null) {
+                return false;
+            }
+            this.setter.invokeExact(model, converted.byteValue());
+            return true;
+        }
+    }
+
+    /**
+     * @author Olaf Otto
+     */
+    private static final class BooleanWriter extends PrimitivePropertyWriter {
+        private BooleanWriter(Field field) {
+            super(field);
+        }
+
+        @Override
+        boolean write(Object model, Object value, ValueMap properties, String name) throws Throwable {
+            Boolean converted = value instanceof Boolean ? (Boolean) value : properties.get(name, Boolean.class);
+            if (converted == null) {
+                return false;
+            }
+            this.setter.invokeExact(model, converted.booleanValue());
+            return true;
+        }
+    }
+
+    /**
+     * @author Olaf Otto
+     */
+    private static final class CharWriter extends PrimitivePropertyWriter {
+        private CharWriter(Field field) {
+            super(field);
+        }
+
+        @Override
+        boolean write(Object model, Object value, ValueMap properties, String name) throws Throwable {
+            Character converted = value instanceof Character ? (Character) value : properties.get(name, Character.class);
+            if (converted == null) {
+                return false;
+            }
+            this.setter.invokeExact(model, converted.charValue());
+            return true;
+        }
+    }
+}
@@ -16,19 +16,28 @@
 
 package io.neba.core.resourcemodels.metadata;
 
+import io.neba.api.annotations.Immutable;
+import io.neba.api.annotations.ResourceModel;
 import io.neba.api.annotations.Unmapped;
 import io.neba.core.util.Annotations;
+import org.apache.sling.api.resource.ResourceResolver;
+import org.apache.sling.api.resource.ValueMap;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.util.ReflectionUtils;
 
 import javax.annotation.Resource;
+import javax.jcr.Node;
 import java.lang.reflect.Field;
 import java.lang.reflect.Method;
 import java.lang.reflect.Modifier;
 import java.util.ArrayList;
 import java.util.Collection;
+import java.util.HashSet;
+import java.util.Set;
 
 import static io.neba.core.util.Annotations.annotations;
+import static java.util.Collections.singleton;
+import static org.springframework.core.annotation.AnnotationUtils.findAnnotation;
 import static org.springframework.util.ReflectionUtils.doWithFields;
 import static org.springframework.util.ReflectionUtils.doWithMethods;
 
@@ -42,6 +51,15 @@ import static org.springframework.util.ReflectionUtils.doWithMethods;
  * @author Olaf Otto
  */
 public class ResourceModelMetaData {
+    /**
+     * Models retaining values of these types depend on the resource resolver they were adapted with.
+     */
+    private static final Class<?>[] REQUEST_BOUND_TYPES = {
+            org.apache.sling.api.resource.Resource.class,
+            ResourceResolver.class,
+            ValueMap.class,
+            Node.class};
+
     /**
      * @author Olaf Otto
      */
@@ -131,6 +149,8 @@ public class ResourceModelMetaData {
     private final MethodMetaData[] postMappingMethods;
     private final MethodMetaData[] preMappingMethods;
     private final String typeName;
+    private final boolean mapFieldsOnDemand;
+    private final boolean sharedAcrossRequests;
 
     private final ResourceModelStatistics statistics = new ResourceModelStatistics();
 
@@ -145,8 +165,71 @@ public class ResourceModelMetaData {
         this.preMappingMethods = mc.getPreMappingMethods();
         this.postMappingMethods = mc.getPostMappingMethods();
         this.typeName = modelType.getName();
+        this.mapFieldsOnDemand = isMapFieldsOnDemand(modelType, this.postMappingMethods);
+        this.sharedAcrossRequests = isSharedAcrossRequests(modelType, this.mapFieldsOnDemand, this.mappableFields, new HashSet<>(singleton(modelType)));
+    }
+
+    /**
+     * @return whether the model requests to {@link ResourceModel#mapFieldsOnDemand() map its fields on demand}
+     * and supports doing so, i.e. is not final and has no {@link #getPostMappingMethods() post mapping methods}.
+     */
+    private static boolean isMapFieldsOnDemand(Class<?> modelType, MethodMetaData[] postMappingMethods) {
+        ResourceModel resourceModel = findAnnotation(modelType, ResourceModel.class);
+        return resourceModel != null &&
+               resourceModel.mapFieldsOnDemand() &&
+               postMappingMethods.length == 0 &&
+               !Modifier.isFinal(modelType.getModifiers());
+    }
+
+    /**
+     * @return whether the model is declared {@link Immutable} and does not depend on the resource resolver
+     * it is adapted with, i.e. is not mapped on demand, has no lazy-loading fields, retains no resources, resource resolvers,
+     * value maps or nodes and only contains models that are shared across requests themselves.
+     */
+    private static boolean isSharedAcrossRequests(Class<?> modelType, boolean mapFieldsOnDemand, MappedFieldMetaData[] mappableFields, Set<Class<?>> visitedTypes) {
+        if (mapFieldsOnDemand || findAnnotation(modelType, Immutable.class) == null) {
+            return false;
+        }
+        for (MappedFieldMetaData field : mappableFields) {
+            if (field.isLazy() ||
+                field.isOptional() ||
+                field.isChildrenAnnotationPresent() ||
+                field.isReference() && field.isCollectionType()) {
+                return false;
+            }
+
+            Class<?> valueType = field.isCollectionType() ? field.getTypeParameter() : field.getType();
+            while (valueType != null && valueType.isArray()) {
+                valueType = valueType.getComponentType();
+            }
+            if (valueType == null) {
+                continue;
+            }
+            for (Class<?> requestBoundType : REQUEST_BOUND_TYPES) {
+                if (requestBoundType.isAssignableFrom(valueType)) {
+                    return false;
+                }
+            }
+            // Models referencing each other are shared if they are shareable otherwise.
+            if (findAnnotation(valueType, ResourceModel.class) != null &&
+                visitedTypes.add(valueType) &&
+                !isSharedAcrossRequests(valueType, visitedTypes)) {
+                return false;
+            }
+        }
+        return true;
     }
 
+    /**
+     * @return whether a model contained in another model may be shared across requests.
+     */
+    private static boolean isSharedAcrossRequests(Class<?> modelType, Set<Class<?>> visitedTypes) {
+        FieldMetadataCreator fc = new FieldMetadataCreator(modelType);
+        doWithFields(modelType, fc);
+        MethodMetadataCreator mc = new MethodMetadataCreator();
+        doWithMethods(modelType, mc);
+        return isSharedAcrossRequests(modelType, isMapFieldsOnDemand(modelType, mc.getPostMappingMethods()), fc.getMappableFields(), visitedTypes);
+    }
 
     public MappedFieldMetaData[] getMappableFields() {
         return mappableFields;
@@ -160,6 +243,20 @@ public class ResourceModelMetaData {
         return preMappingMethods;
     }
 
+    /**
+     * @return whether the fields of the model are mapped on demand, see {@link ResourceModel#mapFieldsOnDemand()}.
+     */
+    public boolean isMapFieldsOnDemand() {
+        return mapFieldsOnDemand;
+    }
+
+    /**
+     * @return whether instances of the model may be shared across requests, see {@link Immutable}.
+     */
+    public boolean isSharedAcrossRequests() {
+        return sharedAcrossRequests;
+    }
+
     public String getTypeName() {
         return typeName;
     }
@@ -44,6 +44,10 @@ public class ResourceModelStatistics {
     private long instantiations;
     private long mappings;
     private long cacheHits;
+    private long onDemandMappings;
+    private long fieldsMappedOnDemand;
+    private long sharedCacheHits;
+    private long sharedCacheMisses;
 
     public ResourceModelStatistics() {
         reset();
@@ -62,6 +66,10 @@ public class ResourceModelStatistics {
         this.instantiations = 0;
         this.mappings = 0;
         this.cacheHits = 0;
+        this.onDemandMappings = 0;
+        this.fieldsMappedOnDemand = 0;
+        this.sharedCacheHits = 0;
+        this.sharedCacheMisses = 0;
     }
 
     /**
@@ -116,6 +124,76 @@ public class ResourceModelStatistics {
         return this;
     }
 
+    /**
+     * Increments the number of times the model was found in the cache shared across requests,
+     * see {@link io.neba.api.annotations.Immutable}.
+     *
+     * @return this instance.
+     */
+    public ResourceModelStatistics countSharedCacheHit() {
+        ++this.sharedCacheHits;
+        return this;
+    }
+
+    /**
+     * Increments the number of times the model was looked up, but not found in the cache shared across requests.
+     *
+     * @return this instance.
+     */
+    public ResourceModelStatistics countSharedCacheMiss() {
+        ++this.sharedCacheMisses;
+        return this;
+    }
+
+    /**
+     * @return The number of times the model was found in the cache shared across requests.
+     */
+    public long getSharedCacheHits() {
+        return sharedCacheHits;
+    }
+
+    /**
+     * @return The ratio of lookups in the cache shared across requests that found the model, between 0 and 1.
+     */
+    public double getSharedCacheHitRate() {
+        return this.sharedCacheHits / (double) max(this.sharedCacheHits + this.sharedCacheMisses, 1);
+    }
+
+    /**
+     * Increments the number of model instances whose fields are
+     * {@link io.neba.api.annotations.ResourceModel#mapFieldsOnDemand() mapped on demand}.
+     *
+     * @return this instance.
+     */
+    public ResourceModelStatistics countOnDemandMapping() {
+        ++this.onDemandMappings;
+        return this;
+    }
+
+    /**
+     * Increments the number of fields mapped on demand.
+     *
+     * @return this instance.
+     */
+    public ResourceModelStatistics countFieldMappedOnDemand() {
+        ++this.fieldsMappedOnDemand;
+        return this;
+    }
+
+    /**
+     * @return The number of model instances whose fields are mapped on demand.
+     */
+    public long getOnDemandMappings() {
+        return onDemandMappings;
+    }
+
+    /**
+     * @return The average number of fields actually mapped per instance mapped on demand.
+     */
+    public double getAverageNumberOfFieldsMappedOnDemand() {
+        return this.fieldsMappedOnDemand / (double) max(this.onDemandMappings, 1);
+    }
+
     /**
      * @return the total number of recorded subsequent resource-to-resourcemodel mappings
      *         that occurred during the mapping of this model.
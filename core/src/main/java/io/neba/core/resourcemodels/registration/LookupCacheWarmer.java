@@ -0,0 +1,234 @@
+/*
+  Copyright 2013 the original author or authors.
+
+  Licensed under the Apache License, Version 2.0 the "License";
+  you may not use this file except in compliance with the License.
+  You may obtain a copy of the License at
+
+  http://www.apache.org/licenses/LICENSE-2.0
+
+  Unless required by applicable law or agreed to in writing, software
+  distributed under the License is distributed on an "AS IS" BASIS,
+  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+  See the License for the specific language governing permissions and
+  limitations under the License.
+*/
+
+package io.neba.core.resourcemodels.registration;
+
+import io.neba.core.util.ResourceTypeSignature;
+import org.apache.sling.api.resource.LoginException;
+import org.apache.sling.api.resource.Resource;
+import org.apache.sling.api.resource.ResourceResolver;
+import org.apache.sling.api.resource.ResourceResolverFactory;
+import org.eclipse.gemini.blueprint.context.BundleContextAware;
+import org.osgi.framework.BundleContext;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+import org.springframework.stereotype.Service;
+
+import javax.annotation.PreDestroy;
+import java.io.BufferedReader;
+import java.io.File;
+import java.io.IOException;
+import java.io.Writer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Map;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+
+import static io.neba.core.util.ResourceTypeSignature.signatureOf;
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static java.nio.file.StandardCopyOption.ATOMIC_MOVE;
+import static java.util.concurrent.Executors.newSingleThreadScheduledExecutor;
+import static java.util.concurrent.TimeUnit.SECONDS;
+import static org.apache.commons.io.FileUtils.deleteQuietly;
+import static org.apache.commons.lang.StringUtils.containsAny;
+
+/**
+ * Persists the {@link ResourceTypeSignature signatures} with cached lookups in the {@link ModelRegistry} to a file
+ * in the bundle's data area, periodically and upon shutdown. Each signature is stored with the path of a resource
+ * it was observed for.
+ * <br />
+ * After a restart, the snapshot is replayed in the background once the {@link ModelRegistrar} has
+ * {@link #modelsRegistered() registered models} and no further models were registered for a short while.
+ * Replaying looks up the models of each stored resource, thereby populating the lookup cache of the registry and
+ * the {@link ResourceTypeHierarchyGraph resource type} and {@link NodeTypeHierarchyGraph node type} hierarchy graphs
+ * before requests need them. Entries are validated against the current state: The models and hierarchies are resolved
+ * from the current registry and repository, and entries whose resource no longer exists or no longer has the stored
+ * signature are skipped.
+ * <br />
+ * The snapshot is written to a temporary file in the data area first and then atomically moved to its place,
+ * such that an interrupted write, e.g. due to a shutdown, never leaves a truncated snapshot.
+ *
+ * @author Olaf Otto
+ */
+@Service
+public class LookupCacheWarmer implements BundleContextAware {
+    static final String SNAPSHOT_FILE_NAME = "model-registry-lookup-cache.snapshot";
+    private static final long EVERY_10_MINUTES = 10 * 60 * 1000;
+    private static final int QUIET_PERIOD_SECONDS = 10;
+    private static final char SEPARATOR = '\t';
+
+    private final Logger logger = LoggerFactory.getLogger(getClass());
+    private final ScheduledExecutorService executorService = newSingleThreadScheduledExecutor(replayThreadFactory());
+    private ScheduledFuture<?> pendingReplay;
+    private boolean isReplayed = false;
+
+    @Autowired
+    private ModelRegistry registry;
+    @Autowired
+    private ResourceResolverFactory resourceResolverFactory;
+
+    private BundleContext context;
+
+    /**
+     * Signals that models were registered. The snapshot is replayed once no further models were registered
+     * for a short while, e.g. after all bundles with models have started.
+     */
+    public synchronized void modelsRegistered() {
+        if (this.isReplayed) {
+            return;
+        }
+        if (this.pendingReplay != null) {
+            this.pendingReplay.cancel(false);
+        }
+        this.pendingReplay = this.executorService.schedule(this::replay, QUIET_PERIOD_SECONDS, SECONDS);
+    }
+
+    /**
+     * Writes the signatures with cached lookups to the snapshot file.
+     */
+    @Scheduled(fixedRate = EVERY_10_MINUTES)
+    public void persist() {
+        File snapshot = getSnapshotFile();
+        if (snapshot == null) {
+            return;
+        }
+        Map<ResourceTypeSignature, String> signatures = this.registry.getCachedSignatures();
+        if (signatures.isEmpty()) {
+            // Do not overwrite an existing snapshot, e.g. when shutting down before it was replayed.
+            return;
+        }
+
+        final Path target = snapshot.toPath().toAbsolutePath();
+        Path temporary = null;
+        int written = 0;
+        try {
+            temporary = Files.createTempFile(target.getParent(), SNAPSHOT_FILE_NAME, ".tmp");
+            written = write(signatures, temporary);
+            Files.move(temporary, target, ATOMIC_MOVE);
+        } catch (IOException e) {
+            this.logger.warn("Unable to write the model registry lookup cache snapshot to " + snapshot + ".", e);
+            return;
+        } finally {
+            if (temporary != null) {
+                deleteQuietly(temporary.toFile());
+            }
+        }
+        this.logger.debug("Wrote {} resource type signatures to the model registry lookup cache snapshot.", written);
+    }
+
+    private static int write(Map<ResourceTypeSignature, String> signatures, Path file) throws IOException {
+        int written = 0;
+        try (Writer writer = Files.newBufferedWriter(file, UTF_8)) {
+            for (Map.Entry<ResourceTypeSignature, String> entry : signatures.entrySet()) {
+                final String path = entry.getValue();
+                if (containsAny(path, "\t\r\n")) {
+                    continue;
+                }
+                writer.write(path);
+                writer.write(SEPARATOR);
+                writer.write(entry.getKey().toString());
+                writer.write('\n');
+                ++written;
+            }
+        }
+        return written;
+    }
+
+    /**
+     * Looks up the models of the resources stored in the snapshot file.
+     */
+    void replay() {
+        synchronized (this) {
+            if (this.isReplayed) {
+                return;
+            }
+            this.isReplayed = true;
+        }
+
+        File snapshot = getSnapshotFile();
+        if (snapshot == null || !snapshot.exists()) {
+            return;
+        }
+
+        int warmedUp = 0, skipped = 0;
+        ResourceResolver resolver = null;
+        try (BufferedReader reader = Files.newBufferedReader(snapshot.toPath(), UTF_8)) {
+            resolver = this.resourceResolverFactory.getAdministrativeResourceResolver(null);
+            String line;
+            while ((line = reader.readLine()) != null) {
+                if (warmUp(line, resolver)) {
+                    ++warmedUp;
+                } else {
+                    ++skipped;
+                }
+            }
+        } catch (IOException | LoginException | RuntimeException e) {
+            this.logger.warn("Unable to replay the model registry lookup cache snapshot " + snapshot + ".", e);
+        } finally {
+            if (resolver != null) {
+                resolver.close();
+            }
+        }
+        this.logger.info("Warmed up the model registry lookup cache for " + warmedUp + " resource type signatures, skipped " +
+                         skipped + " outdated signatures.");
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        this.executorService.shutdownNow();
+        persist();
+    }
+
+    @Override
+    public void setBundleContext(BundleContext bundleContext) {
+        this.context = bundleContext;
+    }
+
+    private boolean warmUp(String line, ResourceResolver resolver) {
+        final int separator = line.indexOf(SEPARATOR);
+        if (separator == -1) {
+            return false;
+        }
+        final Resource resource = resolver.getResource(line.substring(0, separator));
+        // The resource may have been removed or changed while the instance was down.
+        if (resource == null || !signatureOf(resource).toString().equals(line.substring(separator + 1))) {
+            return false;
+        }
+        this.registry.lookupAllModels(resource);
+        this.registry.lookupMostSpecificModels(resource);
+        return true;
+    }
+
+    /**
+     * The replay must not prevent the JVM from shutting down.
+     */
+    private static CustomizableThreadFactory replayThreadFactory() {
+        CustomizableThreadFactory threadFactory = new CustomizableThreadFactory("neba-lookup-cache-warmer-");
+        threadFactory.setDaemon(true);
+        return threadFactory;
+    }
+
+    /**
+     * @return the snapshot file, or <code>null</code> if the framework does not provide a file system.
+     */
+    private File getSnapshotFile() {
+        return this.context == null ? null : this.context.getDataFile(SNAPSHOT_FILE_NAME);
+    }
+}
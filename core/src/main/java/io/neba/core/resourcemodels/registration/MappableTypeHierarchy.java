@@ -16,54 +16,106 @@
 
 package io.neba.core.resourcemodels.registration;
 
-import org.apache.commons.collections.IteratorUtils;
+import io.neba.core.util.ResourceTypeSignature;
 import org.apache.sling.api.resource.Resource;
 
 import javax.jcr.Node;
 import java.util.Iterator;
-
-import static io.neba.core.util.NodeTypeHierarchyIterator.typeHierarchyOf;
-import static io.neba.core.util.ResourceTypeHierarchyIterator.typeHierarchyOf;
+import java.util.NoSuchElementException;
 
 /**
  * Represents all type names to which a 
  * {@link io.neba.api.annotations.ResourceModel} may apply.
  * <br />
  * Iterates over the resource type hierarchy of a {@link Resource},
- * followed by the {@link Node} type hierarchy.
+ * followed by the {@link Node} type hierarchy. The type information is taken from the
+ * {@link ResourceTypeSignature} of the resource. The hierarchies are obtained from the
+ * {@link ResourceTypeHierarchyGraph} and {@link NodeTypeHierarchyGraph}. The node type hierarchy
+ * is only obtained once the iteration reaches it.
  * 
- * @see io.neba.core.util.ResourceTypeHierarchyIterator
- * @see io.neba.core.util.NodeTypeHierarchyIterator
+ * @see ResourceTypeHierarchyGraph
+ * @see NodeTypeHierarchyGraph
  * 
  * @author Olaf Otto
  */
 public class MappableTypeHierarchy implements Iterable<String> {
     private final Resource resource;
+    private final ResourceTypeSignature signature;
+    private final ResourceTypeHierarchyGraph resourceTypeGraph;
+    private final NodeTypeHierarchyGraph nodeTypeGraph;
 
-    public static MappableTypeHierarchy mappableTypeHierarchyOf(final Resource resource) {
-    	return new MappableTypeHierarchy(resource);
+    public static MappableTypeHierarchy mappableTypeHierarchyOf(final Resource resource,
+                                                                final ResourceTypeSignature signature,
+                                                                final ResourceTypeHierarchyGraph resourceTypeGraph,
+                                                                final NodeTypeHierarchyGraph nodeTypeGraph) {
+        return new MappableTypeHierarchy(resource, signature, resourceTypeGraph, nodeTypeGraph);
     }
-    
-    public MappableTypeHierarchy(final Resource resource) {
+
+    /**
+     * @param resource must not be <code>null</code>.
+     * @param signature the {@link ResourceTypeSignature signature} of the resource, must not be <code>null</code>.
+     * @param resourceTypeGraph the graph providing the resource type hierarchy, must not be <code>null</code>.
+     * @param nodeTypeGraph the graph providing the node type hierarchy, must not be <code>null</code>.
+     */
+    public MappableTypeHierarchy(final Resource resource,
+                                 final ResourceTypeSignature signature,
+                                 final ResourceTypeHierarchyGraph resourceTypeGraph,
+                                 final NodeTypeHierarchyGraph nodeTypeGraph) {
         if (resource == null) {
             throw new IllegalArgumentException("Constructor argument resource must not be null.");
         }
+        if (signature == null) {
+            throw new IllegalArgumentException("Constructor argument signature must not be null.");
+        }
+        if (resourceTypeGraph == null) {
+            throw new IllegalArgumentException("Constructor argument resourceTypeGraph must not be null.");
+        }
+        if (nodeTypeGraph == null) {
+            throw new IllegalArgumentException("Constructor argument nodeTypeGraph must not be null.");
+        }
         this.resource = resource;
+        this.signature = signature;
+        this.resourceTypeGraph = resourceTypeGraph;
+        this.nodeTypeGraph = nodeTypeGraph;
     }
-    
+
     @Override
-    @SuppressWarnings("unchecked")
     public Iterator<String> iterator() {
-        Iterator<String> it;
-        final Iterator<String> resourceTypeIterator = typeHierarchyOf(this.resource);
-        final Node node = this.resource.adaptTo(Node.class);
-        // A virtual resource must not have a node.
-        if (node != null) {
-            final Iterator<String> nodeTypeIterator = typeHierarchyOf(node);
-            it = IteratorUtils.chainedIterator(resourceTypeIterator, nodeTypeIterator);
-        } else {
-            it = resourceTypeIterator;
+        return new LinearizedMappableTypeIterator();
+    }
+
+    /**
+     * Chains the linearized resource type and node type hierarchies provided by the
+     * {@link ResourceTypeHierarchyGraph} and {@link NodeTypeHierarchyGraph}. The node type
+     * hierarchy is only obtained if the resource type hierarchy is exhausted.
+     *
+     * @author Olaf Otto
+     */
+    private class LinearizedMappableTypeIterator implements Iterator<String> {
+        private String[] current = resourceTypeGraph.hierarchyOf(signature, resource.getResourceResolver());
+        private int position = 0;
+        private boolean isNodeTypeHierarchy = false;
+
+        @Override
+        public boolean hasNext() {
+            if (this.position < this.current.length) {
+                return true;
+            }
+            if (this.isNodeTypeHierarchy) {
+                return false;
+            }
+            this.isNodeTypeHierarchy = true;
+            this.current = nodeTypeGraph.hierarchyOf(signature, resource);
+            this.position = 0;
+            return this.current.length != 0;
+        }
+
+        @Override
+        public String next() {
+            if (!hasNext()) {
+                throw new NoSuchElementException();
+            }
+            return this.current[this.position++];
         }
-        return it;
     }
 }
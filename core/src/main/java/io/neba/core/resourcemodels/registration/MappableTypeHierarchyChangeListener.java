@@ -9,11 +9,18 @@ import org.springframework.stereotype.Service;
 
 import javax.annotation.PostConstruct;
 import javax.annotation.PreDestroy;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.Set;
 import java.util.concurrent.ArrayBlockingQueue;
 import java.util.concurrent.BlockingQueue;
 import java.util.concurrent.ExecutorService;
+import java.util.concurrent.atomic.AtomicLong;
 
+import static java.lang.System.nanoTime;
 import static java.util.concurrent.Executors.newSingleThreadExecutor;
+import static java.util.concurrent.TimeUnit.MILLISECONDS;
+import static java.util.concurrent.TimeUnit.NANOSECONDS;
 import static java.util.concurrent.TimeUnit.SECONDS;
 import static org.apache.sling.api.SlingConstants.PROPERTY_PATH;
 
@@ -35,30 +42,68 @@ import static org.apache.sling.api.SlingConstants.PROPERTY_PATH;
  * that type or super type resource is removed at runtime, this handler does not invalidate the cache as this represents an invalid
  * content state and is thus considered a programming error.
  * </p>
+ * <p>
+ * Changes are scoped to the resource types they may affect: A change to the resource at <code>/apps/my/component</code>
+ * affects the types <code>my/component</code> and <code>/apps/my/component</code>. The {@link ResourceTypeHierarchyGraph} and
+ * the {@link ModelRegistry} only evict hierarchies and lookups containing these types, which includes all known sub types. Changes occurring within a short
+ * {@link #COALESCING_WINDOW_MILLIS window} are coalesced into a single invalidation. Changes to a node type definition
+ * below <code>/jcr:system/jcr:nodeTypes</code> affect the respective node type and invalidate the {@link NodeTypeHierarchyGraph}.
+ * </p>
  *
  * @author Olaf Otto
  */
 @Service
 public class MappableTypeHierarchyChangeListener implements EventHandler {
+    private static final long COALESCING_WINDOW_MILLIS = 500;
+    private static final int MAX_PENDING_PATHS = 1024;
+    private static final String[] SEARCH_PATHS = {"/apps/", "/libs/"};
+    private static final String NODE_TYPES_PATH = "/jcr:system/jcr:nodeTypes/";
+
+    /**
+     * @param path must not be <code>null</code>.
+     * @param types receives the resource or node types represented by the resource at the given path.
+     */
+    private static void addTypesOf(String path, Collection<String> types) {
+        if (path.startsWith(NODE_TYPES_PATH)) {
+            // Changes to a node type definition, e.g. /jcr:system/jcr:nodeTypes/cq:Page/jcr:supertypes
+            int end = path.indexOf('/', NODE_TYPES_PATH.length());
+            types.add(end == -1 ? path.substring(NODE_TYPES_PATH.length()) : path.substring(NODE_TYPES_PATH.length(), end));
+            return;
+        }
+        types.add(path);
+        for (String searchPath : SEARCH_PATHS) {
+            if (path.startsWith(searchPath)) {
+                types.add(path.substring(searchPath.length()));
+                break;
+            }
+        }
+    }
+
     private final Logger logger = LoggerFactory.getLogger(getClass());
     private final ExecutorService executorService = newSingleThreadExecutor();
-    private final BlockingQueue<Object> invalidationRequests = new ArrayBlockingQueue<>(1);
+    private final BlockingQueue<String> invalidationRequests = new ArrayBlockingQueue<>(MAX_PENDING_PATHS);
+    private final AtomicLong events = new AtomicLong();
+    private final AtomicLong invalidations = new AtomicLong();
+    private final AtomicLong fullInvalidations = new AtomicLong();
+    private final AtomicLong evictedLookups = new AtomicLong();
+    private volatile boolean isFullInvalidationRequired = false;
     private boolean isShutDown = false;
 
     @Autowired
     private ModelRegistry modelRegistry;
+    @Autowired
+    private ResourceTypeHierarchyGraph typeHierarchyGraph;
+    @Autowired
+    private NodeTypeHierarchyGraph nodeTypeHierarchyGraph;
 
     @PostConstruct
     protected void activate() {
         executorService.execute(() -> {
             while (!isShutDown) {
                 try {
-                    Object path = invalidationRequests.poll(5, SECONDS);
+                    String path = invalidationRequests.poll(5, SECONDS);
                     if (path != null) {
-                        if (logger.isTraceEnabled()) {
-                            logger.trace("Invalidating the resource model registry lookup cache due to changes to {}.", path);
-                        }
-                        modelRegistry.clearLookupCaches();
+                        invalidate(coalesceChangesFollowing(path));
                     }
                 } catch (InterruptedException e) {
                     if (!isShutDown) {
@@ -76,13 +121,96 @@ public class MappableTypeHierarchyChangeListener implements EventHandler {
     }
 
     /**
-     * A substantial number of events may reach this handler.
-     * However, we only need to clear the cache once.
-     * Thus, if there already is a pending invalidation,
-     * further invalidating events are simply discarded.
+     * A substantial number of events may reach this handler. The changed paths are queued
+     * and invalidated in batches. Should the queue overflow, e.g. during large package installations,
+     * the next batch clears all lookup caches.
      */
     @Override
     public void handleEvent(Event event) {
-        invalidationRequests.offer(event.getProperty(PROPERTY_PATH));
+        this.events.incrementAndGet();
+        Object path = event.getProperty(PROPERTY_PATH);
+        if (!(path instanceof String)) {
+            this.isFullInvalidationRequired = true;
+            path = "";
+        }
+        if (!invalidationRequests.offer((String) path)) {
+            this.isFullInvalidationRequired = true;
+        }
+    }
+
+    /**
+     * @return the number of handled change events.
+     */
+    public long getEvents() {
+        return this.events.get();
+    }
+
+    /**
+     * @return the number of invalidations, each comprising all changes within the coalescing window.
+     */
+    public long getInvalidations() {
+        return this.invalidations.get();
+    }
+
+    /**
+     * @return the number of invalidations that cleared all lookup caches, either because the changed path was
+     *         not known or because too many changes occurred.
+     */
+    public long getFullInvalidations() {
+        return this.fullInvalidations.get();
+    }
+
+    /**
+     * @return the number of lookup results evicted by path-scoped invalidations.
+     */
+    public long getEvictedLookups() {
+        return this.evictedLookups.get();
+    }
+
+    /**
+     * Collects the subsequent changes within the {@link #COALESCING_WINDOW_MILLIS coalescing window}, e.g. during a
+     * package installation, to invalidate them at once. Changes are taken from the queue as they arrive, such that
+     * the queue does not overflow during the window.
+     */
+    private Set<String> coalesceChangesFollowing(String path) throws InterruptedException {
+        Set<String> paths = new HashSet<>();
+        paths.add(path);
+        final long end = nanoTime() + MILLISECONDS.toNanos(COALESCING_WINDOW_MILLIS);
+        for (long remaining = end - nanoTime(); remaining > 0; remaining = end - nanoTime()) {
+            String next = invalidationRequests.poll(remaining, NANOSECONDS);
+            if (next == null) {
+                break;
+            }
+            paths.add(next);
+            invalidationRequests.drainTo(paths);
+        }
+        return paths;
+    }
+
+    private void invalidate(Set<String> paths) {
+        this.invalidations.incrementAndGet();
+
+        if (this.isFullInvalidationRequired) {
+            this.isFullInvalidationRequired = false;
+            this.fullInvalidations.incrementAndGet();
+            if (logger.isTraceEnabled()) {
+                logger.trace("Invalidating the resource model registry lookup cache due to changes to {}.", paths);
+            }
+            typeHierarchyGraph.clear();
+            nodeTypeHierarchyGraph.clear();
+            modelRegistry.clearLookupCaches();
+            return;
+        }
+
+        Set<String> types = new HashSet<>();
+        for (String path : paths) {
+            addTypesOf(path, types);
+        }
+        if (logger.isTraceEnabled()) {
+            logger.trace("Invalidating the resource model registry lookup cache for the types {}.", types);
+        }
+        typeHierarchyGraph.invalidate(types);
+        nodeTypeHierarchyGraph.invalidate(types);
+        this.evictedLookups.addAndGet(modelRegistry.clearLookupCaches(types));
     }
 }
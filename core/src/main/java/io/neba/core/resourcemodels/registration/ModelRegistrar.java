@@ -18,6 +18,9 @@ package io.neba.core.resourcemodels.registration;
 
 import io.neba.api.annotations.ResourceModel;
 import io.neba.core.resourcemodels.adaptation.ResourceToModelAdapterUpdater;
+import io.neba.core.resourcemodels.caching.ResourceModelCaches;
+import io.neba.core.resourcemodels.caching.SharedResourceModelCache;
+import io.neba.core.resourcemodels.mapping.ResourceToModelMapper;
 import io.neba.core.resourcemodels.metadata.ResourceModelMetaDataRegistrar;
 import io.neba.core.util.OsgiBeanSource;
 import org.osgi.framework.Bundle;
@@ -54,6 +57,14 @@ public class ModelRegistrar {
     private ResourceToModelAdapterUpdater resourceToModelAdapterUpdater;
     @Autowired
     private ResourceModelMetaDataRegistrar resourceModelMetaDataRegistrar;
+    @Autowired
+    private LookupCacheWarmer lookupCacheWarmer;
+    @Autowired
+    private ResourceToModelMapper resourceToModelMapper;
+    @Autowired
+    private SharedResourceModelCache sharedResourceModelCache;
+    @Autowired
+    private ResourceModelCaches resourceModelCaches;
 
     private void discoverResourceModels(ConfigurableListableBeanFactory factory, Bundle bundle) {
         logger.info("Discovering resource models in bundle: " + displayNameOf(bundle) + " ...");
@@ -77,11 +88,15 @@ public class ModelRegistrar {
     public void registerModels(BundleContext bundleContext, ConfigurableListableBeanFactory beanFactory) {
         discoverResourceModels(beanFactory, bundleContext.getBundle());
         this.resourceToModelAdapterUpdater.refresh();
+        this.lookupCacheWarmer.modelsRegistered();
     }
 
     public void unregister(Bundle bundle) {
         this.registry.removeResourceModels(bundle);
         this.resourceModelMetaDataRegistrar.remove(bundle);
+        this.resourceToModelMapper.clearMappingPlans();
+        this.resourceModelCaches.clearAdmissions();
+        this.sharedResourceModelCache.clear();
         this.resourceToModelAdapterUpdater.refresh();
     }
 }
\ No newline at end of file
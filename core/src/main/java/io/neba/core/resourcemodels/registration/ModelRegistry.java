@@ -17,81 +17,51 @@
 package io.neba.core.resourcemodels.registration;
 
 import io.neba.core.blueprint.EventhandlingBarrier;
-import io.neba.core.util.ConcurrentDistinctMultiValueMap;
-import io.neba.core.util.Key;
+import io.neba.core.util.FrequencyAwareCache;
 import io.neba.core.util.MatchedBundlesPredicate;
 import io.neba.core.util.OsgiBeanSource;
-import org.apache.commons.collections.CollectionUtils;
+import io.neba.core.util.ResourceTypeSignature;
 import org.apache.sling.api.resource.Resource;
 import org.osgi.framework.Bundle;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.scheduling.annotation.Scheduled;
-import org.springframework.stereotype.Service;
 
 import javax.annotation.PreDestroy;
-import javax.jcr.Node;
-import javax.jcr.RepositoryException;
 import java.util.ArrayList;
-import java.util.Arrays;
 import java.util.Collection;
-import java.util.Iterator;
-import java.util.LinkedList;
+import java.util.HashMap;
+import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.atomic.AtomicInteger;
-import java.util.stream.Collectors;
+import java.util.concurrent.atomic.LongAdder;
 
 import static io.neba.core.resourcemodels.registration.MappableTypeHierarchy.mappableTypeHierarchyOf;
 import static io.neba.core.util.BundleUtil.displayNameOf;
+import static io.neba.core.util.ResourceTypeSignature.signatureOf;
+import static java.util.Arrays.asList;
 import static java.util.Collections.unmodifiableCollection;
+import static java.util.Collections.unmodifiableList;
 
 /**
  * Contains {@link OsgiBeanSource model sources} associated to
  * {@link MappableTypeHierarchy mappable types} and the corresponding logic to
  * lookup these relationships.
+ * <br />
+ * The size of the lookup cache is configured via the {@link ModelRegistryConfiguration}.
  *
  * @author Olaf Otto
  */
-@Service
 public class ModelRegistry {
-    private static final Object NULL_VALUE = new Object();
     private static final long EVERY_30_SECONDS = 30 * 1000;
-
-    /**
-     * Generate a {@link Key} representing both the
-     * {@link org.apache.sling.api.resource.Resource#getResourceType() sling resource type},
-     * {@link javax.jcr.Node#getPrimaryNodeType() primary node type} and the {@link Node#getMixinNodeTypes() mixin types}
-     * of the resource, if any. Rationale: Resources may have the same <code>sling:resourceType</code>, but different primary or mixin types,
-     * thus potentially producing different results when mapped. The cache must thus use these
-     * types as a key for cached adaptation results.<br />
-     *
-     * @param resource           must not be <code>null</code>.
-     * @param furtherKeyElements can be <code>null</code>
-     * @return never <code>null</code>.
-     */
-    private static Key key(Resource resource, Object... furtherKeyElements) {
-        Key key;
-        final Key furtherElementsKey = furtherKeyElements == null ? null : new Key(furtherKeyElements);
-        Node node = resource.adaptTo(Node.class);
-        if (node != null) {
-            try {
-                key = new Key(
-                        resource.getResourceType(),
-                        resource.getResourceSuperType(),
-                        node.getPrimaryNodeType().getName(),
-                        Arrays.toString(node.getMixinNodeTypes()),
-                        furtherElementsKey);
-            } catch (RepositoryException e) {
-                throw new RuntimeException("Unable to retrieve the primary type of " + resource + ".", e);
-            }
-        } else {
-            key = new Key(resource.getResourceType(), furtherElementsKey);
-        }
-        return key;
-    }
+    private static final int DEFAULT_LOOKUP_CACHE_CAPACITY = 10000;
+    // The cached lookup variants.
+    private static final Object MOST_SPECIFIC_MODELS = new Object();
+    private static final Object ALL_MODELS = new Object();
 
     /**
      * @param source can be <code>null</code>.
@@ -104,57 +74,91 @@ public class ModelRegistry {
     }
 
     /**
-     * @param sources        can be <code>null</code>.
-     * @param compatibleType can be <code>null</code>.
-     * @return the original collection if sources or compatibleType are
-     *         <code>null</code>, or a collection representing the models
-     *         compatible to the given type.
+     * @param mappings       must not be <code>null</code>.
+     * @param allModels      the {@link #lookupAllModels(Resource) models of all types} of a resource's mappable hierarchy, must not be <code>null</code>.
+     * @param compatibleType must not be <code>null</code>.
+     * @return the models of the first type in the hierarchy providing models assignable to the compatible type, or <code>null</code>.
      */
-    private static Collection<OsgiBeanSource<?>> filter(Collection<OsgiBeanSource<?>> sources, Class<?> compatibleType) {
-        Collection<OsgiBeanSource<?>> compatibleSources = sources;
-        if (sources != null && compatibleType != null) {
-            compatibleSources = new ArrayList<>(sources.size());
-            for (OsgiBeanSource<?> source : sources) {
-                if (compatibleType.isAssignableFrom(source.getBeanType())) {
-                    compatibleSources.add(source);
+    private static Collection<LookupResult> mostSpecific(TypeMappings mappings, Collection<LookupResult> allModels, Class<?> compatibleType) {
+        String previousType = null;
+        for (LookupResult model : allModels) {
+            final String type = model.getResourceType();
+            if (!type.equals(previousType)) {
+                previousType = type;
+                LookupResult[] results = mappings.lookupResultsOf(type, compatibleType);
+                if (results.length != 0) {
+                    return unmodifiableList(asList(results));
                 }
             }
         }
-        return compatibleSources;
+        return null;
     }
 
     /**
-     * @param sources        can be <code>null</code>.
-     * @param beanName can be <code>null</code>.
-     * @return the original collection if sources or beanName are
-     *         <code>null</code>, or a collection representing the models
-     *         who's {@link io.neba.core.util.OsgiBeanSource#getBeanName()} bean name}
-     *         is equal to the given bean name.
+     * @param mappings  must not be <code>null</code>.
+     * @param allModels the {@link #lookupAllModels(Resource) models of all types} of a resource's mappable hierarchy, must not be <code>null</code>.
+     * @param beanName  must not be <code>null</code>.
+     * @return the models of the first type in the hierarchy providing models with the given bean name, or <code>null</code>.
      */
-    private static Collection<OsgiBeanSource<?>> filter(Collection<OsgiBeanSource<?>> sources, String beanName) {
-        Collection<OsgiBeanSource<?>> sourcesWithBeanName = sources;
-        if (sources != null && beanName != null) {
-            sourcesWithBeanName = new ArrayList<>(sources.size());
-            for (OsgiBeanSource<?> source : sources) {
-                if (beanName.equals(source.getBeanName())) {
-                    sourcesWithBeanName.add(source);
+    private static Collection<LookupResult> mostSpecific(TypeMappings mappings, Collection<LookupResult> allModels, String beanName) {
+        String previousType = null;
+        for (LookupResult model : allModels) {
+            final String type = model.getResourceType();
+            if (!type.equals(previousType)) {
+                previousType = type;
+                LookupResult[] results = mappings.lookupResultsOf(type, beanName);
+                if (results.length != 0) {
+                    return unmodifiableList(asList(results));
                 }
             }
         }
-        return sourcesWithBeanName;
+        return null;
     }
 
-    private final ConcurrentDistinctMultiValueMap<String, OsgiBeanSource<?>>
-            typeNameToBeanSourcesMap = new ConcurrentDistinctMultiValueMap<>();
-    private final ConcurrentDistinctMultiValueMap<Key, LookupResult>
-            lookupCache = new ConcurrentDistinctMultiValueMap<>();
+    /**
+     * The registered resource type -&gt; model relationships. Modifications publish a new snapshot, lookups
+     * read the current snapshot without locking.
+     */
+    private volatile TypeMappings typeMappings = TypeMappings.EMPTY;
+    /**
+     * Caches the lookup results per {@link ResourceTypeSignature type signature} and lookup variant, i.e.
+     * {@link #MOST_SPECIFIC_MODELS} or {@link #ALL_MODELS}. Lookups for a bean name or a target type are not cached
+     * separately, but resolved from the cached {@link #ALL_MODELS} using the indexes of the {@link TypeMappings}. An empty result
+     * represents a signature without models for the respective variant.
+     * Using the interned signature and the variant as a two-level key allows cache hits without any allocation.
+     * The number of cached signatures is bounded; frequently looked up signatures take precedence. Evicted
+     * signatures are {@link #unindex(ResourceTypeSignature, Map) removed} from the {@link #typeToCachedSignatures index}.
+     */
+    private final FrequencyAwareCache<ResourceTypeSignature, Map<Object, CachedLookup>>
+            lookupCache = new FrequencyAwareCache<>(DEFAULT_LOOKUP_CACHE_CAPACITY, this::unindex);
+    /**
+     * Reverse index of the {@link #lookupCache}: Contains the signatures whose cached lookups have traversed
+     * a resource or node type. Changing the models of a type only evicts the signatures traversing it.
+     * Signatures are removed from the index once they are evicted from the cache.
+     */
+    private final Map<String, Set<ResourceTypeSignature>>
+            typeToCachedSignatures = new ConcurrentHashMap<>(512);
+
+    /**
+     * The path of a resource observed for each cached signature, used to {@link LookupCacheWarmer warm up} the lookup cache
+     * after a restart.
+     */
+    private final Map<ResourceTypeSignature, String> samplePaths = new ConcurrentHashMap<>(512);
 
-    private final Map<Key, Object> unmappedTypesCache = new ConcurrentHashMap<>();
     private final Logger logger = LoggerFactory.getLogger(getClass());
     private final AtomicInteger state = new AtomicInteger(0);
+    private final LongAdder lookupCacheHits = new LongAdder();
+    private final LongAdder lookupCacheMisses = new LongAdder();
+    private final LongAdder lookupCacheInvalidations = new LongAdder();
+    private final LongAdder evictedLookupResults = new LongAdder();
+    private final LongAdder retainedLookupResults = new LongAdder();
 
     @Autowired
     private EventhandlingBarrier barrier;
+    @Autowired
+    private ResourceTypeHierarchyGraph typeHierarchyGraph;
+    @Autowired
+    private NodeTypeHierarchyGraph nodeTypeHierarchyGraph;
 
     /**
      * Finds the most specific models for the given {@link Resource}. The model's bean
@@ -171,26 +175,7 @@ public class ModelRegistry {
             throw new IllegalArgumentException("Method argument beanName must not be null.");
         }
 
-        Key key = key(resource, beanName);
-
-        if (isUnmapped(key)) {
-            return null;
-        }
-
-        Collection<LookupResult> matchingModels = lookupFromCache(key);
-        if (matchingModels == null) {
-            final int currentStateId = this.state.get();
-
-            matchingModels = resolveMostSpecificBeanSources(resource, beanName);
-
-            if (matchingModels.isEmpty()) {
-                markAsUnmapped(key, currentStateId);
-            } else {
-                cache(key, matchingModels, currentStateId);
-            }
-        }
-
-        return nullIfEmpty(matchingModels);
+        return mostSpecific(this.typeMappings, allModelsOf(resource), beanName);
     }
 
     /**
@@ -206,23 +191,15 @@ public class ModelRegistry {
             throw new IllegalArgumentException("Method argument resource must not be null.");
         }
 
-        final Key key = key(resource);
-
-        if (isUnmapped(key)) {
-            return null;
-        }
-
-        Collection<LookupResult> sources = lookupFromCache(key);
+        final ResourceTypeSignature signature = signatureOf(resource);
 
+        Collection<LookupResult> sources = lookupFromCache(signature, MOST_SPECIFIC_MODELS);
         if (sources == null) {
             final int currentStateId = this.state.get();
-            sources = resolveMostSpecificBeanSources(resource);
-
-            if (sources.isEmpty()) {
-                markAsUnmapped(key, currentStateId);
-            } else {
-                cache(key, sources, currentStateId);
-            }
+            final Collection<String> traversedTypes = new ArrayList<>();
+            sources = resolveBeanSources(resource, signature, true, traversedTypes);
+            cache(signature, MOST_SPECIFIC_MODELS, sources, traversedTypes, currentStateId);
+            rememberPathOf(signature, resource);
         }
         return nullIfEmpty(sources);
     }
@@ -240,26 +217,7 @@ public class ModelRegistry {
             throw new IllegalArgumentException("Method argument resource must not be null.");
         }
 
-        final Key key = key(resource, "allModels");
-
-        if (isUnmapped(key)) {
-            return null;
-        }
-
-        Collection<LookupResult> sources = lookupFromCache(key);
-
-        if (sources == null) {
-            final int currentStateId = this.state.get();
-            sources = resolveBeanSources(resource, null, false);
-
-            if (sources.isEmpty()) {
-                markAsUnmapped(key, currentStateId);
-            } else {
-                cache(key, sources, currentStateId);
-            }
-        }
-
-        return nullIfEmpty(sources);
+        return nullIfEmpty(allModelsOf(resource));
     }
 
     /**
@@ -278,25 +236,7 @@ public class ModelRegistry {
             throw new IllegalArgumentException("Method argument targetType must not be null.");
         }
 
-        final Key key = key(resource, targetType);
-
-        if (isUnmapped(key)) {
-            return null;
-        }
-
-        Collection<LookupResult> matchingModels = lookupFromCache(key);
-        if (matchingModels == null) {
-            final int currentStateId = this.state.get();
-            matchingModels = resolveMostSpecificBeanSources(resource, targetType);
-
-            if (matchingModels.isEmpty()) {
-                markAsUnmapped(key, currentStateId);
-            } else {
-                cache(key, matchingModels, currentStateId);
-            }
-        }
-
-        return nullIfEmpty(matchingModels);
+        return mostSpecific(this.typeMappings, allModelsOf(resource), targetType);
     }
 
     /**
@@ -314,13 +254,12 @@ public class ModelRegistry {
      *
      * @param bundle must not be <code>null</code>.
      */
-    public void removeResourceModels(final Bundle bundle) {
+    public synchronized void removeResourceModels(final Bundle bundle) {
         this.logger.info("Removing resource models of bundle " + displayNameOf(bundle) + "...");
         MatchedBundlesPredicate sourcesWithBundles = new MatchedBundlesPredicate(bundle);
-        for (Collection<OsgiBeanSource<?>> values : this.typeNameToBeanSourcesMap.values()) {
-            CollectionUtils.filter(values, sourcesWithBundles);
-        }
-        clearLookupCaches();
+        Set<String> changedTypes = new HashSet<>();
+        this.typeMappings = this.typeMappings.retainAll(sourcesWithBundles::evaluate, changedTypes);
+        clearLookupCaches(changedTypes);
         this.logger.info("Removed " + sourcesWithBundles.getFilteredElements()
                 + " resource models of bundle " + displayNameOf(bundle) + "...");
     }
@@ -330,10 +269,7 @@ public class ModelRegistry {
      *         <code>null</code> but rather an empty list.
      */
     public List<OsgiBeanSource<?>> getBeanSources() {
-        Collection<Collection<OsgiBeanSource<?>>> sources = this.typeNameToBeanSourcesMap.values();
-        List<OsgiBeanSource<?>> linearizedSources = new LinkedList<>();
-        sources.forEach(linearizedSources::addAll);
-        return linearizedSources;
+        return this.typeMappings.getSources();
     }
 
     /**
@@ -342,18 +278,16 @@ public class ModelRegistry {
      * @param types  must not be <code>null</code>.
      * @param source must not be <code>null</code>.
      */
-    public void add(String[] types, OsgiBeanSource<?> source) {
-        for (String resourceType : types) {
-            this.typeNameToBeanSourcesMap.put(resourceType, source);
-        }
-        clearLookupCaches();
+    public synchronized void add(String[] types, OsgiBeanSource<?> source) {
+        this.typeMappings = this.typeMappings.with(types, source);
+        clearLookupCaches(asList(types));
     }
 
     /**
      * @return all type -&gt; model mappings.
      */
     public Map<String, Collection<OsgiBeanSource<?>>> getTypeMappings() {
-        return this.typeNameToBeanSourcesMap.getContents();
+        return this.typeMappings.toMap();
     }
 
     /**
@@ -366,16 +300,7 @@ public class ModelRegistry {
         if (this.barrier.tryBegin()) {
             this.logger.debug("Checking for references to beans from inactive bundles...");
             try {
-                for (Collection<OsgiBeanSource<?>> values : this.typeNameToBeanSourcesMap.values()) {
-                    for (Iterator<OsgiBeanSource<?>> it = values.iterator(); it.hasNext(); ) {
-                        final OsgiBeanSource<?> source = it.next();
-                        if (!source.isValid()) {
-                            this.logger.info("Reference to " + source + " is invalid, removing.");
-                            it.remove();
-                            clearLookupCaches();
-                        }
-                    }
-                }
+                removeInvalidSources();
             } finally {
                 this.barrier.end();
             }
@@ -390,38 +315,195 @@ public class ModelRegistry {
     public synchronized void clearLookupCaches() {
         this.state.incrementAndGet();
         this.lookupCache.clear();
-        this.unmappedTypesCache.clear();
+        this.typeToCachedSignatures.clear();
         this.logger.debug("Cache cleared.");
     }
 
-    private boolean isUnmapped(Key key) {
-        return this.unmappedTypesCache.containsKey(key);
+    /**
+     * Clears the cached lookups whose {@link MappableTypeHierarchy mappable type hierarchy} traversal
+     * has passed any of the given resource or node types, i.e. the lookups whose result
+     * may change if the models of these types change. All other cached lookups are retained.
+     *
+     * @param types must not be <code>null</code>.
+     * @return the number of evicted lookup results.
+     */
+    public synchronized int clearLookupCaches(Collection<String> types) {
+        if (types == null) {
+            throw new IllegalArgumentException("Method argument types must not be null.");
+        }
+
+        // Lookups that are in progress may have traversed the changed types; they must not be cached.
+        this.state.incrementAndGet();
+
+        int evicted = 0;
+        for (String type : types) {
+            Set<ResourceTypeSignature> signatures = this.typeToCachedSignatures.remove(type);
+            if (signatures == null) {
+                continue;
+            }
+            for (ResourceTypeSignature signature : signatures) {
+                Map<Object, CachedLookup> results = this.lookupCache.remove(signature);
+                if (results != null) {
+                    evicted += results.size();
+                    unindex(signature, results);
+                }
+            }
+        }
+
+        int retained = 0;
+        for (Map<Object, CachedLookup> results : this.lookupCache.values()) {
+            retained += results.size();
+        }
+
+        this.lookupCacheInvalidations.increment();
+        this.evictedLookupResults.add(evicted);
+        this.retainedLookupResults.add(retained);
+
+        return evicted;
+    }
+
+    /**
+     * @return the path of a resource with the respective signature for each {@link ResourceTypeSignature signature}
+     *         with cached lookup results. Never <code>null</code>.
+     */
+    public Map<ResourceTypeSignature, String> getCachedSignatures() {
+        // Forget the paths of signatures that are no longer cached.
+        this.samplePaths.keySet().retainAll(this.lookupCache.keys());
+        return new HashMap<>(this.samplePaths);
     }
 
-    private Collection<LookupResult> lookupFromCache(Key key) {
-        return this.lookupCache.get(key);
+    /**
+     * @param capacity the maximum number of {@link ResourceTypeSignature signatures} with cached lookup results.
+     *                 Must be greater than zero.
+     */
+    public void setLookupCacheCapacity(int capacity) {
+        this.lookupCache.setCapacity(capacity);
     }
 
-    private void clearRegisteredModels() {
-        this.typeNameToBeanSourcesMap.clear();
-        this.logger.debug("Registry cleared.");
+    public int getLookupCacheCapacity() {
+        return this.lookupCache.getCapacity();
     }
 
     /**
-     * @see #resolveMostSpecificBeanSources(org.apache.sling.api.resource.Resource, Class)
+     * @return the number of {@link ResourceTypeSignature signatures} with cached lookup results.
      */
-    private Collection<LookupResult> resolveMostSpecificBeanSources(Resource resource) {
-        return resolveMostSpecificBeanSources(resource, (Class<?>) null);
+    public int getLookupCacheSize() {
+        return this.lookupCache.size();
+    }
+
+    public long getLookupCacheHits() {
+        return this.lookupCacheHits.sum();
+    }
+
+    public long getLookupCacheMisses() {
+        return this.lookupCacheMisses.sum();
+    }
+
+    /**
+     * @return the number of signatures evicted from the lookup cache in favor of more frequently looked up signatures.
+     */
+    public long getLookupCacheEvictions() {
+        return this.lookupCache.getEvictions();
+    }
+
+    /**
+     * @return the number of lookup results not cached since their signature is less frequently looked up than the cached signatures.
+     */
+    public long getLookupCacheRejections() {
+        return this.lookupCache.getRejections();
+    }
+
+    /**
+     * @return the number of times the cached lookups of {@link #clearLookupCaches(Collection) specific types} were cleared.
+     */
+    public long getLookupCacheInvalidations() {
+        return this.lookupCacheInvalidations.sum();
+    }
+
+    /**
+     * @return the total number of lookup results evicted when clearing the cached lookups of specific types.
+     */
+    public long getEvictedLookupResults() {
+        return this.evictedLookupResults.sum();
+    }
+
+    /**
+     * @return the total number of lookup results retained when clearing the cached lookups of specific types.
+     */
+    public long getRetainedLookupResults() {
+        return this.retainedLookupResults.sum();
+    }
+
+    /**
+     * @return the number of resource types with a cached super type hierarchy.
+     */
+    public int getResourceTypeHierarchyCacheSize() {
+        return this.typeHierarchyGraph.size();
+    }
+
+    /**
+     * @return the number of node type combinations with a cached node type hierarchy.
+     */
+    public int getNodeTypeHierarchyCacheSize() {
+        return this.nodeTypeHierarchyGraph.size();
+    }
+
+    private void rememberPathOf(ResourceTypeSignature signature, Resource resource) {
+        final String path = resource.getPath();
+        // Only remember the paths of signatures admitted to the cache.
+        if (path != null && this.lookupCache.peek(signature) != null) {
+            this.samplePaths.putIfAbsent(signature, path);
+        }
+    }
+
+    private Collection<LookupResult> lookupFromCache(ResourceTypeSignature signature, Object variant) {
+        final Map<Object, CachedLookup> results = this.lookupCache.get(signature);
+        final CachedLookup lookup = results == null ? null : results.get(variant);
+        // Lookups that are not yet confirmed may have been resolved from a stale state of the registry.
+        if (lookup == null || !lookup.isConfirmed) {
+            this.lookupCacheMisses.increment();
+            return null;
+        }
+        this.lookupCacheHits.increment();
+        return lookup.results;
+    }
+
+    private synchronized void removeInvalidSources() {
+        Set<String> changedTypes = new HashSet<>();
+        this.typeMappings = this.typeMappings.retainAll(source -> {
+            if (source.isValid()) {
+                return true;
+            }
+            this.logger.info("Reference to " + source + " is invalid, removing.");
+            return false;
+        }, changedTypes);
+        if (!changedTypes.isEmpty()) {
+            clearLookupCaches(changedTypes);
+        }
+    }
+
+    private synchronized void clearRegisteredModels() {
+        this.typeMappings = TypeMappings.EMPTY;
+        this.logger.debug("Registry cleared.");
     }
 
     /**
-     * @see #resolveBeanSources(org.apache.sling.api.resource.Resource, Class, boolean)
+     * @param resource must not be <code>null</code>.
+     * @return the models of all types in the resource's {@link MappableTypeHierarchy}, in the order of the hierarchy.
+     *         Never <code>null</code> but rather an empty collection.
      */
-    private Collection<LookupResult> resolveMostSpecificBeanSources(
-            Resource resource,
-            Class<?> compatibleType) {
+    private Collection<LookupResult> allModelsOf(Resource resource) {
+        final ResourceTypeSignature signature = signatureOf(resource);
 
-        return resolveBeanSources(resource, compatibleType, true);
+        Collection<LookupResult> sources = lookupFromCache(signature, ALL_MODELS);
+        if (sources == null) {
+            final int currentStateId = this.state.get();
+            final Collection<String> traversedTypes = new ArrayList<>();
+            sources = resolveBeanSources(resource, signature, false, traversedTypes);
+            cache(signature, ALL_MODELS, sources, traversedTypes, currentStateId);
+            rememberPathOf(signature, resource);
+        }
+        return sources;
     }
 
     /**
@@ -429,19 +511,20 @@ public class ModelRegistry {
      * {@link Resource}.
      *
      * @param resource       must not be <code>null</code>.
-     * @param compatibleType can be <code>null</code>. If provided, only models
-     *                       compatible to the given type are returned.
+     * @param signature      the signature of the resource, must not be <code>null</code>.
      * @param resolveMostSpecific whether to resolve only the most specific models.
+     * @param traversedTypes receives the types traversed during the resolution, must not be <code>null</code>.
      *
      * @return never <code>null</code> but rather an empty collection.
      */
-    private Collection<LookupResult> resolveBeanSources(Resource resource, Class<?> compatibleType, boolean resolveMostSpecific) {
+    private Collection<LookupResult> resolveBeanSources(Resource resource, ResourceTypeSignature signature, boolean resolveMostSpecific, Collection<String> traversedTypes) {
+        final TypeMappings mappings = this.typeMappings;
         Collection<LookupResult> sources = new ArrayList<>(64);
-        for (final String resourceType : mappableTypeHierarchyOf(resource)) {
-            Collection<OsgiBeanSource<?>> allSourcesForType = this.typeNameToBeanSourcesMap.get(resourceType);
-            Collection<OsgiBeanSource<?>> sourcesForCompatibleType = filter(allSourcesForType, compatibleType);
-            if (sourcesForCompatibleType != null && !sourcesForCompatibleType.isEmpty()) {
-                sources.addAll(sourcesForCompatibleType.stream().map(source -> new LookupResult(source, resourceType)).collect(Collectors.toList()));
+        for (final String resourceType : mappableTypeHierarchyOf(resource, signature, this.typeHierarchyGraph, this.nodeTypeHierarchyGraph)) {
+            traversedTypes.add(resourceType);
+            LookupResult[] results = mappings.lookupResultsOf(resourceType);
+            if (results.length != 0) {
+                sources.addAll(asList(results));
                 if (resolveMostSpecific) {
                     break;
                 }
@@ -451,46 +534,101 @@ public class ModelRegistry {
     }
 
     /**
-     * Finds all {@link OsgiBeanSource bean sources} representing models for the given
-     * {@link Resource} whos {@link io.neba.core.util.OsgiBeanSource#getBeanName() bean name}
-     * matches the given bean name.
-     *
-     * @param resource must not be <code>null</code>.
-     * @param beanName can be <code>null</code>.
-     * @return never <code>null</code> but rather an empty collection.
+     * A mapping might apply to any type somewhere within a resource's
+     * {@link  MappableTypeHierarchy}. This cache saves the registrar from searching
+     * this entire hierarchy each time the model is resolved by remembering a found
+     * resource type -&gt; model relationship. Empty results are cached as well
+     * to remember that there is no such relationship. The traversed types are indexed
+     * to allow {@link #clearLookupCaches(Collection) evicting} only the affected lookups. Signatures that
+     * are not admitted to the bounded cache are not indexed.
+     * <br />
+     * Lookups are published without locking the registry: The lookup is added to the cache and indexed first,
+     * and only {@link CachedLookup#isConfirmed confirmed} if the state of the registry has not changed since the lookup
+     * has started. Since invalidations change the state before removing cached lookups, a lookup is either removed by a
+     * concurrent invalidation or detected to be stale here, in which case it is removed and never served.
      */
-    private Collection<LookupResult> resolveMostSpecificBeanSources(Resource resource, String beanName) {
-        Collection<LookupResult> sources = new ArrayList<>();
-        for (final String resourceType : mappableTypeHierarchyOf(resource)) {
-            Collection<OsgiBeanSource<?>> allSourcesForType = this.typeNameToBeanSourcesMap.get(resourceType);
-            Collection<OsgiBeanSource<?>> sourcesWithMatchingBeanName = filter(allSourcesForType, beanName);
-            if (sourcesWithMatchingBeanName != null && !sourcesWithMatchingBeanName.isEmpty()) {
-                sources.addAll(sourcesWithMatchingBeanName.stream().map(source -> new LookupResult(source, resourceType)).collect(Collectors.toList()));
-                break;
+    private void cache(final ResourceTypeSignature signature, final Object variant, final Collection<LookupResult> sources, final Collection<String> traversedTypes, final int stateId) {
+        if (stateId != this.state.get()) {
+            return;
+        }
+
+        Map<Object, CachedLookup> results = this.lookupCache.peek(signature);
+        if (results == null) {
+            // Only the first lookup of a signature is subject to admission. Concurrent lookups of the same signature
+            // must add their variant to the results of the first one rather than replacing them.
+            results = this.lookupCache.putIfAbsent(signature, new ConcurrentHashMap<>());
+            if (results == null) {
+                return;
             }
         }
-        return unmodifiableCollection(sources);
+
+        final CachedLookup lookup = new CachedLookup(sources, traversedTypes);
+        results.put(variant, lookup);
+        for (String type : traversedTypes) {
+            this.typeToCachedSignatures.computeIfAbsent(type, k -> ConcurrentHashMap.newKeySet()).add(signature);
+        }
+
+        if (stateId == this.state.get()) {
+            lookup.isConfirmed = true;
+        } else {
+            results.remove(variant, lookup);
+        }
     }
 
     /**
-     * A mapping might apply to any type somewhere within a resource's
-     * {@link  MappableTypeHierarchy}. This cache saves the registrar from searching
-     * this entire hierarchy each time the model is resolved by remembering a found
-     * resource type -&gt; model relationship.
+     * Removes a signature that is no longer cached from the {@link #typeToCachedSignatures index} of the types
+     * traversed by its lookups and forgets its {@link #samplePaths sample path}. Invoked for signatures evicted
+     * from the {@link #lookupCache} while the cache is locked, i.e. before the signature can be admitted again.
+     * <br />
+     * Empty index entries are retained, since a lookup may concurrently add the signature to them. Their number is
+     * bounded by the number of resource and node types.
      */
-    private void cache(final Key key, final Collection<LookupResult> sources, final int stateId) {
-        synchronized (this) {
-            if (stateId == this.state.get()) {
-                this.lookupCache.put(key, sources);
+    private void unindex(ResourceTypeSignature signature, Map<Object, CachedLookup> results) {
+        for (CachedLookup lookup : results.values()) {
+            for (String type : lookup.traversedTypes) {
+                Set<ResourceTypeSignature> signatures = this.typeToCachedSignatures.get(type);
+                if (signatures != null) {
+                    signatures.remove(signature);
+                }
             }
         }
+        this.samplePaths.remove(signature);
     }
 
-    private void markAsUnmapped(final Key key, final int stateId) {
-        synchronized (this) {
-            if (stateId == this.state.get()) {
-                this.unmappedTypesCache.put(key, NULL_VALUE);
-            }
+    /**
+     * @return the number of distinct signatures in the {@link #typeToCachedSignatures index}.
+     */
+    int getNumberOfIndexedSignatures() {
+        Set<ResourceTypeSignature> signatures = new HashSet<>();
+        for (Set<ResourceTypeSignature> signaturesOfType : this.typeToCachedSignatures.values()) {
+            signatures.addAll(signaturesOfType);
+        }
+        return signatures.size();
+    }
+
+    /**
+     * @return the number of remembered {@link #samplePaths sample paths}.
+     */
+    int getNumberOfSamplePaths() {
+        return this.samplePaths.size();
+    }
+
+    /**
+     * A cached lookup result. Only confirmed lookups are served from the {@link #lookupCache}.
+     *
+     * @author Olaf Otto
+     */
+    private static final class CachedLookup {
+        private final Collection<LookupResult> results;
+        /**
+         * The resource and node types traversed by the lookup, see {@link #typeToCachedSignatures}.
+         */
+        private final Collection<String> traversedTypes;
+        private volatile boolean isConfirmed = false;
+
+        private CachedLookup(Collection<LookupResult> results, Collection<String> traversedTypes) {
+            this.results = results;
+            this.traversedTypes = traversedTypes;
         }
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,55 @@
+/*
+  Copyright 2013 the original author or authors.
+
+  Licensed under the Apache License, Version 2.0 the "License";
+  you may not use this file except in compliance with the License.
+  You may obtain a copy of the License at
+
+  http://www.apache.org/licenses/LICENSE-2.0
+
+  Unless required by applicable law or agreed to in writing, software
+  distributed under the License is distributed on an "AS IS" BASIS,
+  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+  See the License for the specific language governing permissions and
+  limitations under the License.
+*/
+
+package io.neba.core.resourcemodels.registration;
+
+import org.apache.felix.scr.annotations.Component;
+import org.apache.felix.scr.annotations.Properties;
+import org.apache.felix.scr.annotations.Property;
+import org.apache.felix.scr.annotations.Service;
+
+/**
+ * The sole purpose of this class is to provide service component runtime (SCR) metadata
+ * enabling service configuration via the OSGi console. The metadata
+ * is generated from the SCR annotations of this class by the maven-scr-plugin
+ * during build time.
+ * <br />
+ * The generated metadata is used in the blueprint configuration
+ * of this module to configure the {@link ModelRegistry}.
+ *
+ * @author Olaf Otto
+ */
+@Service(ModelRegistryConfiguration.class)
+@Component(label = "NEBA model registry",
+           immediate = false,
+           description = "Configures the lookup cache of the resource model registry.",
+           metatype = true,
+           name = ModelRegistryConfiguration.PID)
+@Properties({
+    @Property(name = "service.vendor", value = "neba.io")
+})
+public class ModelRegistryConfiguration {
+    public static final String PID = "io.neba.core.resourcemodels.registration.ModelRegistryConfiguration";
+
+    @Property(
+            label = "Lookup cache capacity",
+            description = "The maximum number of distinct resource type signatures (i.e. combinations of resource type, " +
+                          "resource super type, primary node type and mixin types) for which the models are cached. " +
+                          "Once the capacity is reached, a signature is only cached if it is looked up more frequently than the " +
+                          "least frequently looked up cached signature. The hit, miss and eviction counts are shown in the model registry console.",
+            intValue = 10000)
+    public static final String LOOKUP_CACHE_CAPACITY = "lookupCacheCapacity";
+}
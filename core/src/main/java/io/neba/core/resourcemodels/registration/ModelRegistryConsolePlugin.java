@@ -16,6 +16,9 @@
 
 package io.neba.core.resourcemodels.registration;
 
+import io.neba.core.resourcemodels.caching.ResourceModelCacheTier;
+import io.neba.core.resourcemodels.caching.ResourceModelCaches;
+import io.neba.core.resourcemodels.tagsupport.ResourceModelProviderImpl;
 import io.neba.core.util.OsgiBeanSource;
 import java.io.IOException;
 import java.io.InputStream;
@@ -45,8 +48,10 @@ import static io.neba.core.util.BundleUtil.displayNameOf;
 import static io.neba.core.util.ClassHierarchyIterator.hierarchyOf;
 import static io.neba.core.util.JsonUtil.toJson;
 import static java.lang.Character.isUpperCase;
+import static java.util.Locale.ENGLISH;
 import static org.apache.commons.io.IOUtils.closeQuietly;
 import static org.apache.commons.io.IOUtils.copy;
+import static org.apache.commons.lang.StringEscapeUtils.escapeHtml;
 import static org.apache.commons.lang.StringUtils.isBlank;
 import static org.apache.commons.lang.StringUtils.isEmpty;
 import static org.apache.commons.lang.StringUtils.startsWith;
@@ -79,6 +84,12 @@ public class ModelRegistryConsolePlugin extends AbstractWebConsolePlugin {
     private ResourceResolverFactory resourceResolverFactory;
     @Autowired
     private ModelRegistry registry;
+    @Autowired
+    private ResourceModelCaches caches;
+    @Autowired
+    private ResourceModelProviderImpl resourceModelProvider;
+    @Autowired
+    private MappableTypeHierarchyChangeListener typeHierarchyChangeListener;
 
     @SuppressWarnings("unused")
     public String getCategory() {
@@ -313,7 +324,43 @@ public class ModelRegistryConsolePlugin extends AbstractWebConsolePlugin {
 
     private void writeHeadnavigation(HttpServletResponse response) throws IOException {
         String template = readTemplateFile("/META-INF/consoleplugin/modelregistry/templates/head.html");
-        response.getWriter().printf(template, getNumberOfModels());
+        response.getWriter().printf(template,
+                getNumberOfModels(),
+                this.registry.getLookupCacheSize(),
+                this.registry.getLookupCacheCapacity(),
+                this.registry.getLookupCacheHits(),
+                this.registry.getLookupCacheMisses(),
+                this.registry.getLookupCacheEvictions(),
+                this.registry.getLookupCacheRejections(),
+                this.registry.getResourceTypeHierarchyCacheSize(),
+                this.registry.getNodeTypeHierarchyCacheSize(),
+                this.resourceModelProvider.getAvoidedLookups(),
+                this.resourceModelProvider.getAbsentModels(),
+                getCacheTierRows(),
+                this.typeHierarchyChangeListener.getEvents(),
+                this.typeHierarchyChangeListener.getInvalidations(),
+                this.typeHierarchyChangeListener.getFullInvalidations(),
+                this.typeHierarchyChangeListener.getEvictedLookups(),
+                this.registry.getLookupCacheInvalidations(),
+                this.registry.getEvictedLookupResults(),
+                this.registry.getRetainedLookupResults());
+    }
+
+    private String getCacheTierRows() {
+        StringBuilder rows = new StringBuilder(256);
+        for (ResourceModelCacheTier tier : this.caches.getTiers()) {
+            rows.append("        <tr><td>")
+                    .append(tier.getTier() == Integer.MAX_VALUE ? "-" : String.valueOf(tier.getTier()))
+                    .append("</td><td>").append(escapeHtml(tier.getName()))
+                    .append("</td><td>").append(tier.getHits())
+                    .append("</td><td>").append(tier.getMisses())
+                    .append("</td><td>").append(String.format(ENGLISH, "%.2f", tier.getAverageLookupMicros()))
+                    .append("</td><td>").append(tier.getStores())
+                    .append("</td><td>").append(tier.getPromotions())
+                    .append("</td><td>").append(tier.getRejections())
+                    .append("</td></tr>\n");
+        }
+        return rows.toString();
     }
 
     private Object getNumberOfModels() {
@@ -0,0 +1,148 @@
+/*
+  Copyright 2013 the original author or authors.
+
+  Licensed under the Apache License, Version 2.0 the "License";
+  you may not use this file except in compliance with the License.
+  You may obtain a copy of the License at
+
+  http://www.apache.org/licenses/LICENSE-2.0
+
+  Unless required by applicable law or agreed to in writing, software
+  distributed under the License is distributed on an "AS IS" BASIS,
+  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+  See the License for the specific language governing permissions and
+  limitations under the License.
+*/
+
+package io.neba.core.resourcemodels.registration;
+
+import io.neba.core.util.Key;
+import io.neba.core.util.ResourceTypeSignature;
+import org.apache.sling.api.resource.Resource;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Service;
+
+import javax.jcr.Node;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static io.neba.core.util.NodeTypeHierarchyIterator.typeHierarchyOf;
+
+/**
+ * Caches the linearized {@link io.neba.core.util.NodeTypeHierarchyIterator node type hierarchy}
+ * per combination of primary node type and mixin types. Each type is contained once,
+ * even if it is a super type of several types in the hierarchy.
+ * <br />
+ * The node type hierarchy is only resolved from the JCR node type API once per type combination. Changes to
+ * node type definitions are signalled by the {@link MappableTypeHierarchyChangeListener} via {@link #invalidate(Collection)}.
+ *
+ * @author Olaf Otto
+ */
+@Service
+public class NodeTypeHierarchyGraph {
+    private static final String[] EMPTY = new String[0];
+
+    private static boolean containsAny(String[] hierarchy, Collection<String> types) {
+        for (String type : hierarchy) {
+            if (types.contains(type)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static Key keyOf(ResourceTypeSignature signature) {
+        return new Key(signature.getPrimaryType(), new Key((Object[]) signature.getMixinTypes()));
+    }
+
+    // The type combination of a signature is resolved once to allow cache hits without allocation.
+    private final Map<ResourceTypeSignature, String[]> signatureHierarchies = new ConcurrentHashMap<>(512);
+    private final Map<Key, String[]> typeHierarchies = new ConcurrentHashMap<>(128);
+    private final AtomicLong version = new AtomicLong(0);
+    private final Logger logger = LoggerFactory.getLogger(getClass());
+
+    /**
+     * @param signature the signature of the resource, must not be <code>null</code>.
+     * @param resource  the resource adapted to a {@link Node} if the hierarchy is not yet known. Must not be <code>null</code>.
+     * @return the linearized node type hierarchy, starting with the primary type. Never <code>null</code>,
+     *         but rather empty if the resource is not a {@link Node}. Must not be modified.
+     */
+    public String[] hierarchyOf(ResourceTypeSignature signature, Resource resource) {
+        if (signature == null) {
+            throw new IllegalArgumentException("Method argument signature must not be null.");
+        }
+        if (resource == null) {
+            throw new IllegalArgumentException("Method argument resource must not be null.");
+        }
+
+        if (!signature.isNode()) {
+            return EMPTY;
+        }
+
+        String[] hierarchy = this.signatureHierarchies.get(signature);
+        if (hierarchy != null) {
+            return hierarchy;
+        }
+
+        final long currentVersion = this.version.get();
+        final Key key = keyOf(signature);
+        hierarchy = this.typeHierarchies.get(key);
+        if (hierarchy == null) {
+            final Node node = resource.adaptTo(Node.class);
+            if (node == null) {
+                return EMPTY;
+            }
+            List<String> types = new ArrayList<>(16);
+            for (String type : typeHierarchyOf(node)) {
+                types.add(type);
+            }
+            hierarchy = types.toArray(new String[types.size()]);
+        }
+
+        synchronized (this) {
+            if (currentVersion == this.version.get()) {
+                this.typeHierarchies.put(key, hierarchy);
+                this.signatureHierarchies.put(signature, hierarchy);
+            }
+        }
+
+        return hierarchy;
+    }
+
+    /**
+     * Removes all hierarchies containing any of the given node types, e.g. since the definition of these node types has changed.
+     *
+     * @param nodeTypes must not be <code>null</code>.
+     */
+    public synchronized void invalidate(Collection<String> nodeTypes) {
+        if (nodeTypes == null) {
+            throw new IllegalArgumentException("Method argument nodeTypes must not be null.");
+        }
+        this.version.incrementAndGet();
+        final int size = this.typeHierarchies.size();
+        this.typeHierarchies.values().removeIf(hierarchy -> containsAny(hierarchy, nodeTypes));
+        this.signatureHierarchies.values().removeIf(hierarchy -> containsAny(hierarchy, nodeTypes));
+        this.logger.debug("Removed {} node type hierarchies containing the types {}.", size - this.typeHierarchies.size(), nodeTypes);
+    }
+
+    /**
+     * Removes all hierarchies.
+     */
+    public synchronized void clear() {
+        this.version.incrementAndGet();
+        this.typeHierarchies.clear();
+        this.signatureHierarchies.clear();
+    }
+
+    /**
+     * @return the number of known primary and mixin type combinations.
+     */
+    public int size() {
+        return this.typeHierarchies.size();
+    }
+}
@@ -0,0 +1,227 @@
+/*
+  Copyright 2013 the original author or authors.
+
+  Licensed under the Apache License, Version 2.0 the "License";
+  you may not use this file except in compliance with the License.
+  You may obtain a copy of the License at
+
+  http://www.apache.org/licenses/LICENSE-2.0
+
+  Unless required by applicable law or agreed to in writing, software
+  distributed under the License is distributed on an "AS IS" BASIS,
+  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+  See the License for the specific language governing permissions and
+  limitations under the License.
+*/
+
+package io.neba.core.resourcemodels.registration;
+
+import io.neba.core.util.ResourceTypeSignature;
+import org.apache.sling.api.resource.ResourceResolver;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Service;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static io.neba.api.Constants.SYNTHETIC_RESOURCETYPE_ROOT;
+import static java.util.Arrays.copyOfRange;
+
+/**
+ * An in-memory graph of resource types and their linearized super type chains, i.e. the
+ * sequence of types obtained by successively {@link ResourceResolver#getParentResourceType(String) resolving the parent type}.
+ * <br />
+ * Chains are resolved on demand and shared by all resolvers, since resource type definitions reside in the
+ * search paths (e.g. /apps and /libs) and do not depend on the resolving user. Resource type hierarchies rarely change;
+ * changes are signalled by the {@link MappableTypeHierarchyChangeListener} via {@link #invalidate(Collection)}.
+ * Each invalidation increments the {@link #getVersion() version} of the graph. Chains resolved concurrently to
+ * an invalidation are not added to the graph.
+ *
+ * @author Olaf Otto
+ */
+@Service
+public class ResourceTypeHierarchyGraph {
+    private static final String[] EMPTY = new String[0];
+
+    private static int removeChainsContaining(Collection<String[]> chains, Collection<String> types) {
+        int removed = 0;
+        for (Iterator<String[]> it = chains.iterator(); it.hasNext(); ) {
+            for (String type : it.next()) {
+                if (types.contains(type)) {
+                    it.remove();
+                    ++removed;
+                    break;
+                }
+            }
+        }
+        return removed;
+    }
+
+    private static String[] prepend(String type, String[] chain) {
+        String[] result = new String[chain.length + 1];
+        result[0] = type;
+        System.arraycopy(chain, 0, result, 1, chain.length);
+        return result;
+    }
+
+    private static String[] append(String[] chain, String type) {
+        String[] result = new String[chain.length + 1];
+        System.arraycopy(chain, 0, result, 0, chain.length);
+        result[chain.length] = type;
+        return result;
+    }
+
+    private final Map<String, String[]> superTypeChains = new ConcurrentHashMap<>(512);
+    private final Map<ResourceTypeSignature, String[]> signatureChains = new ConcurrentHashMap<>(512);
+    private final AtomicLong version = new AtomicLong(0);
+    private final Logger logger = LoggerFactory.getLogger(getClass());
+
+    /**
+     * @param resourceType must not be <code>null</code>.
+     * @param resolver     used to resolve the parent types if the chain is not yet known. Must not be <code>null</code>.
+     * @return the given resource type followed by all of its super types. Never <code>null</code>. Must not be modified.
+     */
+    public String[] hierarchyOf(String resourceType, ResourceResolver resolver) {
+        if (resourceType == null) {
+            throw new IllegalArgumentException("Method argument resourceType must not be null.");
+        }
+        if (resolver == null) {
+            throw new IllegalArgumentException("Method argument resolver must not be null.");
+        }
+
+        String[] chain = this.superTypeChains.get(resourceType);
+        if (chain == null) {
+            chain = resolve(resourceType, resolver);
+        }
+        return chain;
+    }
+
+    /**
+     * The resource type hierarchy of a resource starts with its {@link ResourceTypeSignature#getHierarchyRootType() hierarchy root type}
+     * and continues with the resource's explicit {@link ResourceTypeSignature#getResourceSuperType() super type}, if any, or the super
+     * type of the resource type. Synthetic resources are additionally of the {@link io.neba.api.Constants#SYNTHETIC_RESOURCETYPE_ROOT
+     * synthetic resource type root}.
+     *
+     * @param signature must not be <code>null</code>.
+     * @param resolver  used to resolve the parent types if the chain is not yet known. Must not be <code>null</code>.
+     * @return the resource type hierarchy of the resources with the given signature. Never <code>null</code>. Must not be modified.
+     */
+    public String[] hierarchyOf(ResourceTypeSignature signature, ResourceResolver resolver) {
+        if (signature == null) {
+            throw new IllegalArgumentException("Method argument signature must not be null.");
+        }
+        if (resolver == null) {
+            throw new IllegalArgumentException("Method argument resolver must not be null.");
+        }
+
+        String[] chain = this.signatureChains.get(signature);
+        if (chain != null) {
+            return chain;
+        }
+
+        final long currentVersion = this.version.get();
+        final String rootType = signature.getHierarchyRootType();
+        if (rootType == null) {
+            chain = EMPTY;
+        } else {
+            final String superType = signature.getResourceSuperType();
+            if (superType == null || superType.equals(rootType)) {
+                chain = hierarchyOf(rootType, resolver);
+            } else {
+                chain = prepend(rootType, hierarchyOf(superType, resolver));
+            }
+            if (signature.isSynthetic() && !SYNTHETIC_RESOURCETYPE_ROOT.equals(chain[chain.length - 1])) {
+                chain = append(chain, SYNTHETIC_RESOURCETYPE_ROOT);
+            }
+        }
+
+        synchronized (this) {
+            if (currentVersion == this.version.get()) {
+                this.signatureChains.put(signature, chain);
+            }
+        }
+
+        return chain;
+    }
+
+    /**
+     * Removes all chains containing any of the given types, e.g. since the super type of these types has changed.
+     *
+     * @param resourceTypes must not be <code>null</code>.
+     */
+    public synchronized void invalidate(Collection<String> resourceTypes) {
+        if (resourceTypes == null) {
+            throw new IllegalArgumentException("Method argument resourceTypes must not be null.");
+        }
+        this.version.incrementAndGet();
+        int removed = removeChainsContaining(this.superTypeChains.values(), resourceTypes);
+        removed += removeChainsContaining(this.signatureChains.values(), resourceTypes);
+        this.logger.debug("Removed {} resource type hierarchies containing the types {}.", removed, resourceTypes);
+    }
+
+    /**
+     * Removes all chains from the graph.
+     */
+    public synchronized void clear() {
+        this.version.incrementAndGet();
+        this.superTypeChains.clear();
+        this.signatureChains.clear();
+    }
+
+    /**
+     * @return the version of the graph, incremented with each invalidation.
+     */
+    public long getVersion() {
+        return this.version.get();
+    }
+
+    /**
+     * @return the number of resource types with a known super type chain.
+     */
+    public int size() {
+        return this.superTypeChains.size();
+    }
+
+    private String[] resolve(String resourceType, ResourceResolver resolver) {
+        final long currentVersion = this.version.get();
+
+        List<String> types = new ArrayList<>(8);
+        String[] knownTail = EMPTY;
+        String currentType = resourceType;
+        do {
+            types.add(currentType);
+            currentType = resolver.getParentResourceType(currentType);
+            if (currentType != null) {
+                String[] chain = this.superTypeChains.get(currentType);
+                if (chain != null) {
+                    knownTail = chain;
+                    break;
+                }
+            }
+            // Cyclic type hierarchies are an invalid content state, but must not cause an endless iteration.
+        } while (currentType != null && !types.contains(currentType));
+
+        String[] chain = new String[types.size() + knownTail.length];
+        for (int i = 0; i < types.size(); ++i) {
+            chain[i] = types.get(i);
+        }
+        System.arraycopy(knownTail, 0, chain, types.size(), knownTail.length);
+
+        synchronized (this) {
+            if (currentVersion == this.version.get()) {
+                // Each suffix of the chain is the chain of the respective super type.
+                for (int i = 0; i < types.size(); ++i) {
+                    this.superTypeChains.put(chain[i], i == 0 ? chain : copyOfRange(chain, i, chain.length));
+                }
+            }
+        }
+
+        return chain;
+    }
+}
@@ -0,0 +1,216 @@
+/*
+  Copyright 2013 the original author or authors.
+
+  Licensed under the Apache License, Version 2.0 the "License";
+  you may not use this file except in compliance with the License.
+  You may obtain a copy of the License at
+
+  http://www.apache.org/licenses/LICENSE-2.0
+
+  Unless required by applicable law or agreed to in writing, software
+  distributed under the License is distributed on an "AS IS" BASIS,
+  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+  See the License for the specific language governing permissions and
+  limitations under the License.
+*/
+
+package io.neba.core.resourcemodels.registration;
+
+import io.neba.core.util.OsgiBeanSource;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Predicate;
+
+import static io.neba.core.util.ClassHierarchyIterator.hierarchyOf;
+import static java.util.Collections.emptyMap;
+import static java.util.Collections.unmodifiableMap;
+
+/**
+ * An immutable snapshot of the resource type -&gt; model relationships of the {@link ModelRegistry}.
+ * For each type, the {@link LookupResult lookup results} representing the models of the type are
+ * precomputed and indexed by all types the models are assignable to and by bean name,
+ * such that lookups merely retrieve arrays.
+ * <br />
+ * Registrations and removals are rare compared to lookups. They create a new snapshot which
+ * is then published by the registry. Only the indexes of the modified types are rebuilt.
+ *
+ * @author Olaf Otto
+ */
+final class TypeMappings {
+    static final TypeMappings EMPTY = new TypeMappings(emptyMap());
+    private static final LookupResult[] NONE = new LookupResult[0];
+
+    private static boolean contains(LookupResult[] results, OsgiBeanSource<?> source) {
+        for (LookupResult result : results) {
+            if (result.getSource().equals(source)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static <K> Map<K, LookupResult[]> toArrays(Map<K, List<LookupResult>> lists) {
+        Map<K, LookupResult[]> arrays = new HashMap<>(lists.size());
+        for (Map.Entry<K, List<LookupResult>> entry : lists.entrySet()) {
+            arrays.put(entry.getKey(), entry.getValue().toArray(new LookupResult[entry.getValue().size()]));
+        }
+        return arrays;
+    }
+
+    private final Map<String, TypeIndex> typeToIndex;
+
+    private TypeMappings(Map<String, TypeIndex> typeToIndex) {
+        this.typeToIndex = typeToIndex;
+    }
+
+    /**
+     * @param resourceType must not be <code>null</code>.
+     * @return the lookup results of all models of the type, in the order of their registration.
+     *         Never <code>null</code>. Must not be modified.
+     */
+    LookupResult[] lookupResultsOf(String resourceType) {
+        TypeIndex index = this.typeToIndex.get(resourceType);
+        return index == null ? NONE : index.results;
+    }
+
+    /**
+     * @param resourceType   must not be <code>null</code>.
+     * @param compatibleType must not be <code>null</code>.
+     * @return the lookup results of the models of the type that are {@link Class#isAssignableFrom(Class) assignable to}
+     *         the compatible type. Never <code>null</code>. Must not be modified.
+     */
+    LookupResult[] lookupResultsOf(String resourceType, Class<?> compatibleType) {
+        TypeIndex index = this.typeToIndex.get(resourceType);
+        LookupResult[] results = index == null ? null : index.byAssignableType.get(compatibleType);
+        return results == null ? NONE : results;
+    }
+
+    /**
+     * @param resourceType must not be <code>null</code>.
+     * @param beanName     must not be <code>null</code>.
+     * @return the lookup results of the models of the type with the given
+     *         {@link io.neba.core.util.OsgiBeanSource#getBeanName() bean name}. Never <code>null</code>. Must not be modified.
+     */
+    LookupResult[] lookupResultsOf(String resourceType, String beanName) {
+        TypeIndex index = this.typeToIndex.get(resourceType);
+        LookupResult[] results = index == null ? null : index.byBeanName.get(beanName);
+        return results == null ? NONE : results;
+    }
+
+    /**
+     * @param types  must not be <code>null</code>.
+     * @param source must not be <code>null</code>.
+     * @return a snapshot additionally containing the source for the given types. Sources already registered for a
+     *         type are not added again.
+     */
+    TypeMappings with(String[] types, OsgiBeanSource<?> source) {
+        Map<String, TypeIndex> typeToIndex = new HashMap<>(this.typeToIndex);
+        for (String type : types) {
+            LookupResult[] results = lookupResultsOf(type);
+            if (!contains(results, source)) {
+                LookupResult[] extended = new LookupResult[results.length + 1];
+                System.arraycopy(results, 0, extended, 0, results.length);
+                extended[results.length] = new LookupResult(source, type);
+                typeToIndex.put(type, new TypeIndex(extended));
+            }
+        }
+        return new TypeMappings(unmodifiableMap(typeToIndex));
+    }
+
+    /**
+     * @param retain       must not be <code>null</code>.
+     * @param changedTypes receives the types that lost at least one source. Must not be <code>null</code>.
+     * @return a snapshot only containing the sources matching the given predicate.
+     */
+    TypeMappings retainAll(Predicate<OsgiBeanSource<?>> retain, Collection<String> changedTypes) {
+        Map<String, TypeIndex> typeToIndex = new HashMap<>(this.typeToIndex.size());
+        boolean changed = false;
+        for (Map.Entry<String, TypeIndex> entry : this.typeToIndex.entrySet()) {
+            LookupResult[] results = entry.getValue().results;
+            List<LookupResult> retained = new ArrayList<>(results.length);
+            for (LookupResult result : results) {
+                if (retain.test(result.getSource())) {
+                    retained.add(result);
+                }
+            }
+            if (retained.size() == results.length) {
+                typeToIndex.put(entry.getKey(), entry.getValue());
+                continue;
+            }
+            changedTypes.add(entry.getKey());
+            changed = true;
+            if (!retained.isEmpty()) {
+                typeToIndex.put(entry.getKey(), new TypeIndex(retained.toArray(new LookupResult[retained.size()])));
+            }
+        }
+        return changed ? new TypeMappings(unmodifiableMap(typeToIndex)) : this;
+    }
+
+    /**
+     * @return all registered sources, including a source once for each of its types. Never <code>null</code>.
+     */
+    List<OsgiBeanSource<?>> getSources() {
+        List<OsgiBeanSource<?>> sources = new ArrayList<>(this.typeToIndex.size() * 2);
+        for (TypeIndex index : this.typeToIndex.values()) {
+            for (LookupResult result : index.results) {
+                sources.add(result.getSource());
+            }
+        }
+        return sources;
+    }
+
+    /**
+     * @return a modifiable copy of the type -&gt; sources relationships. Never <code>null</code>.
+     */
+    Map<String, Collection<OsgiBeanSource<?>>> toMap() {
+        Map<String, Collection<OsgiBeanSource<?>>> contents = new HashMap<>(this.typeToIndex.size());
+        for (Map.Entry<String, TypeIndex> entry : this.typeToIndex.entrySet()) {
+            List<OsgiBeanSource<?>> sources = new ArrayList<>(entry.getValue().results.length);
+            for (LookupResult result : entry.getValue().results) {
+                sources.add(result.getSource());
+            }
+            contents.put(entry.getKey(), sources);
+        }
+        return contents;
+    }
+
+    /**
+     * The lookup results of a resource type, indexed by the classes and interfaces the models are assignable to
+     * and by bean name. Each index entry preserves the registration order.
+     *
+     * @author Olaf Otto
+     */
+    private static final class TypeIndex {
+        private final LookupResult[] results;
+        private final Map<Class<?>, LookupResult[]> byAssignableType;
+        private final Map<String, LookupResult[]> byBeanName;
+
+        private TypeIndex(LookupResult[] results) {
+            Map<Class<?>, List<LookupResult>> byAssignableType = new HashMap<>();
+            Map<String, List<LookupResult>> byBeanName = new HashMap<>();
+            for (LookupResult result : results) {
+                Class<?> beanType = result.getSource().getBeanType();
+                if (beanType != null) {
+                    Set<Class<?>> assignableTypes = new LinkedHashSet<>();
+                    hierarchyOf(beanType).forEach(assignableTypes::add);
+                    for (Class<?> type : assignableTypes) {
+                        byAssignableType.computeIfAbsent(type, k -> new ArrayList<>(results.length)).add(result);
+                    }
+                }
+                String beanName = result.getSource().getBeanName();
+                if (beanName != null) {
+                    byBeanName.computeIfAbsent(beanName, k -> new ArrayList<>(1)).add(result);
+                }
+            }
+            this.results = results;
+            this.byAssignableType = toArrays(byAssignableType);
+            this.byBeanName = toArrays(byBeanName);
+        }
+    }
+}
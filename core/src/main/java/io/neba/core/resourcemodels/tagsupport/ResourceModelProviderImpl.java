@@ -16,19 +16,34 @@
 
 package io.neba.core.resourcemodels.tagsupport;
 
+import io.neba.api.resourcemodels.ResolvedModel;
 import io.neba.api.resourcemodels.ResourceModelProvider;
+import io.neba.core.resourcemodels.adaptation.AmbiguousModelAssociationException;
+import io.neba.core.resourcemodels.caching.RequestScopedResourceModelCache;
 import io.neba.core.resourcemodels.caching.ResourceModelCaches;
 import io.neba.core.resourcemodels.mapping.ResourceToModelMapper;
 import io.neba.core.resourcemodels.registration.LookupResult;
 import io.neba.core.resourcemodels.registration.ModelRegistry;
+import io.neba.core.util.Key;
 import io.neba.core.util.OsgiBeanSource;
+import io.neba.core.util.ResourceTypeSignature;
 import org.apache.sling.api.resource.Resource;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
 
 import java.util.Collection;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Function;
+import java.util.stream.Stream;
 
 import static io.neba.api.Constants.SYNTHETIC_RESOURCETYPE_ROOT;
+import static io.neba.core.util.ResourceTypeSignature.signatureOf;
+import static java.lang.System.identityHashCode;
+import static java.util.Collections.emptyList;
+import static java.util.stream.StreamSupport.stream;
+import static org.apache.commons.lang.StringUtils.join;
 
 /**
  * Resolves a {@link Resource} to a {@link io.neba.api.annotations.ResourceModel}
@@ -39,17 +54,45 @@ import static io.neba.api.Constants.SYNTHETIC_RESOURCETYPE_ROOT;
  * If multiple generic models specifically target the type of the given resource through their
  * {@link io.neba.api.annotations.ResourceModel#types()}, this provider
  * may return <code>null</code> since there are no means to automatically resolve such ambiguities.
+ * <br />
+ * Batches of resources are resolved lazily. The lookup results are retained per {@link ResourceTypeSignature type signature}
+ * for the duration of a batch, such that the registry is only queried once per distinct signature.
+ * <br />
+ * Resources without a model are remembered in the {@link RequestScopedResourceModelCache request-scoped cache}, such that
+ * subsequently resolving the model of the same resource within the same request does not query the registry again.
  *
  * @author Olaf Otto
  */
 @Service
 public class ResourceModelProviderImpl implements ResourceModelProvider {
+    /**
+     * Represents the absence of a model in the {@link RequestScopedResourceModelCache}.
+     */
+    private static final Object NO_MODEL = new Object();
+
+    /**
+     * Identifies the absence of a model for a resource by the path and type of the resource, the identity of its resource resolver
+     * and the variant of the lookup, i.e. whether models for base types are included and the bean name of the model.
+     *
+     * @author Olaf Otto
+     */
+    private static class AbsentModelKey extends Key {
+        private AbsentModelKey(Resource resource, boolean includeBaseTypes, String beanName) {
+            super(resource.getPath(), resource.getResourceType(), identityHashCode(resource.getResourceResolver()), includeBaseTypes, beanName);
+        }
+    }
+
+    private final LongAdder absentModels = new LongAdder();
+    private final LongAdder avoidedLookups = new LongAdder();
+
     @Autowired
     private ModelRegistry registry;
     @Autowired
     private ResourceToModelMapper mapper;
     @Autowired
     private ResourceModelCaches caches;
+    @Autowired
+    private RequestScopedResourceModelCache requestScopedResourceModelCache;
 
     /**
      * {@inheritDoc}
@@ -84,8 +127,86 @@ public class ResourceModelProviderImpl implements ResourceModelProvider {
         return resolveMostSpecificModelForResource(resource, true, null);
     }
 
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public Stream<ResolvedModel<Object>> resolveMostSpecificModels(Iterable<Resource> resources) {
+        if (resources == null) {
+            throw new IllegalArgumentException("Method argument resources must not be null.");
+        }
+        final Function<Resource, Collection<LookupResult>> lookup = batchLookup(this.registry::lookupMostSpecificModels);
+        return resolveBatch(resources, resource -> {
+            Collection<LookupResult> models = lookup.apply(resource);
+            if (models.size() != 1) {
+                return null;
+            }
+            LookupResult lookupResult = models.iterator().next();
+            return isMappedFromGenericBaseType(lookupResult) ? null : modelOf(resource, lookupResult.getSource());
+        });
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    @SuppressWarnings("unchecked")
+    public <T> Stream<ResolvedModel<T>> resolveModels(Iterable<Resource> resources, Class<T> targetType) {
+        if (resources == null) {
+            throw new IllegalArgumentException("Method argument resources must not be null.");
+        }
+        if (targetType == null) {
+            throw new IllegalArgumentException("Method argument targetType must not be null.");
+        }
+        final Function<Resource, Collection<LookupResult>> lookup = batchLookup(resource -> this.registry.lookupMostSpecificModels(resource, targetType));
+        return resolveBatch(resources, resource -> {
+            Collection<LookupResult> models = lookup.apply(resource);
+            if (models.isEmpty()) {
+                return null;
+            }
+            if (models.size() != 1) {
+                throw new AmbiguousModelAssociationException("There is more than one model that maps " +
+                        resource.getPath() + " to " + targetType.getName() + ": " + join(models, ", ") + ".");
+            }
+            return (T) modelOf(resource, models.iterator().next().getSource());
+        });
+    }
+
+    /**
+     * @return a lookup retaining the result of the given lookup per {@link ResourceTypeSignature type signature}.
+     *         Absent results are retained as empty collections.
+     */
+    private static Function<Resource, Collection<LookupResult>> batchLookup(Function<Resource, Collection<LookupResult>> lookup) {
+        final Map<ResourceTypeSignature, Collection<LookupResult>> lookupResults = new ConcurrentHashMap<>();
+        return resource -> lookupResults.computeIfAbsent(signatureOf(resource), signature -> {
+            Collection<LookupResult> models = lookup.apply(resource);
+            return models == null ? emptyList() : models;
+        });
+    }
+
+    /**
+     * Lazily applies the resolution to each resource, reporting failures per resource.
+     */
+    private static <T> Stream<ResolvedModel<T>> resolveBatch(Iterable<Resource> resources, Function<Resource, T> resolution) {
+        return stream(resources.spliterator(), false).map(resource -> {
+            if (resource == null) {
+                return ResolvedModel.failed(null, new IllegalArgumentException("The batch of resources must not contain null."));
+            }
+            try {
+                return ResolvedModel.resolved(resource, resolution.apply(resource));
+            } catch (RuntimeException e) {
+                return ResolvedModel.failed(resource, e);
+            }
+        });
+    }
+
     private <T> T resolveMostSpecificModelForResource(Resource resource, boolean includeBaseTypes, String beanName) {
-        T model = null;
+        final Key absentModelKey = new AbsentModelKey(resource, includeBaseTypes, beanName);
+        if (this.requestScopedResourceModelCache.get(absentModelKey) == NO_MODEL) {
+            this.avoidedLookups.increment();
+            return null;
+        }
+
         Collection<LookupResult> models = (beanName == null) ?
                 this.registry.lookupMostSpecificModels(resource) :
                 this.registry.lookupMostSpecificModels(resource, beanName);
@@ -96,18 +217,35 @@ public class ResourceModelProviderImpl implements ResourceModelProvider {
 
                 @SuppressWarnings("unchecked")
                 OsgiBeanSource<T> source = (OsgiBeanSource<T>) lookupResult.getSource();
-
-                model = this.caches.lookup(resource, source);
-                if (model != null) {
-                    return model;
-                }
-
-                model = this.mapper.map(resource, source);
-                this.caches.store(resource, source, model);
+                return modelOf(resource, source);
             }
         }
 
-        return model;
+        this.requestScopedResourceModelCache.put(resource, NO_MODEL, absentModelKey);
+        this.absentModels.increment();
+        return null;
+    }
+
+    /**
+     * @return the number of times the absence of a model was determined by querying the registry.
+     */
+    public long getAbsentModels() {
+        return this.absentModels.sum();
+    }
+
+    /**
+     * @return the number of registry queries avoided since the absence of a model was already determined within the same request.
+     */
+    public long getAvoidedLookups() {
+        return this.avoidedLookups.sum();
+    }
+
+    /**
+     * @return the {@link ResourceModelCaches#lookupOrMap(Resource, OsgiBeanSource, java.util.function.Supplier) cached}
+     *         model, or the newly mapped and cached model.
+     */
+    private <T> T modelOf(Resource resource, OsgiBeanSource<T> source) {
+        return this.caches.lookupOrMap(resource, source, () -> this.mapper.map(resource, source));
     }
 
     private boolean isMappedFromGenericBaseType(LookupResult lookupResult) {
@@ -0,0 +1,327 @@
+/*
+  Copyright 2013 the original author or authors.
+
+  Licensed under the Apache License, Version 2.0 the "License";
+  you may not use this file except in compliance with the License.
+  You may obtain a copy of the License at
+
+  http://www.apache.org/licenses/LICENSE-2.0
+
+  Unless required by applicable law or agreed to in writing, software
+  distributed under the License is distributed on an "AS IS" BASIS,
+  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+  See the License for the specific language governing permissions and
+  limitations under the License.
+*/
+
+package io.neba.core.util;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Iterator;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.BiConsumer;
+
+import static java.util.Collections.unmodifiableSet;
+
+/**
+ * A size-bounded cache with a frequency-aware admission policy in the spirit of
+ * <a href="https://arxiv.org/abs/1512.00727">TinyLFU</a>: The access frequency of all keys,
+ * including keys that are not cached, is estimated using a count-min sketch. Once the cache is full,
+ * a new entry is only admitted if its key was accessed more frequently than the key of the least frequently
+ * used entry among the {@link #VICTIM_SAMPLE_SIZE oldest entries}, which is then evicted.
+ * Thus, a burst of rarely used keys cannot displace frequently used entries.
+ * <br />
+ * Reads are lock-free. Frequencies are recorded without synchronization and may thus
+ * lose increments under contention, which is acceptable for an estimate. Modifications are synchronized.
+ *
+ * @param <K> the key type.
+ * @param <V> the value type.
+ * @author Olaf Otto
+ */
+public class FrequencyAwareCache<K, V> {
+    private static final int VICTIM_SAMPLE_SIZE = 5;
+
+    private final Map<K, V> entries;
+    // The insertion order of the cached keys, used to select eviction candidates.
+    private final Set<K> insertionOrder = new LinkedHashSet<>();
+    private final AtomicLong evictions = new AtomicLong();
+    private final AtomicLong rejections = new AtomicLong();
+    private final BiConsumer<K, V> evictionListener;
+    private volatile FrequencySketch sketch;
+    private volatile int capacity;
+
+    /**
+     * @param capacity the maximum number of entries, must be greater than zero.
+     */
+    public FrequencyAwareCache(int capacity) {
+        this(capacity, (key, value) -> {});
+    }
+
+    /**
+     * @param capacity         the maximum number of entries, must be greater than zero.
+     * @param evictionListener invoked with each entry the cache evicts on its own accord, i.e. to admit a more frequently used entry
+     *                         or due to a {@link #setCapacity(int) reduced capacity}, but not for entries that are
+     *                         {@link #remove(Object) removed} or {@link #clear() cleared}. Invoked while the cache is locked.
+     *                         Must not be <code>null</code>.
+     */
+    public FrequencyAwareCache(int capacity, BiConsumer<K, V> evictionListener) {
+        if (capacity <= 0) {
+            throw new IllegalArgumentException("Constructor parameter capacity must be greater than zero, but is " + capacity + ".");
+        }
+        if (evictionListener == null) {
+            throw new IllegalArgumentException("Constructor parameter evictionListener must not be null.");
+        }
+        this.evictionListener = evictionListener;
+        this.capacity = capacity;
+        this.entries = new ConcurrentHashMap<>(Math.min(capacity, 1024));
+        this.sketch = new FrequencySketch(capacity);
+    }
+
+    /**
+     * Records an access to the key.
+     *
+     * @param key must not be <code>null</code>.
+     * @return the cached value, or <code>null</code>.
+     */
+    public V get(K key) {
+        this.sketch.increment(key);
+        return this.entries.get(key);
+    }
+
+    /**
+     * Does not record an access to the key.
+     *
+     * @param key must not be <code>null</code>.
+     * @return the cached value, or <code>null</code>.
+     */
+    public V peek(K key) {
+        return this.entries.get(key);
+    }
+
+    /**
+     * Adds the entry to the cache if there is room left, or if the key is used more frequently than
+     * the eviction candidate.
+     *
+     * @param key   must not be <code>null</code>.
+     * @param value must not be <code>null</code>.
+     * @return whether the entry was admitted.
+     */
+    public synchronized boolean put(K key, V value) {
+        if (this.entries.containsKey(key)) {
+            this.entries.put(key, value);
+            return true;
+        }
+        if (this.entries.size() >= this.capacity) {
+            K victim = selectVictim();
+            if (victim == null || this.sketch.frequencyOf(key) <= this.sketch.frequencyOf(victim)) {
+                this.rejections.incrementAndGet();
+                return false;
+            }
+            evict(victim);
+        }
+        this.entries.put(key, value);
+        this.insertionOrder.add(key);
+        return true;
+    }
+
+    /**
+     * Adds the entry to the cache unless the key is already cached. Like {@link #put(Object, Object)}, a new entry is
+     * only admitted if there is room left or if the key is used more frequently than the eviction candidate.
+     *
+     * @param key   must not be <code>null</code>.
+     * @param value must not be <code>null</code>.
+     * @return the value cached for the key after this operation, i.e. the value already cached for the key,
+     *         the given value if it was admitted, or <code>null</code> if it was not admitted.
+     */
+    public synchronized V putIfAbsent(K key, V value) {
+        V existing = this.entries.get(key);
+        if (existing != null) {
+            return existing;
+        }
+        return put(key, value) ? value : null;
+    }
+
+    /**
+     * @param key must not be <code>null</code>.
+     * @return the removed value, or <code>null</code>.
+     */
+    public synchronized V remove(K key) {
+        this.insertionOrder.remove(key);
+        return this.entries.remove(key);
+    }
+
+    /**
+     * Removes all entries and access frequencies.
+     */
+    public synchronized void clear() {
+        this.entries.clear();
+        this.insertionOrder.clear();
+        this.sketch = new FrequencySketch(this.capacity);
+    }
+
+    /**
+     * Changes the capacity of the cache. Surplus entries are evicted.
+     *
+     * @param capacity must be greater than zero.
+     */
+    public synchronized void setCapacity(int capacity) {
+        if (capacity <= 0) {
+            throw new IllegalArgumentException("Method argument capacity must be greater than zero, but is " + capacity + ".");
+        }
+        this.capacity = capacity;
+        this.sketch = new FrequencySketch(capacity);
+        Iterator<K> oldest = this.insertionOrder.iterator();
+        while (this.entries.size() > capacity && oldest.hasNext()) {
+            K key = oldest.next();
+            oldest.remove();
+            V value = this.entries.remove(key);
+            this.evictions.incrementAndGet();
+            this.evictionListener.accept(key, value);
+        }
+    }
+
+    /**
+     * @return a read-only view of the cached keys. Never <code>null</code>.
+     */
+    public Set<K> keys() {
+        return unmodifiableSet(this.entries.keySet());
+    }
+
+    /**
+     * @return a read-only view of the cached values. Never <code>null</code>.
+     */
+    public Collection<V> values() {
+        return this.entries.values();
+    }
+
+    public int size() {
+        return this.entries.size();
+    }
+
+    public int getCapacity() {
+        return this.capacity;
+    }
+
+    /**
+     * @return the number of entries evicted to make room for more frequently used entries.
+     */
+    public long getEvictions() {
+        return this.evictions.get();
+    }
+
+    /**
+     * @return the number of entries that where not admitted since they are used less frequently than the cached entries.
+     */
+    public long getRejections() {
+        return this.rejections.get();
+    }
+
+    /**
+     * Selects the least frequently used entry among the oldest entries. The other examined entries
+     * are moved to the end of the insertion order, such that frequently used old entries do not
+     * prevent the eviction of the entries behind them.
+     */
+    private K selectVictim() {
+        List<K> sample = new ArrayList<>(VICTIM_SAMPLE_SIZE);
+        Iterator<K> oldest = this.insertionOrder.iterator();
+        while (sample.size() < VICTIM_SAMPLE_SIZE && oldest.hasNext()) {
+            sample.add(oldest.next());
+        }
+
+        K victim = null;
+        int victimFrequency = Integer.MAX_VALUE;
+        for (K candidate : sample) {
+            int frequency = this.sketch.frequencyOf(candidate);
+            if (frequency < victimFrequency) {
+                victim = candidate;
+                victimFrequency = frequency;
+            }
+        }
+
+        for (K candidate : sample) {
+            if (candidate != victim) {
+                this.insertionOrder.remove(candidate);
+                this.insertionOrder.add(candidate);
+            }
+        }
+
+        return victim;
+    }
+
+    private void evict(K key) {
+        V value = this.entries.remove(key);
+        this.insertionOrder.remove(key);
+        this.evictions.incrementAndGet();
+        this.evictionListener.accept(key, value);
+    }
+
+    /**
+     * A count-min sketch with four rows of saturating counters. All counters are halved once
+     * the number of recorded accesses reaches ten times the cache capacity, such that
+     * the frequencies reflect recent usage.
+     *
+     * @author Olaf Otto
+     */
+    private static class FrequencySketch {
+        private static final int MAX_COUNT = 15;
+        private static final int[] SEEDS = {0x97cb3127, 0x7ed7c8c1, 0x3c6ef372, 0xa54ff53a};
+
+        private final int[] table;
+        private final int rowMask;
+        private final int sampleSize;
+        private int additions = 0;
+
+        FrequencySketch(int capacity) {
+            int rowLength = Integer.highestOneBit(Math.max(capacity, 16) - 1) << 1;
+            this.table = new int[rowLength * SEEDS.length];
+            this.rowMask = rowLength - 1;
+            this.sampleSize = capacity * 10;
+        }
+
+        void increment(Object key) {
+            final int hash = spread(key.hashCode());
+            for (int row = 0; row < SEEDS.length; ++row) {
+                int index = indexOf(hash, row);
+                if (this.table[index] < MAX_COUNT) {
+                    ++this.table[index];
+                }
+            }
+            if (++this.additions >= this.sampleSize) {
+                reset();
+            }
+        }
+
+        int frequencyOf(Object key) {
+            final int hash = spread(key.hashCode());
+            int frequency = MAX_COUNT;
+            for (int row = 0; row < SEEDS.length; ++row) {
+                frequency = Math.min(frequency, this.table[indexOf(hash, row)]);
+            }
+            return frequency;
+        }
+
+        private int indexOf(int hash, int row) {
+            int h = (hash ^ SEEDS[row]) * 0x9e3779b9;
+            h ^= h >>> 16;
+            return row * (this.rowMask + 1) + (h & this.rowMask);
+        }
+
+        private void reset() {
+            for (int i = 0; i < this.table.length; ++i) {
+                this.table[i] >>>= 1;
+            }
+            this.additions = this.additions >>> 1;
+        }
+
+        private static int spread(int hashCode) {
+            int h = hashCode * 0x85ebca6b;
+            return h ^ (h >>> 13);
+        }
+    }
+}
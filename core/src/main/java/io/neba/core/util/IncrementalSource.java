@@ -0,0 +1,67 @@
+/*
+  Copyright 2013 the original author or authors.
+
+  Licensed under the Apache License, Version 2.0 the "License";
+  you may not use this file except in compliance with the License.
+  You may obtain a copy of the License at
+
+  http://www.apache.org/licenses/LICENSE-2.0
+
+  Unless required by applicable law or agreed to in writing, software
+  distributed under the License is distributed on an "AS IS" BASIS,
+  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+  See the License for the specific language governing permissions and
+  limitations under the License.
+*/
+
+package io.neba.core.util;
+
+import java.util.Iterator;
+import java.util.function.Function;
+import java.util.function.Supplier;
+
+/**
+ * Adapts the elements of a source {@link Iterator} one at a time. Elements adapting to <code>null</code> are skipped.
+ * The source iterator is obtained from a loader callback upon the first access.
+ * Used by the {@link LazyList} and {@link LazySet} to load their elements incrementally.
+ *
+ * @param <E> the adapted element type.
+ * @author Olaf Otto
+ */
+final class IncrementalSource<E> {
+    private final Function<Object, ? extends E> adapter;
+    private Supplier<? extends Iterator<?>> loader;
+    private Iterator<?> source;
+
+    @SuppressWarnings("unchecked")
+    <S> IncrementalSource(Supplier<? extends Iterator<S>> loader, Function<? super S, ? extends E> adapter) {
+        if (loader == null) {
+            throw new IllegalArgumentException("Constructor parameter loader must not be null.");
+        }
+        if (adapter == null) {
+            throw new IllegalArgumentException("Constructor parameter adapter must not be null.");
+        }
+        this.loader = loader;
+        this.adapter = (Function<Object, ? extends E>) adapter;
+    }
+
+    /**
+     * @return the next non-<code>null</code> adapted element, or <code>null</code> if the source is exhausted.
+     */
+    E next() {
+        if (this.source == null) {
+            this.source = this.loader.get();
+            this.loader = null;
+            if (this.source == null) {
+                throw new IllegalStateException("The loader of the source elements must not provide null.");
+            }
+        }
+        while (this.source.hasNext()) {
+            E element = this.adapter.apply(this.source.next());
+            if (element != null) {
+                return element;
+            }
+        }
+        return null;
+    }
+}
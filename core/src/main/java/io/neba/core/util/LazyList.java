@@ -0,0 +1,250 @@
+/*
+  Copyright 2013 the original author or authors.
+
+  Licensed under the Apache License, Version 2.0 the "License";
+  you may not use this file except in compliance with the License.
+  You may obtain a copy of the License at
+
+  http://www.apache.org/licenses/LICENSE-2.0
+
+  Unless required by applicable law or agreed to in writing, software
+  distributed under the License is distributed on an "AS IS" BASIS,
+  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+  See the License for the specific language governing permissions and
+  limitations under the License.
+*/
+
+package io.neba.core.util;
+
+import java.util.AbstractList;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.function.Function;
+import java.util.function.Supplier;
+
+/**
+ * A {@link List} whose elements are adapted from a source {@link Iterator} incrementally, i.e. only once they are accessed.
+ * The source iterator is obtained from a loader callback upon the first access.
+ * Elements adapting to <code>null</code> are not contained in the list.
+ * <br />
+ * {@link #iterator() Iteration}, {@link #stream() streams}, {@link #get(int) indexed access}, {@link #isEmpty()} and
+ * {@link #subList(int, int) windows} only adapt the source elements up to the accessed element. Thus, e.g. rendering
+ * the first five of two thousand children or testing whether there are any children does not adapt all children.
+ * Operations depending on all elements, such as {@link #size()}, or structural modifications adapt all remaining source elements.
+ * <br />
+ * This list is thread-safe. Iterators do not detect concurrent modifications.
+ *
+ * @param <E> the element type.
+ * @author Olaf Otto
+ */
+public class LazyList<E> extends AbstractList<E> {
+    private final List<E> elements = new ArrayList<>();
+    private IncrementalSource<E> source;
+
+    /**
+     * @param loader  provides the source elements upon first access. Must not be <code>null</code> and must not provide <code>null</code>.
+     * @param adapter adapts each source element to an element of this list. Must not be <code>null</code>.
+     *                Source elements adapting to <code>null</code> are skipped.
+     */
+    public <S> LazyList(Supplier<? extends Iterator<S>> loader, Function<? super S, ? extends E> adapter) {
+        this.source = new IncrementalSource<>(loader, adapter);
+    }
+
+    @Override
+    public synchronized E get(int index) {
+        isLoaded(index);
+        return this.elements.get(index);
+    }
+
+    @Override
+    public synchronized E set(int index, E element) {
+        isLoaded(index);
+        return this.elements.set(index, element);
+    }
+
+    @Override
+    public synchronized void add(int index, E element) {
+        loadAll();
+        ++this.modCount;
+        this.elements.add(index, element);
+    }
+
+    @Override
+    public synchronized E remove(int index) {
+        loadAll();
+        ++this.modCount;
+        return this.elements.remove(index);
+    }
+
+    @Override
+    public synchronized void clear() {
+        this.source = null;
+        ++this.modCount;
+        this.elements.clear();
+    }
+
+    @Override
+    public synchronized int size() {
+        loadAll();
+        return this.elements.size();
+    }
+
+    /**
+     * Adapts at most the first element.
+     */
+    @Override
+    public synchronized boolean isEmpty() {
+        return !isLoaded(0);
+    }
+
+    /**
+     * Provides an iterator adapting the elements while iterating.
+     */
+    @Override
+    public Iterator<E> iterator() {
+        return new IncrementalIterator();
+    }
+
+    @Override
+    public Spliterator<E> spliterator() {
+        return Spliterators.spliteratorUnknownSize(iterator(), Spliterator.ORDERED);
+    }
+
+    /**
+     * Provides a view of the given range of this list. Only adapts the elements up to the end of the range.
+     * Structural modifications of this list other than through the view render the view undefined.
+     */
+    @Override
+    public synchronized List<E> subList(int fromIndex, int toIndex) {
+        if (fromIndex < 0) {
+            throw new IndexOutOfBoundsException("fromIndex = " + fromIndex);
+        }
+        if (fromIndex > toIndex) {
+            throw new IllegalArgumentException("fromIndex(" + fromIndex + ") > toIndex(" + toIndex + ")");
+        }
+        if (toIndex > 0 && !isLoaded(toIndex - 1)) {
+            throw new IndexOutOfBoundsException("toIndex = " + toIndex);
+        }
+        return new Window(fromIndex, toIndex);
+    }
+
+    /**
+     * Adapts the source elements up to the given index.
+     *
+     * @return whether an element with the given index exists.
+     */
+    private boolean isLoaded(int index) {
+        while (this.elements.size() <= index && this.source != null) {
+            E element = this.source.next();
+            if (element == null) {
+                this.source = null;
+            } else {
+                this.elements.add(element);
+            }
+        }
+        return index >= 0 && index < this.elements.size();
+    }
+
+    private void loadAll() {
+        isLoaded(Integer.MAX_VALUE - 1);
+    }
+
+    /**
+     * Iterates the list by index, adapting the next element only when required.
+     *
+     * @author Olaf Otto
+     */
+    private class IncrementalIterator implements Iterator<E> {
+        private int cursor = 0;
+        private int last = -1;
+
+        @Override
+        public boolean hasNext() {
+            synchronized (LazyList.this) {
+                return isLoaded(this.cursor);
+            }
+        }
+
+        @Override
+        public E next() {
+            synchronized (LazyList.this) {
+                if (!isLoaded(this.cursor)) {
+                    throw new NoSuchElementException();
+                }
+                this.last = this.cursor++;
+                return elements.get(this.last);
+            }
+        }
+
+        @Override
+        public void remove() {
+            if (this.last < 0) {
+                throw new IllegalStateException();
+            }
+            LazyList.this.remove(this.last);
+            this.cursor = this.last;
+            this.last = -1;
+        }
+    }
+
+    /**
+     * A view of a range of the list, see {@link #subList(int, int)}.
+     *
+     * @author Olaf Otto
+     */
+    private class Window extends AbstractList<E> {
+        private final int offset;
+        private int size;
+
+        private Window(int fromIndex, int toIndex) {
+            this.offset = fromIndex;
+            this.size = toIndex - fromIndex;
+        }
+
+        @Override
+        public E get(int index) {
+            checkIndex(index);
+            return LazyList.this.get(this.offset + index);
+        }
+
+        @Override
+        public E set(int index, E element) {
+            checkIndex(index);
+            return LazyList.this.set(this.offset + index, element);
+        }
+
+        @Override
+        public void add(int index, E element) {
+            if (index < 0 || index > this.size) {
+                throw new IndexOutOfBoundsException("Index: " + index + ", Size: " + this.size);
+            }
+            LazyList.this.add(this.offset + index, element);
+            ++this.size;
+            ++this.modCount;
+        }
+
+        @Override
+        public E remove(int index) {
+            checkIndex(index);
+            E removed = LazyList.this.remove(this.offset + index);
+            --this.size;
+            ++this.modCount;
+            return removed;
+        }
+
+        @Override
+        public int size() {
+            return this.size;
+        }
+
+        private void checkIndex(int index) {
+            if (index < 0 || index >= this.size) {
+                throw new IndexOutOfBoundsException("Index: " + index + ", Size: " + this.size);
+            }
+        }
+    }
+}
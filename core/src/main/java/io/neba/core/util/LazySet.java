@@ -0,0 +1,190 @@
+/*
+  Copyright 2013 the original author or authors.
+
+  Licensed under the Apache License, Version 2.0 the "License";
+  you may not use this file except in compliance with the License.
+  You may obtain a copy of the License at
+
+  http://www.apache.org/licenses/LICENSE-2.0
+
+  Unless required by applicable law or agreed to in writing, software
+  distributed under the License is distributed on an "AS IS" BASIS,
+  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+  See the License for the specific language governing permissions and
+  limitations under the License.
+*/
+
+package io.neba.core.util;
+
+import java.util.AbstractSet;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.Set;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.function.Function;
+import java.util.function.Supplier;
+
+/**
+ * A {@link Set} whose elements are adapted from a source {@link Iterator} incrementally, i.e. only once they are accessed.
+ * The source iterator is obtained from a loader callback upon the first access.
+ * Elements adapting to <code>null</code> or to an element already contained in the set are skipped. The set
+ * retains the order of the source elements.
+ * <br />
+ * {@link #iterator() Iteration}, {@link #stream() streams}, {@link #contains(Object)} and {@link #isEmpty()}
+ * only adapt the source elements up to the required element. Operations depending on all elements, such as {@link #size()},
+ * or modifications adapt all remaining source elements.
+ * <br />
+ * This set is thread-safe. Iterators do not detect concurrent modifications.
+ *
+ * @param <E> the element type.
+ * @author Olaf Otto
+ * @see LazyList
+ */
+public class LazySet<E> extends AbstractSet<E> {
+    // The distinct elements in source order
+    private final List<E> elements = new ArrayList<>();
+    private final Set<E> distinctElements = new HashSet<>();
+    private IncrementalSource<E> source;
+
+    /**
+     * @param loader  provides the source elements upon first access. Must not be <code>null</code> and must not provide <code>null</code>.
+     * @param adapter adapts each source element to an element of this set. Must not be <code>null</code>.
+     *                Source elements adapting to <code>null</code> are skipped.
+     */
+    public <S> LazySet(Supplier<? extends Iterator<S>> loader, Function<? super S, ? extends E> adapter) {
+        this.source = new IncrementalSource<>(loader, adapter);
+    }
+
+    @Override
+    public synchronized boolean add(E element) {
+        loadAll();
+        if (this.distinctElements.add(element)) {
+            this.elements.add(element);
+            return true;
+        }
+        return false;
+    }
+
+    @Override
+    public synchronized boolean remove(Object element) {
+        loadAll();
+        if (this.distinctElements.remove(element)) {
+            this.elements.remove(element);
+            return true;
+        }
+        return false;
+    }
+
+    @Override
+    public synchronized void clear() {
+        this.source = null;
+        this.elements.clear();
+        this.distinctElements.clear();
+    }
+
+    /**
+     * Adapts the source elements until the element is found.
+     */
+    @Override
+    public synchronized boolean contains(Object element) {
+        while (!this.distinctElements.contains(element)) {
+            if (!isLoaded(this.elements.size())) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    @Override
+    public synchronized int size() {
+        loadAll();
+        return this.elements.size();
+    }
+
+    /**
+     * Adapts at most the first element.
+     */
+    @Override
+    public synchronized boolean isEmpty() {
+        return !isLoaded(0);
+    }
+
+    /**
+     * Provides an iterator adapting the elements while iterating.
+     */
+    @Override
+    public Iterator<E> iterator() {
+        return new IncrementalIterator();
+    }
+
+    @Override
+    public Spliterator<E> spliterator() {
+        return Spliterators.spliteratorUnknownSize(iterator(), Spliterator.ORDERED | Spliterator.DISTINCT);
+    }
+
+    /**
+     * Adapts the source elements until there is a distinct element with the given index.
+     *
+     * @return whether an element with the given index exists.
+     */
+    private boolean isLoaded(int index) {
+        while (this.elements.size() <= index && this.source != null) {
+            E element = this.source.next();
+            if (element == null) {
+                this.source = null;
+            } else if (this.distinctElements.add(element)) {
+                this.elements.add(element);
+            }
+        }
+        return index < this.elements.size();
+    }
+
+    private void loadAll() {
+        isLoaded(Integer.MAX_VALUE - 1);
+    }
+
+    /**
+     * Iterates the distinct elements in source order, adapting the next element only when required.
+     *
+     * @author Olaf Otto
+     */
+    private class IncrementalIterator implements Iterator<E> {
+        private int cursor = 0;
+        private int last = -1;
+
+        @Override
+        public boolean hasNext() {
+            synchronized (LazySet.this) {
+                return isLoaded(this.cursor);
+            }
+        }
+
+        @Override
+        public E next() {
+            synchronized (LazySet.this) {
+                if (!isLoaded(this.cursor)) {
+                    throw new NoSuchElementException();
+                }
+                this.last = this.cursor++;
+                return elements.get(this.last);
+            }
+        }
+
+        @Override
+        public void remove() {
+            if (this.last < 0) {
+                throw new IllegalStateException();
+            }
+            synchronized (LazySet.this) {
+                loadAll();
+                distinctElements.remove(elements.remove(this.last));
+            }
+            this.cursor = this.last;
+            this.last = -1;
+        }
+    }
+}
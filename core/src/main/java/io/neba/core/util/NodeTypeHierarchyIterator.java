@@ -19,10 +19,12 @@ package io.neba.core.util;
 import javax.jcr.Node;
 import javax.jcr.RepositoryException;
 import javax.jcr.nodetype.NodeType;
+import java.util.HashSet;
 import java.util.Iterator;
 import java.util.LinkedList;
 import java.util.NoSuchElementException;
 import java.util.Queue;
+import java.util.Set;
 
 import static java.util.Arrays.asList;
 
@@ -33,7 +35,9 @@ import static java.util.Arrays.asList;
  * followed by the {@link NodeType#getDeclaredSupertypes() super types of the primary node type},
  * recursively.<br />
  * The order of a nodes super types is not specified by the JCR API. It is thus considered an implementation
- * detail of the JCR repository and ignored in this context.
+ * detail of the JCR repository and ignored in this context.<br />
+ * Each type is provided once, even if it is reachable via multiple paths, such as <code>nt:base</code>
+ * being a super type of several types in the hierarchy.
  * 
  * @author Olaf Otto
  */
@@ -48,6 +52,7 @@ public class NodeTypeHierarchyIterator implements Iterator<String>, Iterable<Str
     }
 
     private final Queue<NodeType> queue = new LinkedList<>();
+    private final Set<String> visited = new HashSet<>();
     private NodeType current;
     private NodeType next = null;
 
@@ -84,8 +89,11 @@ public class NodeTypeHierarchyIterator implements Iterator<String>, Iterable<Str
         if (superTypes != null && superTypes.length != 0) {
             queue.addAll(asList(superTypes));
         }
-        if (!queue.isEmpty()) {
-            this.next = this.queue.poll();
+        while (this.next == null && !queue.isEmpty()) {
+            NodeType candidate = this.queue.poll();
+            if (!this.visited.contains(candidate.getName())) {
+                this.next = candidate;
+            }
         }
         return this.next != null;
     }
@@ -96,7 +104,9 @@ public class NodeTypeHierarchyIterator implements Iterator<String>, Iterable<Str
         }
         this.current = this.next;
         this.next = null;
-        return this.current.getName();
+        final String name = this.current.getName();
+        this.visited.add(name);
+        return name;
     }
 
     public void remove() {
@@ -19,13 +19,11 @@ package io.neba.core.util;
 import org.apache.sling.api.resource.Resource;
 import org.apache.sling.api.resource.ResourceResolver;
 
-import javax.jcr.Node;
-import javax.jcr.RepositoryException;
 import java.util.Iterator;
 import java.util.NoSuchElementException;
 
 import static io.neba.api.Constants.SYNTHETIC_RESOURCETYPE_ROOT;
-import static org.apache.sling.api.resource.ResourceUtil.isSyntheticResource;
+import static io.neba.core.util.ResourceTypeSignature.signatureOf;
 
 /**
  * Iterates the type hierarchy of a {@link Resource} starting with the resource's
@@ -37,6 +35,7 @@ import static org.apache.sling.api.resource.ResourceUtil.isSyntheticResource;
  * falls back to the {@link javax.jcr.Node#getPrimaryNodeType() primary node type}
  * if no "sling:resourceType" property is set; however the node type hierarchy
  * is covered by the {@link NodeTypeHierarchyIterator} and is not used by this iterator.
+ * The required type information is obtained from the {@link ResourceTypeSignature} of the resource.
  * 
  * @see ResourceResolver#getParentResourceType(String)
  * @author Olaf Otto
@@ -50,6 +49,15 @@ public class ResourceTypeHierarchyIterator implements Iterator<String>, Iterable
         return new ResourceTypeHierarchyIterator(resource);
     }
 
+    /**
+     * @param signature must not be <code>null</code>.
+     * @param resolver  the resolver used to obtain the {@link ResourceResolver#getParentResourceType(String) parent types}.
+     * @return never <code>null</code>.
+     */
+    public static ResourceTypeHierarchyIterator typeHierarchyOf(final ResourceTypeSignature signature, final ResourceResolver resolver) {
+        return new ResourceTypeHierarchyIterator(signature, resolver);
+    }
+
     private final ResourceResolver resolver;
 
     private String currentResourceType;
@@ -60,38 +68,24 @@ public class ResourceTypeHierarchyIterator implements Iterator<String>, Iterable
      * @param resource must not be <code>null</code>.
      */
     public ResourceTypeHierarchyIterator(final Resource resource) {
-        if (resource == null) {
-            throw new IllegalArgumentException("Constructor parameter resource must not be null.");
-        }
-        this.resolver = resource.getResourceResolver();
-        this.isSyntheticResource = isSyntheticResource(resource);
-
-        if (this.isSyntheticResource) {
-            // Synthetic resources do not represent nodes, thus their type is
-            // intentionally provided by the resource implementation
-            // and does not fall back to the primary type of a node.
-            this.currentResourceType = resource.getResourceType();
-        } else {
-            String resourceType = resource.getResourceType();
-            Node node = resource.adaptTo(Node.class);
-            if (node != null) {
-                // If a resource represents a node, the resource type must
-                // not be the node type since we intend to traverse the sling:resourceType hierarchy.
-                // However, the resourceType provided by resource#getResourceType could be the node type since
-                // Resource#getResourceType falls back to the node type of no sling:resourceType is specified.
-                try {
-                    String nodeType = node.getPrimaryNodeType().getName();
-                    if (!nodeType.equals(resourceType)) {
-                        this.currentResourceType = resourceType;
-                    }
-                } catch (RepositoryException e) {
-                    throw new RuntimeException("Unable to obtain the node type.", e);
-                }
-            } else {
-                this.currentResourceType = resourceType;
-            }
-        }
+        this(signatureOf(resource), resource.getResourceResolver());
+    }
 
+    /**
+     * @param signature must not be <code>null</code>.
+     * @param resolver  the resolver used to obtain the {@link ResourceResolver#getParentResourceType(String) parent types}.
+     */
+    public ResourceTypeHierarchyIterator(final ResourceTypeSignature signature, final ResourceResolver resolver) {
+        if (signature == null) {
+            throw new IllegalArgumentException("Constructor parameter signature must not be null.");
+        }
+        this.resolver = resolver;
+        // Synthetic resources do not represent nodes, thus their type is
+        // intentionally provided by the resource implementation
+        // and does not fall back to the primary type of a node. If a resource represents a node, the resource type must
+        // not be the node type since we intend to traverse the sling:resourceType hierarchy.
+        this.isSyntheticResource = signature.isSynthetic();
+        this.currentResourceType = signature.getHierarchyRootType();
         this.nextResourceType = this.currentResourceType;
     }
 
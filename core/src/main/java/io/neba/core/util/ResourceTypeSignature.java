@@ -0,0 +1,258 @@
+/*
+  Copyright 2013 the original author or authors.
+
+  Licensed under the Apache License, Version 2.0 the "License";
+  you may not use this file except in compliance with the License.
+  You may obtain a copy of the License at
+
+  http://www.apache.org/licenses/LICENSE-2.0
+
+  Unless required by applicable law or agreed to in writing, software
+  distributed under the License is distributed on an "AS IS" BASIS,
+  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+  See the License for the specific language governing permissions and
+  limitations under the License.
+*/
+
+package io.neba.core.util;
+
+import org.apache.sling.api.resource.Resource;
+import org.apache.sling.api.resource.ResourceResolver;
+import org.springframework.web.context.request.RequestAttributes;
+
+import javax.jcr.Node;
+import javax.jcr.RepositoryException;
+import javax.jcr.nodetype.NodeType;
+import java.util.Arrays;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+import static org.apache.commons.lang.StringUtils.join;
+import static org.apache.sling.api.resource.ResourceUtil.isSyntheticResource;
+import static org.springframework.web.context.request.RequestAttributes.SCOPE_REQUEST;
+import static org.springframework.web.context.request.RequestContextHolder.getRequestAttributes;
+
+/**
+ * Represents all type information of a {@link Resource} that is relevant when
+ * resolving the models of the resource: The {@link Resource#getResourceType() resource type}, the
+ * {@link Resource#getResourceSuperType() resource super type}, the {@link Node#getPrimaryNodeType() primary node type}
+ * and the {@link Node#getMixinNodeTypes() mixin types} of the resource, if it is backed by a {@link Node}.
+ * <br />
+ * Signatures are immutable and interned, i.e. there is usually exactly one instance per distinct signature.
+ * At most {@link #MAX_INTERNED} signatures are interned; beyond that, signatures are equal but not identical.
+ * <br />
+ * {@link #signatureOf(Resource)} computes the signature of a resource at most once per resource path, resource resolver
+ * and request, such that repeated model lookups for the same resource do not adapt the resource to a {@link Node} again.
+ * The signature is computed anew if the resource type, super type or synthetic state of the resource differ from
+ * the remembered signature, or if the resource resolver has pending changes that may alter the node types of the resource.
+ *
+ * @author Olaf Otto
+ */
+public final class ResourceTypeSignature {
+    private static final String[] NO_MIXINS = new String[0];
+    private static final String REQUEST_ATTRIBUTE = ResourceTypeSignature.class.getName();
+    static final int MAX_INTERNED = 4096;
+    private static final Map<ResourceTypeSignature, ResourceTypeSignature> INTERNED = new ConcurrentHashMap<>(512);
+
+    /**
+     * @param resource must not be <code>null</code>.
+     * @return the interned signature of the resource. Never <code>null</code>.
+     */
+    public static ResourceTypeSignature signatureOf(Resource resource) {
+        if (resource == null) {
+            throw new IllegalArgumentException("Method argument resource must not be null.");
+        }
+
+        final Map<Key, ResourceTypeSignature> signaturesOfRequest = signaturesOfCurrentRequest();
+        if (signaturesOfRequest == null) {
+            return intern(compute(resource));
+        }
+
+        final ResourceResolver resolver = resource.getResourceResolver();
+        final Key key = new Key(resource.getPath(), resolver);
+        ResourceTypeSignature signature = signaturesOfRequest.get(key);
+        // A path may be represented by differently typed resources during a request,
+        // e.g. a synthetic or non-existing resource and the resource created at that path later on.
+        // Mixins are not visible without adapting to a node; they can only have changed if the resolver has pending changes.
+        if (signature == null ||
+            signature.isSynthetic != isSyntheticResource(resource) ||
+            !equal(signature.resourceType, resource.getResourceType()) ||
+            !equal(signature.resourceSuperType, resource.getResourceSuperType()) ||
+            resolver != null && resolver.hasChanges()) {
+            signature = intern(compute(resource));
+            signaturesOfRequest.put(key, signature);
+        }
+
+        return signature;
+    }
+
+    /**
+     * @return the request-scoped (path, resolver) -&gt; signature cache, or <code>null</code> if there is no current request.
+     */
+    @SuppressWarnings("unchecked")
+    private static Map<Key, ResourceTypeSignature> signaturesOfCurrentRequest() {
+        final RequestAttributes attributes = getRequestAttributes();
+        if (attributes == null) {
+            return null;
+        }
+        Map<Key, ResourceTypeSignature> signatures = (Map<Key, ResourceTypeSignature>) attributes.getAttribute(REQUEST_ATTRIBUTE, SCOPE_REQUEST);
+        if (signatures != null) {
+            return signatures;
+        }
+        // The request attributes may be shared with other threads, see io.neba.api.resourcemodels.RequestContext.
+        synchronized (attributes) {
+            signatures = (Map<Key, ResourceTypeSignature>) attributes.getAttribute(REQUEST_ATTRIBUTE, SCOPE_REQUEST);
+            if (signatures == null) {
+                signatures = new ConcurrentHashMap<>(64);
+                attributes.setAttribute(REQUEST_ATTRIBUTE, signatures, SCOPE_REQUEST);
+            }
+        }
+        return signatures;
+    }
+
+    private static ResourceTypeSignature compute(Resource resource) {
+        final boolean isSynthetic = isSyntheticResource(resource);
+        final Node node = isSynthetic ? null : resource.adaptTo(Node.class);
+
+        if (node == null) {
+            return new ResourceTypeSignature(resource.getResourceType(), resource.getResourceSuperType(), null, NO_MIXINS, isSynthetic);
+        }
+
+        try {
+            return new ResourceTypeSignature(
+                    resource.getResourceType(),
+                    resource.getResourceSuperType(),
+                    node.getPrimaryNodeType().getName(),
+                    sortedNamesOf(node.getMixinNodeTypes()),
+                    false);
+        } catch (RepositoryException e) {
+            throw new RuntimeException("Unable to retrieve the primary type of " + resource + ".", e);
+        }
+    }
+
+    private static String[] sortedNamesOf(NodeType[] mixinTypes) {
+        if (mixinTypes == null || mixinTypes.length == 0) {
+            return NO_MIXINS;
+        }
+        String[] names = new String[mixinTypes.length];
+        for (int i = 0; i < mixinTypes.length; ++i) {
+            names[i] = mixinTypes[i].getName();
+        }
+        Arrays.sort(names);
+        return names;
+    }
+
+    private static ResourceTypeSignature intern(ResourceTypeSignature signature) {
+        // Signatures are compared by equality, thus interning is an optimization that may be given up
+        // rather than retaining an unbounded number of signatures, e.g. of generated or ad-hoc resource types.
+        if (INTERNED.size() >= MAX_INTERNED) {
+            ResourceTypeSignature interned = INTERNED.get(signature);
+            return interned == null ? signature : interned;
+        }
+        ResourceTypeSignature interned = INTERNED.putIfAbsent(signature, signature);
+        return interned == null ? signature : interned;
+    }
+
+    private static boolean equal(String first, String second) {
+        return first == null ? second == null : first.equals(second);
+    }
+
+    private final String resourceType;
+    private final String resourceSuperType;
+    private final String primaryType;
+    private final String[] mixinTypes;
+    private final boolean isSynthetic;
+    private final int hashCode;
+
+    private ResourceTypeSignature(String resourceType, String resourceSuperType, String primaryType, String[] mixinTypes, boolean isSynthetic) {
+        this.resourceType = resourceType;
+        this.resourceSuperType = resourceSuperType;
+        this.primaryType = primaryType;
+        this.mixinTypes = mixinTypes;
+        this.isSynthetic = isSynthetic;
+        this.hashCode = new Key(resourceType, resourceSuperType, primaryType, Arrays.hashCode(mixinTypes), isSynthetic).hashCode();
+    }
+
+    /**
+     * @return the {@link Resource#getResourceType() resource type}. Can be <code>null</code>.
+     */
+    public String getResourceType() {
+        return resourceType;
+    }
+
+    /**
+     * @return the {@link Resource#getResourceSuperType() resource super type}. Can be <code>null</code>.
+     */
+    public String getResourceSuperType() {
+        return resourceSuperType;
+    }
+
+    /**
+     * @return the name of the {@link Node#getPrimaryNodeType() primary node type}, or <code>null</code>
+     *         if the resource is not backed by a {@link Node}.
+     */
+    public String getPrimaryType() {
+        return primaryType;
+    }
+
+    /**
+     * @return the lexicographically sorted names of the {@link Node#getMixinNodeTypes() mixin types}.
+     *         Never <code>null</code> but rather an empty array. Must not be modified.
+     */
+    public String[] getMixinTypes() {
+        return mixinTypes;
+    }
+
+    /**
+     * @return whether the resource is {@link org.apache.sling.api.resource.ResourceUtil#isSyntheticResource(Resource) synthetic}.
+     */
+    public boolean isSynthetic() {
+        return isSynthetic;
+    }
+
+    /**
+     * @return whether the resource is backed by a {@link Node}.
+     */
+    public boolean isNode() {
+        return this.primaryType != null;
+    }
+
+    /**
+     * {@link Resource#getResourceType()} falls back to the primary node type if no <code>sling:resourceType</code> is set.
+     * However, the node type hierarchy is not part of the resource type hierarchy.
+     *
+     * @return the resource type at which the resource type hierarchy starts, or <code>null</code> if
+     *         the resource has no <code>sling:resourceType</code>.
+     */
+    public String getHierarchyRootType() {
+        return this.primaryType != null && this.primaryType.equals(this.resourceType) ? null : this.resourceType;
+    }
+
+    @Override
+    public int hashCode() {
+        return this.hashCode;
+    }
+
+    @Override
+    public boolean equals(Object obj) {
+        if (obj == this) {
+            return true;
+        }
+        if (obj == null || obj.getClass() != getClass()) {
+            return false;
+        }
+        ResourceTypeSignature other = (ResourceTypeSignature) obj;
+        return this.hashCode == other.hashCode &&
+               this.isSynthetic == other.isSynthetic &&
+               equal(this.resourceType, other.resourceType) &&
+               equal(this.resourceSuperType, other.resourceSuperType) &&
+               equal(this.primaryType, other.primaryType) &&
+               Arrays.equals(this.mixinTypes, other.mixinTypes);
+    }
+
+    @Override
+    public String toString() {
+        return getClass().getSimpleName() + " [" + this.resourceType + ", " + this.resourceSuperType + ", " +
+               this.primaryType + ", [" + join(this.mixinTypes, ", ") + "]" + (this.isSynthetic ? ", synthetic" : "") + ']';
+    }
+}
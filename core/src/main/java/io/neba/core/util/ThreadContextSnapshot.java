@@ -0,0 +1,33 @@
+/*
+  Copyright 2013 the original author or authors.
+
+  Licensed under the Apache License, Version 2.0 the "License";
+  you may not use this file except in compliance with the License.
+  You may obtain a copy of the License at
+
+  http://www.apache.org/licenses/LICENSE-2.0
+
+  Unless required by applicable law or agreed to in writing, software
+  distributed under the License is distributed on an "AS IS" BASIS,
+  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+  See the License for the specific language governing permissions and
+  limitations under the License.
+*/
+
+package io.neba.core.util;
+
+/**
+ * Thread-bound state captured in one thread that can be bound to other threads.
+ *
+ * @author Olaf Otto
+ */
+@FunctionalInterface
+public interface ThreadContextSnapshot {
+    /**
+     * Binds the captured state to the current thread.
+     *
+     * @return restores the state of the current thread as it was prior to the binding. Must be invoked
+     *         in the current thread once the captured state is no longer used. Never <code>null</code>.
+     */
+    Runnable bind();
+}
@@ -0,0 +1,144 @@
+/*
+  Copyright 2013 the original author or authors.
+
+  Licensed under the Apache License, Version 2.0 the "License";
+  you may not use this file except in compliance with the License.
+  You may obtain a copy of the License at
+
+  http://www.apache.org/licenses/LICENSE-2.0
+
+  Unless required by applicable law or agreed to in writing, software
+  distributed under the License is distributed on an "AS IS" BASIS,
+  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+  See the License for the specific language governing permissions and
+  limitations under the License.
+*/
+
+package io.neba.core.web;
+
+import io.neba.api.resourcemodels.RequestContext;
+import io.neba.api.resourcemodels.RequestContextProvider;
+import io.neba.core.resourcemodels.caching.RequestScopedResourceModelCache;
+import io.neba.core.resourcemodels.mapping.NestedMappingSupport;
+import io.neba.core.util.ThreadContextSnapshot;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.i18n.LocaleContext;
+import org.springframework.context.i18n.LocaleContextHolder;
+import org.springframework.stereotype.Service;
+import org.springframework.web.context.request.RequestAttributes;
+import org.springframework.web.context.request.RequestContextHolder;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.Executor;
+
+/**
+ * Captures the thread-bound state of a request, i.e. the request state of the {@link RequestScopedResourceModelCache},
+ * the request attributes and locale bound by the {@link NebaRequestContextFilter} and a new
+ * {@link NestedMappingSupport#newMappingStack() stack of nested mappings}.
+ *
+ * @author Olaf Otto
+ */
+@Service
+public class RequestContextProviderImpl implements RequestContextProvider {
+    /**
+     * Binds the captured state to the thread running a task and restores the previous state of the thread afterwards.
+     *
+     * @author Olaf Otto
+     */
+    private static class CapturedRequestContext implements RequestContext {
+        private final ThreadContextSnapshot[] snapshots;
+
+        private CapturedRequestContext(ThreadContextSnapshot[] snapshots) {
+            this.snapshots = snapshots;
+        }
+
+        @Override
+        public Runnable wrap(Runnable task) {
+            if (task == null) {
+                throw new IllegalArgumentException("Method argument task must not be null.");
+            }
+            return () -> {
+                final Runnable[] restorers = bind();
+                try {
+                    task.run();
+                } finally {
+                    restore(restorers);
+                }
+            };
+        }
+
+        @Override
+        public <T> Callable<T> wrap(Callable<T> task) {
+            if (task == null) {
+                throw new IllegalArgumentException("Method argument task must not be null.");
+            }
+            return () -> {
+                final Runnable[] restorers = bind();
+                try {
+                    return task.call();
+                } finally {
+                    restore(restorers);
+                }
+            };
+        }
+
+        @Override
+        public Executor wrap(Executor executor) {
+            if (executor == null) {
+                throw new IllegalArgumentException("Method argument executor must not be null.");
+            }
+            return command -> executor.execute(wrap(command));
+        }
+
+        private Runnable[] bind() {
+            final Runnable[] restorers = new Runnable[this.snapshots.length];
+            for (int i = 0; i < this.snapshots.length; ++i) {
+                restorers[i] = this.snapshots[i].bind();
+            }
+            return restorers;
+        }
+
+        private static void restore(Runnable[] restorers) {
+            for (int i = restorers.length - 1; i >= 0; --i) {
+                restorers[i].run();
+            }
+        }
+    }
+
+    /**
+     * @return the request attributes and locale context of the current thread.
+     */
+    private static ThreadContextSnapshot captureContextHolders() {
+        final RequestAttributes requestAttributes = RequestContextHolder.getRequestAttributes();
+        final LocaleContext localeContext = LocaleContextHolder.getLocaleContext();
+        return () -> {
+            final RequestAttributes previousRequestAttributes = RequestContextHolder.getRequestAttributes();
+            final LocaleContext previousLocaleContext = LocaleContextHolder.getLocaleContext();
+            RequestContextHolder.setRequestAttributes(requestAttributes);
+            LocaleContextHolder.setLocaleContext(localeContext);
+            return () -> {
+                RequestContextHolder.setRequestAttributes(previousRequestAttributes);
+                LocaleContextHolder.setLocaleContext(previousLocaleContext);
+            };
+        };
+    }
+
+    @Autowired
+    private RequestScopedResourceModelCache requestScopedResourceModelCache;
+    @Autowired
+    private NestedMappingSupport nestedMappingSupport;
+
+    @Override
+    public RequestContext getRequestContext() {
+        final List<ThreadContextSnapshot> snapshots = new ArrayList<>(3);
+        final ThreadContextSnapshot requestState = this.requestScopedResourceModelCache.captureRequestState();
+        if (requestState != null) {
+            snapshots.add(requestState);
+        }
+        snapshots.add(captureContextHolders());
+        snapshots.add(this.nestedMappingSupport.newMappingStack());
+        return new CapturedRequestContext(snapshots.toArray(new ThreadContextSnapshot[snapshots.size()]));
+    }
+}
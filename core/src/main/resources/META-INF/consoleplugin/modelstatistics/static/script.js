@@ -140,6 +140,10 @@
                             {name: "cacheHits", max: 0, label: 'Cache hits'},
                             {name: "mappings", max: 0, label: 'Subsequent mappings'},
                             {name: "mappableFields", max: 0},
+                            {name: "onDemandMappings", max: 0},
+                            {name: "averageFieldsMappedOnDemand", max: 0},
+                            {name: "sharedCacheHits", max: 0},
+                            {name: "sharedCacheHitRate", max: 0},
                             {name: "minimumMappingDuration", max: 0},
                             {name: "maximumMappingDuration", max: 0}
                         ],
@@ -16,6 +16,7 @@
 
 package io.neba.core.mvc;
 
+import io.neba.core.resourcemodels.registration.ResourceTypeHierarchyGraph;
 import io.neba.core.web.WebApplicationContextAdapter;
 import org.apache.sling.api.SlingHttpServletResponse;
 import org.apache.sling.api.servlets.ServletResolver;
@@ -87,6 +88,8 @@ public class BundleSpecificDispatcherServletTest {
     @Mock
     private ServletResolver servletResolver;
     @Mock
+    private ResourceTypeHierarchyGraph typeHierarchyGraph;
+    @Mock
     private SlingMvcServletRequest request;
     @Mock
     private SlingHttpServletResponse response;
@@ -117,7 +120,7 @@ public class BundleSpecificDispatcherServletTest {
         };
         doAnswer(createMock).when(this.factory).createBean(isA(Class.class));
 
-        this.testee = new BundleSpecificDispatcherServlet(this.servletConfig, this.servletResolver, this.factory);
+        this.testee = new BundleSpecificDispatcherServlet(this.servletConfig, this.servletResolver, this.typeHierarchyGraph, this.factory);
     }
 
     @Test(expected = IllegalArgumentException.class)
@@ -127,17 +130,22 @@ public class BundleSpecificDispatcherServletTest {
 
     @Test(expected = IllegalArgumentException.class)
     public void testHandlingOfNullFactoryInConstructor() throws Exception {
-        new BundleSpecificDispatcherServlet(mock(ServletConfig.class), this.servletResolver, null);
+        new BundleSpecificDispatcherServlet(mock(ServletConfig.class), this.servletResolver, this.typeHierarchyGraph, null);
     }
 
     @Test(expected = IllegalArgumentException.class)
     public void testHandlingOfNullServletConfigInConstructor() throws Exception {
-        new BundleSpecificDispatcherServlet(null, this.servletResolver, mock(ConfigurableListableBeanFactory.class));
+        new BundleSpecificDispatcherServlet(null, this.servletResolver, this.typeHierarchyGraph, mock(ConfigurableListableBeanFactory.class));
     }
 
     @Test(expected = IllegalArgumentException.class)
     public void testHandlingOfNullServletResolverInConstructor() throws Exception {
-        new BundleSpecificDispatcherServlet(mock(ServletConfig.class), null, mock(ConfigurableListableBeanFactory.class));
+        new BundleSpecificDispatcherServlet(mock(ServletConfig.class), null, this.typeHierarchyGraph, mock(ConfigurableListableBeanFactory.class));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testHandlingOfNullTypeHierarchyGraphInConstructor() throws Exception {
+        new BundleSpecificDispatcherServlet(mock(ServletConfig.class), this.servletResolver, null, mock(ConfigurableListableBeanFactory.class));
     }
 
     @Test
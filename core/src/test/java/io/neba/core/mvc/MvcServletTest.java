@@ -16,6 +16,7 @@
 
 package io.neba.core.mvc;
 
+import io.neba.core.resourcemodels.registration.ResourceTypeHierarchyGraph;
 import org.apache.sling.api.SlingHttpServletRequest;
 import org.apache.sling.api.SlingHttpServletResponse;
 import org.apache.sling.api.servlets.ServletResolver;
@@ -65,6 +66,8 @@ public class MvcServletTest {
     private ServletConfig servletConfig;
     @Mock
     private ServletResolver servletResolver;
+    @Mock
+    private ResourceTypeHierarchyGraph typeHierarchyGraph;
 
     private BundleSpecificDispatcherServlet injectedDispatcherServlet;
 
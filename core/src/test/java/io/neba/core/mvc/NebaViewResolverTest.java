@@ -16,6 +16,7 @@
 
 package io.neba.core.mvc;
 
+import io.neba.core.resourcemodels.registration.ResourceTypeHierarchyGraph;
 import org.apache.sling.api.SlingException;
 import org.apache.sling.api.SlingHttpServletRequest;
 import org.apache.sling.api.resource.ResourceResolver;
@@ -26,6 +27,7 @@ import org.junit.Test;
 import org.junit.runner.RunWith;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
+import org.mockito.Spy;
 import org.mockito.runners.MockitoJUnitRunner;
 import org.mockito.stubbing.Answer;
 import org.springframework.web.context.request.ServletRequestAttributes;
@@ -72,6 +74,8 @@ public class NebaViewResolverTest {
     private FlashMapManager flashMapManager;
     @Mock
     private ServletResolver servletResolver;
+    @Spy
+    private ResourceTypeHierarchyGraph typeHierarchyGraph = new ResourceTypeHierarchyGraph();
 
     private View resolvedView;
 
@@ -111,7 +115,12 @@ public class NebaViewResolverTest {
 
     @Test(expected = IllegalArgumentException.class)
     public void testConstructorRequiresNonNullServletResolver() throws Exception {
-        new NebaViewResolver(null);
+        new NebaViewResolver(null, this.typeHierarchyGraph);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testConstructorRequiresNonNullTypeHierarchyGraph() throws Exception {
+        new NebaViewResolver(this.servletResolver, null);
     }
 
     @Test(expected = IllegalArgumentException.class)
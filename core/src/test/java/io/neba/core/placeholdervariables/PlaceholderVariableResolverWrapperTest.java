@@ -17,21 +17,38 @@
 package io.neba.core.placeholdervariables;
 
 import io.neba.api.configuration.PlaceholderVariableResolver;
+import io.neba.api.configuration.PlaceholderVariableResolver.CachingScope;
+import org.junit.After;
 import org.junit.Before;
 import org.junit.Test;
 import org.junit.runner.RunWith;
 import org.mockito.Mock;
 import org.mockito.runners.MockitoJUnitRunner;
 import org.springframework.beans.factory.config.ConfigurableListableBeanFactory;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.web.context.request.RequestAttributes;
+import org.springframework.web.context.request.ServletRequestAttributes;
 
+import java.util.concurrent.ExecutorService;
+
+import static io.neba.api.configuration.PlaceholderVariableResolver.CachingScope.REQUEST;
+import static io.neba.api.configuration.PlaceholderVariableResolver.CachingScope.STATIC;
+import static io.neba.api.configuration.PlaceholderVariableResolver.CachingScope.UNCACHED;
+import static java.util.concurrent.Executors.newSingleThreadExecutor;
+import static java.util.concurrent.TimeUnit.SECONDS;
+import static org.assertj.core.api.Assertions.assertThat;
 import static org.mockito.Matchers.eq;
 import static org.mockito.Mockito.*;
+import static org.springframework.web.context.request.RequestContextHolder.getRequestAttributes;
+import static org.springframework.web.context.request.RequestContextHolder.resetRequestAttributes;
+import static org.springframework.web.context.request.RequestContextHolder.setRequestAttributes;
 
 /**
  * @author Olaf Otto
  */
 @RunWith(MockitoJUnitRunner.class)
 public class PlaceholderVariableResolverWrapperTest {
+    private static final int ONCE = 1;
     private static final int TWICE = 2;
     
     @Mock
@@ -42,6 +59,7 @@ public class PlaceholderVariableResolverWrapperTest {
     private String resolverName = "testResolver";
     
     private PlaceholderVariableResolverWrapper testee;
+    private String resolvedValue;
 
     @Before
     public void prepareWrapper() {
@@ -51,6 +69,11 @@ public class PlaceholderVariableResolverWrapperTest {
         this.testee = new PlaceholderVariableResolverWrapper(this.factory, this.resolverName);
     }
 
+    @After
+    public void tearDown() {
+        resetRequestAttributes();
+    }
+
     @Test
     public void testWrapperObtainsResolverFromBeanFactoryEveryTime() throws Exception {
         resolve("${test}");
@@ -64,6 +87,143 @@ public class PlaceholderVariableResolverWrapperTest {
         verifyResolverFromFactoryIsAskedToResolve("test");
     }
 
+    @Test
+    public void testWrapperResolvesValuesWithUndeclaredCachingScopeEveryTime() throws Exception {
+        withResolvedValue("test", "value");
+        withCachingScope(null);
+
+        resolve("${test}");
+        resolve("${test}");
+
+        verifyResolverIsAskedToResolve("test", TWICE);
+    }
+
+    @Test
+    public void testWrapperResolvesUncachedValuesEveryTime() throws Exception {
+        withResolvedValue("test", "value");
+        withCachingScope(UNCACHED);
+        withRequest();
+
+        resolve("${test}");
+        resolve("${test}");
+
+        verifyResolverIsAskedToResolve("test", TWICE);
+    }
+
+    @Test
+    public void testWrapperResolvesStaticValuesOnce() throws Exception {
+        withResolvedValue("test", "value");
+        withCachingScope(STATIC);
+
+        resolve("/content/${test}");
+        assertResolvedValueIs("/content/value");
+        resolve("/content/${test}");
+        assertResolvedValueIs("/content/value");
+
+        verifyResolverIsAskedToResolve("test", ONCE);
+        verifyResolverIsObtainedFromBeanFactory(ONCE);
+    }
+
+    @Test
+    public void testWrapperResolvesRequestScopedValuesOncePerRequest() throws Exception {
+        withResolvedValue("test", "value");
+        withCachingScope(REQUEST);
+
+        withRequest();
+        resolve("${test}");
+        resolve("${test}");
+        verifyResolverIsAskedToResolve("test", ONCE);
+
+        withRequest();
+        resolve("${test}");
+        assertResolvedValueIs("value");
+        verifyResolverIsAskedToResolve("test", TWICE);
+    }
+
+    @Test
+    public void testRequestScopedValuesAreSharedWithThreadsOfTheRequest() throws Exception {
+        withResolvedValue("test", "value");
+        withCachingScope(REQUEST);
+        withRequest();
+
+        RequestAttributes attributes = getRequestAttributes();
+        ExecutorService executor = newSingleThreadExecutor();
+        try {
+            executor.submit(() -> {
+                setRequestAttributes(attributes);
+                try {
+                    return this.testee.resolveStringValue("${test}");
+                } finally {
+                    resetRequestAttributes();
+                }
+            }).get(10, SECONDS);
+        } finally {
+            executor.shutdownNow();
+        }
+
+        resolve("${test}");
+        assertResolvedValueIs("value");
+        verifyResolverIsAskedToResolve("test", ONCE);
+    }
+
+    @Test
+    public void testWrapperDoesNotCacheRequestScopedValuesOutsideOfRequests() throws Exception {
+        withResolvedValue("test", "value");
+        withCachingScope(REQUEST);
+
+        resolve("${test}");
+        resolve("${test}");
+
+        verifyResolverIsAskedToResolve("test", TWICE);
+    }
+
+    @Test
+    public void testFrequentlyUsedStaticValuesAreCachedOnceTheCacheIsFull() throws Exception {
+        withResolvedValue("test", "value");
+        withCachingScope(STATIC);
+        for (int i = 0; i < 1024; ++i) {
+            resolve("/content/" + i);
+        }
+
+        resolve("/content/${test}");
+        resolve("/content/${test}");
+        resolve("/content/${test}");
+
+        assertResolvedValueIs("/content/value");
+        verifyResolverIsAskedToResolve("test", TWICE);
+    }
+
+    @Test
+    public void testExpressionsWithoutVariablesAreCached() throws Exception {
+        withCachingScope(UNCACHED);
+
+        resolve("/content/path");
+        resolve("/content/path");
+
+        assertResolvedValueIs("/content/path");
+        verifyResolverIsObtainedFromBeanFactory(0);
+    }
+
+    private void withRequest() {
+        setRequestAttributes(new ServletRequestAttributes(new MockHttpServletRequest()));
+    }
+
+    private void withCachingScope(CachingScope scope) {
+        doReturn(scope).when(this.resolver).getCachingScope();
+    }
+
+    private void withResolvedValue(String variableName, String value) {
+        doReturn(value).when(this.resolver).resolve(variableName);
+    }
+
+    private void assertResolvedValueIs(String value) {
+        assertThat(this.resolvedValue).isEqualTo(value);
+    }
+
+    private void verifyResolverIsAskedToResolve(String key, int wantedNumberOfInvocations) {
+        verify(this.resolver, times(wantedNumberOfInvocations)).resolve(eq(key));
+    }
+
     private void verifyResolverFromFactoryIsAskedToResolve(String key) {
         verify(this.resolver).resolve(eq(key));
     }
@@ -73,6 +233,6 @@ public class PlaceholderVariableResolverWrapperTest {
     }
 
     private void resolve(String strVal) {
-        this.testee.resolveStringValue(strVal);
+        this.resolvedValue = this.testee.resolveStringValue(strVal);
     }
 }
@@ -37,6 +37,7 @@ import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.function.Supplier;
 
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.mockito.Matchers.any;
@@ -91,21 +92,13 @@ public class ResourceToModelAdapterTest {
 
     @Before
     public void setUp() throws Exception {
-        Answer storeInCache = invocation -> {
-            Object model = invocation.getArguments()[2];
-            testCache.put(buildCacheInvocationKey(invocation), model);
-            return null;
-        },
+        Answer lookupOrMap = invocation -> testCache.computeIfAbsent(
+                buildCacheInvocationKey(invocation),
+                k -> ((Supplier<?>) invocation.getArguments()[2]).get());
 
-        lookupFromCache = invocation -> testCache.get(buildCacheInvocationKey(invocation));
-
-        doAnswer(storeInCache)
-                .when(this.caches)
-                .store(isA(Resource.class), isA(OsgiBeanSource.class), any());
-
-        doAnswer(lookupFromCache)
+        doAnswer(lookupOrMap)
                 .when(this.caches)
-                .lookup(isA(Resource.class), isA(OsgiBeanSource.class));
+                .lookupOrMap(isA(Resource.class), isA(OsgiBeanSource.class), isA(Supplier.class));
 
         doReturn(this.resourceResolver).when(resource).getResourceResolver();
     }
@@ -17,6 +17,7 @@
 package io.neba.core.resourcemodels.caching;
 
 import io.neba.core.util.Key;
+import io.neba.core.util.ThreadContextSnapshot;
 import org.apache.sling.api.SlingHttpServletRequest;
 import org.apache.sling.api.request.RequestPathInfo;
 import org.apache.sling.api.resource.Resource;
@@ -31,11 +32,18 @@ import org.springframework.web.context.request.RequestContextHolder;
 import javax.servlet.FilterChain;
 import javax.servlet.ServletResponse;
 import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+
+import static java.util.concurrent.Executors.newSingleThreadExecutor;
+import static java.util.concurrent.TimeUnit.SECONDS;
 
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.mockito.Matchers.eq;
 import static org.mockito.Mockito.doAnswer;
 import static org.mockito.Mockito.doReturn;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
 /**
@@ -58,6 +66,7 @@ public class RequestScopedResourceModelCacheTest {
     private Class<?> modelType = Object.class;
 
     private Object cachedModel;
+    private ThreadContextSnapshot requestState;
 
     @InjectMocks
     private RequestScopedResourceModelCache testee;
@@ -88,6 +97,22 @@ public class RequestScopedResourceModelCacheTest {
         });
     }
 
+    @Test
+    public void testModelsAreNotCachedAcrossRequests() throws Exception {
+        withResourcePath("/junit/test/1");
+        request(() -> {
+            lookupModelFromCache();
+            putModelInCache();
+            return null;
+        });
+
+        request(() -> {
+            lookupModelFromCache();
+            assertModelIsNotInCache();
+            return null;
+        });
+    }
+
     @Test
     public void testLookupOfDifferentResourcePaths() throws Exception {
         request(() -> {
@@ -186,10 +211,13 @@ public class RequestScopedResourceModelCacheTest {
             lookupModelFromCache();
             assertModelIsInCache();
 
-            withSelector("new.selector");
+            include(() -> {
+                withSelector("new.selector");
 
-            lookupModelFromCache();
-            assertModelIsNotInCache();
+                lookupModelFromCache();
+                assertModelIsNotInCache();
+                return null;
+            });
             return null;
         });
     }
@@ -204,10 +232,13 @@ public class RequestScopedResourceModelCacheTest {
             lookupModelFromCache();
             assertModelIsInCache();
 
-            withSuffix("/newSuffix");
+            include(() -> {
+                withSuffix("/newSuffix");
 
-            lookupModelFromCache();
-            assertModelIsNotInCache();
+                lookupModelFromCache();
+                assertModelIsNotInCache();
+                return null;
+            });
             return null;
         });
     }
@@ -224,10 +255,13 @@ public class RequestScopedResourceModelCacheTest {
             lookupModelFromCache();
             assertModelIsInCache();
 
-            withPath("/new/path");
+            include(() -> {
+                withPath("/new/path");
 
-            lookupModelFromCache();
-            assertModelIsNotInCache();
+                lookupModelFromCache();
+                assertModelIsNotInCache();
+                return null;
+            });
             return null;
         });
     }
@@ -244,28 +278,93 @@ public class RequestScopedResourceModelCacheTest {
             lookupModelFromCache();
             assertModelIsInCache();
 
-            withPath("/a/page/jcr:content/parsys");
+            include(() -> {
+                withPath("/a/page/jcr:content/parsys");
+
+                lookupModelFromCache();
+                assertModelIsInCache();
+                return null;
+            });
+            return null;
+        });
+    }
 
+    @Test
+    public void testCacheIsSensitiveToQueryStringInSafeMode() throws Exception {
+        request(() -> {
+
+            withSafeMode();
+            withResourcePath("/junit/test/1");
+            putModelInCache();
             lookupModelFromCache();
             assertModelIsInCache();
+
+            include(() -> {
+                withQueryString("new=parameter");
+
+                lookupModelFromCache();
+                assertModelIsNotInCache();
+                return null;
+            });
             return null;
         });
     }
 
     @Test
-    public void testCacheIsSensitiveToQueryStringInSafeMode() throws Exception {
+    public void testRequestStateIsRestoredAfterIncludeInSafeMode() throws Exception {
         request(() -> {
 
             withSafeMode();
             withResourcePath("/junit/test/1");
             putModelInCache();
+
+            include(() -> {
+                withSelector("new.selector");
+                lookupModelFromCache();
+                assertModelIsNotInCache();
+                return null;
+            });
+
             lookupModelFromCache();
             assertModelIsInCache();
+            return null;
+        });
+    }
 
-            withQueryString("new=parameter");
+    @Test
+    public void testRequestStateIsDeterminedOncePerDispatchInSafeMode() throws Exception {
+        request(() -> {
 
+            withSafeMode();
+            withResourcePath("/junit/test/1");
+            putModelInCache();
             lookupModelFromCache();
-            assertModelIsNotInCache();
+            lookupModelFromCache();
+
+            include(() -> {
+                lookupModelFromCache();
+                lookupModelFromCache();
+                return null;
+            });
+            return null;
+        });
+
+        verify(this.request, times(2)).getRequestPathInfo();
+    }
+
+    @Test
+    public void testModelsCachedDuringIncludeRemainCachedWithoutSafeMode() throws Exception {
+        request(() -> {
+
+            withResourcePath("/junit/test/1");
+            include(() -> {
+                withSelector("new.selector");
+                putModelInCache();
+                return null;
+            });
+
+            lookupModelFromCache();
+            assertModelIsInCache();
             return null;
         });
     }
@@ -296,6 +395,90 @@ public class RequestScopedResourceModelCacheTest {
         });
     }
 
+    @Test
+    public void testNoRequestStateIsCapturedOutsideOfRequests() throws Exception {
+        captureRequestState();
+        assertThat(this.requestState).isNull();
+    }
+
+    @Test
+    public void testThreadsTheRequestStateIsBoundToShareTheCacheOfTheRequest() throws Exception {
+        request(() -> {
+            withResourcePath("/junit/test/1");
+            putModelInCache();
+            captureRequestState();
+
+            inOtherThread(() -> {
+                lookupModelFromCache();
+                assertModelIsInCache();
+
+                withResourcePath("/junit/test/2");
+                putModelInCache();
+                return null;
+            });
+
+            lookupModelFromCache();
+            assertModelIsInCache();
+            return null;
+        });
+    }
+
+    @Test
+    public void testThreadsTheRequestStateIsBoundToShareTheCacheOfTheRequestInSafeMode() throws Exception {
+        request(() -> {
+            withSafeMode();
+            withResourcePath("/junit/test/1");
+            captureRequestState();
+
+            inOtherThread(() -> {
+                putModelInCache();
+                return null;
+            });
+
+            lookupModelFromCache();
+            assertModelIsInCache();
+            return null;
+        });
+    }
+
+    @Test
+    public void testPreviousStateIsRestoredAfterBindingRequestState() throws Exception {
+        withResourcePath("/junit/test/1");
+        request(() -> {
+            putModelInCache();
+            captureRequestState();
+            return null;
+        });
+
+        Runnable restore = this.requestState.bind();
+        lookupModelFromCache();
+        assertModelIsInCache();
+
+        restore.run();
+        lookupModelFromCache();
+        assertModelIsNotInCache();
+    }
+
+    private void captureRequestState() {
+        this.requestState = this.testee.captureRequestState();
+    }
+
+    private void inOtherThread(Callable<Object> callable) throws Exception {
+        ExecutorService executor = newSingleThreadExecutor();
+        try {
+            executor.submit(() -> {
+                Runnable restore = this.requestState.bind();
+                try {
+                    return callable.call();
+                } finally {
+                    restore.run();
+                }
+            }).get(10, SECONDS);
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
     private void withDisabledCache() {
         this.testee.setEnabled(false);
     }
@@ -345,6 +528,12 @@ public class RequestScopedResourceModelCacheTest {
         this.testee.doFilter(this.request, this.response, this.chain);
     }
 
+    private void include(final Callable<Object> callable) throws Exception {
+        FilterChain includeChain = mock(FilterChain.class);
+        doAnswer(invocationOnMock -> callable.call()).when(includeChain).doFilter(eq(this.request), eq(this.response));
+        this.testee.doFilter(this.request, this.response, includeChain);
+    }
+
     private void withoutRequestAttributes() {
         RequestContextHolder.setRequestAttributes(null);
     }
@@ -0,0 +1,202 @@
+/*
+  Copyright 2013 the original author or authors.
+
+  Licensed under the Apache License, Version 2.0 the "License";
+  you may not use this file except in compliance with the License.
+  You may obtain a copy of the License at
+
+  http://www.apache.org/licenses/LICENSE-2.0
+
+  Unless required by applicable law or agreed to in writing, software
+  distributed under the License is distributed on an "AS IS" BASIS,
+  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+  See the License for the specific language governing permissions and
+  limitations under the License.
+*/
+
+package io.neba.core.resourcemodels.caching;
+
+import io.neba.api.resourcemodels.ResourceModelCache;
+import io.neba.core.util.Key;
+import org.apache.sling.api.resource.Resource;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.mockito.Mock;
+import org.mockito.runners.MockitoJUnitRunner;
+
+import java.io.Serializable;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.function.ToIntFunction;
+
+import static io.neba.api.resourcemodels.ResourceModelCache.ADMITTED_TYPES;
+import static io.neba.api.resourcemodels.ResourceModelCache.MAXIMUM_MODEL_WEIGHT;
+import static io.neba.api.resourcemodels.ResourceModelCache.TIER;
+import static java.util.Arrays.asList;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Matchers.any;
+import static org.mockito.Mockito.doReturn;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+
+/**
+ * @author Olaf Otto
+ */
+@RunWith(MockitoJUnitRunner.class)
+public class ResourceModelCacheTierTest {
+    /**
+     * Test model type with a super class and an interface.
+     */
+    private static class TestModel extends Number implements Serializable {
+        @Override
+        public int intValue() {
+            return 0;
+        }
+
+        @Override
+        public long longValue() {
+            return 0;
+        }
+
+        @Override
+        public float floatValue() {
+            return 0;
+        }
+
+        @Override
+        public double doubleValue() {
+            return 0;
+        }
+    }
+
+    @Mock
+    private ResourceModelCache cache;
+    @Mock
+    private ToIntFunction<Class<?>> weigher;
+    @Mock
+    private Resource resource;
+
+    private Map<String, Object> properties = new HashMap<>();
+    private Key key = new Key("/some/path");
+
+    private ResourceModelCacheTier testee;
+
+    @Before
+    public void setUp() throws Exception {
+        doReturn(1).when(this.weigher).applyAsInt(any());
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testNullCacheIsNotAllowed() throws Exception {
+        new ResourceModelCacheTier(null, this.properties, this.weigher);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testNullWeigherIsNotAllowed() throws Exception {
+        new ResourceModelCacheTier(this.cache, this.properties, null);
+    }
+
+    @Test
+    public void testDefaultsWithoutServiceProperties() throws Exception {
+        this.testee = new ResourceModelCacheTier(this.cache, null, this.weigher);
+
+        assertThat(this.testee.getTier()).isEqualTo(Integer.MAX_VALUE);
+        assertThat(this.testee.getName()).isEqualTo(this.cache.getClass().getName());
+        assertThat(this.testee.admits(TestModel.class)).isTrue();
+        verify(this.weigher, never()).applyAsInt(any());
+    }
+
+    @Test
+    public void testTierAndNameAreObtainedFromServiceProperties() throws Exception {
+        this.properties.put(TIER, "42");
+        this.properties.put("service.description", "Test cache");
+
+        createTier();
+
+        assertThat(this.testee.getTier()).isEqualTo(42);
+        assertThat(this.testee.getName()).isEqualTo("Test cache");
+    }
+
+    @Test
+    public void testInvalidTierIsTreatedAsLastTier() throws Exception {
+        this.properties.put(TIER, "first");
+
+        createTier();
+
+        assertThat(this.testee.getTier()).isEqualTo(Integer.MAX_VALUE);
+    }
+
+    @Test
+    public void testAdmissionOfSuperClassesAndInterfaces() throws Exception {
+        withAdmittedTypes(Number.class.getName());
+        assertThat(this.testee.admits(TestModel.class)).isTrue();
+        assertThat(this.testee.admits(Integer.class)).isTrue();
+        assertThat(this.testee.admits(String.class)).isFalse();
+
+        withAdmittedTypes(asList(Serializable.class.getName()));
+        assertThat(this.testee.admits(TestModel.class)).isTrue();
+        assertThat(this.testee.admits(Object.class)).isFalse();
+    }
+
+    @Test
+    public void testAdmissionOfModelWeight() throws Exception {
+        this.properties.put(MAXIMUM_MODEL_WEIGHT, 2);
+        createTier();
+
+        doReturn(2).when(this.weigher).applyAsInt(TestModel.class);
+        doReturn(3).when(this.weigher).applyAsInt(String.class);
+
+        assertThat(this.testee.admits(TestModel.class)).isTrue();
+        assertThat(this.testee.admits(String.class)).isFalse();
+    }
+
+    @Test
+    public void testAdmissionIsDeterminedOncePerType() throws Exception {
+        this.properties.put(MAXIMUM_MODEL_WEIGHT, 2);
+        createTier();
+
+        this.testee.admits(TestModel.class);
+        this.testee.admits(TestModel.class);
+
+        verify(this.weigher, times(1)).applyAsInt(TestModel.class);
+    }
+
+    @Test
+    public void testCountersAreMaintained() throws Exception {
+        createTier();
+        Object model = new Object();
+
+        this.testee.get(this.key);
+        doReturn(model).when(this.cache).get(this.key);
+        this.testee.get(this.key);
+        this.testee.put(this.resource, model, this.key);
+        this.testee.promote(this.resource, model, this.key);
+        this.testee.countRejection();
+
+        assertThat(this.testee.getHits()).isEqualTo(1);
+        assertThat(this.testee.getMisses()).isEqualTo(1);
+        assertThat(this.testee.getStores()).isEqualTo(1);
+        assertThat(this.testee.getPromotions()).isEqualTo(1);
+        assertThat(this.testee.getRejections()).isEqualTo(1);
+        assertThat(this.testee.getAverageLookupMicros()).isGreaterThanOrEqualTo(0);
+        verify(this.cache, times(2)).put(this.resource, model, this.key);
+    }
+
+    @Test
+    public void testAverageLookupDurationWithoutLookups() throws Exception {
+        createTier();
+        assertThat(this.testee.getAverageLookupMicros()).isEqualTo(0);
+    }
+
+    private void withAdmittedTypes(Object admittedTypes) {
+        this.properties.put(ADMITTED_TYPES, admittedTypes);
+        createTier();
+    }
+
+    private void createTier() {
+        this.testee = new ResourceModelCacheTier(this.cache, this.properties, this.weigher);
+    }
+}
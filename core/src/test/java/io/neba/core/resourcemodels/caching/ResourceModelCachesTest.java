@@ -17,6 +17,7 @@
 package io.neba.core.resourcemodels.caching;
 
 import io.neba.api.resourcemodels.ResourceModelCache;
+import io.neba.core.resourcemodels.metadata.MappedFieldMetaData;
 import io.neba.core.resourcemodels.metadata.ResourceModelMetaData;
 import io.neba.core.resourcemodels.metadata.ResourceModelMetaDataRegistrar;
 import io.neba.core.resourcemodels.metadata.ResourceModelStatistics;
@@ -27,6 +28,7 @@ import org.apache.sling.api.resource.ResourceResolver;
 import org.junit.Before;
 import org.junit.Test;
 import org.junit.runner.RunWith;
+import org.mockito.ArgumentCaptor;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.runners.MockitoJUnitRunner;
@@ -35,7 +37,16 @@ import java.util.HashMap;
 import java.util.LinkedList;
 import java.util.List;
 import java.util.Map;
-
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+
+import static io.neba.api.resourcemodels.ResourceModelCache.ADMITTED_TYPES;
+import static io.neba.api.resourcemodels.ResourceModelCache.MAXIMUM_MODEL_WEIGHT;
+import static io.neba.api.resourcemodels.ResourceModelCache.TIER;
+import static java.util.Collections.singletonMap;
+import static java.util.concurrent.Executors.newFixedThreadPool;
+import static java.util.concurrent.TimeUnit.SECONDS;
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.mockito.Matchers.eq;
 import static org.mockito.Mockito.any;
@@ -44,6 +55,7 @@ import static org.mockito.Mockito.doReturn;
 import static org.mockito.Mockito.isA;
 import static org.mockito.Mockito.mock;
 import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.same;
 import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
@@ -159,6 +171,16 @@ public class ResourceModelCachesTest {
 		verifyCacheHitIsCounted();
 	}
 
+	@Test
+	public void testCacheHitIsCountedForTheModelTypeOfTheModelSource() throws Exception {
+		this.model = "a model of a subtype";
+		bindCache();
+		withCachedObjectIn(0);
+		lookup();
+		verify(this.resourceModelMetaDataRegistrar).get(this.targetType);
+		verify(this.resourceModelMetaDataRegistrar, never()).get(String.class);
+	}
+
 	@Test
 	public void testUnsuccessulLookupIsNotCountedAsCacheHit() throws Exception {
 		bindCache();
@@ -183,9 +205,151 @@ public class ResourceModelCachesTest {
         verifyModelIsStoredInAllCaches();
     }
 
+	@Test
+	public void testLookupOrMapStoresMappedModelWithTheKeyUsedForLookup() throws Exception {
+		ResourceModelCache cache = mock(ResourceModelCache.class);
+		this.testee.bind(cache, null);
+
+		lookupOrMap();
+
+		ArgumentCaptor<Key> lookupKey = ArgumentCaptor.forClass(Key.class);
+		verify(cache).get(lookupKey.capture());
+		verify(cache).put(eq(this.resource), eq(this.model), same(lookupKey.getValue()));
+		assertModelWasFoundInCache();
+	}
+
+	@Test
+	public void testLookupOrMapDoesNotMapCachedModels() throws Exception {
+		bindCache();
+		withCachedObjectIn(0);
+
+		Object result = this.testee.lookupOrMap(this.resource, this.modelSource, () -> {
+			throw new AssertionError("The model must not be mapped.");
+		});
+
+		assertThat(result).isSameAs(this.model);
+		verifyCacheHitIsCounted();
+	}
+
+	@Test
+	public void testLookupOrMapWithoutCachesMapsModel() throws Exception {
+		lookupOrMap();
+		assertModelWasFoundInCache();
+	}
+
 	@Test
 	public void testRemovalOfNullCacheDoesNotCauseException() throws Exception {
-		this.testee.unbind(null);
+		this.testee.unbind(null, null);
+	}
+
+	@Test
+	public void testCachesAreConsultedInTheOrderOfTheirTier() throws Exception {
+		bindCache(singletonMap(TIER, 200));
+		bindCache(singletonMap(TIER, "100"));
+		bindCache(null);
+
+		assertThat(this.testee.getTiers())
+				.extracting("tier")
+				.containsExactly(100, 200, Integer.MAX_VALUE);
+
+		withCachedObjectIn(0);
+		lookup();
+
+		verify(this.mockedCaches.get(1)).get(isA(Key.class));
+		verify(this.mockedCaches.get(0)).get(isA(Key.class));
+		verify(this.mockedCaches.get(2), never()).get(isA(Key.class));
+	}
+
+	@Test
+	public void testModelsFoundInSubsequentTiersArePromotedToPrecedingTiers() throws Exception {
+		bindCache(singletonMap(TIER, 1));
+		bindCache(singletonMap(TIER, 2));
+		bindCache(singletonMap(TIER, 3));
+		withCachedObjectIn(1);
+
+		lookup();
+
+		assertModelWasFoundInCache();
+		verify(this.mockedCaches.get(0)).put(eq(this.resource), eq(this.model), isA(Key.class));
+		verify(this.mockedCaches.get(2), never()).get(isA(Key.class));
+		verify(this.mockedCaches.get(2), never()).put(any(), any(), any());
+		assertThat(this.testee.getTiers().get(0).getPromotions()).isEqualTo(1);
+		assertThat(this.testee.getTiers().get(0).getMisses()).isEqualTo(1);
+		assertThat(this.testee.getTiers().get(1).getHits()).isEqualTo(1);
+	}
+
+	@Test
+	public void testCachesOnlyStoreAdmittedModelTypes() throws Exception {
+		bindCache(singletonMap(ADMITTED_TYPES, new String[]{"java.lang.String"}));
+		bindCache(singletonMap(ADMITTED_TYPES, "java.lang.Object"));
+
+		storeModel();
+		lookup();
+
+		verify(this.mockedCaches.get(0), never()).put(any(), any(), any());
+		verify(this.mockedCaches.get(0), never()).get(any());
+		verify(this.mockedCaches.get(1)).put(eq(this.resource), eq(this.model), isA(Key.class));
+		assertModelWasFoundInCache();
+		assertThat(this.testee.getTiers().get(0).getRejections()).isEqualTo(1);
+		assertThat(this.testee.getTiers().get(1).getStores()).isEqualTo(1);
+	}
+
+	@Test
+	public void testCachesOnlyStoreModelsWithinTheirMaximumWeight() throws Exception {
+		doReturn(new MappedFieldMetaData[3]).when(this.resourceModelMetaData).getMappableFields();
+		bindCache(singletonMap(MAXIMUM_MODEL_WEIGHT, 2));
+		bindCache(singletonMap(MAXIMUM_MODEL_WEIGHT, 3));
+
+		storeModel();
+
+		verify(this.mockedCaches.get(0), never()).put(any(), any(), any());
+		verify(this.mockedCaches.get(1)).put(eq(this.resource), eq(this.model), isA(Key.class));
+	}
+
+	@Test
+	public void testAdmissionsAreDeterminedAnewAfterBeingCleared() throws Exception {
+		doReturn(new MappedFieldMetaData[3]).when(this.resourceModelMetaData).getMappableFields();
+		bindCache(singletonMap(MAXIMUM_MODEL_WEIGHT, 2));
+		storeModel();
+
+		doReturn(new MappedFieldMetaData[1]).when(this.resourceModelMetaData).getMappableFields();
+		storeModel();
+		verify(this.mockedCaches.get(0), never()).put(any(), any(), any());
+
+		this.testee.clearAdmissions();
+		storeModel();
+		verify(this.mockedCaches.get(0)).put(eq(this.resource), eq(this.model), isA(Key.class));
+	}
+
+	@Test
+	public void testConcurrentBindingAndUnbindingOfCaches() throws Exception {
+		final int threads = 8;
+		final int cachesPerThread = 50;
+		ExecutorService executor = newFixedThreadPool(threads);
+		CountDownLatch start = new CountDownLatch(1);
+		List<Future<?>> results = new LinkedList<>();
+		try {
+			for (int i = 0; i < threads; ++i) {
+				results.add(executor.submit(() -> {
+					start.await();
+					for (int j = 0; j < cachesPerThread; ++j) {
+						ResourceModelCache cache = mock(ResourceModelCache.class);
+						this.testee.bind(cache, singletonMap(TIER, j));
+						this.testee.lookup(this.resource, this.modelSource);
+						this.testee.unbind(cache, null);
+					}
+					return null;
+				}));
+			}
+			start.countDown();
+			for (Future<?> result : results) {
+				result.get(10, SECONDS);
+			}
+		} finally {
+			executor.shutdownNow();
+		}
+
+		assertThat(this.testee.getTiers()).isEmpty();
 	}
 
     private void verifyModelIsStoredInAllCaches() {
@@ -206,7 +370,7 @@ public class ResourceModelCachesTest {
 
 	private void unbindAllCaches() {
 		for (ResourceModelCache cache : this.mockedCaches) {
-			this.testee.unbind(cache);
+			this.testee.unbind(cache, null);
 		}
 	}
 
@@ -238,6 +402,10 @@ public class ResourceModelCachesTest {
 		verify(this.resourceModelMetaDataRegistrar, never()).get(any());
 	}
 
+	private void lookupOrMap() {
+		this.lookupResult = this.testee.lookupOrMap(this.resource, this.modelSource, () -> this.model);
+	}
+
 	private void lookup() {
 		this.lookupResult = this.testee.lookup(this.resource, this.modelSource);
 	}
@@ -255,12 +423,16 @@ public class ResourceModelCachesTest {
 	}
 
 	private void bindCache() {
+		bindCache(null);
+	}
+
+	private void bindCache(Map<String, ?> properties) {
 		ResourceModelCache cache = mock(ResourceModelCache.class);
 		Map<Object, Object> cacheData = new HashMap<>();
 		doAnswer(i -> cacheData.get(i.getArguments()[0])).when(cache).get(isA(Key.class));
 		doAnswer(i -> cacheData.put(i.getArguments()[2], i.getArguments()[1])).when(cache).put(isA(Resource.class), any(), isA(Key.class));
 
 		this.mockedCaches.add(cache);
-		this.testee.bind(cache);
+		this.testee.bind(cache, properties);
 	}
 }
@@ -0,0 +1,412 @@
+/*
+  Copyright 2013 the original author or authors.
+
+  Licensed under the Apache License, Version 2.0 the "License";
+  you may not use this file except in compliance with the License.
+  You may obtain a copy of the License at
+
+  http://www.apache.org/licenses/LICENSE-2.0
+
+  Unless required by applicable law or agreed to in writing, software
+  distributed under the License is distributed on an "AS IS" BASIS,
+  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+  See the License for the specific language governing permissions and
+  limitations under the License.
+*/
+
+package io.neba.core.resourcemodels.caching;
+
+import io.neba.core.resourcemodels.metadata.MappedFieldMetaData;
+import io.neba.core.resourcemodels.metadata.ResourceModelMetaData;
+import io.neba.core.resourcemodels.metadata.ResourceModelMetaDataRegistrar;
+import io.neba.core.resourcemodels.metadata.ResourceModelStatistics;
+import org.apache.sling.api.resource.Resource;
+import org.apache.sling.api.resource.ResourceResolver;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.runners.MockitoJUnitRunner;
+import org.osgi.service.event.Event;
+
+import java.util.HashMap;
+import java.util.Map;
+
+import static org.apache.sling.api.SlingConstants.PROPERTY_PATH;
+import static org.apache.sling.api.SlingConstants.TOPIC_RESOURCE_CHANGED;
+import static org.apache.sling.api.SlingConstants.TOPIC_RESOURCE_REMOVED;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Matchers.any;
+import static org.mockito.Mockito.doReturn;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+
+/**
+ * @author Olaf Otto
+ */
+@RunWith(MockitoJUnitRunner.class)
+public class SharedResourceModelCacheTest {
+    @Mock
+    private ResourceResolver resourceResolver;
+    @Mock
+    private ResourceModelMetaDataRegistrar metaDataRegistrar;
+    @Mock
+    private ResourceModelMetaData metaData;
+    @Mock
+    private ResourceModelStatistics statistics;
+
+    private Resource resource;
+    private Object model = new Object();
+    private Object cachedModel;
+
+    @InjectMocks
+    private SharedResourceModelCache testee;
+
+    @Before
+    public void setUp() throws Exception {
+        doReturn(this.metaData)
+                .when(this.metaDataRegistrar)
+                .get(any());
+
+        doReturn(this.statistics)
+                .when(this.metaData)
+                .getStatistics();
+
+        doReturn(new MappedFieldMetaData[0])
+                .when(this.metaData)
+                .getMappableFields();
+
+        doReturn(true)
+                .when(this.metaData)
+                .isSharedAcrossRequests();
+
+        doReturn("user")
+                .when(this.resourceResolver)
+                .getUserID();
+
+        withResourcePath("/content/site/en");
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testNullKeyIsNotAllowedForLookup() throws Exception {
+        this.testee.get(null);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testNullModelIsNotAllowedForStorage() throws Exception {
+        this.testee.put(this.resource, null, key());
+    }
+
+    @Test
+    public void testLookupOfModel() throws Exception {
+        lookupModelFromCache();
+        assertModelIsNotInCache();
+        putModelInCache();
+
+        lookupModelFromCache();
+        assertModelIsInCache();
+        verify(this.statistics).countSharedCacheMiss();
+        verify(this.statistics).countSharedCacheHit();
+    }
+
+    @Test
+    public void testModelIsSharedWithOtherResourceResolversOfTheSameUser() throws Exception {
+        lookupAndPutModelInCache();
+
+        withOtherResourceResolverOfUser("user");
+        lookupModelFromCache();
+
+        assertModelIsInCache();
+    }
+
+    @Test
+    public void testModelIsNotSharedWithOtherUsers() throws Exception {
+        lookupAndPutModelInCache();
+
+        withOtherResourceResolverOfUser("other");
+        lookupModelFromCache();
+
+        assertModelIsNotInCache();
+    }
+
+    @Test
+    public void testModelsThatAreNotSharedAcrossRequestsAreNotCached() throws Exception {
+        doReturn(false)
+                .when(this.metaData)
+                .isSharedAcrossRequests();
+
+        lookupAndPutModelInCache();
+        lookupModelFromCache();
+
+        assertModelIsNotInCache();
+        verify(this.statistics, never()).countSharedCacheMiss();
+    }
+
+    @Test
+    public void testModelsOfResourceResolversWithoutUserAreNotCached() throws Exception {
+        withOtherResourceResolverOfUser(null);
+
+        lookupAndPutModelInCache();
+        lookupModelFromCache();
+
+        assertModelIsNotInCache();
+    }
+
+    @Test
+    public void testModelsAreOnlyAddedAfterLookup() throws Exception {
+        putModelInCache();
+        lookupModelFromCache();
+
+        assertModelIsNotInCache();
+    }
+
+    @Test
+    public void testChangeOfResourceInvalidatesModel() throws Exception {
+        lookupAndPutModelInCache();
+
+        changeResourceAt("/content/site/en");
+        lookupModelFromCache();
+
+        assertModelIsNotInCache();
+        assertThat(this.testee.getInvalidations()).isEqualTo(1);
+    }
+
+    @Test
+    public void testChangeBelowResourceInvalidatesModel() throws Exception {
+        lookupAndPutModelInCache();
+
+        changeResourceAt("/content/site/en/page/jcr:content");
+        lookupModelFromCache();
+
+        assertModelIsNotInCache();
+    }
+
+    @Test
+    public void testRemovalAboveResourceInvalidatesModel() throws Exception {
+        lookupAndPutModelInCache();
+
+        removeResourceAt("/content/site");
+        lookupModelFromCache();
+
+        assertModelIsNotInCache();
+    }
+
+    @Test
+    public void testChangeOfUnrelatedResourceDoesNotInvalidateModel() throws Exception {
+        lookupAndPutModelInCache();
+
+        changeResourceAt("/content/site/english");
+        changeResourceAt("/content/site/de");
+        lookupModelFromCache();
+
+        assertModelIsInCache();
+        assertThat(this.testee.getInvalidations()).isEqualTo(0);
+    }
+
+    @Test
+    public void testChangeWithoutPathInvalidatesAllModels() throws Exception {
+        lookupAndPutModelInCache();
+
+        changeResourceAt(null);
+        lookupModelFromCache();
+
+        assertModelIsNotInCache();
+    }
+
+    @Test
+    public void testModelIsNotAddedIfResourceChangedAfterLookup() throws Exception {
+        lookupModelFromCache();
+        changeResourceAt("/content/site/en/jcr:content");
+        putModelInCache();
+
+        lookupModelFromCache();
+
+        assertModelIsNotInCache();
+    }
+
+    @Test
+    public void testModelIsNotAddedIfResourceAboveChangedAfterLookup() throws Exception {
+        lookupModelFromCache();
+        removeResourceAt("/content/site");
+        putModelInCache();
+
+        lookupModelFromCache();
+
+        assertModelIsNotInCache();
+    }
+
+    @Test
+    public void testModelIsAddedIfUnrelatedResourceChangedAfterLookup() throws Exception {
+        lookupModelFromCache();
+        changeResourceAt("/content/site/english");
+        changeResourceAt("/content/site/e");
+        putModelInCache();
+
+        lookupModelFromCache();
+
+        assertModelIsInCache();
+    }
+
+    @Test
+    public void testNumberOfPendingModelsIsBounded() throws Exception {
+        this.testee.setMaximumSize(1);
+
+        lookupModelFromCache();
+        withResourcePath("/content/site/de");
+        lookupAndPutModelInCache();
+        lookupModelFromCache();
+
+        assertModelIsNotInCache();
+    }
+
+    @Test
+    public void testPendingModelsThatAreNeverAddedExpire() throws Exception {
+        this.testee.setMaximumSize(1);
+        this.testee.setPendingTimeoutNanos(0);
+
+        // The model is never added, e.g. since its mapping failed.
+        lookupModelFromCache();
+        Thread.sleep(1);
+        withResourcePath("/content/site/de");
+        lookupAndPutModelInCache();
+        lookupModelFromCache();
+
+        assertModelIsInCache();
+    }
+
+    @Test
+    public void testOldestModelIsEvictedWhenMaximumSizeIsExceeded() throws Exception {
+        this.testee.setMaximumSize(1);
+
+        lookupAndPutModelInCache();
+        withResourcePath("/content/site/de");
+        lookupAndPutModelInCache();
+
+        assertThat(this.testee.size()).isEqualTo(1);
+        assertThat(this.testee.getEvictions()).isEqualTo(1);
+
+        withResourcePath("/content/site/en");
+        lookupModelFromCache();
+        assertModelIsNotInCache();
+    }
+
+    @Test
+    public void testWeightOfModelsIsBounded() throws Exception {
+        doReturn(new MappedFieldMetaData[]{mock(MappedFieldMetaData.class), mock(MappedFieldMetaData.class)})
+                .when(this.metaData)
+                .getMappableFields();
+        this.testee.setMaximumWeight(5);
+
+        lookupAndPutModelInCache();
+        assertThat(this.testee.getWeight()).isEqualTo(3);
+
+        withResourcePath("/content/site/de");
+        lookupAndPutModelInCache();
+
+        assertThat(this.testee.size()).isEqualTo(1);
+        assertThat(this.testee.getWeight()).isEqualTo(3);
+        assertThat(this.testee.getEvictions()).isEqualTo(1);
+    }
+
+    @Test
+    public void testFieldValuesAreNotReadToDetermineTheWeightOfModels() throws Exception {
+        MappedFieldMetaData field = mock(MappedFieldMetaData.class);
+        doReturn(new MappedFieldMetaData[]{field})
+                .when(this.metaData)
+                .getMappableFields();
+
+        lookupAndPutModelInCache();
+
+        verify(field, never()).getValue(any());
+    }
+
+    @Test
+    public void testModelsHeavierThanTheMaximumWeightAreNotCached() throws Exception {
+        this.testee.setMaximumWeight(1);
+        doReturn(new MappedFieldMetaData[]{mock(MappedFieldMetaData.class)})
+                .when(this.metaData)
+                .getMappableFields();
+
+        lookupAndPutModelInCache();
+
+        assertThat(this.testee.size()).isEqualTo(0);
+    }
+
+    @Test
+    public void testClearRemovesAllModels() throws Exception {
+        lookupAndPutModelInCache();
+
+        this.testee.clear();
+
+        assertThat(this.testee.size()).isEqualTo(0);
+        assertThat(this.testee.getWeight()).isEqualTo(0);
+    }
+
+    @Test
+    public void testDisabledCacheDoesNotCacheModels() throws Exception {
+        this.testee.setEnabled(false);
+
+        lookupAndPutModelInCache();
+        lookupModelFromCache();
+
+        assertModelIsNotInCache();
+    }
+
+    private void changeResourceAt(String path) {
+        sendEvent(TOPIC_RESOURCE_CHANGED, path);
+    }
+
+    private void removeResourceAt(String path) {
+        sendEvent(TOPIC_RESOURCE_REMOVED, path);
+    }
+
+    private void sendEvent(String topic, String path) {
+        Map<String, Object> properties = new HashMap<>();
+        if (path != null) {
+            properties.put(PROPERTY_PATH, path);
+        }
+        this.testee.handleEvent(new Event(topic, properties));
+    }
+
+    private void withOtherResourceResolverOfUser(String userId) {
+        this.resourceResolver = mock(ResourceResolver.class);
+        doReturn(userId)
+                .when(this.resourceResolver)
+                .getUserID();
+        withResourcePath(this.resource.getPath());
+    }
+
+    private void withResourcePath(String path) {
+        this.resource = mock(Resource.class);
+        doReturn(path).when(this.resource).getPath();
+        doReturn("some/type").when(this.resource).getResourceType();
+        doReturn(this.resourceResolver).when(this.resource).getResourceResolver();
+    }
+
+    private void lookupAndPutModelInCache() {
+        lookupModelFromCache();
+        putModelInCache();
+    }
+
+    private void putModelInCache() {
+        this.testee.put(this.resource, this.model, key());
+    }
+
+    private void lookupModelFromCache() {
+        this.cachedModel = this.testee.get(key());
+    }
+
+    private ResourceModelCacheKey key() {
+        return new ResourceModelCacheKey(this.resource, Object.class);
+    }
+
+    private void assertModelIsInCache() {
+        assertThat(this.cachedModel).isSameAs(this.model);
+    }
+
+    private void assertModelIsNotInCache() {
+        assertThat(this.cachedModel).isNull();
+    }
+}
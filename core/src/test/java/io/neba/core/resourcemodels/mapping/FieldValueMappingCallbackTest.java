@@ -22,7 +22,10 @@ import io.neba.api.resourcemodels.Optional;
 import io.neba.core.resourcemodels.mapping.testmodels.OtherTestResourceModel;
 import io.neba.core.resourcemodels.mapping.testmodels.TestResourceModel;
 import io.neba.core.resourcemodels.metadata.MappedFieldMetaData;
+import io.neba.core.resourcemodels.metadata.PrimitivePropertyWriter;
 import io.neba.core.util.Annotations;
+import io.neba.core.util.LazyList;
+import io.neba.core.util.LazySet;
 import org.apache.sling.api.resource.Resource;
 import org.apache.sling.api.resource.ResourceResolver;
 import org.apache.sling.api.resource.SyntheticResource;
@@ -35,8 +38,6 @@ import org.mockito.Mock;
 import org.mockito.runners.MockitoJUnitRunner;
 import org.mockito.stubbing.Answer;
 import org.springframework.beans.factory.config.ConfigurableBeanFactory;
-import org.springframework.cglib.proxy.Factory;
-import org.springframework.cglib.proxy.LazyLoader;
 
 import java.lang.reflect.Array;
 import java.lang.reflect.Field;
@@ -70,13 +71,10 @@ public class FieldValueMappingCallbackTest {
     @Mock
     private MappedFieldMetaData mappedFieldMetadata;
     @Mock
-    private Factory lazyLoadingCollectionFactory;
-    @Mock
     private AnnotatedFieldMappers annotatedFieldMappers;
     @Mock
     private AnnotatedFieldMapper annotatedFieldMapper;
 
-    private LazyLoader lazyLoadingCollectionCallback;
 
     private Resource resource;
     private Resource parentOfResourceTargetedByMapping;
@@ -86,13 +84,17 @@ public class FieldValueMappingCallbackTest {
     private Object mappedFieldOfTypeObject;
     @SuppressWarnings("unused")
     private String mappedFieldOfTypeString;
+    @SuppressWarnings("unused")
+    private int mappedFieldOfTypeInt;
 
     private Field mappedField;
 
     private Object targetValue;
     private Object model = this;
+    private boolean reflectiveFieldAccess = false;
 
     private OngoingMapping ongoingMapping;
+    private FieldValueMappingCallback.FieldMapping compiledFieldMapping;
 
     @Before
     public void prepareMappedField() throws Exception {
@@ -104,21 +106,6 @@ public class FieldValueMappingCallbackTest {
         withResource(mock(Resource.class));
     }
 
-    @Before
-    public void mockLazyLoadingCollectionFactory() {
-        Answer<Object> loadImmediately = invocationOnMock -> {
-            lazyLoadingCollectionCallback = (LazyLoader) invocationOnMock.getArguments()[0];
-            return lazyLoadingCollectionCallback.loadObject();
-        };
-        doAnswer(loadImmediately)
-                .when(lazyLoadingCollectionFactory)
-                .newInstance(isA(LazyLoader.class));
-
-        doReturn(lazyLoadingCollectionFactory)
-                .when(this.mappedFieldMetadata)
-                .getCollectionProxyFactory();
-    }
-
     @Before
     public void prepareCustomFieldMappers() throws Exception {
         doReturn(emptyList()).when(this.annotatedFieldMappers).get(isA(MappedFieldMetaData.class));
@@ -129,7 +116,7 @@ public class FieldValueMappingCallbackTest {
      */
     @Test(expected = IllegalArgumentException.class)
     public void testHandlingOfNullModelInConstructor() throws Exception {
-        new FieldValueMappingCallback(null, this.resource, this.factory, this.annotatedFieldMappers);
+        new FieldValueMappingCallback(null, this.resource, this.factory, this.annotatedFieldMappers, false);
     }
 
     /**
@@ -137,7 +124,7 @@ public class FieldValueMappingCallbackTest {
      */
     @Test(expected = IllegalArgumentException.class)
     public void testHandlingOfNullResourceInConstructor() throws Exception {
-        new FieldValueMappingCallback(this.model, null, this.factory, this.annotatedFieldMappers);
+        new FieldValueMappingCallback(this.model, null, this.factory, this.annotatedFieldMappers, false);
     }
 
     /**
@@ -145,7 +132,7 @@ public class FieldValueMappingCallbackTest {
      */
     @Test(expected = IllegalArgumentException.class)
     public void testHandlingOfNullFactoryInConstructor() throws Exception {
-        new FieldValueMappingCallback(this.model, this.resource, null, this.annotatedFieldMappers);
+        new FieldValueMappingCallback(this.model, this.resource, null, this.annotatedFieldMappers, false);
     }
 
     /**
@@ -153,7 +140,7 @@ public class FieldValueMappingCallbackTest {
      */
     @Test(expected = IllegalArgumentException.class)
     public void testHandlingOfNullFactoryInMapping() throws Exception {
-        new FieldValueMappingCallback(this.model, this.resource, this.factory, this.annotatedFieldMappers).doWith(null);
+        new FieldValueMappingCallback(this.model, this.resource, this.factory, this.annotatedFieldMappers, false).doWith((MappedFieldMetaData) null);
     }
 
     /**
@@ -198,6 +185,79 @@ public class FieldValueMappingCallbackTest {
         assertFieldIsMapped();
     }
 
+    /**
+     * Field values are written using the {@link MappedFieldMetaData#setValue(Object, Object) accessors}
+     * of the metadata unless reflective field access is configured.
+     */
+    @Test
+    public void testFieldValuesAreWrittenUsingTheFieldMetaData() throws Exception {
+        mapPropertyField(String.class, "value");
+        assertFieldIsMapped();
+        verifyFieldValueIsSetUsingMetaData();
+    }
+
+    @Test
+    public void testFieldValuesAreWrittenUsingReflectionIfConfigured() throws Exception {
+        withReflectiveFieldAccess();
+        mapPropertyField(String.class, "value");
+        assertFieldIsMapped();
+        verifyFieldValueIsNotSetUsingMetaData();
+    }
+
+    /**
+     * Properties of the current resource are written to primitive fields using the
+     * {@link MappedFieldMetaData#getPrimitivePropertyWriter() primitive property writer} of the field, i.e.
+     * without converting and boxing the stored value.
+     */
+    @Test
+    public void testPrimitivePropertiesAreWrittenUsingThePrimitivePropertyWriter() throws Exception {
+        withPrimitiveIntField();
+        withStoredPropertyValue(42L);
+
+        mapField();
+
+        assertThat(this.mappedFieldOfTypeInt).isEqualTo(42);
+        verifyFieldValueIsNotSetUsingMetaData();
+        verify(this.valueMap, never()).get(eq("field"), eq(Integer.class));
+    }
+
+    @Test
+    public void testPrimitivePropertyWriterIsNotUsedForFieldsWithCustomMappers() throws Exception {
+        withPrimitiveIntField();
+        withStoredPropertyValue(42L);
+        withCustomFieldMapperMappingTo(7);
+
+        mapField();
+
+        assertThat(this.mappedFieldOfTypeInt).isEqualTo(7);
+        assertCustomFieldMapperIsUsedToMapField();
+    }
+
+    @Test
+    public void testCustomMappersAreObtainedOnceForCompiledFieldMappings() throws Exception {
+        withPrimitiveIntField();
+        withStoredPropertyValue(42L);
+        withCompiledFieldMapping();
+
+        mapCompiledField();
+        mapCompiledField();
+
+        assertThat(this.mappedFieldOfTypeInt).isEqualTo(42);
+        assertCustomFieldMapperIsObtained();
+    }
+
+    @Test
+    public void testPrimitivePropertyWriterIsNotUsedWithReflectiveFieldAccess() throws Exception {
+        withReflectiveFieldAccess();
+        withPrimitiveIntField();
+        withPropertyValue(42);
+
+        mapField();
+
+        assertThat(this.mappedFieldOfTypeInt).isEqualTo(42);
+        verify(this.valueMap, never()).get("field");
+    }
+
     /**
      * <pre>
      *     &#64;{@link io.neba.api.annotations.ResourceModel}(types = ...)
@@ -550,7 +610,7 @@ public class FieldValueMappingCallbackTest {
         assertMappedFieldValueIsOptional();
         loadOptionalField();
         assertMappedFieldValueIsCollectionWithResourcesWithPaths(referencedResources);
-        assertNoLazyLoadingProxyIsCreated();
+        assertNoLazyLoadingCollectionIsCreated();
     }
 
     /**
@@ -582,7 +642,7 @@ public class FieldValueMappingCallbackTest {
         assertMappedFieldValueIsLazy();
         loadLazyField();
         assertMappedFieldValueIsCollectionWithResourcesWithPaths(referencedResources);
-        assertNoLazyLoadingProxyIsCreated();
+        assertNoLazyLoadingCollectionIsCreated();
     }
 
     /**
@@ -598,12 +658,12 @@ public class FieldValueMappingCallbackTest {
      * </pre>
      */
     @Test
-    public void testCollectionOfReferencesIsLazyLoadedViaProxy() throws Exception {
+    public void testCollectionOfReferencesIsLazyLoaded() throws Exception {
         String[] referencedResources = new String[]{"/first/path/stored/in/property", "/second/path/stored/in/property"};
         withMockResources(referencedResources);
         mapReferenceCollectionField(Collection.class, Resource.class, referencedResources);
         assertMappedFieldValueIsCollectionWithResourcesWithPaths(referencedResources);
-        assertLazyLoadingProxyIsCreated();
+        assertLazyLoadingCollectionIsCreated();
     }
 
     /**
@@ -691,7 +751,7 @@ public class FieldValueMappingCallbackTest {
 
         assertMappedFieldValueIsOptional();
 
-        assertCustomFieldMapperIsNotObtained();
+        assertCustomFieldMapperIsObtained();
         assertCustomFieldMapperIsNotUsedToMapField();
 
         loadOptionalField();
@@ -725,7 +785,7 @@ public class FieldValueMappingCallbackTest {
 
         assertMappedFieldValueIsLazy();
 
-        assertCustomFieldMapperIsNotObtained();
+        assertCustomFieldMapperIsObtained();
         assertCustomFieldMapperIsNotUsedToMapField();
 
         loadLazyField();
@@ -747,7 +807,23 @@ public class FieldValueMappingCallbackTest {
      * </pre>
      */
     @Test
-    public void testCollectionOfChildrenIsLazyLoadedViaProxy() throws Exception {
+    public void testCollectionOfChildrenIsLazyLoaded() throws Exception {
+        withField(Collection.class);
+        withCollectionTypedField();
+        withInstantiableCollectionTypedField();
+        withTypeParameter(TestResourceModel.class);
+        withChildrenAnnotationPresent();
+        withResourceTargetedByMapping(child("field"));
+        withResourceTargetedByMappingAdaptingTo(TestResourceModel.class, new TestResourceModel());
+
+        mapField();
+
+        assertMappedFieldValueIsCollectionContainingTargetValue();
+        assertLazyLoadingCollectionIsCreated();
+    }
+
+    @Test
+    public void testChildrenAreListedUponFirstAccessOfTheLazyLoadingCollection() throws Exception {
         withField(Collection.class);
         withCollectionTypedField();
         withInstantiableCollectionTypedField();
@@ -757,9 +833,10 @@ public class FieldValueMappingCallbackTest {
         withResourceTargetedByMappingAdaptingTo(TestResourceModel.class, new TestResourceModel());
 
         mapField();
+        verify(this.resource, never()).listChildren();
 
         assertMappedFieldValueIsCollectionContainingTargetValue();
-        assertLazyLoadingProxyIsCreated();
+        verify(this.resource).listChildren();
     }
 
     /**
@@ -856,6 +933,26 @@ public class FieldValueMappingCallbackTest {
         assertFieldMapperLoadsFromValueMap("text-de");
     }
 
+    /**
+     * A {@link FieldValueMappingCallback#compile(MappedFieldMetaData, AnnotatedFieldMappers) compiled} field mapping is re-used for
+     * all mappings of the field. Placeholders in paths must nevertheless be resolved for each mapping.
+     */
+    @Test
+    public void testPlaceholderResolutionInPathOfCompiledFieldMapping() throws Exception {
+        withConfigurableBeanFactory();
+        withPropertyFieldWithPath(String.class, "text-${language}");
+        withPathExpressionDetected();
+        withCompiledFieldMapping();
+
+        withPlaceholderResolution("text-${language}", "text-de");
+        mapCompiledField();
+        assertFieldMapperLoadsFromValueMap("text-de");
+
+        withPlaceholderResolution("text-${language}", "text-en");
+        mapCompiledField();
+        assertFieldMapperLoadsFromValueMap("text-en");
+    }
+
     /**
      * When no value for a placeholder in a path can be resolved, the original path including the placeholder
      * shall be used.
@@ -1170,7 +1267,8 @@ public class FieldValueMappingCallbackTest {
     public void testResolutionOfPropertyWithAbsolutePath() throws Exception {
         withPropertyFieldWithPath(String.class, "/other/resource/propertyName");
         withResourceTargetedByMapping("/other/resource/propertyName");
-        withResourceTargetedByMappingAdaptingTo(String.class, "propertyValue");
+        withParentOfTargetResource("/other/resource");
+        withParentOfTargetResourceProperty("propertyName", "propertyValue");
 
         mapField();
 
@@ -1204,7 +1302,8 @@ public class FieldValueMappingCallbackTest {
         withNullValueMap();
         withPropertyFieldWithPath(String.class, "/other/resource/propertyName");
         withResourceTargetedByMapping("/other/resource/propertyName");
-        withResourceTargetedByMappingAdaptingTo(String.class, "propertyValue");
+        withParentOfTargetResource("/other/resource");
+        withParentOfTargetResourceProperty("propertyName", "propertyValue");
 
         mapField();
 
@@ -1221,7 +1320,8 @@ public class FieldValueMappingCallbackTest {
         withNullValueMap();
         withPropertyFieldWithPath(String.class, "../other/resource/propertyName");
         withResourceTargetedByMapping("../other/resource/propertyName");
-        withResourceTargetedByMappingAdaptingTo(String.class, "propertyValue");
+        withParentOfTargetResource("../other/resource");
+        withParentOfTargetResourceProperty("propertyName", "propertyValue");
 
         mapField();
 
@@ -1262,6 +1362,24 @@ public class FieldValueMappingCallbackTest {
         assertFieldIsMapped();
     }
 
+    /**
+     * Fields referencing properties of the same resource, e.g. <code>jcr:content/title</code> and <code>jcr:content/text</code>,
+     * share the resolution of that resource and its properties during a mapping.
+     */
+    @Test
+    public void testPropertiesOfForeignResourceAreObtainedOncePerMapping() throws Exception {
+        withPropertyFieldWithPath(Boolean.class, "/other/resource/propertyName");
+        withResourceTargetedByMapping("/other/resource/propertyName");
+        withParentOfTargetResource("/other/resource");
+        withParentOfTargetResourceProperty("propertyName", FALSE);
+
+        mapFieldTwiceInSameMapping();
+
+        assertFieldIsMapped();
+        verifyResourceIsResolvedOnce("/other/resource");
+        verifyParentOfTargetResourceIsAdaptedToValueMapOnce();
+    }
+
     /**
      * Resource models can also be mapped from resources without properties - i.e. synthetic resources.
      * In this case, only fields with absolute or relative mapping paths or non-property types can be resolved.
@@ -1297,15 +1415,14 @@ public class FieldValueMappingCallbackTest {
     /**
      * Resource models can also be mapped from resources without properties - i.e. synthetic resources.
      * In this case, only fields with absolute or relative mapping paths or non-property types can be resolved.
-     * Test that the mapping supports resolution of string arrays through direct adaptation from the
-     * property resource.
+     * Test that the mapping supports resolution of string arrays from the properties of the parent resource.
      */
     @Test
     public void testResolutionOfArrayStringPropertyFromForeignResource() throws Exception {
         withPropertyFieldWithPath(String[].class, "/other/resource/propertyName");
         withResourceTargetedByMapping("/other/resource/propertyName");
         withParentOfTargetResource("/other/resource");
-        withResourceTargetedByMappingAdaptingTo(String[].class, new String[]{"first value", "second value"});
+        withParentOfTargetResourceProperty("propertyName", new String[]{"first value", "second value"});
 
         mapField();
 
@@ -1808,6 +1925,18 @@ public class FieldValueMappingCallbackTest {
         doReturn(relativeAppendPath).when(this.mappedFieldMetadata).getAppendPathOnReference();
     }
 
+    private void withPrimitiveIntField() throws NoSuchFieldException {
+        withMappedField("mappedFieldOfTypeInt");
+        withField(int.class);
+        withPropertyTypedField();
+        PrimitivePropertyWriter writer = new MappedFieldMetaData(this.mappedField, getClass()).getPrimitivePropertyWriter();
+        doReturn(writer).when(this.mappedFieldMetadata).getPrimitivePropertyWriter();
+    }
+
+    private void withStoredPropertyValue(Object value) {
+        doReturn(value).when(this.valueMap).get("field");
+    }
+
     private void withPropertyTypedField() {
         doReturn(true).when(this.mappedFieldMetadata).isPropertyType();
     }
@@ -1824,6 +1953,11 @@ public class FieldValueMappingCallbackTest {
         doReturn(mappedField).when(this.mappedFieldMetadata).getField();
         doReturn("field").when(this.mappedFieldMetadata).getPath();
         doReturn(fieldType).when(this.mappedFieldMetadata).getType();
+        doAnswer(inv -> {
+            mappedField.set(inv.getArguments()[0], inv.getArguments()[1]);
+            return null;
+        }).when(this.mappedFieldMetadata).setValue(any(), any());
+        doAnswer(inv -> mappedField.get(inv.getArguments()[0])).when(this.mappedFieldMetadata).getValue(any());
 
         Annotations annotations = mock(Annotations.class);
         doReturn(new HashMap<>()).when(annotations).getAnnotations();
@@ -1831,10 +1965,45 @@ public class FieldValueMappingCallbackTest {
     }
 
     private void mapField() {
-        new FieldValueMappingCallback(this.model, this.resource, this.factory, this.annotatedFieldMappers)
+        new FieldValueMappingCallback(this.model, this.resource, this.factory, this.annotatedFieldMappers, this.reflectiveFieldAccess)
                 .doWith(this.mappedFieldMetadata);
     }
 
+    private void mapFieldTwiceInSameMapping() {
+        FieldValueMappingCallback callback = new FieldValueMappingCallback(this.model, this.resource, this.factory, this.annotatedFieldMappers, this.reflectiveFieldAccess);
+        callback.doWith(this.mappedFieldMetadata);
+        callback.doWith(this.mappedFieldMetadata);
+    }
+
+    private void verifyResourceIsResolvedOnce(String path) {
+        verify(this.resourceResolver).getResource(eq(this.resource), eq(path));
+    }
+
+    private void verifyParentOfTargetResourceIsAdaptedToValueMapOnce() {
+        verify(this.parentOfResourceTargetedByMapping).adaptTo(ValueMap.class);
+    }
+
+    private void withCompiledFieldMapping() {
+        this.compiledFieldMapping = FieldValueMappingCallback.compile(this.mappedFieldMetadata, this.annotatedFieldMappers);
+    }
+
+    private void mapCompiledField() {
+        new FieldValueMappingCallback(this.model, this.resource, this.factory, this.annotatedFieldMappers, this.reflectiveFieldAccess)
+                .doWith(this.compiledFieldMapping);
+    }
+
+    private void withReflectiveFieldAccess() {
+        this.reflectiveFieldAccess = true;
+    }
+
+    private void verifyFieldValueIsSetUsingMetaData() {
+        verify(this.mappedFieldMetadata).setValue(eq(this.model), any());
+    }
+
+    private void verifyFieldValueIsNotSetUsingMetaData() {
+        verify(this.mappedFieldMetadata, never()).setValue(any(), any());
+    }
+
     private void withThisReferenceTypedField() {
         doReturn(true).when(this.mappedFieldMetadata).isThisReference();
     }
@@ -1855,12 +2024,12 @@ public class FieldValueMappingCallbackTest {
         assertThat(this.mappedFieldOfTypeObject).isInstanceOf(Lazy.class);
     }
 
-    private void assertNoLazyLoadingProxyIsCreated() {
-        verify(this.lazyLoadingCollectionFactory, never()).newInstance(isA(LazyLoader.class));
+    private void assertNoLazyLoadingCollectionIsCreated() {
+        assertThat(this.mappedFieldOfTypeObject).isNotInstanceOfAny(LazyList.class, LazySet.class);
     }
 
-    private void assertLazyLoadingProxyIsCreated() {
-        verify(this.lazyLoadingCollectionFactory).newInstance(isA(LazyLoader.class));
+    private void assertLazyLoadingCollectionIsCreated() {
+        assertThat(this.mappedFieldOfTypeObject).isInstanceOfAny(LazyList.class, LazySet.class);
     }
 
     private void assertOptionalFieldHasValue(Object expected) {
@@ -1997,8 +2166,4 @@ public class FieldValueMappingCallbackTest {
     private void assertCustomFieldMapperIsNotUsedToMapField() {
         verify(this.annotatedFieldMapper, never()).map(any());
     }
-
-    private void assertCustomFieldMapperIsNotObtained() {
-        verify(this.annotatedFieldMappers, never()).get(any());
-    }
 }
\ No newline at end of file
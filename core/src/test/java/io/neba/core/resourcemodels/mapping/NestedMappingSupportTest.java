@@ -139,6 +139,31 @@ public class NestedMappingSupportTest {
         this.testee.hasOngoingMapping(null);
     }
 
+    @Test
+    public void testNewMappingStackIsIndependentOfOngoingMappings() throws Exception {
+        beginMapping();
+
+        Runnable restore = this.testee.newMappingStack().bind();
+        getOngoingMappings();
+        assertOngoingMappingsAreEmpty();
+        beginMapping();
+        assertMappingWasNotAlreadyStarted();
+        restore.run();
+
+        beginMapping();
+        assertAlreadyStartedMappingIsDetected();
+    }
+
+    @Test
+    public void testNoMappingStackRemainsAfterRestoringNewMappingStack() throws Exception {
+        Runnable restore = this.testee.newMappingStack().bind();
+        beginMapping();
+        restore.run();
+
+        getOngoingMappings();
+        assertOngoingMappingsAreEmpty();
+    }
+
     private void assertMappingForCurrentResourceModelTypeExists() {
         assertThat(this.testee.hasOngoingMapping(this.mapping.getMetadata())).isTrue();
     }
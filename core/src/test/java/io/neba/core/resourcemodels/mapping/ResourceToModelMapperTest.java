@@ -29,11 +29,14 @@ import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.runners.MockitoJUnitRunner;
 import org.springframework.aop.TargetSource;
+import org.springframework.aop.support.AopUtils;
 import org.springframework.aop.framework.Advised;
 import org.springframework.beans.factory.BeanFactory;
 import org.springframework.cglib.proxy.Enhancer;
 import org.springframework.cglib.proxy.NoOp;
 
+import java.util.concurrent.CountDownLatch;
+
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.mockito.Matchers.anyObject;
 import static org.mockito.Matchers.eq;
@@ -50,6 +53,20 @@ public class ResourceToModelMapperTest {
      * @author Olaf Otto
      */
     public static class TestModel {
+        private String title;
+        private String description;
+
+        public String getTitle() {
+            return title;
+        }
+
+        public String getDescription() {
+            return description;
+        }
+
+        public String getSummary() {
+            return title + ": " + description;
+        }
     }
 
     @Mock
@@ -120,6 +137,132 @@ public class ResourceToModelMapperTest {
         assertModelReturnedFromMapperIsOriginalModel();
     }
 
+    @Test
+    public void testMappingPlanIsCompiledOncePerModel() throws Exception {
+        mapResourceToModel();
+        mapResourceToModel();
+        verifyMappableFieldsAreObtained(1);
+    }
+
+    @Test
+    public void testMappingPlanIsRecompiledAfterMappingPlansAreCleared() throws Exception {
+        mapResourceToModel();
+        clearMappingPlans();
+        mapResourceToModel();
+        verifyMappableFieldsAreObtained(2);
+    }
+
+    @Test
+    public void testMappingPlanIsRecompiledAfterAnnotatedFieldMappersChanged() throws Exception {
+        mapResourceToModel();
+        doReturn(1).when(this.annotatedFieldMappers).getState();
+        mapResourceToModel();
+        mapResourceToModel();
+        verifyMappableFieldsAreObtained(2);
+    }
+
+    @Test
+    public void testModelMappedOnDemandIsProxiedAndNotMappedUponAdaptation() throws Exception {
+        withFieldsMappedOnDemand();
+        withTitleAndDescriptionProperties();
+
+        mapResourceToModel();
+
+        assertMappedModelIsProxy();
+        assertThat(this.model.title).isNull();
+        assertThat(this.model.description).isNull();
+        verify(this.resourceModelStatistics).countOnDemandMapping();
+    }
+
+    @Test
+    public void testGetterOfModelMappedOnDemandOnlyMapsTheCorrespondingField() throws Exception {
+        withFieldsMappedOnDemand();
+        withTitleAndDescriptionProperties();
+
+        mapResourceToModel();
+
+        assertThat(this.mappedModel.getTitle()).isEqualTo("Title");
+        assertThat(this.mappedModel.getTitle()).isEqualTo("Title");
+        assertThat(this.model.description).isNull();
+        verify(this.resourceModelStatistics, times(1)).countFieldMappedOnDemand();
+    }
+
+    @Test
+    public void testOtherMethodsOfModelMappedOnDemandMapAllFields() throws Exception {
+        withFieldsMappedOnDemand();
+        withTitleAndDescriptionProperties();
+
+        mapResourceToModel();
+
+        assertThat(this.mappedModel.getSummary()).isEqualTo("Title: Description");
+        assertThat(this.mappedModel.getDescription()).isEqualTo("Description");
+        verify(this.resourceModelStatistics, times(2)).countFieldMappedOnDemand();
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    public void testFieldsMappedOnDemandAreMappedWithinTheMappingOfTheModel() throws Exception {
+        withFieldsMappedOnDemand();
+        withTitleAndDescriptionProperties();
+
+        mapResourceToModel();
+        this.mappedModel.getTitle();
+
+        verify(this.nestedMappingSupport, times(2)).begin(isA(Mapping.class));
+        verify(this.nestedMappingSupport, times(2)).end(isA(Mapping.class));
+        verify(this.resourceModelStatistics, times(2)).countMappingDuration(anyInt());
+    }
+
+    @Test
+    public void testFieldsMappedOnDemandDuringAnOngoingMappingOfTheModelDoNotEndTheOngoingMapping() throws Exception {
+        withFieldsMappedOnDemand();
+        withTitleAndDescriptionProperties();
+
+        mapResourceToModel();
+        withCycleCheckerReportingCycle();
+        doReturn(true).when(this.nestedMappingSupport).hasOngoingMapping(this.resourceMetaData);
+
+        assertThat(this.mappedModel.getTitle()).isEqualTo("Title");
+        verify(this.nestedMappingSupport, times(1)).end(isA(Mapping.class));
+        verify(this.resourceModelStatistics, times(1)).countMappingDuration(anyInt());
+    }
+
+    @Test(timeout = 5000)
+    public void testFieldsMappedOnDemandAreMappedWithoutWaitingForFieldsMappedByOtherThreads() throws Exception {
+        withFieldsMappedOnDemand();
+        withTitleAndDescriptionProperties();
+        final CountDownLatch titleIsMapped = new CountDownLatch(1);
+        final CountDownLatch releaseTitleMapping = new CountDownLatch(1);
+        doAnswer(invocation -> {
+            titleIsMapped.countDown();
+            releaseTitleMapping.await();
+            return "Title";
+        }).when(this.valueMap).get("title", String.class);
+
+        mapResourceToModel();
+        Thread mappingThread = new Thread(this.mappedModel::getTitle);
+        mappingThread.start();
+        titleIsMapped.await();
+
+        assertThat(this.mappedModel.getDescription()).isEqualTo("Description");
+
+        releaseTitleMapping.countDown();
+        mappingThread.join();
+        assertThat(this.mappedModel.getTitle()).isEqualTo("Title");
+        verify(this.resourceModelStatistics, times(2)).countFieldMappedOnDemand();
+    }
+
+    @Test
+    public void testAdvisedModelIsMappedUponAdaptationEvenIfFieldsAreMappedOnDemand() throws Exception {
+        withFieldsMappedOnDemand();
+        withSpringAopProxyFor(TestModel.class);
+
+        mapResourceToModel();
+
+        assertModelReturnedFromMapperIsOriginalModel();
+        verify(this.resourceModelStatistics, never()).countOnDemandMapping();
+    }
+
     @Test
     public void testPostProcessingWithoutChangedModel() throws Exception {
         withPostProcessor(mock(ResourceModelPostProcessor.class));
@@ -273,6 +416,23 @@ public class ResourceToModelMapperTest {
         this.model = (TestModel) enhanced;
     }
 
+    private void withFieldsMappedOnDemand() throws NoSuchFieldException {
+        doReturn(true).when(this.resourceMetaData).isMapFieldsOnDemand();
+        doReturn(new MappedFieldMetaData[]{
+                new MappedFieldMetaData(TestModel.class.getDeclaredField("title"), TestModel.class),
+                new MappedFieldMetaData(TestModel.class.getDeclaredField("description"), TestModel.class)
+        }).when(this.resourceMetaData).getMappableFields();
+    }
+
+    private void withTitleAndDescriptionProperties() {
+        doReturn("Title").when(this.valueMap).get("title", String.class);
+        doReturn("Description").when(this.valueMap).get("description", String.class);
+    }
+
+    private void assertMappedModelIsProxy() {
+        assertThat(AopUtils.isCglibProxy(this.mappedModel)).isTrue();
+    }
+
     private void verifyCyclecheckIsNotEnded() {
         verify(this.nestedMappingSupport, never()).end(isA(Mapping.class));
     }
@@ -320,6 +480,14 @@ public class ResourceToModelMapperTest {
     }
 
     @SuppressWarnings("unchecked")
+    private void verifyMappableFieldsAreObtained(int times) {
+        verify(this.resourceMetaData, times(times)).getMappableFields();
+    }
+
+    private void clearMappingPlans() {
+        this.testee.clearMappingPlans();
+    }
+
     private void mapResourceToModel() {
         OsgiBeanSource<TestModel> source = mock(OsgiBeanSource.class);
         when(source.getBean()).thenReturn(this.model);
@@ -261,18 +261,6 @@ public class MappedFieldMetaDataTest {
         assertFieldTypeIs(OtherTestResourceModel.class);
     }
 
-    @Test
-    public void testProvisioningOfLazyLoadingFactoryForChildrenCollection() throws Exception {
-        createMetadataForTestModelFieldWithName("childrenAsResources");
-        assertLazyLoadingCollectionFactoryIsCreated();
-    }
-
-    @Test
-    public void testProvisioningOfLazyLoadingFactoryForReferenceCollection() throws Exception {
-        createMetadataForTestModelFieldWithName("referencedResourcesListWithSimpleTypeParameter");
-        assertLazyLoadingCollectionFactoryIsCreated();
-    }
-
     @Test
     public void testResolutionOfArrayComponentType() throws Exception {
         createMetadataForTestModelFieldWithName("collectionOfStrings");
@@ -303,12 +291,35 @@ public class MappedFieldMetaDataTest {
         assertThat(testResourceModel.getStringField()).isEqualTo("JunitTest");
     }
 
-    private void assertFieldTypeIs(Class<?> type) {
-        assertThat(this.testee.getType()).isEqualTo(type);
+    @Test
+    public void testFieldValueCanBeSetAndRetrievedUsingMetadata() throws Exception {
+        TestResourceModel testResourceModel = new TestResourceModel();
+        createMetadataForTestModelFieldWithName("stringField");
+
+        this.testee.setValue(testResourceModel, "JunitTest");
+
+        assertThat(testResourceModel.getStringField()).isEqualTo("JunitTest");
+        assertThat(this.testee.getValue(testResourceModel)).isEqualTo("JunitTest");
     }
 
-    private void assertLazyLoadingCollectionFactoryIsCreated() {
-        assertThat(this.testee.getCollectionProxyFactory()).isNotNull();
+    @Test
+    public void testPrimitiveFieldValueCanBeSetAndRetrievedUsingMetadata() throws Exception {
+        TestResourceModel testResourceModel = new TestResourceModel();
+        createMetadataForTestModelFieldWithName("primitiveIntField");
+
+        this.testee.setValue(testResourceModel, 42);
+
+        assertThat(this.testee.getValue(testResourceModel)).isEqualTo(42);
+    }
+
+    @Test(expected = ClassCastException.class)
+    public void testSettingFieldValueOfIncompatibleTypeFails() throws Exception {
+        createMetadataForTestModelFieldWithName("stringField");
+        this.testee.setValue(new TestResourceModel(), 1);
+    }
+
+    private void assertFieldTypeIs(Class<?> type) {
+        assertThat(this.testee.getType()).isEqualTo(type);
     }
 
     private void assertOptionalFieldIsDetected() {
@@ -112,7 +112,11 @@ public class ModelStatisticsConsolePluginTest {
                                     "\"maximumMappingDuration\":20.0," +
                                     "\"minimumMappingDuration\":0.0," +
                                     "\"mappingDurationMedian\":5.0," +
-                                    "\"cacheHits\":0" +
+                                    "\"cacheHits\":0," +
+                                    "\"onDemandMappings\":0," +
+                                    "\"averageFieldsMappedOnDemand\":0.0," +
+                                    "\"sharedCacheHits\":0," +
+                                    "\"sharedCacheHitRate\":0.0" +
                                     "}," +
 
                                     "{" +
@@ -128,7 +132,11 @@ public class ModelStatisticsConsolePluginTest {
                                     "\"maximumMappingDuration\":40.0," +
                                     "\"minimumMappingDuration\":1.0," +
                                     "\"mappingDurationMedian\":10.0," +
-                                    "\"cacheHits\":0" +
+                                    "\"cacheHits\":0," +
+                                    "\"onDemandMappings\":0," +
+                                    "\"averageFieldsMappedOnDemand\":0.0," +
+                                    "\"sharedCacheHits\":0," +
+                                    "\"sharedCacheHitRate\":0.0" +
                                     "}" +
                                 "]");
     }
@@ -152,6 +160,10 @@ public class ModelStatisticsConsolePluginTest {
                         "\"minimumMappingDuration\":0.0," +
                         "\"mappingDurationMedian\":5.0," +
                         "\"cacheHits\":0," +
+                        "\"onDemandMappings\":0," +
+                        "\"averageFieldsMappedOnDemand\":0.0," +
+                        "\"sharedCacheHits\":0," +
+                        "\"sharedCacheHitRate\":0.0," +
                         "\"mappingDurationFrequencies\":{" +
                             "\"[0, 1)\":10," +
                              "\"[1, 2)\":20," +
@@ -0,0 +1,168 @@
+/*
+  Copyright 2013 the original author or authors.
+
+  Licensed under the Apache License, Version 2.0 the "License";
+  you may not use this file except in compliance with the License.
+  You may obtain a copy of the License at
+
+  http://www.apache.org/licenses/LICENSE-2.0
+
+  Unless required by applicable law or agreed to in writing, software
+  distributed under the License is distributed on an "AS IS" BASIS,
+  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+  See the License for the specific language governing permissions and
+  limitations under the License.
+*/
+
+package io.neba.core.resourcemodels.metadata;
+
+import org.apache.sling.api.resource.ValueMap;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.mockito.Mock;
+import org.mockito.runners.MockitoJUnitRunner;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Matchers.any;
+import static org.mockito.Matchers.anyString;
+import static org.mockito.Mockito.doReturn;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+
+/**
+ * @author Olaf Otto
+ */
+@RunWith(MockitoJUnitRunner.class)
+public class PrimitivePropertyWriterTest {
+    /**
+     * @author Olaf Otto
+     */
+    @SuppressWarnings("unused")
+    private static class Model {
+        private int intField = -1;
+        private long longField;
+        private boolean booleanField;
+        private double doubleField;
+        private char charField;
+        private String stringField;
+    }
+
+    @Mock
+    private ValueMap properties;
+
+    private Model model = new Model();
+    private PrimitivePropertyWriter testee;
+    private boolean written;
+
+    @Test
+    public void testNonPrimitiveFieldsHaveNoWriter() throws Exception {
+        withWriterFor("stringField");
+        assertThat(this.testee).isNull();
+    }
+
+    @Test
+    public void testNumericValuesAreConvertedWithoutTheValueMap() throws Exception {
+        withWriterFor("intField");
+        withStoredValue(42L);
+
+        write();
+
+        assertFieldWasWritten();
+        assertThat(this.model.intField).isEqualTo(42);
+        verifyValueMapDoesNotConvert();
+    }
+
+    @Test
+    public void testNumericValuesAreConvertedToOtherNumericTypes() throws Exception {
+        withWriterFor("doubleField");
+        withStoredValue(3L);
+        write();
+        assertThat(this.model.doubleField).isEqualTo(3D);
+
+        withWriterFor("longField");
+        withStoredValue(2.5D);
+        write();
+        assertThat(this.model.longField).isEqualTo(2L);
+
+        verifyValueMapDoesNotConvert();
+    }
+
+    @Test
+    public void testBooleanValuesAreWrittenWithoutTheValueMap() throws Exception {
+        withWriterFor("booleanField");
+        withStoredValue(true);
+
+        write();
+
+        assertThat(this.model.booleanField).isTrue();
+        verifyValueMapDoesNotConvert();
+    }
+
+    @Test
+    public void testOtherValuesAreConvertedByTheValueMap() throws Exception {
+        withWriterFor("intField");
+        withStoredValue("42");
+        doReturn(42).when(this.properties).get("property", Integer.class);
+
+        write();
+
+        assertFieldWasWritten();
+        assertThat(this.model.intField).isEqualTo(42);
+    }
+
+    @Test
+    public void testCharValuesAreConvertedByTheValueMap() throws Exception {
+        withWriterFor("charField");
+        withStoredValue("x");
+        doReturn('x').when(this.properties).get("property", Character.class);
+
+        write();
+
+        assertThat(this.model.charField).isEqualTo('x');
+    }
+
+    @Test
+    public void testFieldIsNotWrittenIfPropertyDoesNotExist() throws Exception {
+        withWriterFor("intField");
+
+        write();
+
+        assertFieldWasNotWritten();
+        assertThat(this.model.intField).isEqualTo(-1);
+    }
+
+    @Test
+    public void testFieldIsNotWrittenIfPropertyCannotBeConverted() throws Exception {
+        withWriterFor("intField");
+        withStoredValue("not a number");
+
+        write();
+
+        assertFieldWasNotWritten();
+        assertThat(this.model.intField).isEqualTo(-1);
+    }
+
+    private void verifyValueMapDoesNotConvert() {
+        verify(this.properties, never()).get(anyString(), any(Class.class));
+    }
+
+    private void assertFieldWasWritten() {
+        assertThat(this.written).isTrue();
+    }
+
+    private void assertFieldWasNotWritten() {
+        assertThat(this.written).isFalse();
+    }
+
+    private void write() {
+        this.written = this.testee.write(this.model, this.properties, "property");
+    }
+
+    private void withStoredValue(Object value) {
+        doReturn(value).when(this.properties).get("property");
+    }
+
+    private void withWriterFor(String fieldName) throws NoSuchFieldException {
+        this.testee = new MappedFieldMetaData(Model.class.getDeclaredField(fieldName), Model.class).getPrimitivePropertyWriter();
+    }
+}
@@ -16,8 +16,17 @@
 
 package io.neba.core.resourcemodels.metadata;
 
+import io.neba.api.annotations.Children;
+import io.neba.api.annotations.Immutable;
+import io.neba.api.annotations.Path;
+import io.neba.api.annotations.PostMapping;
+import io.neba.api.annotations.ResourceModel;
+import io.neba.api.annotations.This;
+import io.neba.api.resourcemodels.Lazy;
 import io.neba.core.resourcemodels.mapping.testmodels.ExtendedTestResourceModel;
 import io.neba.core.resourcemodels.mapping.testmodels.TestResourceModel;
+import org.apache.sling.api.resource.Resource;
+import org.apache.sling.api.resource.ValueMap;
 import org.assertj.core.api.Assertions;
 import org.junit.Before;
 import org.junit.Test;
@@ -25,6 +34,7 @@ import org.junit.runner.RunWith;
 import org.mockito.runners.MockitoJUnitRunner;
 
 import java.lang.reflect.Field;
+import java.util.List;
 
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.springframework.util.ReflectionUtils.findField;
@@ -36,6 +46,80 @@ import static org.springframework.util.ReflectionUtils.findField;
  */
 @RunWith(MockitoJUnitRunner.class)
 public class ResourceModelMetaDataTest {
+	@ResourceModel(types = "some/type", mapFieldsOnDemand = true)
+	public static class OnDemandModel {
+	}
+
+	@ResourceModel(types = "some/type", mapFieldsOnDemand = true)
+	public static class OnDemandModelWithPostMappingMethod {
+		@PostMapping
+		public void afterMapping() {
+		}
+	}
+
+	@ResourceModel(types = "some/type", mapFieldsOnDemand = true)
+	public static final class FinalOnDemandModel {
+	}
+
+	@ResourceModel(types = "some/type")
+	@Immutable
+	public static class ImmutableModel {
+		private String title;
+		private List<String> tags;
+	}
+
+	@ResourceModel(types = "some/type")
+	@Immutable
+	public static class ImmutableModelWithLazyField {
+		private Lazy<String> title;
+	}
+
+	@ResourceModel(types = "some/type")
+	@Immutable
+	public static class ImmutableModelWithChildren {
+		@Children
+		private List<ImmutableModel> children;
+	}
+
+	@ResourceModel(types = "some/type", mapFieldsOnDemand = true)
+	@Immutable
+	public static class ImmutableOnDemandModel {
+	}
+
+	@ResourceModel(types = "some/type")
+	@Immutable
+	public static class ImmutableModelWithResource {
+		@This
+		private Resource resource;
+	}
+
+	@ResourceModel(types = "some/type")
+	@Immutable
+	public static class ImmutableModelWithValueMaps {
+		private ValueMap[] properties;
+	}
+
+	@ResourceModel(types = "some/type")
+	@Immutable
+	public static class ImmutableModelWithNestedModels {
+		private ImmutableModel model;
+		private List<ImmutableModel> models;
+		private ImmutableModelWithNestedModels parent;
+	}
+
+	@ResourceModel(types = "some/type")
+	@Immutable
+	public static class ImmutableModelWithNestedOnDemandModel {
+		private ImmutableOnDemandModel model;
+	}
+
+	@ResourceModel(types = "some/type")
+	@Immutable
+	public static class ImmutableModelWithNestedMutableModel {
+		@Path("other")
+		private TestResourceModel model;
+	}
+
 	private Class<?> modelType;
 	
 	private ResourceModelMetaData testee;
@@ -86,6 +170,79 @@ public class ResourceModelMetaDataTest {
     	assertMetadataEqualsMetadataOf(TestResourceModel.class);
     }
 
+	@Test
+	public void testFieldsAreNotMappedOnDemandByDefault() throws Exception {
+		assertThat(this.testee.isMapFieldsOnDemand()).isFalse();
+	}
+
+	@Test
+	public void testFieldsAreMappedOnDemandIfRequestedByTheModel() throws Exception {
+		createMetadataFor(OnDemandModel.class);
+		assertThat(this.testee.isMapFieldsOnDemand()).isTrue();
+	}
+
+	@Test
+	public void testFieldsOfModelsWithPostMappingMethodsAreNotMappedOnDemand() throws Exception {
+		createMetadataFor(OnDemandModelWithPostMappingMethod.class);
+		assertThat(this.testee.isMapFieldsOnDemand()).isFalse();
+	}
+
+	@Test
+	public void testFieldsOfFinalModelsAreNotMappedOnDemand() throws Exception {
+		createMetadataFor(FinalOnDemandModel.class);
+		assertThat(this.testee.isMapFieldsOnDemand()).isFalse();
+	}
+
+	@Test
+	public void testModelsAreNotSharedAcrossRequestsByDefault() throws Exception {
+		assertThat(this.testee.isSharedAcrossRequests()).isFalse();
+	}
+
+	@Test
+	public void testImmutableModelsAreSharedAcrossRequests() throws Exception {
+		createMetadataFor(ImmutableModel.class);
+		assertThat(this.testee.isSharedAcrossRequests()).isTrue();
+	}
+
+	@Test
+	public void testImmutableModelsWithLazyLoadingFieldsAreNotSharedAcrossRequests() throws Exception {
+		createMetadataFor(ImmutableModelWithLazyField.class);
+		assertThat(this.testee.isSharedAcrossRequests()).isFalse();
+
+		createMetadataFor(ImmutableModelWithChildren.class);
+		assertThat(this.testee.isSharedAcrossRequests()).isFalse();
+	}
+
+	@Test
+	public void testImmutableModelsMappedOnDemandAreNotSharedAcrossRequests() throws Exception {
+		createMetadataFor(ImmutableOnDemandModel.class);
+		assertThat(this.testee.isSharedAcrossRequests()).isFalse();
+	}
+
+	@Test
+	public void testImmutableModelsRetainingResourcesAreNotSharedAcrossRequests() throws Exception {
+		createMetadataFor(ImmutableModelWithResource.class);
+		assertThat(this.testee.isSharedAcrossRequests()).isFalse();
+
+		createMetadataFor(ImmutableModelWithValueMaps.class);
+		assertThat(this.testee.isSharedAcrossRequests()).isFalse();
+	}
+
+	@Test
+	public void testImmutableModelsContainingSharedModelsAreSharedAcrossRequests() throws Exception {
+		createMetadataFor(ImmutableModelWithNestedModels.class);
+		assertThat(this.testee.isSharedAcrossRequests()).isTrue();
+	}
+
+	@Test
+	public void testImmutableModelsContainingModelsThatAreNotSharedAreNotSharedAcrossRequests() throws Exception {
+		createMetadataFor(ImmutableModelWithNestedOnDemandModel.class);
+		assertThat(this.testee.isSharedAcrossRequests()).isFalse();
+
+		createMetadataFor(ImmutableModelWithNestedMutableModel.class);
+		assertThat(this.testee.isSharedAcrossRequests()).isFalse();
+	}
+
 	@Test
 	public void testToStringRepresentation() throws Exception {
 		assertThat(this.testee.toString()).isEqualTo("ResourceModelMetaData[" + TestResourceModel.class.getName() + "]");
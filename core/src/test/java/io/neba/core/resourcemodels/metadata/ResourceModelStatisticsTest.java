@@ -39,6 +39,33 @@ public class ResourceModelStatisticsTest {
         this.testee = new ResourceModelStatistics();
     }
 
+    @Test
+    public void testAverageNumberOfFieldsMappedOnDemand() throws Exception {
+        assertThat(this.testee.getAverageNumberOfFieldsMappedOnDemand()).isEqualTo(0D);
+
+        this.testee.countOnDemandMapping().countFieldMappedOnDemand();
+        this.testee.countOnDemandMapping().countFieldMappedOnDemand().countFieldMappedOnDemand();
+
+        assertThat(this.testee.getOnDemandMappings()).isEqualTo(2);
+        assertThat(this.testee.getAverageNumberOfFieldsMappedOnDemand()).isEqualTo(1.5D);
+
+        this.testee.reset();
+        assertThat(this.testee.getOnDemandMappings()).isEqualTo(0);
+    }
+
+    @Test
+    public void testSharedCacheHitRate() throws Exception {
+        assertThat(this.testee.getSharedCacheHitRate()).isEqualTo(0D);
+
+        this.testee.countSharedCacheMiss().countSharedCacheHit().countSharedCacheHit().countSharedCacheHit();
+
+        assertThat(this.testee.getSharedCacheHits()).isEqualTo(3);
+        assertThat(this.testee.getSharedCacheHitRate()).isEqualTo(0.75D);
+
+        this.testee.reset();
+        assertThat(this.testee.getSharedCacheHits()).isEqualTo(0);
+    }
+
     @Test
     public void testMedianCalculationWithEvenMappingCountAndNormalDistribution() throws Exception {
         withDurations(1, 1,   // Interval [1, 2)
@@ -0,0 +1,189 @@
+/*
+  Copyright 2013 the original author or authors.
+
+  Licensed under the Apache License, Version 2.0 the "License";
+  you may not use this file except in compliance with the License.
+  You may obtain a copy of the License at
+
+  http://www.apache.org/licenses/LICENSE-2.0
+
+  Unless required by applicable law or agreed to in writing, software
+  distributed under the License is distributed on an "AS IS" BASIS,
+  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+  See the License for the specific language governing permissions and
+  limitations under the License.
+*/
+
+package io.neba.core.resourcemodels.registration;
+
+import io.neba.core.util.ResourceTypeSignature;
+import org.apache.sling.api.resource.Resource;
+import org.apache.sling.api.resource.ResourceResolver;
+import org.apache.sling.api.resource.ResourceResolverFactory;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import org.junit.runner.RunWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.runners.MockitoJUnitRunner;
+import org.osgi.framework.BundleContext;
+
+import java.io.File;
+import java.util.HashMap;
+import java.util.Map;
+
+import static io.neba.core.util.ResourceTypeSignature.signatureOf;
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static org.apache.commons.io.FileUtils.readFileToString;
+import static org.apache.commons.io.FileUtils.writeStringToFile;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Matchers.any;
+import static org.mockito.Matchers.anyString;
+import static org.mockito.Mockito.*;
+
+/**
+ * @author Olaf Otto
+ */
+@RunWith(MockitoJUnitRunner.class)
+public class LookupCacheWarmerTest {
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    @Mock
+    private ModelRegistry registry;
+    @Mock
+    private ResourceResolverFactory resourceResolverFactory;
+    @Mock
+    private ResourceResolver resolver;
+    @Mock
+    private BundleContext context;
+
+    private File snapshot;
+    private Map<ResourceTypeSignature, String> cachedSignatures = new HashMap<>();
+
+    @InjectMocks
+    private LookupCacheWarmer testee;
+
+    @Before
+    public void setUp() throws Exception {
+        this.snapshot = new File(this.folder.getRoot(), LookupCacheWarmer.SNAPSHOT_FILE_NAME);
+        doReturn(this.snapshot).when(this.context).getDataFile(LookupCacheWarmer.SNAPSHOT_FILE_NAME);
+        doReturn(this.resolver).when(this.resourceResolverFactory).getAdministrativeResourceResolver(any());
+        doReturn(this.cachedSignatures).when(this.registry).getCachedSignatures();
+        this.testee.setBundleContext(this.context);
+    }
+
+    @Test
+    public void testCachedSignaturesArePersisted() throws Exception {
+        Resource resource = resource("/content/junit", "junit/type");
+        withCachedSignatureOf(resource);
+
+        persist();
+
+        assertThat(readFileToString(this.snapshot, UTF_8)).isEqualTo("/content/junit\t" + signatureOf(resource) + "\n");
+    }
+
+    @Test
+    public void testSnapshotIsReplacedWithoutLeavingTemporaryFiles() throws Exception {
+        writeStringToFile(this.snapshot, "existing", UTF_8);
+        Resource resource = resource("/content/junit", "junit/type");
+        withCachedSignatureOf(resource);
+
+        persist();
+
+        assertThat(readFileToString(this.snapshot, UTF_8)).isEqualTo("/content/junit\t" + signatureOf(resource) + "\n");
+        assertThat(this.folder.getRoot().list()).containsExactly(LookupCacheWarmer.SNAPSHOT_FILE_NAME);
+    }
+
+    @Test
+    public void testExistingSnapshotIsNotOverwrittenWithoutCachedSignatures() throws Exception {
+        writeStringToFile(this.snapshot, "existing", UTF_8);
+
+        persist();
+
+        assertThat(readFileToString(this.snapshot, UTF_8)).isEqualTo("existing");
+    }
+
+    @Test
+    public void testReplayLooksUpModelsOfPersistedResources() throws Exception {
+        Resource resource = resource("/content/junit", "junit/type");
+        withCachedSignatureOf(resource);
+        persist();
+
+        replay();
+
+        verify(this.registry).lookupAllModels(resource);
+        verify(this.registry).lookupMostSpecificModels(resource);
+        verify(this.resolver).close();
+    }
+
+    @Test
+    public void testReplaySkipsRemovedResources() throws Exception {
+        Resource resource = resource("/content/junit", "junit/type");
+        withCachedSignatureOf(resource);
+        persist();
+        doReturn(null).when(this.resolver).getResource("/content/junit");
+
+        replay();
+
+        verifyNoModelsAreLookedUp();
+    }
+
+    @Test
+    public void testReplaySkipsResourcesWithChangedSignature() throws Exception {
+        withCachedSignatureOf(resource("/content/junit", "junit/type"));
+        persist();
+        resource("/content/junit", "junit/othertype");
+
+        replay();
+
+        verifyNoModelsAreLookedUp();
+    }
+
+    @Test
+    public void testSnapshotIsOnlyReplayedOnce() throws Exception {
+        Resource resource = resource("/content/junit", "junit/type");
+        withCachedSignatureOf(resource);
+        persist();
+
+        replay();
+        replay();
+
+        verify(this.registry, times(1)).lookupAllModels(resource);
+    }
+
+    @Test
+    public void testMissingSnapshotIsIgnored() throws Exception {
+        replay();
+
+        verifyNoModelsAreLookedUp();
+        verify(this.resourceResolverFactory, never()).getAdministrativeResourceResolver(any());
+    }
+
+    private void verifyNoModelsAreLookedUp() {
+        verify(this.registry, never()).lookupAllModels(any());
+        verify(this.registry, never()).lookupMostSpecificModels(any(Resource.class));
+    }
+
+    private void withCachedSignatureOf(Resource resource) {
+        this.cachedSignatures.put(signatureOf(resource), resource.getPath());
+    }
+
+    private Resource resource(String path, String resourceType) {
+        Resource resource = mock(Resource.class);
+        doReturn(path).when(resource).getPath();
+        doReturn(resourceType).when(resource).getResourceType();
+        doReturn(resource).when(this.resolver).getResource(path);
+        return resource;
+    }
+
+    private void persist() {
+        this.testee.persist();
+    }
+
+    private void replay() {
+        this.testee.replay();
+    }
+}
@@ -17,6 +17,7 @@ package io.neba.core.resourcemodels.registration;
 
 import java.lang.reflect.Field;
 import java.util.Dictionary;
+import java.util.HashSet;
 import java.util.Hashtable;
 import java.util.concurrent.BlockingQueue;
 import java.util.concurrent.TimeUnit;
@@ -30,18 +31,21 @@ import org.osgi.service.event.Event;
 import org.slf4j.Logger;
 
 
+import static java.util.Arrays.asList;
 import static java.util.concurrent.TimeUnit.SECONDS;
 import static org.apache.commons.lang3.reflect.FieldUtils.getField;
 import static org.apache.commons.lang3.reflect.FieldUtils.writeField;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Matchers.anyCollectionOf;
 import static org.mockito.Mockito.anyLong;
 import static org.mockito.Mockito.atLeast;
-import static org.mockito.Mockito.atMost;
 import static org.mockito.Mockito.doReturn;
 import static org.mockito.Mockito.doThrow;
 import static org.mockito.Mockito.eq;
 import static org.mockito.Mockito.isA;
 import static org.mockito.Mockito.mock;
 import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.timeout;
 import static org.mockito.Mockito.verify;
 
 /**
@@ -51,6 +55,10 @@ import static org.mockito.Mockito.verify;
 public class MappableTypeHierarchyChangeListenerTest {
     @Mock
     private ModelRegistry modelRegistry;
+    @Mock
+    private ResourceTypeHierarchyGraph typeHierarchyGraph;
+    @Mock
+    private NodeTypeHierarchyGraph nodeTypeHierarchyGraph;
 
     @Mock
     private Logger logger;
@@ -73,6 +81,7 @@ public class MappableTypeHierarchyChangeListenerTest {
         sleep();
 
         verifyModelRegistryCacheIsNotCleared();
+        verifyModelRegistryCacheIsNotClearedForTypes();
     }
 
     @Test
@@ -82,25 +91,95 @@ public class MappableTypeHierarchyChangeListenerTest {
         withChangeOn("/apps/testapp/components/test");
         sleep();
 
-        verifyModelRegistryCacheIsCleared();
+        verifyModelRegistryCacheIsClearedForTypes("/apps/testapp/components/test", "testapp/components/test");
+        verifyTypeHierarchyGraphIsInvalidatedForTypes("/apps/testapp/components/test", "testapp/components/test");
     }
 
     /**
-     * When multiple successive events are handled, only the first one shall cause the cache to be cleared, i.e.
-     * events do not queue up while the cache is cleared, as it is sufficient to clear the cache once.
+     * When multiple successive events are handled, they shall be coalesced into a single invalidation, i.e.
+     * events do not cause the cache to be invalidated repeatedly.
      */
     @Test
-    public void testOnlyOneEventIsAccepted() throws Exception {
-        withChangeOn("/apps/testapp/components/test");
-        withChangeOn("/apps/testapp/components/test");
+    public void testSuccessiveEventsAreCoalesced() throws Exception {
         withChangeOn("/apps/testapp/components/test");
         withChangeOn("/apps/testapp/components/test");
+        withChangeOn("/libs/testapp/components/other");
+        withChangeOn("/etc/some/path");
+
+        activate();
+        sleep();
+
+        verifyModelRegistryCacheIsClearedForTypes(
+                "/apps/testapp/components/test", "testapp/components/test",
+                "/libs/testapp/components/other", "testapp/components/other",
+                "/etc/some/path");
+        verifyModelRegistryCacheIsNotCleared();
+        assertNumberOfEventsIs(4);
+        assertNumberOfInvalidationsIs(1);
+    }
+
+    @Test
+    public void testEventsArrivingWithinTheCoalescingWindowAreCoalesced() throws Exception {
+        activate();
+
         withChangeOn("/apps/testapp/components/test");
+        Thread.sleep(100);
+        withChangeOn("/libs/testapp/components/other");
+        sleep();
+
+        verifyModelRegistryCacheIsClearedForTypes(
+                "/apps/testapp/components/test", "testapp/components/test",
+                "/libs/testapp/components/other", "testapp/components/other");
+        assertNumberOfInvalidationsIs(1);
+    }
+
+    @Test
+    public void testChangeOfNodeTypeDefinitionInvalidatesNodeType() throws Exception {
+        activate();
+
+        withChangeOn("/jcr:system/jcr:nodeTypes/cq:Page/jcr:supertypes");
+        sleep();
+
+        verifyModelRegistryCacheIsClearedForTypes("cq:Page");
+        verifyNodeTypeHierarchyGraphIsInvalidatedForTypes("cq:Page");
+    }
+
+    @Test
+    public void testEventWithoutPathClearsEntireCache() throws Exception {
+        activate();
+
+        withChangeOn(null);
+        sleep();
+
+        verifyModelRegistryCacheIsCleared();
+        verifyTypeHierarchyGraphIsCleared();
+        verifyNodeTypeHierarchyGraphIsCleared();
+        assertNumberOfFullInvalidationsIs(1);
+    }
+
+    @Test
+    public void testQueueOverflowClearsEntireCache() throws Exception {
+        for (int i = 0; i < 1025; ++i) {
+            withChangeOn("/apps/testapp/components/test" + i);
+        }
 
         activate();
         sleep();
 
         verifyModelRegistryCacheIsCleared();
+        assertNumberOfFullInvalidationsIs(1);
+    }
+
+    @Test
+    public void testEvictedLookupsAreCounted() throws Exception {
+        doReturn(3).when(this.modelRegistry).clearLookupCaches(anyCollectionOf(String.class));
+
+        activate();
+
+        withChangeOn("/apps/testapp/components/test");
+        sleep();
+
+        assertNumberOfEvictedLookupsIs(3);
     }
 
     @Test
@@ -113,8 +192,8 @@ public class MappableTypeHierarchyChangeListenerTest {
         sleep();
 
         verifyLoggerTraces(
-                "Invalidating the resource model registry lookup cache due to changes to {}.",
-                "/apps/testapp/components/test");
+                "Invalidating the resource model registry lookup cache for the types {}.",
+                new HashSet<>(asList("/apps/testapp/components/test", "testapp/components/test")));
     }
 
     @Test
@@ -142,7 +221,7 @@ public class MappableTypeHierarchyChangeListenerTest {
                 .poll(anyLong(), isA(TimeUnit.class));
     }
 
-    private void verifyLoggerTraces(String format, String arg) {
+    private void verifyLoggerTraces(String format, Object arg) {
         verify(this.logger).trace(
                 format,
                 arg);
@@ -152,12 +231,44 @@ public class MappableTypeHierarchyChangeListenerTest {
         doReturn(true).when(this.logger).isTraceEnabled();
     }
 
-    private void verifyModelRegistryCacheIsClearedAtMost(int times) {
-        verify(this.modelRegistry, atMost(times)).clearLookupCaches();
+    private void verifyModelRegistryCacheIsClearedForTypes(String... types) {
+        verify(this.modelRegistry, timeout(SECONDS.toMillis(5))).clearLookupCaches(new HashSet<>(asList(types)));
+    }
+
+    private void verifyTypeHierarchyGraphIsInvalidatedForTypes(String... types) {
+        verify(this.typeHierarchyGraph).invalidate(new HashSet<>(asList(types)));
+    }
+
+    private void verifyNodeTypeHierarchyGraphIsInvalidatedForTypes(String... types) {
+        verify(this.nodeTypeHierarchyGraph).invalidate(new HashSet<>(asList(types)));
+    }
+
+    private void verifyNodeTypeHierarchyGraphIsCleared() {
+        verify(this.nodeTypeHierarchyGraph).clear();
+    }
+
+    private void verifyTypeHierarchyGraphIsCleared() {
+        verify(this.typeHierarchyGraph).clear();
+    }
+
+    private void assertNumberOfEventsIs(long events) {
+        assertThat(this.testee.getEvents()).isEqualTo(events);
+    }
+
+    private void assertNumberOfInvalidationsIs(long invalidations) {
+        assertThat(this.testee.getInvalidations()).isEqualTo(invalidations);
+    }
+
+    private void assertNumberOfFullInvalidationsIs(long invalidations) {
+        assertThat(this.testee.getFullInvalidations()).isEqualTo(invalidations);
+    }
+
+    private void assertNumberOfEvictedLookupsIs(long evictedLookups) {
+        assertThat(this.testee.getEvictedLookups()).isEqualTo(evictedLookups);
     }
 
     private void verifyModelRegistryCacheIsCleared() {
-        verify(this.modelRegistry).clearLookupCaches();
+        verify(this.modelRegistry, timeout(SECONDS.toMillis(5))).clearLookupCaches();
     }
 
     private void activate() {
@@ -168,13 +279,19 @@ public class MappableTypeHierarchyChangeListenerTest {
         verify(this.modelRegistry, never()).clearLookupCaches();
     }
 
+    private void verifyModelRegistryCacheIsNotClearedForTypes() {
+        verify(this.modelRegistry, never()).clearLookupCaches(anyCollectionOf(String.class));
+    }
+
     private void sleep() throws InterruptedException {
         Thread.sleep(SECONDS.toMillis(2));
     }
 
     private void withChangeOn(String path) {
         Dictionary<String, Object> properties = new Hashtable<>();
-        properties.put("path", path);
+        if (path != null) {
+            properties.put("path", path);
+        }
         Event event = new Event("test/topic", properties);
         this.testee.handleEvent(event);
     }
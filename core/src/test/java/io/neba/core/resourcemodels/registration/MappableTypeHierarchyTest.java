@@ -16,6 +16,7 @@
 
 package io.neba.core.resourcemodels.registration;
 
+import io.neba.core.util.ResourceTypeSignature;
 import org.apache.sling.api.resource.Resource;
 import org.apache.sling.api.resource.ResourceResolver;
 import org.junit.Before;
@@ -24,10 +25,13 @@ import org.junit.runner.RunWith;
 import org.mockito.Mock;
 import org.mockito.runners.MockitoJUnitRunner;
 
-import javax.jcr.Node;
-import javax.jcr.RepositoryException;
-import javax.jcr.nodetype.NodeType;
+import java.util.ArrayList;
+import java.util.List;
 
+import static io.neba.core.resourcemodels.registration.MappableTypeHierarchy.mappableTypeHierarchyOf;
+import static io.neba.core.util.ResourceTypeSignature.signatureOf;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Matchers.any;
 import static org.mockito.Matchers.eq;
 import static org.mockito.Mockito.*;
 
@@ -37,37 +41,61 @@ import static org.mockito.Mockito.*;
 @RunWith(MockitoJUnitRunner.class)
 public class MappableTypeHierarchyTest {
 	@Mock
-    private Node node;
-	@Mock
 	private Resource resource;
     @Mock
-    private NodeType nodeType;
-    @Mock
     private ResourceResolver resolver;
+    @Mock
+    private ResourceTypeHierarchyGraph resourceTypeGraph;
+    @Mock
+    private NodeTypeHierarchyGraph nodeTypeGraph;
 
-    @Before
-    public void prepareNodeTypeHierarchy() throws RepositoryException {
-        doReturn(this.nodeType)
-                .when(this.node)
-                .getPrimaryNodeType();
+    private ResourceTypeSignature signature;
+    private List<String> types = new ArrayList<>();
 
-        doReturn(this.node)
+    @Before
+    public void prepareTypeHierarchies() {
+        doReturn(this.resolver)
                 .when(this.resource)
-                .adaptTo(eq(Node.class));
+                .getResourceResolver();
 
         doReturn("myResourceType")
                 .when(this.resource)
                 .getResourceType();
 
-        doReturn("myNodeTypeName")
-                .when(this.nodeType)
-                .getName();
+        this.signature = signatureOf(this.resource);
+
+        doReturn(new String[]{"myResourceType", "myResourceSuperType"})
+                .when(this.resourceTypeGraph)
+                .hierarchyOf(eq(this.signature), eq(this.resolver));
+
+        doReturn(new String[]{"myNodeTypeName"})
+                .when(this.nodeTypeGraph)
+                .hierarchyOf(eq(this.signature), eq(this.resource));
     }
 
     @Test
     public void testSuccessiveUseOfHierarchies() throws Exception {
+        iterateMappableTypeHierarchy();
+        assertTypesAre("myResourceType", "myResourceSuperType", "myNodeTypeName");
+    }
+
+    @Test
+    public void testNodeTypeHierarchyIsNotObtainedBeforeResourceTypeHierarchyIsExhausted() throws Exception {
         iterateOnceWithMappableTypeHierarchy();
-        verifyResourceTypeHierarchyAndNodeTypeHierarchyAreUsed();
+        assertTypesAre("myResourceType");
+        verify(this.resourceTypeGraph).hierarchyOf(eq(this.signature), eq(this.resolver));
+        verify(this.nodeTypeGraph, never()).hierarchyOf(any(), any());
+    }
+
+    @Test
+    public void testEmptyNodeTypeHierarchyEndsIteration() throws Exception {
+        doReturn(new String[0])
+                .when(this.nodeTypeGraph)
+                .hierarchyOf(eq(this.signature), eq(this.resource));
+
+        iterateMappableTypeHierarchy();
+
+        assertTypesAre("myResourceType", "myResourceSuperType");
     }
 
     @Test(expected = IllegalArgumentException.class)
@@ -80,15 +108,21 @@ public class MappableTypeHierarchyTest {
         this.resource = null;
     }
 
-    private void verifyResourceTypeHierarchyAndNodeTypeHierarchyAreUsed() throws RepositoryException {
-        verify(this.resource, times(2)).adaptTo(eq(Node.class));
-        verify(this.resource).getResourceType();
-        verify(this.node).getMixinNodeTypes();
-        verify(this.node, times(2)).getPrimaryNodeType();
+    private void assertTypesAre(String... types) {
+        assertThat(this.types).containsExactly(types);
+    }
+
+    private void iterateMappableTypeHierarchy() {
+        for (String type : mappableTypeHierarchy()) {
+            this.types.add(type);
+        }
     }
 
     private void iterateOnceWithMappableTypeHierarchy() {
-        Iterable<String> it = new MappableTypeHierarchy(this.resource);
-        it.iterator().next();
+        this.types.add(mappableTypeHierarchy().iterator().next());
+    }
+
+    private MappableTypeHierarchy mappableTypeHierarchy() {
+        return mappableTypeHierarchyOf(this.resource, this.signature, this.resourceTypeGraph, this.nodeTypeGraph);
     }
 }
@@ -18,6 +18,9 @@ package io.neba.core.resourcemodels.registration;
 
 import io.neba.api.annotations.ResourceModel;
 import io.neba.core.resourcemodels.adaptation.ResourceToModelAdapterUpdater;
+import io.neba.core.resourcemodels.caching.ResourceModelCaches;
+import io.neba.core.resourcemodels.caching.SharedResourceModelCache;
+import io.neba.core.resourcemodels.mapping.ResourceToModelMapper;
 import io.neba.core.resourcemodels.metadata.ResourceModelMetaDataRegistrar;
 import io.neba.core.util.OsgiBeanSource;
 import org.junit.Before;
@@ -61,6 +64,14 @@ public class ModelRegistrarTest {
     private ResourceToModelAdapterUpdater updater;
     @Mock
     private ResourceModelMetaDataRegistrar resourceModelMetaDataRegistrar;
+    @Mock
+    private LookupCacheWarmer lookupCacheWarmer;
+    @Mock
+    private ResourceToModelMapper resourceToModelMapper;
+    @Mock
+    private SharedResourceModelCache sharedResourceModelCache;
+    @Mock
+    private ResourceModelCaches resourceModelCaches;
     @InjectMocks
     private ModelRegistrar testee;
 
@@ -96,12 +107,32 @@ public class ModelRegistrarTest {
         withResourceModelsInApplicationContext("bean1", "bean2");
         registerResourceModels();
         assertBeanSourcesForAllBeansAddedToRegistry();
+        verifyLookupCacheWarmerIsNotifiedOfRegisteredModels();
     }
 
     @Test
     public void testRegistrarRemovesBundleFromRegistryWhenBundleStops() throws Exception {
         sendStopEventToRegistrar();
         assertRegistrarRemovesBundleFromRegistry();
+        verifyMappingPlansAreCleared();
+        verifySharedResourceModelCacheIsCleared();
+        verifyCacheAdmissionsAreCleared();
+    }
+
+    private void verifyCacheAdmissionsAreCleared() {
+        verify(this.resourceModelCaches).clearAdmissions();
+    }
+
+    private void verifySharedResourceModelCacheIsCleared() {
+        verify(this.sharedResourceModelCache).clear();
+    }
+
+    private void verifyMappingPlansAreCleared() {
+        verify(this.resourceToModelMapper).clearMappingPlans();
+    }
+
+    private void verifyLookupCacheWarmerIsNotifiedOfRegisteredModels() {
+        verify(this.lookupCacheWarmer).modelsRegistered();
     }
 
     private void assertRegistrarRemovesBundleFromRegistry() {
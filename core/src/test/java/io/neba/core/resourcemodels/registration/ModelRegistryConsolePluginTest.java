@@ -16,6 +16,9 @@
 
 package io.neba.core.resourcemodels.registration;
 
+import io.neba.core.resourcemodels.caching.ResourceModelCacheTier;
+import io.neba.core.resourcemodels.caching.ResourceModelCaches;
+import io.neba.core.resourcemodels.tagsupport.ResourceModelProviderImpl;
 import io.neba.core.util.OsgiBeanSource;
 import org.apache.commons.io.IOUtils;
 import org.apache.sling.api.resource.Resource;
@@ -39,6 +42,7 @@ import java.net.URL;
 import java.util.*;
 
 import static java.lang.System.arraycopy;
+import static java.util.Collections.singletonList;
 import static org.apache.commons.io.IOUtils.toByteArray;
 import static org.apache.commons.lang.StringUtils.substringAfterLast;
 import static org.assertj.core.api.Assertions.assertThat;
@@ -64,6 +68,14 @@ public class ModelRegistryConsolePluginTest {
     @Mock
     private ModelRegistry modelRegistry;
     @Mock
+    private ResourceModelCaches caches;
+    @Mock
+    private ResourceModelCacheTier cacheTier;
+    @Mock
+    private ResourceModelProviderImpl resourceModelProvider;
+    @Mock
+    private MappableTypeHierarchyChangeListener typeHierarchyChangeListener;
+    @Mock
     private ResourceResolverFactory factory;
     @Mock
     private ResourceResolver resolver;
@@ -151,6 +163,67 @@ public class ModelRegistryConsolePluginTest {
         assertResponseContains("<span class=\"unresolved\">cq:Page</span>", Model.class, 123L, "beanName");
     }
 
+    @Test
+    public void testRenderingOfCacheStatistics() throws Exception {
+        doReturn(12).when(this.modelRegistry).getLookupCacheSize();
+        doReturn(10000).when(this.modelRegistry).getLookupCacheCapacity();
+        doReturn(345L).when(this.modelRegistry).getLookupCacheHits();
+        doReturn(67L).when(this.modelRegistry).getLookupCacheMisses();
+        doReturn(8L).when(this.modelRegistry).getLookupCacheEvictions();
+        doReturn(9L).when(this.modelRegistry).getLookupCacheRejections();
+        doReturn(23).when(this.modelRegistry).getResourceTypeHierarchyCacheSize();
+        doReturn(4).when(this.modelRegistry).getNodeTypeHierarchyCacheSize();
+        doReturn(56L).when(this.resourceModelProvider).getAvoidedLookups();
+        doReturn(7L).when(this.resourceModelProvider).getAbsentModels();
+
+        renderContent();
+
+        assertThat(this.renderedResponse).contains("<tr><td>Model lookups</td><td>12</td><td>10000</td><td>345</td><td>67</td><td>8</td><td>9</td></tr>");
+        assertThat(this.renderedResponse).contains("<tr><td>Resource type hierarchies</td><td>23</td>");
+        assertThat(this.renderedResponse).contains("<tr><td>Node type hierarchies</td><td>4</td>");
+        assertThat(this.renderedResponse).contains("<tr><td>Absent models (request-scoped)</td><td>-</td><td>-</td><td>56</td><td>7</td>");
+    }
+
+    @Test
+    public void testRenderingOfCacheTierStatistics() throws Exception {
+        doReturn(100).when(this.cacheTier).getTier();
+        doReturn("<Request-scoped cache>").when(this.cacheTier).getName();
+        doReturn(10L).when(this.cacheTier).getHits();
+        doReturn(2L).when(this.cacheTier).getMisses();
+        doReturn(1.5D).when(this.cacheTier).getAverageLookupMicros();
+        doReturn(3L).when(this.cacheTier).getStores();
+        doReturn(4L).when(this.cacheTier).getPromotions();
+        doReturn(5L).when(this.cacheTier).getRejections();
+        doReturn(singletonList(this.cacheTier)).when(this.caches).getTiers();
+
+        renderContent();
+
+        assertThat(this.renderedResponse).contains("<tr><td>100</td><td>&lt;Request-scoped cache&gt;</td><td>10</td><td>2</td><td>1.50</td><td>3</td><td>4</td><td>5</td></tr>");
+    }
+
+    @Test
+    public void testRenderingOfTypeHierarchyInvalidationStatistics() throws Exception {
+        doReturn(120L).when(this.typeHierarchyChangeListener).getEvents();
+        doReturn(3L).when(this.typeHierarchyChangeListener).getInvalidations();
+        doReturn(1L).when(this.typeHierarchyChangeListener).getFullInvalidations();
+        doReturn(42L).when(this.typeHierarchyChangeListener).getEvictedLookups();
+
+        renderContent();
+
+        assertThat(this.renderedResponse).contains("<tr><td>120</td><td>3</td><td>1</td><td>42</td></tr>");
+    }
+
+    @Test
+    public void testRenderingOfLookupInvalidationStatistics() throws Exception {
+        doReturn(7L).when(this.modelRegistry).getLookupCacheInvalidations();
+        doReturn(12L).when(this.modelRegistry).getEvictedLookupResults();
+        doReturn(30L).when(this.modelRegistry).getRetainedLookupResults();
+
+        renderContent();
+
+        assertThat(this.renderedResponse).contains("<tr><td>7</td><td>12</td><td>30</td></tr>");
+    }
+
     @Test
     public void testRenderingOfLinkToCrxDe() throws Exception {
         withRegisteredModel("cq:Page", Model.class, 123L, "beanName");
@@ -19,6 +19,7 @@ package io.neba.core.resourcemodels.registration;
 import io.neba.api.annotations.ResourceModel;
 import io.neba.core.blueprint.EventhandlingBarrier;
 import io.neba.core.util.OsgiBeanSource;
+import io.neba.core.util.ResourceTypeSignature;
 import org.apache.sling.api.resource.LoginException;
 import org.apache.sling.api.resource.Resource;
 import org.apache.sling.api.resource.ResourceResolver;
@@ -28,6 +29,7 @@ import org.junit.runner.RunWith;
 import org.mockito.InOrder;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
+import org.mockito.Spy;
 import org.mockito.runners.MockitoJUnitRunner;
 import org.osgi.framework.Bundle;
 
@@ -38,6 +40,8 @@ import java.util.Collection;
 import java.util.HashSet;
 import java.util.Set;
 
+import static java.util.Arrays.asList;
+import static java.util.Collections.singleton;
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.mockito.Mockito.*;
 
@@ -60,6 +64,10 @@ public class ModelRegistryTest {
     private ResourceResolver resolver;
     @Mock
     private EventhandlingBarrier barrier;
+    @Spy
+    private ResourceTypeHierarchyGraph typeHierarchyGraph = new ResourceTypeHierarchyGraph();
+    @Spy
+    private NodeTypeHierarchyGraph nodeTypeHierarchyGraph = new NodeTypeHierarchyGraph();
 
     private Set<ResourceModel> resourceModelAnnotations;
     private long bundleId;
@@ -508,6 +516,206 @@ public class ModelRegistryTest {
         assertLookedUpBeanSourcesAreNull();
     }
 
+    /**
+     * Adding a model must only evict the cached lookups that have traversed the type of the model,
+     * including lookups that have found no model.
+     */
+    @Test
+    public void testAddingModelEvictsOnlyCachedLookupsTraversingTheModelType() throws Exception {
+        withModelForType("some/resourcetype", TargetType1.class);
+        withModelForType("other/resourcetype", TargetType2.class);
+
+        Resource resource = mockResourceWithResourceSuperType("some/resourcetype", "some/resourcetype/parent");
+        Resource otherResource = mockResourceWithResourceType("other/resourcetype");
+        Resource unmappedResource = mockResourceWithResourceSuperType("unmapped/resourcetype", "some/resourcetype/parent");
+
+        lookupAllBeanSourcesFor(resource);
+        lookupAllBeanSourcesFor(otherResource);
+        lookupAllBeanSourcesFor(unmappedResource);
+        assertLookedUpBeanSourcesAreNull();
+
+        withModelForType("some/resourcetype/parent", TargetType3.class);
+
+        lookupAllBeanSourcesFor(resource);
+        assertLookedUpModelTypesAre(TargetType1.class, TargetType3.class);
+        lookupAllBeanSourcesFor(unmappedResource);
+        assertLookedUpModelTypesAre(TargetType3.class);
+        assertNumberOfEvictedLookupsForTypesIs(0, "other/resourcetype/parent");
+        assertNumberOfEvictedLookupsForTypesIs(1, "other/resourcetype");
+    }
+
+    @Test
+    public void testRemovalOfBundleEvictsOnlyCachedLookupsTraversingTheRemovedModelTypes() throws Exception {
+        withBundleId(1);
+        withModelForType("some/resourcetype", TargetType1.class);
+        withBundleId(2);
+        withModelForType("other/resourcetype", TargetType2.class);
+
+        Resource resource = mockResourceWithResourceType("some/resourcetype");
+        Resource otherResource = mockResourceWithResourceType("other/resourcetype");
+
+        lookupMostSpecificBeanSources(resource);
+        lookupMostSpecificBeanSources(otherResource);
+
+        removeBundle();
+
+        lookupMostSpecificBeanSources(otherResource);
+        assertLookedUpBeanSourcesAreNull();
+        assertNumberOfEvictedLookupsForTypesIs(1, "some/resourcetype");
+    }
+
+    @Test
+    public void testEvictedAndRetainedLookupResultsAreCounted() throws Exception {
+        withModelForType("some/resourcetype", TargetType1.class);
+        withModelForType("other/resourcetype", TargetType2.class);
+
+        lookupMostSpecificBeanSources(mockResourceWithResourceType("some/resourcetype"));
+        lookupMostSpecificBeanSources(mockResourceWithResourceType("other/resourcetype"));
+
+        withModelForType("some/resourcetype", TargetType3.class);
+
+        assertThat(this.testee.getLookupCacheInvalidations()).isEqualTo(3);
+        assertThat(this.testee.getEvictedLookupResults()).isEqualTo(1);
+        assertThat(this.testee.getRetainedLookupResults()).isEqualTo(1);
+    }
+
+    @Test
+    public void testLookupCacheStatistics() throws Exception {
+        withModelForType("some/resourcetype", TargetType1.class);
+        Resource resource = mockResourceWithResourceType("some/resourcetype");
+
+        lookupMostSpecificBeanSources(resource);
+        lookupMostSpecificBeanSources(resource);
+        lookupAllBeanSourcesFor(resource);
+
+        assertThat(this.testee.getLookupCacheHits()).isEqualTo(1);
+        assertThat(this.testee.getLookupCacheMisses()).isEqualTo(2);
+        assertThat(this.testee.getLookupCacheSize()).isEqualTo(1);
+    }
+
+    @Test
+    public void testTypedAndNamedLookupsShareTheCachedLookupOfAllModels() throws Exception {
+        withModelForType("some/resourcetype", TargetType1.class, "junitBeanOne");
+        withModelForType("some/resourcetype/parent", ExtendedTargetType1.class, "junitBeanTwo");
+        Resource resource = mockResourceWithResourceSuperType("some/resourcetype", "some/resourcetype/parent");
+
+        lookupBeanSourcesForType(ExtendedTargetType1.class, resource);
+        assertLookedUpModelTypesAre(ExtendedTargetType1.class);
+        lookupBeanSourcesForType(TargetType1.class, resource);
+        assertLookedUpModelTypesAre(TargetType1.class);
+        lookupBeanSourcesWithBeanName("junitBeanTwo", resource);
+        assertLookedUpModelTypesAre(ExtendedTargetType1.class);
+
+        assertThat(this.testee.getLookupCacheMisses()).isEqualTo(1);
+        assertThat(this.testee.getLookupCacheHits()).isEqualTo(2);
+    }
+
+    @Test
+    public void testCachedSignaturesProvideThePathOfAResourceWithTheSignature() throws Exception {
+        withModelForType("some/resourcetype", TargetType1.class);
+        Resource resource = mockResourceWithResourceType("some/resourcetype");
+        doReturn("/content/junit").when(resource).getPath();
+
+        lookupAllBeanSourcesFor(resource);
+
+        assertThat(this.testee.getCachedSignatures()).containsValues("/content/junit").hasSize(1);
+
+        this.testee.clearLookupCaches();
+
+        assertThat(this.testee.getCachedSignatures()).isEmpty();
+    }
+
+    @Test
+    public void testLookupCacheIsBoundedToConfiguredCapacity() throws Exception {
+        this.testee.setLookupCacheCapacity(1);
+        withModelForType("some/resourcetype", TargetType1.class);
+        withModelForType("other/resourcetype", TargetType2.class);
+        Resource resource = mockResourceWithResourceType("some/resourcetype");
+        Resource otherResource = mockResourceWithResourceType("other/resourcetype");
+
+        lookupMostSpecificBeanSources(resource);
+        lookupMostSpecificBeanSources(resource);
+        lookupMostSpecificBeanSources(otherResource);
+
+        assertThat(this.testee.getLookupCacheCapacity()).isEqualTo(1);
+        assertThat(this.testee.getLookupCacheSize()).isEqualTo(1);
+        assertThat(this.testee.getLookupCacheRejections()).isEqualTo(1);
+        assertLookedUpModelTypesAre(TargetType2.class);
+        assertNumberOfEvictedLookupsForTypesIs(0, "other/resourcetype");
+    }
+
+    @Test
+    public void testSignaturesEvictedFromTheLookupCacheAreRemovedFromTheIndex() throws Exception {
+        this.testee.setLookupCacheCapacity(2);
+        withModelForType("base/resourcetype", TargetType1.class);
+
+        for (int i = 0; i < 20; ++i) {
+            Resource resource = mockResourceWithResourceSuperType("some/resourcetype/" + i, "base/resourcetype");
+            doReturn("/content/junit/" + i).when(resource).getPath();
+            // Frequently looked up signatures are admitted in favor of the previously cached signatures.
+            for (int k = 0; k < 5; ++k) {
+                lookupAllBeanSourcesFor(resource);
+            }
+        }
+
+        assertThat(this.testee.getLookupCacheSize()).isEqualTo(2);
+        assertThat(this.testee.getLookupCacheEvictions()).isGreaterThan(0);
+        assertThat(this.testee.getNumberOfIndexedSignatures()).isEqualTo(2);
+        assertThat(this.testee.getNumberOfSamplePaths()).isEqualTo(2);
+    }
+
+    @Test
+    public void testSignaturesRemovedByReducingTheCapacityAreRemovedFromTheIndex() throws Exception {
+        withModelForType("base/resourcetype", TargetType1.class);
+        for (int i = 0; i < 5; ++i) {
+            lookupAllBeanSourcesFor(mockResourceWithResourceSuperType("some/resourcetype/" + i, "base/resourcetype"));
+        }
+
+        this.testee.setLookupCacheCapacity(1);
+
+        assertThat(this.testee.getNumberOfIndexedSignatures()).isEqualTo(1);
+    }
+
+    @Test
+    public void testPathsAreNotRememberedForSignaturesThatAreNotAdmitted() throws Exception {
+        this.testee.setLookupCacheCapacity(1);
+        withModelForType("some/resourcetype", TargetType1.class);
+        Resource resource = mockResourceWithResourceType("some/resourcetype");
+        Resource otherResource = mockResourceWithResourceType("other/resourcetype");
+        doReturn("/content/junit").when(resource).getPath();
+        doReturn("/content/other").when(otherResource).getPath();
+
+        lookupAllBeanSourcesFor(resource);
+        lookupAllBeanSourcesFor(resource);
+        lookupAllBeanSourcesFor(otherResource);
+
+        assertThat(this.testee.getNumberOfSamplePaths()).isEqualTo(1);
+        assertThat(this.testee.getNumberOfIndexedSignatures()).isEqualTo(1);
+    }
+
+    /**
+     * A lookup resolved while the models of a traversed type change must not be served from the cache.
+     */
+    @Test
+    public void testLookupsConcurrentToInvalidationAreNotServedFromCache() throws Exception {
+        withModelForType("some/resourcetype", TargetType1.class);
+        Resource resource = mockResourceWithResourceType("some/resourcetype");
+        withInvalidationDuringNextLookup("some/resourcetype");
+
+        lookupMostSpecificBeanSources(resource);
+        lookupMostSpecificBeanSources(resource);
+        lookupMostSpecificBeanSources(resource);
+
+        assertLookedUpModelTypesAre(TargetType1.class);
+        assertThat(this.testee.getLookupCacheMisses()).isEqualTo(2);
+        assertThat(this.testee.getLookupCacheHits()).isEqualTo(1);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testTypesForTargetedEvictionMustNotBeNull() throws Exception {
+        this.testee.clearLookupCaches(null);
+    }
+
     /**
      * Requires the {@link Node} to have been mocked before hand, e.g. usig {@link #withPrimaryType(Resource, String)}.
      */
@@ -521,6 +729,17 @@ public class ModelRegistryTest {
         when(node.getMixinNodeTypes()).thenReturn(mixinTypes);
     }
 
+    private void withInvalidationDuringNextLookup(String type) {
+        doAnswer(invocation -> {
+            this.testee.clearLookupCaches(singleton(type));
+            return invocation.callRealMethod();
+        }).doCallRealMethod().when(this.typeHierarchyGraph).hierarchyOf(isA(ResourceTypeSignature.class), any());
+    }
+
+    private void assertNumberOfEvictedLookupsForTypesIs(int expected, String... types) {
+        assertThat(this.testee.clearLookupCaches(asList(types))).isEqualTo(expected);
+    }
+
     private void removeInvalidReferences() {
         this.testee.removeInvalidReferences();
     }
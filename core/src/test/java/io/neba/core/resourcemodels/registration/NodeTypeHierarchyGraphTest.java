@@ -0,0 +1,147 @@
+/*
+  Copyright 2013 the original author or authors.
+
+  Licensed under the Apache License, Version 2.0 the "License";
+  you may not use this file except in compliance with the License.
+  You may obtain a copy of the License at
+
+  http://www.apache.org/licenses/LICENSE-2.0
+
+  Unless required by applicable law or agreed to in writing, software
+  distributed under the License is distributed on an "AS IS" BASIS,
+  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+  See the License for the specific language governing permissions and
+  limitations under the License.
+*/
+
+package io.neba.core.resourcemodels.registration;
+
+import io.neba.core.util.ResourceTypeSignature;
+import org.apache.sling.api.resource.Resource;
+import org.apache.sling.api.resource.SyntheticResource;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.mockito.Mock;
+import org.mockito.runners.MockitoJUnitRunner;
+
+import javax.jcr.Node;
+import javax.jcr.nodetype.NodeType;
+
+import static io.neba.core.util.ResourceTypeSignature.signatureOf;
+import static java.util.Collections.singleton;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.*;
+
+/**
+ * @author Olaf Otto
+ */
+@RunWith(MockitoJUnitRunner.class)
+public class NodeTypeHierarchyGraphTest {
+    @Mock
+    private Resource resource;
+    @Mock
+    private Node node;
+
+    private NodeType primaryType;
+    private String[] hierarchy;
+
+    private NodeTypeHierarchyGraph testee = new NodeTypeHierarchyGraph();
+
+    @Before
+    public void setUp() throws Exception {
+        NodeType base = mockNodeType("nt:base");
+        NodeType mixin = mockNodeType("mix:junit", base);
+        this.primaryType = mockNodeType("junit:Type", base);
+
+        doReturn("junit/type").when(this.resource).getResourceType();
+        doReturn(this.node).when(this.resource).adaptTo(Node.class);
+        doReturn(this.primaryType).when(this.node).getPrimaryNodeType();
+        doReturn(new NodeType[]{mixin}).when(this.node).getMixinNodeTypes();
+    }
+
+    @Test
+    public void testHierarchyIsLinearizedWithoutDuplicates() throws Exception {
+        resolveHierarchy();
+        assertHierarchyIs("junit:Type", "mix:junit", "nt:base");
+    }
+
+    @Test
+    public void testHierarchyIsResolvedOncePerTypeCombination() throws Exception {
+        resolveHierarchy();
+        resolveHierarchy();
+
+        Resource other = mock(Resource.class);
+        doReturn("junit/other/type").when(other).getResourceType();
+        doReturn(this.node).when(other).adaptTo(Node.class);
+        this.hierarchy = this.testee.hierarchyOf(signatureOf(other), other);
+
+        verify(this.primaryType, times(1)).getDeclaredSupertypes();
+        assertHierarchyIs("junit:Type", "mix:junit", "nt:base");
+        assertThat(this.testee.size()).isEqualTo(1);
+    }
+
+    @Test
+    public void testInvalidationRemovesHierarchiesContainingTheChangedType() throws Exception {
+        resolveHierarchy();
+
+        this.testee.invalidate(singleton("mix:junit"));
+
+        assertThat(this.testee.size()).isEqualTo(0);
+        resolveHierarchy();
+        verify(this.primaryType, times(2)).getDeclaredSupertypes();
+    }
+
+    @Test
+    public void testInvalidationRetainsUnrelatedHierarchies() throws Exception {
+        resolveHierarchy();
+
+        this.testee.invalidate(singleton("mix:other"));
+
+        assertThat(this.testee.size()).isEqualTo(1);
+    }
+
+    @Test
+    public void testClearRemovesAllHierarchies() throws Exception {
+        resolveHierarchy();
+
+        this.testee.clear();
+
+        assertThat(this.testee.size()).isEqualTo(0);
+    }
+
+    @Test
+    public void testSyntheticResourcesHaveNoNodeTypeHierarchy() throws Exception {
+        Resource synthetic = mock(SyntheticResource.class);
+        doReturn("junit/synthetic").when(synthetic).getResourceType();
+
+        this.hierarchy = this.testee.hierarchyOf(signatureOf(synthetic), synthetic);
+
+        assertHierarchyIs();
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testSignatureMustNotBeNull() throws Exception {
+        this.testee.hierarchyOf((ResourceTypeSignature) null, this.resource);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testResourceMustNotBeNull() throws Exception {
+        this.testee.hierarchyOf(signatureOf(this.resource), null);
+    }
+
+    private void resolveHierarchy() {
+        this.hierarchy = this.testee.hierarchyOf(signatureOf(this.resource), this.resource);
+    }
+
+    private void assertHierarchyIs(String... types) {
+        assertThat(this.hierarchy).containsExactly(types);
+    }
+
+    private NodeType mockNodeType(String name, NodeType... superTypes) {
+        NodeType type = mock(NodeType.class);
+        doReturn(name).when(type).getName();
+        doReturn(superTypes).when(type).getDeclaredSupertypes();
+        return type;
+    }
+}
@@ -0,0 +1,187 @@
+/*
+  Copyright 2013 the original author or authors.
+
+  Licensed under the Apache License, Version 2.0 the "License";
+  you may not use this file except in compliance with the License.
+  You may obtain a copy of the License at
+
+  http://www.apache.org/licenses/LICENSE-2.0
+
+  Unless required by applicable law or agreed to in writing, software
+  distributed under the License is distributed on an "AS IS" BASIS,
+  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+  See the License for the specific language governing permissions and
+  limitations under the License.
+*/
+
+package io.neba.core.resourcemodels.registration;
+
+import io.neba.core.util.ResourceTypeSignature;
+import org.apache.sling.api.resource.Resource;
+import org.apache.sling.api.resource.ResourceResolver;
+import org.apache.sling.api.resource.SyntheticResource;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.mockito.Mock;
+import org.mockito.runners.MockitoJUnitRunner;
+
+import static io.neba.api.Constants.SYNTHETIC_RESOURCETYPE_ROOT;
+import static io.neba.core.util.ResourceTypeSignature.signatureOf;
+import static java.util.Collections.singleton;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.*;
+
+/**
+ * @author Olaf Otto
+ */
+@RunWith(MockitoJUnitRunner.class)
+public class ResourceTypeHierarchyGraphTest {
+    @Mock
+    private ResourceResolver resolver;
+
+    private String[] hierarchy;
+
+    private ResourceTypeHierarchyGraph testee = new ResourceTypeHierarchyGraph();
+
+    @Test
+    public void testResolutionOfSuperTypeChain() throws Exception {
+        withParentType("junit/test1", "junit/test2");
+        withParentType("junit/test2", "junit/test3");
+
+        resolveHierarchyOf("junit/test1");
+
+        assertHierarchyIs("junit/test1", "junit/test2", "junit/test3");
+    }
+
+    @Test
+    public void testChainsAreResolvedOnlyOnce() throws Exception {
+        withParentType("junit/test1", "junit/test2");
+
+        resolveHierarchyOf("junit/test1");
+        resolveHierarchyOf("junit/test1");
+        resolveHierarchyOf("junit/test2");
+
+        verify(this.resolver, times(1)).getParentResourceType("junit/test1");
+        verify(this.resolver, times(1)).getParentResourceType("junit/test2");
+        assertHierarchyIs("junit/test2");
+    }
+
+    @Test
+    public void testKnownSuperTypeChainsAreReused() throws Exception {
+        withParentType("junit/test2", "junit/test3");
+        resolveHierarchyOf("junit/test2");
+
+        withParentType("junit/test1", "junit/test2");
+        resolveHierarchyOf("junit/test1");
+
+        verify(this.resolver, times(1)).getParentResourceType("junit/test2");
+        assertHierarchyIs("junit/test1", "junit/test2", "junit/test3");
+    }
+
+    @Test
+    public void testCyclicHierarchiesAreTerminated() throws Exception {
+        withParentType("junit/test1", "junit/test2");
+        withParentType("junit/test2", "junit/test1");
+
+        resolveHierarchyOf("junit/test1");
+
+        assertHierarchyIs("junit/test1", "junit/test2");
+    }
+
+    @Test
+    public void testInvalidationRemovesChainsContainingTheChangedType() throws Exception {
+        withParentType("junit/test1", "junit/test2");
+        withParentType("junit/test2", "junit/test3");
+        resolveHierarchyOf("junit/test1");
+        long version = this.testee.getVersion();
+
+        withParentType("junit/test2", "junit/other");
+        this.testee.invalidate(singleton("junit/test2"));
+        resolveHierarchyOf("junit/test1");
+
+        assertHierarchyIs("junit/test1", "junit/test2", "junit/other");
+        assertThat(this.testee.getVersion()).isGreaterThan(version);
+    }
+
+    @Test
+    public void testInvalidationRetainsUnrelatedChains() throws Exception {
+        withParentType("junit/test1", "junit/test2");
+        withParentType("junit/other", "junit/test3");
+        resolveHierarchyOf("junit/test1");
+        resolveHierarchyOf("junit/other");
+
+        this.testee.invalidate(singleton("junit/test2"));
+
+        assertThat(this.testee.size()).isEqualTo(2);
+    }
+
+    @Test
+    public void testClearRemovesAllChains() throws Exception {
+        withParentType("junit/test1", "junit/test2");
+        resolveHierarchyOf("junit/test1");
+
+        this.testee.clear();
+
+        assertThat(this.testee.size()).isEqualTo(0);
+    }
+
+    @Test
+    public void testExplicitResourceSuperTypeOfSignatureTakesPrecedence() throws Exception {
+        withParentType("junit/test1", "junit/test2");
+        withParentType("junit/explicit", "junit/test3");
+
+        resolveHierarchyOf(signatureOf(resource("junit/test1", "junit/explicit")));
+
+        assertHierarchyIs("junit/test1", "junit/explicit", "junit/test3");
+    }
+
+    @Test
+    public void testSyntheticResourcesHaveSyntheticTypeRoot() throws Exception {
+        withParentType("junit/test1", "junit/test2");
+
+        Resource resource = mock(SyntheticResource.class);
+        doReturn("junit/test1").when(resource).getResourceType();
+
+        resolveHierarchyOf(signatureOf(resource));
+
+        assertHierarchyIs("junit/test1", "junit/test2", SYNTHETIC_RESOURCETYPE_ROOT);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testResourceTypeMustNotBeNull() throws Exception {
+        this.testee.hierarchyOf((String) null, this.resolver);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testSignatureMustNotBeNull() throws Exception {
+        this.testee.hierarchyOf((ResourceTypeSignature) null, this.resolver);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testInvalidatedTypesMustNotBeNull() throws Exception {
+        this.testee.invalidate(null);
+    }
+
+    private Resource resource(String resourceType, String resourceSuperType) {
+        Resource resource = mock(Resource.class);
+        doReturn(resourceType).when(resource).getResourceType();
+        doReturn(resourceSuperType).when(resource).getResourceSuperType();
+        return resource;
+    }
+
+    private void resolveHierarchyOf(ResourceTypeSignature signature) {
+        this.hierarchy = this.testee.hierarchyOf(signature, this.resolver);
+    }
+
+    private void resolveHierarchyOf(String resourceType) {
+        this.hierarchy = this.testee.hierarchyOf(resourceType, this.resolver);
+    }
+
+    private void assertHierarchyIs(String... types) {
+        assertThat(this.hierarchy).containsExactly(types);
+    }
+
+    private void withParentType(String resourceType, String parentType) {
+        doReturn(parentType).when(this.resolver).getParentResourceType(resourceType);
+    }
+}
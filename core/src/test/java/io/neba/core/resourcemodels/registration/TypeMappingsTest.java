@@ -0,0 +1,143 @@
+/*
+  Copyright 2013 the original author or authors.
+
+  Licensed under the Apache License, Version 2.0 the "License";
+  you may not use this file except in compliance with the License.
+  You may obtain a copy of the License at
+
+  http://www.apache.org/licenses/LICENSE-2.0
+
+  Unless required by applicable law or agreed to in writing, software
+  distributed under the License is distributed on an "AS IS" BASIS,
+  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+  See the License for the specific language governing permissions and
+  limitations under the License.
+*/
+
+package io.neba.core.resourcemodels.registration;
+
+import io.neba.core.util.OsgiBeanSource;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.mockito.Mock;
+import org.mockito.runners.MockitoJUnitRunner;
+
+import java.io.Serializable;
+import java.util.HashSet;
+import java.util.Set;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.doReturn;
+
+/**
+ * @author Olaf Otto
+ */
+@RunWith(MockitoJUnitRunner.class)
+public class TypeMappingsTest {
+    @Mock
+    private OsgiBeanSource<?> source1;
+    @Mock
+    private OsgiBeanSource<?> source2;
+
+    private TypeMappings testee = TypeMappings.EMPTY;
+
+    @Before
+    public void setUp() throws Exception {
+        doReturn(String.class).when(this.source1).getBeanType();
+        doReturn("beanOne").when(this.source1).getBeanName();
+        doReturn(Integer.class).when(this.source2).getBeanType();
+        doReturn("beanTwo").when(this.source2).getBeanName();
+    }
+
+    @Test
+    public void testLookupResultsAreIndexedByAssignableTypes() throws Exception {
+        add(this.source1, "junit/type1");
+        add(this.source2, "junit/type1");
+
+        assertThat(this.testee.lookupResultsOf("junit/type1", String.class)).extracting("source").containsExactly(this.source1);
+        assertThat(this.testee.lookupResultsOf("junit/type1", CharSequence.class)).extracting("source").containsExactly(this.source1);
+        assertThat(this.testee.lookupResultsOf("junit/type1", Number.class)).extracting("source").containsExactly(this.source2);
+        assertThat(this.testee.lookupResultsOf("junit/type1", Serializable.class)).extracting("source").containsExactly(this.source1, this.source2);
+        assertThat(this.testee.lookupResultsOf("junit/type1", Long.class)).isEmpty();
+        assertThat(this.testee.lookupResultsOf("junit/unknown", String.class)).isEmpty();
+    }
+
+    @Test
+    public void testLookupResultsAreIndexedByBeanName() throws Exception {
+        add(this.source1, "junit/type1");
+        add(this.source2, "junit/type1");
+
+        assertThat(this.testee.lookupResultsOf("junit/type1", "beanTwo")).extracting("source").containsExactly(this.source2);
+        assertThat(this.testee.lookupResultsOf("junit/type1", "unknownBean")).isEmpty();
+    }
+
+    @Test
+    public void testIndexesAreUpdatedWhenSourcesAreRemoved() throws Exception {
+        add(this.source1, "junit/type1");
+        add(this.source2, "junit/type1");
+
+        this.testee = this.testee.retainAll(source -> source != this.source1, new HashSet<>());
+
+        assertThat(this.testee.lookupResultsOf("junit/type1", CharSequence.class)).isEmpty();
+        assertThat(this.testee.lookupResultsOf("junit/type1", "beanOne")).isEmpty();
+        assertThat(this.testee.lookupResultsOf("junit/type1", Serializable.class)).extracting("source").containsExactly(this.source2);
+    }
+
+    @Test
+    public void testAddedSourcesAreProvidedAsLookupResultsOfTheirTypes() throws Exception {
+        add(this.source1, "junit/type1", "junit/type2");
+        add(this.source2, "junit/type1");
+
+        assertThat(this.testee.lookupResultsOf("junit/type1")).extracting("source").containsExactly(this.source1, this.source2);
+        assertThat(this.testee.lookupResultsOf("junit/type1")).extracting("resourceType").containsOnly("junit/type1");
+        assertThat(this.testee.lookupResultsOf("junit/type2")).extracting("source").containsExactly(this.source1);
+        assertThat(this.testee.lookupResultsOf("junit/unknown")).isEmpty();
+    }
+
+    @Test
+    public void testSourcesAreOnlyAddedOncePerType() throws Exception {
+        add(this.source1, "junit/type1");
+        add(this.source1, "junit/type1");
+
+        assertThat(this.testee.lookupResultsOf("junit/type1")).hasSize(1);
+    }
+
+    @Test
+    public void testModificationsDoNotAlterPreviousSnapshots() throws Exception {
+        add(this.source1, "junit/type1");
+        TypeMappings snapshot = this.testee;
+
+        add(this.source2, "junit/type1");
+
+        assertThat(snapshot.lookupResultsOf("junit/type1")).hasSize(1);
+    }
+
+    @Test
+    public void testRetainingSourcesReportsChangedTypes() throws Exception {
+        add(this.source1, "junit/type1", "junit/type2");
+        add(this.source2, "junit/type3");
+
+        Set<String> changedTypes = new HashSet<>();
+        this.testee = this.testee.retainAll(source -> source != this.source1, changedTypes);
+
+        assertThat(changedTypes).containsOnly("junit/type1", "junit/type2");
+        assertThat(this.testee.toMap()).containsOnlyKeys("junit/type3");
+        assertThat(this.testee.getSources()).containsExactly(this.source2);
+    }
+
+    @Test
+    public void testRetainingAllSourcesPreservesSnapshot() throws Exception {
+        add(this.source1, "junit/type1");
+        TypeMappings snapshot = this.testee;
+
+        Set<String> changedTypes = new HashSet<>();
+
+        assertThat(this.testee.retainAll(source -> true, changedTypes)).isSameAs(snapshot);
+        assertThat(changedTypes).isEmpty();
+    }
+
+    private void add(OsgiBeanSource<?> source, String... types) {
+        this.testee = this.testee.with(types, source);
+    }
+}
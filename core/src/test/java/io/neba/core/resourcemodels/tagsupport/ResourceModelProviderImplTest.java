@@ -16,6 +16,9 @@
 
 package io.neba.core.resourcemodels.tagsupport;
 
+import io.neba.api.resourcemodels.ResolvedModel;
+import io.neba.core.resourcemodels.adaptation.AmbiguousModelAssociationException;
+import io.neba.core.resourcemodels.caching.RequestScopedResourceModelCache;
 import io.neba.core.resourcemodels.caching.ResourceModelCaches;
 import io.neba.core.resourcemodels.mapping.ResourceToModelMapper;
 import io.neba.core.resourcemodels.registration.LookupResult;
@@ -35,9 +38,14 @@ import org.mockito.stubbing.Answer;
 
 import java.util.HashMap;
 import java.util.LinkedList;
+import java.util.List;
 import java.util.Map;
+import java.util.function.Supplier;
+import java.util.stream.Stream;
 
 import static io.neba.api.Constants.SYNTHETIC_RESOURCETYPE_ROOT;
+import static java.util.Arrays.asList;
+import static java.util.stream.Collectors.toList;
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.mockito.Matchers.any;
 import static org.mockito.Matchers.anyString;
@@ -45,7 +53,9 @@ import static org.mockito.Matchers.eq;
 import static org.mockito.Matchers.isA;
 import static org.mockito.Mockito.doAnswer;
 import static org.mockito.Mockito.doReturn;
+import static org.mockito.Mockito.doThrow;
 import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
 import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
@@ -68,9 +78,13 @@ public class ResourceModelProviderImplTest {
     @Mock
     private ResourceModelCaches caches;
     private Map<Key, Object> testCache = new HashMap<>();
+    @Mock
+    private RequestScopedResourceModelCache requestScopedResourceModelCache;
+    private Map<Object, Object> testRequestCache = new HashMap<>();
 
     private OsgiBeanSource<Object> osgiBeanSource;
     private Object resolutionResult;
+    private List<ResolvedModel<Object>> batchResolutionResult;
     private final Object model = new Object();
 
     @InjectMocks
@@ -79,20 +93,21 @@ public class ResourceModelProviderImplTest {
     @Before
     @SuppressWarnings("unchecked")
     public void prepareContainerAdapter() {
-        Answer storeInCache = invocation -> {
-            testCache.put(buildCacheInvocationKey(invocation), invocation.getArguments()[2]);
-            return null;
-        },
-
-        lookupFromCache = invocation -> testCache.get(buildCacheInvocationKey(invocation));
+        Answer lookupOrMap = invocation -> testCache.computeIfAbsent(
+                buildCacheInvocationKey(invocation),
+                k -> ((Supplier<?>) invocation.getArguments()[2]).get());
 
-        doAnswer(storeInCache)
+        doAnswer(lookupOrMap)
                 .when(this.caches)
-                .store(isA(Resource.class), isA(OsgiBeanSource.class), any());
+                .lookupOrMap(isA(Resource.class), isA(OsgiBeanSource.class), isA(Supplier.class));
 
-        doAnswer(lookupFromCache)
-                .when(this.caches)
-                .lookup(isA(Resource.class), isA(OsgiBeanSource.class));
+        doAnswer(invocation -> this.testRequestCache.get(invocation.getArguments()[0]))
+                .when(this.requestScopedResourceModelCache)
+                .get(any());
+
+        doAnswer(invocation -> this.testRequestCache.put(invocation.getArguments()[2], invocation.getArguments()[1]))
+                .when(this.requestScopedResourceModelCache)
+                .put(any(), any(), any());
 
         doReturn(this.resourceResolver)
                 .when(this.resource)
@@ -245,6 +260,177 @@ public class ResourceModelProviderImplTest {
         verifyResourceIsMappedToModel();
     }
 
+    @Test(expected = IllegalArgumentException.class)
+    public void testBatchResolutionOfMostSpecificModelsRequiresResources() throws Exception {
+        this.testee.resolveMostSpecificModels(null);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testBatchResolutionOfModelsRequiresTargetType() throws Exception {
+        this.testee.resolveModels(asList(this.resource), null);
+    }
+
+    @Test
+    public void testBatchResolutionOfMostSpecificModelsPreservesOrder() throws Exception {
+        Resource first = resourceWithPath("/first");
+        Resource second = resourceWithPath("/second");
+        withMostSpecificModelsForAllResources();
+
+        resolveMostSpecificModels(first, second);
+
+        assertThat(this.batchResolutionResult).hasSize(2);
+        assertThat(this.batchResolutionResult.get(0).getResource()).isSameAs(first);
+        assertThat(this.batchResolutionResult.get(0).getModel()).isSameAs(this.model);
+        assertThat(this.batchResolutionResult.get(1).getResource()).isSameAs(second);
+        assertThat(this.batchResolutionResult.get(1).getModel()).isSameAs(this.model);
+    }
+
+    @Test
+    public void testBatchResolutionLooksUpModelsOncePerTypeSignature() throws Exception {
+        Resource first = resourceWithPath("/first");
+        Resource second = resourceWithPath("/second");
+        withMostSpecificModelsForAllResources();
+
+        resolveMostSpecificModels(first, second);
+
+        verify(this.registry).lookupMostSpecificModels(isA(Resource.class));
+        verify(this.mapper).map(first, this.osgiBeanSource);
+        verify(this.mapper).map(second, this.osgiBeanSource);
+    }
+
+    @Test
+    public void testBatchResolutionIsLazy() throws Exception {
+        withMostSpecificModelsForAllResources();
+
+        Stream<ResolvedModel<Object>> models = this.testee.resolveMostSpecificModels(asList(resourceWithPath("/first")));
+
+        verify(this.registry, never()).lookupMostSpecificModels(isA(Resource.class));
+        assertThat(models.findFirst().get().getModel()).isSameAs(this.model);
+    }
+
+    @Test
+    public void testBatchResolutionOfMostSpecificModelsDisregardsModelsForBaseTypes() throws Exception {
+        withMostSpecificModelsForAllResources();
+        withModelFoundForResourceType("nt:base");
+
+        resolveMostSpecificModels(resourceWithPath("/first"));
+
+        assertThat(this.batchResolutionResult.get(0).isPresent()).isFalse();
+        assertThat(this.batchResolutionResult.get(0).isFailed()).isFalse();
+    }
+
+    @Test
+    public void testBatchResolutionReportsFailuresPerResource() throws Exception {
+        Resource first = resourceWithPath("/first");
+        Resource second = resourceWithPath("/second");
+        withMostSpecificModelsForAllResources();
+        RuntimeException failure = new IllegalStateException("THIS IS AN EXPECTED TEST EXCEPTION");
+        doThrow(failure).when(this.mapper).map(first, this.osgiBeanSource);
+
+        resolveMostSpecificModels(first, null, second);
+
+        assertThat(this.batchResolutionResult).hasSize(3);
+        assertThat(this.batchResolutionResult.get(0).getFailure()).isSameAs(failure);
+        assertThat(this.batchResolutionResult.get(1).getFailure()).isInstanceOf(IllegalArgumentException.class);
+        assertThat(this.batchResolutionResult.get(2).getModel()).isSameAs(this.model);
+    }
+
+    @Test
+    public void testBatchResolutionOfModelsWithTargetType() throws Exception {
+        Resource first = resourceWithPath("/first");
+        doReturn(asList(this.lookupResult))
+                .when(this.registry)
+                .lookupMostSpecificModels(isA(Resource.class), eq(Object.class));
+
+        List<ResolvedModel<Object>> models = this.testee.resolveModels(asList(first, resourceWithPath("/second")), Object.class).collect(toList());
+
+        assertThat(models).extracting(ResolvedModel::getModel).containsExactly(this.model, this.model);
+        verify(this.registry).lookupMostSpecificModels(isA(Resource.class), eq(Object.class));
+    }
+
+    @Test
+    public void testBatchResolutionOfModelsWithTargetTypeReportsAmbiguousModels() throws Exception {
+        doReturn(asList(this.lookupResult, this.lookupResult))
+                .when(this.registry)
+                .lookupMostSpecificModels(isA(Resource.class), eq(Object.class));
+
+        List<ResolvedModel<Object>> models = this.testee.resolveModels(asList(resourceWithPath("/first")), Object.class).collect(toList());
+
+        assertThat(models.get(0).getFailure()).isInstanceOf(AmbiguousModelAssociationException.class);
+    }
+
+    @Test
+    public void testAbsenceOfModelIsRememberedWithinRequest() throws Exception {
+        withResourcePath("/resource/path");
+        withModelFoundForResourceType("nt:unstructured");
+
+        provideMostSpecificModel();
+        assertResolvedModelIsNull();
+        provideMostSpecificModel();
+        assertResolvedModelIsNull();
+
+        verify(this.registry, times(1)).lookupMostSpecificModels(this.resource);
+        assertThat(this.testee.getAbsentModels()).isEqualTo(1);
+        assertThat(this.testee.getAvoidedLookups()).isEqualTo(1);
+    }
+
+    @Test
+    public void testAbsenceOfModelIsRememberedPerLookupVariant() throws Exception {
+        withResourcePath("/resource/path");
+        withModelFoundForResourceType("nt:unstructured");
+
+        provideMostSpecificModel();
+        assertResolvedModelIsNull();
+
+        provideMostSpecificModelIncludingBaseTypes();
+        assertResolvedModelIsReturned();
+        assertThat(this.testee.getAvoidedLookups()).isEqualTo(0);
+    }
+
+    @Test
+    public void testAbsenceOfModelIsNotRememberedForDifferentResourceType() throws Exception {
+        withResourcePath("/resource/path");
+        withResourceType("resource/type/one");
+        doReturn(null).when(this.registry).lookupMostSpecificModels(this.resource);
+
+        provideMostSpecificModel();
+        withResourceType("resource/type/two");
+        provideMostSpecificModel();
+
+        verify(this.registry, times(2)).lookupMostSpecificModels(this.resource);
+        assertThat(this.testee.getAbsentModels()).isEqualTo(2);
+    }
+
+    @Test
+    public void testResolvedModelsAreNotRememberedAsAbsent() throws Exception {
+        withResourcePath("/resource/path");
+
+        provideMostSpecificModel();
+        provideMostSpecificModel();
+
+        assertResolvedModelIsReturned();
+        verify(this.requestScopedResourceModelCache, never()).put(any(), any(), any());
+        assertThat(this.testee.getAbsentModels()).isEqualTo(0);
+    }
+
+    private void resolveMostSpecificModels(Resource... resources) {
+        this.batchResolutionResult = this.testee.resolveMostSpecificModels(asList(resources)).collect(toList());
+    }
+
+    private void withMostSpecificModelsForAllResources() {
+        doReturn(asList(this.lookupResult))
+                .when(this.registry)
+                .lookupMostSpecificModels(isA(Resource.class));
+    }
+
+    private Resource resourceWithPath(String path) {
+        Resource resource = mock(Resource.class);
+        doReturn(path).when(resource).getPath();
+        doReturn("some/type").when(resource).getResourceType();
+        doReturn(this.resourceResolver).when(resource).getResourceResolver();
+        return resource;
+    }
+
     private void withResourceType(String type) {
         doReturn(type).when(this.resource).getResourceType();
     }
@@ -0,0 +1,194 @@
+/*
+  Copyright 2013 the original author or authors.
+
+  Licensed under the Apache License, Version 2.0 the "License";
+  you may not use this file except in compliance with the License.
+  You may obtain a copy of the License at
+
+  http://www.apache.org/licenses/LICENSE-2.0
+
+  Unless required by applicable law or agreed to in writing, software
+  distributed under the License is distributed on an "AS IS" BASIS,
+  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+  See the License for the specific language governing permissions and
+  limitations under the License.
+*/
+
+package io.neba.core.util;
+
+import org.junit.Test;
+
+import java.util.HashMap;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * @author Olaf Otto
+ */
+public class FrequencyAwareCacheTest {
+    private Map<String, String> evictedEntries = new HashMap<>();
+    private FrequencyAwareCache<String, String> testee = new FrequencyAwareCache<>(3, this.evictedEntries::put);
+
+    @Test
+    public void testEntriesAreAdmittedWhileCapacityRemains() throws Exception {
+        assertThat(put("one")).isTrue();
+        assertThat(put("two")).isTrue();
+        assertThat(put("three")).isTrue();
+
+        assertThat(this.testee.size()).isEqualTo(3);
+        assertThat(this.testee.get("two")).isEqualTo("value of two");
+    }
+
+    @Test
+    public void testRarelyUsedEntriesAreNotAdmittedWhenFull() throws Exception {
+        fillWithFrequentlyUsedEntries();
+
+        get("new");
+        assertThat(put("new")).isFalse();
+
+        assertThat(this.testee.peek("new")).isNull();
+        assertThat(this.testee.size()).isEqualTo(3);
+        assertThat(this.testee.getRejections()).isEqualTo(1);
+        assertThat(this.testee.getEvictions()).isEqualTo(0);
+    }
+
+    @Test
+    public void testFrequentlyUsedEntriesEvictTheLeastFrequentlyUsedEntry() throws Exception {
+        fillWithFrequentlyUsedEntries();
+        get("two");
+        get("three");
+
+        get("new", 5);
+        assertThat(put("new")).isTrue();
+
+        assertThat(this.testee.peek("new")).isNotNull();
+        assertThat(this.testee.peek("one")).isNull();
+        assertThat(this.testee.size()).isEqualTo(3);
+        assertThat(this.testee.getEvictions()).isEqualTo(1);
+    }
+
+    @Test
+    public void testEvictedEntriesAreReportedToTheEvictionListener() throws Exception {
+        fillWithFrequentlyUsedEntries();
+        get("two");
+        get("three");
+
+        get("new", 5);
+        put("new");
+
+        assertThat(this.evictedEntries).containsOnlyKeys("one").containsValue("value of one");
+    }
+
+    @Test
+    public void testEntriesEvictedDueToAReducedCapacityAreReportedToTheEvictionListener() throws Exception {
+        fillWithFrequentlyUsedEntries();
+
+        this.testee.setCapacity(1);
+
+        assertThat(this.evictedEntries).containsOnlyKeys("one", "two");
+    }
+
+    @Test
+    public void testRemovedAndClearedEntriesAreNotReportedToTheEvictionListener() throws Exception {
+        fillWithFrequentlyUsedEntries();
+
+        this.testee.remove("one");
+        this.testee.clear();
+
+        assertThat(this.evictedEntries).isEmpty();
+    }
+
+    @Test
+    public void testReplacingAnExistingEntryDoesNotEvict() throws Exception {
+        fillWithFrequentlyUsedEntries();
+
+        this.testee.put("one", "other value");
+
+        assertThat(this.testee.peek("one")).isEqualTo("other value");
+        assertThat(this.testee.getEvictions()).isEqualTo(0);
+    }
+
+    @Test
+    public void testPutIfAbsentRetainsTheExistingEntry() throws Exception {
+        put("one");
+
+        assertThat(this.testee.putIfAbsent("one", "other value")).isEqualTo("value of one");
+        assertThat(this.testee.peek("one")).isEqualTo("value of one");
+    }
+
+    @Test
+    public void testPutIfAbsentAddsMissingEntries() throws Exception {
+        assertThat(this.testee.putIfAbsent("one", "value of one")).isEqualTo("value of one");
+        assertThat(this.testee.peek("one")).isEqualTo("value of one");
+    }
+
+    @Test
+    public void testPutIfAbsentIsSubjectToAdmission() throws Exception {
+        fillWithFrequentlyUsedEntries();
+
+        assertThat(this.testee.putIfAbsent("new", "value of new")).isNull();
+        assertThat(this.testee.peek("new")).isNull();
+        assertThat(this.testee.getRejections()).isEqualTo(1);
+    }
+
+    @Test
+    public void testRemovedEntriesFreeCapacity() throws Exception {
+        fillWithFrequentlyUsedEntries();
+
+        assertThat(this.testee.remove("two")).isEqualTo("value of two");
+        assertThat(put("new")).isTrue();
+    }
+
+    @Test
+    public void testReducingTheCapacityEvictsSurplusEntries() throws Exception {
+        fillWithFrequentlyUsedEntries();
+
+        this.testee.setCapacity(1);
+
+        assertThat(this.testee.size()).isEqualTo(1);
+        assertThat(this.testee.getCapacity()).isEqualTo(1);
+        assertThat(this.testee.getEvictions()).isEqualTo(2);
+    }
+
+    @Test
+    public void testClearRemovesAllEntries() throws Exception {
+        fillWithFrequentlyUsedEntries();
+
+        this.testee.clear();
+
+        assertThat(this.testee.size()).isEqualTo(0);
+        assertThat(this.testee.values()).isEmpty();
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testCapacityMustBePositive() throws Exception {
+        new FrequencyAwareCache<>(0);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testChangedCapacityMustBePositive() throws Exception {
+        this.testee.setCapacity(-1);
+    }
+
+    private void fillWithFrequentlyUsedEntries() {
+        for (String key : new String[]{"one", "two", "three"}) {
+            get(key, 3);
+            put(key);
+        }
+    }
+
+    private void get(String key) {
+        get(key, 1);
+    }
+
+    private void get(String key, int times) {
+        for (int i = 0; i < times; ++i) {
+            this.testee.get(key);
+        }
+    }
+
+    private boolean put(String key) {
+        return this.testee.put(key, "value of " + key);
+    }
+}
@@ -0,0 +1,167 @@
+/*
+  Copyright 2013 the original author or authors.
+
+  Licensed under the Apache License, Version 2.0 the "License";
+  you may not use this file except in compliance with the License.
+  You may obtain a copy of the License at
+
+  http://www.apache.org/licenses/LICENSE-2.0
+
+  Unless required by applicable law or agreed to in writing, software
+  distributed under the License is distributed on an "AS IS" BASIS,
+  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+  See the License for the specific language governing permissions and
+  limitations under the License.
+*/
+
+package io.neba.core.util;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+
+import static java.util.Arrays.asList;
+import static java.util.stream.Collectors.toList;
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * @author Olaf Otto
+ */
+public class LazyListTest {
+    private List<String> adapted;
+    private int loads;
+    private LazyList<String> testee;
+
+    @Before
+    public void setUp() throws Exception {
+        this.adapted = new ArrayList<>();
+    }
+
+    @Test
+    public void testSourceIsLoadedOnceUponFirstAccess() throws Exception {
+        withSource("one", "two");
+        assertThat(this.loads).isEqualTo(0);
+
+        this.testee.iterator().hasNext();
+        this.testee.size();
+
+        assertThat(this.loads).isEqualTo(1);
+    }
+
+    @Test
+    public void testIsEmptyAdaptsAtMostTheFirstElement() throws Exception {
+        withSource("one", "two", "three");
+
+        assertThat(this.testee.isEmpty()).isFalse();
+        assertAdaptedElementsAre("one");
+    }
+
+    @Test
+    public void testEmptySource() throws Exception {
+        withSource();
+
+        assertThat(this.testee.isEmpty()).isTrue();
+        assertThat(this.testee).isEmpty();
+        assertThat(this.testee.iterator().hasNext()).isFalse();
+    }
+
+    @Test
+    public void testIterationAdaptsElementsIncrementally() throws Exception {
+        withSource("one", "two", "three");
+
+        Iterator<String> it = this.testee.iterator();
+        assertThat(it.next()).isEqualTo("ONE");
+        assertAdaptedElementsAre("one");
+        assertThat(it.next()).isEqualTo("TWO");
+        assertAdaptedElementsAre("one", "two");
+    }
+
+    @Test
+    public void testLimitedStreamDoesNotAdaptRemainingElements() throws Exception {
+        withSource("one", "two", "three", "four");
+
+        assertThat(this.testee.stream().limit(2).collect(toList())).containsExactly("ONE", "TWO");
+        assertAdaptedElementsAre("one", "two");
+    }
+
+    @Test
+    public void testSubListOnlyAdaptsElementsUpToTheEndOfTheWindow() throws Exception {
+        withSource("one", "two", "three", "four");
+
+        assertThat(this.testee.subList(1, 3)).containsExactly("TWO", "THREE");
+        assertAdaptedElementsAre("one", "two", "three");
+    }
+
+    @Test(expected = IndexOutOfBoundsException.class)
+    public void testSubListBeyondTheEndOfTheListIsRejected() throws Exception {
+        withSource("one", "two");
+
+        this.testee.subList(0, 3);
+    }
+
+    @Test
+    public void testElementsAdaptingToNullAreSkipped() throws Exception {
+        withSource("one", null, "three");
+
+        assertThat(this.testee.get(1)).isEqualTo("THREE");
+        assertThat(this.testee).containsExactly("ONE", "THREE");
+        assertThat(this.testee.size()).isEqualTo(2);
+    }
+
+    @Test
+    public void testElementsAreAdaptedOnlyOnce() throws Exception {
+        withSource("one", "two");
+
+        assertThat(this.testee).containsExactly("ONE", "TWO");
+        assertThat(this.testee).containsExactly("ONE", "TWO");
+        assertAdaptedElementsAre("one", "two");
+    }
+
+    @Test
+    public void testModificationsApplyToAllElements() throws Exception {
+        withSource("one", "two", "three");
+
+        this.testee.add("four");
+        this.testee.remove(0);
+
+        assertThat(this.testee).containsExactly("TWO", "THREE", "four");
+    }
+
+    @Test
+    public void testRemovalViaIterator() throws Exception {
+        withSource("one", "two", "three");
+
+        Iterator<String> it = this.testee.iterator();
+        it.next();
+        it.next();
+        it.remove();
+
+        assertThat(it.next()).isEqualTo("THREE");
+        assertThat(this.testee).containsExactly("ONE", "THREE");
+    }
+
+    @Test
+    public void testEqualityWithOtherLists() throws Exception {
+        withSource("one", "two");
+
+        assertThat(this.testee).isEqualTo(asList("ONE", "TWO"));
+        assertThat(this.testee.hashCode()).isEqualTo(asList("ONE", "TWO").hashCode());
+    }
+
+    private void assertAdaptedElementsAre(String... elements) {
+        assertThat(this.adapted).containsExactly(elements);
+    }
+
+    private void withSource(String... elements) {
+        this.testee = new LazyList<>(() -> {
+            ++this.loads;
+            return asList(elements).iterator();
+        }, e -> {
+            this.adapted.add(e);
+            return e == null ? null : e.toUpperCase();
+        });
+    }
+}
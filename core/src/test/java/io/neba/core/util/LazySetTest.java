@@ -0,0 +1,141 @@
+/*
+  Copyright 2013 the original author or authors.
+
+  Licensed under the Apache License, Version 2.0 the "License";
+  you may not use this file except in compliance with the License.
+  You may obtain a copy of the License at
+
+  http://www.apache.org/licenses/LICENSE-2.0
+
+  Unless required by applicable law or agreed to in writing, software
+  distributed under the License is distributed on an "AS IS" BASIS,
+  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+  See the License for the specific language governing permissions and
+  limitations under the License.
+*/
+
+package io.neba.core.util;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.List;
+
+import static java.util.Arrays.asList;
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * @author Olaf Otto
+ */
+public class LazySetTest {
+    private List<String> adapted;
+    private int loads;
+    private LazySet<String> testee;
+
+    @Before
+    public void setUp() throws Exception {
+        this.adapted = new ArrayList<>();
+    }
+
+    @Test
+    public void testSourceIsLoadedOnceUponFirstAccess() throws Exception {
+        withSource("one", "two");
+        assertThat(this.loads).isEqualTo(0);
+
+        this.testee.iterator().hasNext();
+        this.testee.size();
+
+        assertThat(this.loads).isEqualTo(1);
+    }
+
+    @Test
+    public void testIsEmptyAdaptsAtMostTheFirstElement() throws Exception {
+        withSource("one", "two", "three");
+
+        assertThat(this.testee.isEmpty()).isFalse();
+        assertAdaptedElementsAre("one");
+    }
+
+    @Test
+    public void testEmptySource() throws Exception {
+        withSource();
+
+        assertThat(this.testee.isEmpty()).isTrue();
+        assertThat(this.testee.iterator().hasNext()).isFalse();
+    }
+
+    @Test
+    public void testContainsAdaptsElementsUntilTheElementIsFound() throws Exception {
+        withSource("one", "two", "three");
+
+        assertThat(this.testee.contains("TWO")).isTrue();
+        assertAdaptedElementsAre("one", "two");
+        assertThat(this.testee.contains("FOUR")).isFalse();
+        assertAdaptedElementsAre("one", "two", "three");
+    }
+
+    @Test
+    public void testIterationAdaptsElementsIncrementally() throws Exception {
+        withSource("one", "two", "three");
+
+        Iterator<String> it = this.testee.iterator();
+        assertThat(it.next()).isEqualTo("ONE");
+        assertAdaptedElementsAre("one");
+    }
+
+    @Test
+    public void testDuplicateAndNullElementsAreSkippedAndOrderIsRetained() throws Exception {
+        withSource("two", "one", null, "TWO", "three");
+
+        assertThat(this.testee).containsExactly("TWO", "ONE", "THREE");
+        assertThat(this.testee.size()).isEqualTo(3);
+    }
+
+    @Test
+    public void testModificationsApplyToAllElements() throws Exception {
+        withSource("one", "two");
+
+        assertThat(this.testee.add("ONE")).isFalse();
+        assertThat(this.testee.add("three")).isTrue();
+        assertThat(this.testee.remove("TWO")).isTrue();
+
+        assertThat(this.testee).containsExactly("ONE", "three");
+    }
+
+    @Test
+    public void testRemovalViaIterator() throws Exception {
+        withSource("one", "two", "three");
+
+        Iterator<String> it = this.testee.iterator();
+        it.next();
+        it.remove();
+
+        assertThat(it.next()).isEqualTo("TWO");
+        assertThat(this.testee).containsExactly("TWO", "THREE");
+        assertThat(this.testee.contains("ONE")).isFalse();
+    }
+
+    @Test
+    public void testEqualityWithOtherSets() throws Exception {
+        withSource("one", "two");
+
+        assertThat(this.testee).isEqualTo(new HashSet<>(asList("ONE", "TWO")));
+    }
+
+    private void assertAdaptedElementsAre(String... elements) {
+        assertThat(this.adapted).containsExactly(elements);
+    }
+
+    private void withSource(String... elements) {
+        this.testee = new LazySet<>(() -> {
+            ++this.loads;
+            return asList(elements).iterator();
+        }, e -> {
+            this.adapted.add(e);
+            return e == null ? null : e.toUpperCase();
+        });
+    }
+}
@@ -24,6 +24,8 @@ import org.mockito.runners.MockitoJUnitRunner;
 
 import javax.jcr.Node;
 import javax.jcr.nodetype.NodeType;
+import java.util.ArrayList;
+import java.util.List;
 
 import static io.neba.core.util.NodeTypeHierarchyIterator.typeHierarchyOf;
 import static org.assertj.core.api.Assertions.assertThat;
@@ -68,6 +70,23 @@ public class NodeTypeHierarchyIteratorTest {
         assertThat(it.hasNext()).isFalse();
     }
     
+    /**
+     * Types reachable via multiple paths, such as nt:base, must only be provided once.
+     */
+    @Test
+    public void testTypesReachableViaMultiplePathsAreProvidedOnce() throws Exception {
+        NodeType base = mockNodeType("nt:base");
+        NodeType mixin = this.node.getMixinNodeTypes()[0];
+        NodeType superType = this.node.getPrimaryNodeType().getDeclaredSupertypes()[0];
+        when(mixin.getDeclaredSupertypes()).thenReturn(new NodeType[]{base});
+        when(superType.getDeclaredSupertypes()).thenReturn(new NodeType[]{base, mixin});
+
+        List<String> types = new ArrayList<>();
+        typeHierarchyOf(this.node).forEachRemaining(types::add);
+
+        assertThat(types).containsExactly("primaryType", "mixin1", "mixin2", "superType1", "superType2", "nt:base");
+    }
+
     @Test(expected = UnsupportedOperationException.class)
     public void testIteratorModification() throws Exception {
         NodeTypeHierarchyIterator it = typeHierarchyOf(this.node);
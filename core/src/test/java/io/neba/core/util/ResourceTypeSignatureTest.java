@@ -0,0 +1,201 @@
+/**
+ * Copyright 2013 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 the "License";
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+**/
+
+package io.neba.core.util;
+
+import org.apache.sling.api.resource.Resource;
+import org.apache.sling.api.resource.ResourceResolver;
+import org.apache.sling.api.resource.SyntheticResource;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.mockito.Mock;
+import org.mockito.runners.MockitoJUnitRunner;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.web.context.request.ServletRequestAttributes;
+
+import javax.jcr.Node;
+import javax.jcr.nodetype.NodeType;
+
+import static io.neba.core.util.ResourceTypeSignature.signatureOf;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.*;
+import static org.springframework.web.context.request.RequestContextHolder.resetRequestAttributes;
+import static org.springframework.web.context.request.RequestContextHolder.setRequestAttributes;
+
+/**
+ * @author Olaf Otto
+ */
+@RunWith(MockitoJUnitRunner.class)
+public class ResourceTypeSignatureTest {
+    @Mock
+    private Resource resource;
+    @Mock
+    private ResourceResolver resolver;
+    @Mock
+    private Node node;
+    @Mock
+    private NodeType primaryType;
+
+    private ResourceTypeSignature signature;
+
+    @Before
+    public void setUp() throws Exception {
+        doReturn("/junit/test").when(this.resource).getPath();
+        doReturn("junit/test/type").when(this.resource).getResourceType();
+        doReturn(this.resolver).when(this.resource).getResourceResolver();
+        doReturn(this.node).when(this.resource).adaptTo(Node.class);
+        doReturn(this.primaryType).when(this.node).getPrimaryNodeType();
+        doReturn(new NodeType[0]).when(this.node).getMixinNodeTypes();
+        doReturn("nt:unstructured").when(this.primaryType).getName();
+    }
+
+    @After
+    public void tearDown() {
+        resetRequestAttributes();
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testNullResourceIsNotAllowed() throws Exception {
+        signatureOf(null);
+    }
+
+    @Test
+    public void testSignatureContainsResourceAndNodeTypes() throws Exception {
+        withMixins("mix:versionable", "mix:lockable");
+
+        computeSignature();
+
+        assertThat(this.signature.getResourceType()).isEqualTo("junit/test/type");
+        assertThat(this.signature.getPrimaryType()).isEqualTo("nt:unstructured");
+        assertThat(this.signature.getMixinTypes()).containsExactly("mix:lockable", "mix:versionable");
+        assertThat(this.signature.isNode()).isTrue();
+        assertThat(this.signature.isSynthetic()).isFalse();
+        assertThat(this.signature.getHierarchyRootType()).isEqualTo("junit/test/type");
+    }
+
+    @Test
+    public void testSignaturesAreInterned() throws Exception {
+        ResourceTypeSignature first = signatureOf(this.resource);
+        ResourceTypeSignature second = signatureOf(this.resource);
+
+        assertThat(first).isSameAs(second);
+    }
+
+    @Test
+    public void testSignatureIsComputedOncePerRequestAndPath() throws Exception {
+        withRequest();
+
+        computeSignature();
+        computeSignature();
+
+        verify(this.resource, times(1)).adaptTo(Node.class);
+    }
+
+    @Test
+    public void testSignatureIsComputedForEachLookupOutsideOfRequests() throws Exception {
+        computeSignature();
+        computeSignature();
+
+        verify(this.resource, times(2)).adaptTo(Node.class);
+    }
+
+    @Test
+    public void testChangedResourceTypeAtSamePathIsDetectedWithinRequest() throws Exception {
+        withRequest();
+
+        computeSignature();
+        doReturn("junit/other/type").when(this.resource).getResourceType();
+        computeSignature();
+
+        assertThat(this.signature.getResourceType()).isEqualTo("junit/other/type");
+    }
+
+    @Test
+    public void testChangedResourceSuperTypeAtSamePathIsDetectedWithinRequest() throws Exception {
+        withRequest();
+
+        computeSignature();
+        doReturn("junit/super/type").when(this.resource).getResourceSuperType();
+        computeSignature();
+
+        assertThat(this.signature.getResourceSuperType()).isEqualTo("junit/super/type");
+    }
+
+    @Test
+    public void testChangedMixinsAreDetectedWithinRequestIfResolverHasChanges() throws Exception {
+        withRequest();
+
+        computeSignature();
+        withMixins("mix:versionable");
+        doReturn(true).when(this.resolver).hasChanges();
+        computeSignature();
+
+        assertThat(this.signature.getMixinTypes()).containsExactly("mix:versionable");
+    }
+
+    @Test
+    public void testSignatureIsComputedOncePerResolverWithinRequest() throws Exception {
+        withRequest();
+
+        computeSignature();
+        doReturn(mock(ResourceResolver.class)).when(this.resource).getResourceResolver();
+        computeSignature();
+        computeSignature();
+
+        verify(this.resource, times(2)).adaptTo(Node.class);
+    }
+
+    @Test
+    public void testHierarchyRootOfResourceWithoutResourceTypeIsNull() throws Exception {
+        doReturn("nt:unstructured").when(this.resource).getResourceType();
+
+        computeSignature();
+
+        assertThat(this.signature.getHierarchyRootType()).isNull();
+    }
+
+    @Test
+    public void testSyntheticResourcesAreNotAdaptedToNodes() throws Exception {
+        Resource synthetic = mock(SyntheticResource.class);
+        doReturn("/junit/synthetic").when(synthetic).getPath();
+        doReturn("junit/synthetic/type").when(synthetic).getResourceType();
+
+        this.signature = signatureOf(synthetic);
+
+        verify(synthetic, never()).adaptTo(Node.class);
+        assertThat(this.signature.isSynthetic()).isTrue();
+        assertThat(this.signature.isNode()).isFalse();
+    }
+
+    private void withMixins(String... names) throws Exception {
+        NodeType[] mixins = new NodeType[names.length];
+        for (int i = 0; i < names.length; ++i) {
+            mixins[i] = mock(NodeType.class);
+            doReturn(names[i]).when(mixins[i]).getName();
+        }
+        doReturn(mixins).when(this.node).getMixinNodeTypes();
+    }
+
+    private void withRequest() {
+        setRequestAttributes(new ServletRequestAttributes(new MockHttpServletRequest()));
+    }
+
+    private void computeSignature() {
+        this.signature = signatureOf(this.resource);
+    }
+}
@@ -0,0 +1,178 @@
+/*
+  Copyright 2013 the original author or authors.
+
+  Licensed under the Apache License, Version 2.0 the "License";
+  you may not use this file except in compliance with the License.
+  You may obtain a copy of the License at
+
+  http://www.apache.org/licenses/LICENSE-2.0
+
+  Unless required by applicable law or agreed to in writing, software
+  distributed under the License is distributed on an "AS IS" BASIS,
+  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+  See the License for the specific language governing permissions and
+  limitations under the License.
+*/
+
+package io.neba.core.web;
+
+import io.neba.api.resourcemodels.RequestContext;
+import io.neba.core.resourcemodels.caching.RequestScopedResourceModelCache;
+import io.neba.core.resourcemodels.mapping.NestedMappingSupport;
+import io.neba.core.util.ThreadContextSnapshot;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.runners.MockitoJUnitRunner;
+import org.springframework.web.context.request.RequestAttributes;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+
+import static java.util.concurrent.Executors.newSingleThreadExecutor;
+import static java.util.concurrent.TimeUnit.SECONDS;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.fail;
+import static org.mockito.Mockito.doReturn;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+import static org.springframework.context.i18n.LocaleContextHolder.getLocale;
+import static org.springframework.context.i18n.LocaleContextHolder.setLocale;
+import static org.springframework.web.context.request.RequestContextHolder.getRequestAttributes;
+import static org.springframework.web.context.request.RequestContextHolder.setRequestAttributes;
+
+/**
+ * @author Olaf Otto
+ */
+@RunWith(MockitoJUnitRunner.class)
+public class RequestContextProviderImplTest {
+    @Mock
+    private RequestScopedResourceModelCache requestScopedResourceModelCache;
+    @Mock
+    private NestedMappingSupport nestedMappingSupport;
+    @Mock
+    private RequestAttributes requestAttributes;
+
+    private final ExecutorService executorService = newSingleThreadExecutor();
+    private final List<String> events = new ArrayList<>();
+    private RequestContext context;
+
+    @InjectMocks
+    private RequestContextProviderImpl testee;
+
+    @Before
+    public void setUp() throws Exception {
+        doReturn(snapshot("requestState")).when(this.requestScopedResourceModelCache).captureRequestState();
+        doReturn(snapshot("mappingStack")).when(this.nestedMappingSupport).newMappingStack();
+    }
+
+    @After
+    public void tearDown() throws Exception {
+        this.executorService.shutdownNow();
+        setRequestAttributes(null);
+        setLocale(null);
+    }
+
+    @Test
+    public void testCapturedStateIsBoundDuringTaskAndRestoredInReverseOrder() throws Exception {
+        getRequestContext();
+
+        this.context.wrap((Runnable) () -> this.events.add("task")).run();
+
+        assertThat(this.events).containsExactly(
+                "bind requestState", "bind mappingStack",
+                "task",
+                "restore mappingStack", "restore requestState");
+    }
+
+    @Test
+    public void testCapturedStateIsRestoredIfTaskFails() throws Exception {
+        getRequestContext();
+
+        try {
+            this.context.wrap((Runnable) () -> {
+                throw new IllegalStateException("THIS IS AN EXPECTED TEST EXCEPTION");
+            }).run();
+            fail("The exception of the task must be propagated.");
+        } catch (IllegalStateException e) {
+            assertThat(this.events).containsExactly(
+                    "bind requestState", "bind mappingStack",
+                    "restore mappingStack", "restore requestState");
+        }
+    }
+
+    @Test
+    public void testContextWithoutRequestState() throws Exception {
+        doReturn(null).when(this.requestScopedResourceModelCache).captureRequestState();
+        getRequestContext();
+
+        assertThat(this.context.wrap(() -> "result").call()).isEqualTo("result");
+        assertThat(this.events).containsExactly("bind mappingStack", "restore mappingStack");
+    }
+
+    @Test
+    public void testRequestAttributesAndLocaleArePropagatedToOtherThreads() throws Exception {
+        setRequestAttributes(this.requestAttributes);
+        setLocale(Locale.GERMAN);
+        getRequestContext();
+
+        RequestAttributes[] attributesInTask = new RequestAttributes[1];
+        Locale[] localeInTask = new Locale[1];
+        this.executorService.submit(this.context.wrap(() -> {
+            attributesInTask[0] = getRequestAttributes();
+            localeInTask[0] = getLocale();
+        })).get(10, SECONDS);
+
+        assertThat(attributesInTask[0]).isSameAs(this.requestAttributes);
+        assertThat(localeInTask[0]).isEqualTo(Locale.GERMAN);
+        assertThat(this.executorService.submit(() -> getRequestAttributes()).get(10, SECONDS)).isNull();
+    }
+
+    @Test
+    public void testWrappedExecutorRunsTasksWithinContext() throws Exception {
+        Executor executor = mock(Executor.class);
+        getRequestContext();
+
+        this.context.wrap(executor).execute(() -> this.events.add("task"));
+
+        ArgumentCaptor<Runnable> task = ArgumentCaptor.forClass(Runnable.class);
+        verify(executor).execute(task.capture());
+        assertThat(this.events).isEmpty();
+
+        task.getValue().run();
+        assertThat(this.events).containsExactly(
+                "bind requestState", "bind mappingStack",
+                "task",
+                "restore mappingStack", "restore requestState");
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testNullRunnableIsNotAllowed() throws Exception {
+        getRequestContext();
+        this.context.wrap((Runnable) null);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testNullExecutorIsNotAllowed() throws Exception {
+        getRequestContext();
+        this.context.wrap((Executor) null);
+    }
+
+    private void getRequestContext() {
+        this.context = this.testee.getRequestContext();
+    }
+
+    private ThreadContextSnapshot snapshot(String name) {
+        return () -> {
+            this.events.add("bind " + name);
+            return () -> this.events.add("restore " + name);
+        };
+    }
+}